@@ -3,6 +3,9 @@ package examples.common;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
 import org.apache.commons.io.FilenameUtils;
 
@@ -18,16 +21,18 @@ import gurobi.GRBException;
 import language.exceptions.XMDPException;
 import language.mdp.XMDP;
 import language.objectives.CostCriterion;
+import language.objectives.CostFunction;
 import prism.PrismException;
 import solver.gurobiconnector.GRBConnector;
 import solver.gurobiconnector.GRBConnectorSettings;
+import solver.nativeconnector.NativeConnector;
+import solver.nativeconnector.NativeConnectorSettings;
 import solver.prismconnector.PrismConnector;
 import solver.prismconnector.PrismConnectorSettings;
-import solver.prismconnector.ValueEncodingScheme;
+import solver.prismconnector.PrismEnginePool;
 import solver.prismconnector.exceptions.ExplicitModelParsingException;
 import solver.prismconnector.exceptions.PrismConnectorException;
 import solver.prismconnector.exceptions.ResultParsingException;
-import solver.prismconnector.explicitmodel.PrismExplicitModelPointer;
 import solver.prismconnector.explicitmodel.PrismExplicitModelReader;
 import uiconnector.ExplanationWriter;
 
@@ -97,31 +102,85 @@ public class XPlanner {
 		}
 	}
 
-	private PolicyInfo runPlanningTotalCost(XMDP xmdp, PrismConnectorSettings prismConnSettings)
-			throws PrismException, ResultParsingException, XMDPException, IOException {
-		// Use PrismConnector directly to generate optimal policy for a total-cost XMDP
-		PrismConnector prismConnector = new PrismConnector(xmdp, CostCriterion.TOTAL_COST, prismConnSettings);
-		PolicyInfo policyInfo = prismConnector.generateOptimalPolicy();
+	/**
+	 * Run regular planning on multiple problem files that differ only in their cost functions (e.g., different
+	 * preference profiles of the same mission). The explicit model is built only once, from the first problem file,
+	 * and each cost function only re-weights the objective costs of the shared model (see
+	 * {@link NativeConnector#generateOptimalPolicies(List)}).
+	 * 
+	 * @param problemFiles
+	 *            : Problem files that differ only in their cost functions
+	 * @param costCriterion
+	 *            : Cost criterion
+	 * @return Solution policy of each problem file, in the same order
+	 * @throws DSMException
+	 * @throws XMDPException
+	 * @throws ExplicitModelParsingException
+	 * @throws PrismException
+	 * @throws IOException
+	 */
+	public List<PolicyInfo> runPlanning(List<File> problemFiles, CostCriterion costCriterion)
+			throws DSMException, XMDPException, ExplicitModelParsingException, PrismException, IOException {
+		if (problemFiles.isEmpty()) {
+			return new ArrayList<>();
+		}
+
+		File firstProblemFile = problemFiles.get(0);
+		XMDP sharedXMDP = mXMDPLoader.loadXMDP(firstProblemFile);
+		List<CostFunction> costFunctions = new ArrayList<>();
+
+		for (File problemFile : problemFiles) {
+			XMDP xmdp = problemFile == firstProblemFile ? sharedXMDP : mXMDPLoader.loadXMDP(problemFile);
+			if (!hasSameModel(xmdp, sharedXMDP)) {
+				throw new IllegalArgumentException(
+						problemFile.getName() + " differs from " + firstProblemFile.getName() + " not only in cost");
+			}
+			costFunctions.add(xmdp.getCostFunction());
+		}
 
-		// Close down PRISM
-		prismConnector.terminate();
+		// Use PrismConnector to build the explicit model of the shared XMDP in memory, only once
+		PrismConnectorSettings prismConnSettings = createPrismConnectorSettings(firstProblemFile, mOutputDirs);
+		// Close down PRISM -- it is not used for the rest of the batch
+		PrismExplicitModelReader prismExplicitModelReader;
+		try (PrismConnector prismConnector = new PrismConnector(sharedXMDP, costCriterion, prismConnSettings)) {
+			prismExplicitModelReader = prismConnector.buildExplicitModelReader();
+		} finally {
+			PrismEnginePool.getInstance().closeDownIdleEngines();
+		}
 
-		return policyInfo;
+		// NativeConnector re-weights the objective costs of the explicit model for each cost function
+		NativeConnectorSettings nativeConnSettings = new NativeConnectorSettings(prismExplicitModelReader);
+		NativeConnector nativeConnector = new NativeConnector(sharedXMDP, costCriterion, nativeConnSettings);
+		return nativeConnector.generateOptimalPolicies(costFunctions);
+	}
+
+	private static boolean hasSameModel(XMDP xmdp, XMDP otherXMDP) {
+		return xmdp.getStateSpace().equals(otherXMDP.getStateSpace())
+				&& xmdp.getActionSpace().equals(otherXMDP.getActionSpace())
+				&& xmdp.getInitialState().equals(otherXMDP.getInitialState())
+				&& Objects.equals(xmdp.getGoal(), otherXMDP.getGoal())
+				&& xmdp.getTransitionFunction().equals(otherXMDP.getTransitionFunction())
+				&& xmdp.getQSpace().equals(otherXMDP.getQSpace());
+	}
+
+	private PolicyInfo runPlanningTotalCost(XMDP xmdp, PrismConnectorSettings prismConnSettings)
+			throws PrismException, ResultParsingException, XMDPException, IOException {
+		// Use PrismConnector directly to generate optimal policy for a total-cost XMDP, and close down PRISM when done
+		try (PrismConnector prismConnector = new PrismConnector(xmdp, CostCriterion.TOTAL_COST, prismConnSettings)) {
+			return prismConnector.generateOptimalPolicy();
+		}
 	}
 
 	private PolicyInfo runPlanningAverageCost(XMDP xmdp, PrismConnectorSettings prismConnSettings)
 			throws PrismException, XMDPException, IOException, ExplicitModelParsingException, GRBException {
-		// Use PrismConnector to export XMDP to explicit model files
-		PrismConnector prismConnector = new PrismConnector(xmdp, CostCriterion.AVERAGE_COST, prismConnSettings);
-		PrismExplicitModelPointer prismExplicitModelPtr = prismConnector.exportExplicitModelFiles();
-		ValueEncodingScheme encodings = prismConnector.getPrismMDPTranslator().getValueEncodingScheme();
-		PrismExplicitModelReader prismExplicitModelReader = new PrismExplicitModelReader(prismExplicitModelPtr,
-				encodings);
-
+		// Use PrismConnector to build the explicit model of XMDP in memory
 		// Close down PRISM -- before Explainer creates a new PrismConnector
-		prismConnector.terminate();
+		PrismExplicitModelReader prismExplicitModelReader;
+		try (PrismConnector prismConnector = new PrismConnector(xmdp, CostCriterion.AVERAGE_COST, prismConnSettings)) {
+			prismExplicitModelReader = prismConnector.buildExplicitModelReader();
+		}
 
-		// GRBConnector reads from explicit model files, and solves for optimal policy
+		// GRBConnector reads from the explicit model, and solves for optimal policy
 		GRBConnectorSettings grbConnSettings = new GRBConnectorSettings(prismExplicitModelReader);
 		GRBConnector grbConnector = new GRBConnector(xmdp, CostCriterion.AVERAGE_COST, grbConnSettings);
 		return grbConnector.generateOptimalPolicy();
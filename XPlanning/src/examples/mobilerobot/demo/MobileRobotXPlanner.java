@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 
 import examples.common.DSMException;
 import examples.common.IXMDPLoader;
@@ -51,6 +52,11 @@ public class MobileRobotXPlanner {
 		return mXPlanner.runPlanning(missionJsonFile, CostCriterion.TOTAL_COST);
 	}
 
+	public List<PolicyInfo> runPlanning(List<File> missionJsonFiles) throws DSMException, XMDPException,
+			PrismException, IOException, ExplicitModelParsingException {
+		return mXPlanner.runPlanning(missionJsonFiles, CostCriterion.TOTAL_COST);
+	}
+
 	public static void main(String[] args)
 			throws PrismException, IOException, XMDPException, PrismConnectorException, GRBException, DSMException {
 		String missionFilename = args[0];
@@ -1,9 +1,17 @@
 package explanation.analysis;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import gurobi.GRBException;
 import language.domain.metrics.IQFunction;
@@ -25,6 +33,7 @@ public class AlternativeExplorer {
 
 	private GRBConnector mGRBConnector;
 	private DifferenceScaler mDiffScaler;
+	private int mNumThreads;
 
 	/**
 	 * Generate Pareto-optimal alternative policies that are immediate neighbors of the original solution policy. This
@@ -45,8 +54,24 @@ public class AlternativeExplorer {
 	 *            : Difference scaler
 	 */
 	public AlternativeExplorer(GRBConnector grbConnector, DifferenceScaler diffScaler) {
+		this(grbConnector, diffScaler, 1);
+	}
+
+	/**
+	 * Generate Pareto-optimal alternative policies, where the alternatives for different QAs are computed concurrently
+	 * using at most numThreads threads. The resulting set of alternatives is the same as that of the sequential
+	 * exploration.
+	 * 
+	 * @param grbConnector
+	 * @param diffScaler
+	 *            : Difference scaler, or null for immediate-neighbor alternatives
+	 * @param numThreads
+	 *            : Maximum number of threads; 1 for sequential exploration
+	 */
+	public AlternativeExplorer(GRBConnector grbConnector, DifferenceScaler diffScaler, int numThreads) {
 		mDiffScaler = diffScaler;
 		mGRBConnector = grbConnector;
+		mNumThreads = numThreads;
 	}
 
 	/**
@@ -72,6 +97,69 @@ public class AlternativeExplorer {
 			frontier.add(qFunction);
 		}
 
+		if (mNumThreads <= 1) {
+			exploreAlternatives(policyInfo, frontier, null, null, alternatives);
+			return alternatives;
+		}
+
+		// Concurrent exploration:
+		// The constrained problems of different QAs are independent of each other; only the pruning depends on the
+		// order of exploration. Therefore, compute the alternatives of the next QAs to be explored ahead of time -- at
+		// most one per thread, so that little work is wasted on QAs that end up pruned -- and consume them in the same
+		// order as the sequential exploration.
+		Map<IQFunction<?, ?>, Future<PolicyInfo>> pendingAlternatives = new HashMap<>();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(mNumThreads, frontier.size())));
+		try {
+			exploreAlternatives(policyInfo, frontier, executor, pendingAlternatives, alternatives);
+		} finally {
+			// Alternatives of pruned QAs are no longer needed
+			executor.shutdownNow();
+
+			// Wait for the alternatives that are still being computed, so that none of the GRB models of mGRBConnector
+			// is in use after this method returns -- the caller may dispose of them
+			awaitTermination(executor);
+		}
+		return alternatives;
+	}
+
+	private static void awaitTermination(ExecutorService executor) {
+		boolean interrupted = false;
+		while (!executor.isTerminated()) {
+			try {
+				executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			} catch (InterruptedException e) {
+				// The running tasks must still finish before their GRB models can be disposed of
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Explore each QA in the frontier (one at a time, in the iteration order of the frontier), and prune the QAs that
+	 * have been improved as a side effect of the alternatives found.
+	 * 
+	 * @param policyInfo
+	 *            : Original solution policy information
+	 * @param frontier
+	 *            : QAs to be explored
+	 * @param executor
+	 *            : Executor computing the alternatives ahead of time, or null if each alternative is to be computed
+	 *            when its QA is explored
+	 * @param pendingAlternatives
+	 *            : Alternatives being computed by the executor, or null if there is no executor
+	 * @param alternatives
+	 *            : Output parameter of Pareto-optimal alternative policies
+	 * @throws XMDPException
+	 * @throws IOException
+	 * @throws ExplicitModelParsingException
+	 * @throws GRBException
+	 */
+	private void exploreAlternatives(PolicyInfo policyInfo, Set<IQFunction<?, ?>> frontier, ExecutorService executor,
+			Map<IQFunction<?, ?>, Future<PolicyInfo>> pendingAlternatives, Set<PolicyInfo> alternatives)
+			throws XMDPException, IOException, ExplicitModelParsingException, GRBException {
 		// Generate alternatives by improving each QA (one at a time) to the next best value, if exists
 		while (!frontier.isEmpty()) {
 			Iterator<IQFunction<?, ?>> frontierIter = frontier.iterator();
@@ -84,7 +172,13 @@ public class AlternativeExplorer {
 			}
 
 			// Find an alternative policy, if exists
-			PolicyInfo alternativeInfo = getParetoOptimalAlternative(policyInfo, qFunction);
+			PolicyInfo alternativeInfo;
+			if (executor == null) {
+				alternativeInfo = getParetoOptimalAlternative(policyInfo, qFunction);
+			} else {
+				submitAlternatives(policyInfo, qFunction, frontier, executor, pendingAlternatives);
+				alternativeInfo = awaitAlternative(pendingAlternatives.remove(qFunction));
+			}
 
 			// Removed explored QA
 			frontierIter.remove();
@@ -97,7 +191,78 @@ public class AlternativeExplorer {
 				update(frontierIter, policyInfo, alternativeInfo);
 			}
 		}
-		return alternatives;
+	}
+
+	/**
+	 * Submit the alternatives of the next QAs to be explored to the executor, such that at most one alternative per
+	 * thread is pending. Pending alternatives of QAs that have been pruned from the frontier are discarded.
+	 * 
+	 * @param policyInfo
+	 *            : Original solution policy information
+	 * @param nextQFunction
+	 *            : QA to be explored next -- its alternative is always pending after this call
+	 * @param frontier
+	 *            : QAs to be explored
+	 * @param executor
+	 *            : Executor computing the alternatives
+	 * @param pendingAlternatives
+	 *            : Alternatives being computed by the executor
+	 */
+	private void submitAlternatives(PolicyInfo policyInfo, IQFunction<?, ?> nextQFunction,
+			Set<IQFunction<?, ?>> frontier, ExecutorService executor,
+			Map<IQFunction<?, ?>, Future<PolicyInfo>> pendingAlternatives) {
+		Iterator<Map.Entry<IQFunction<?, ?>, Future<PolicyInfo>>> pendingIter = pendingAlternatives.entrySet()
+				.iterator();
+		while (pendingIter.hasNext()) {
+			Map.Entry<IQFunction<?, ?>, Future<PolicyInfo>> entry = pendingIter.next();
+			if (!frontier.contains(entry.getKey())) {
+				entry.getValue().cancel(false);
+				pendingIter.remove();
+			}
+		}
+
+		if (!pendingAlternatives.containsKey(nextQFunction)) {
+			submitAlternative(policyInfo, nextQFunction, executor, pendingAlternatives);
+		}
+
+		for (IQFunction<?, ?> qFunction : frontier) {
+			if (pendingAlternatives.size() >= mNumThreads) {
+				break;
+			}
+			if (!pendingAlternatives.containsKey(qFunction) && !hasZeroAttributeCost(policyInfo, qFunction)) {
+				submitAlternative(policyInfo, qFunction, executor, pendingAlternatives);
+			}
+		}
+	}
+
+	private void submitAlternative(PolicyInfo policyInfo, IQFunction<?, ?> qFunction, ExecutorService executor,
+			Map<IQFunction<?, ?>, Future<PolicyInfo>> pendingAlternatives) {
+		Callable<PolicyInfo> task = () -> getParetoOptimalAlternative(policyInfo, qFunction);
+		pendingAlternatives.put(qFunction, executor.submit(task));
+	}
+
+	private PolicyInfo awaitAlternative(Future<PolicyInfo> pendingAlternative)
+			throws XMDPException, IOException, ExplicitModelParsingException, GRBException {
+		try {
+			return pendingAlternative.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while computing alternative policy", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof XMDPException) {
+				throw (XMDPException) cause;
+			} else if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof ExplicitModelParsingException) {
+				throw (ExplicitModelParsingException) cause;
+			} else if (cause instanceof GRBException) {
+				throw (GRBException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
 	}
 
 	/**
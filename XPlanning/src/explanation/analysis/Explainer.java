@@ -15,12 +15,12 @@ import language.policy.Policy;
 import prism.PrismException;
 import solver.gurobiconnector.GRBConnector;
 import solver.gurobiconnector.GRBConnectorSettings;
+import solver.prismconnector.PolicyEvaluationCache;
 import solver.prismconnector.PrismConnector;
 import solver.prismconnector.PrismConnectorSettings;
-import solver.prismconnector.ValueEncodingScheme;
+import solver.prismconnector.PrismEnginePool;
 import solver.prismconnector.exceptions.ExplicitModelParsingException;
 import solver.prismconnector.exceptions.ResultParsingException;
-import solver.prismconnector.explicitmodel.PrismExplicitModelPointer;
 import solver.prismconnector.explicitmodel.PrismExplicitModelReader;
 
 public class Explainer {
@@ -28,45 +28,63 @@ public class Explainer {
 	public static final double DEFAULT_EQUALITY_TOL = 1e-6;
 
 	private ExplainerSettings mSettings;
+	private PolicyEvaluationCache mPolicyEvalCache;
 
 	public Explainer(ExplainerSettings settings) {
+		this(settings, new PolicyEvaluationCache());
+	}
+
+	/**
+	 * 
+	 * @param settings
+	 *            : Explainer settings
+	 * @param policyEvalCache
+	 *            : Cache of policy evaluations -- can be shared across multiple runs on the same mission
+	 */
+	public Explainer(ExplainerSettings settings, PolicyEvaluationCache policyEvalCache) {
 		mSettings = settings;
+		mPolicyEvalCache = policyEvalCache;
 	}
 
 	public Explanation explain(XMDP xmdp, CostCriterion costCriterion, PolicyInfo policyInfo) throws PrismException,
 			XMDPException, IOException, ExplicitModelParsingException, GRBException, ResultParsingException {
 		// PrismConnector
-		// Create a new PrismConnector to export PRISM explicit model files from the XMDP
+		// Create a new PrismConnector to build the PRISM explicit model of the XMDP in memory
 		// so that GRBConnector can create the corresponding ExplicitMDP
 		PrismConnectorSettings prismConnSettings = mSettings.getPrismConnectorSettings();
-		PrismConnector prismConnector = new PrismConnector(xmdp, costCriterion, prismConnSettings);
-		PrismExplicitModelPointer prismExplicitModelPtr = prismConnector.exportExplicitModelFiles();
-		ValueEncodingScheme encodings = prismConnector.getPrismMDPTranslator().getValueEncodingScheme();
-		PrismExplicitModelReader prismExplicitModelReader = new PrismExplicitModelReader(prismExplicitModelPtr,
-				encodings);
+		Set<Tradeoff> tradeoffs = new HashSet<>();
+		try (PrismConnector prismConnector = new PrismConnector(xmdp, null, costCriterion, prismConnSettings,
+				mPolicyEvalCache)) {
+			PrismExplicitModelReader prismExplicitModelReader = prismConnector.buildExplicitModelReader();
 
-		// GRBConnector
-		// GRBConnector is used in AlternativeExplorer
-		GRBConnectorSettings grbConnSettings = new GRBConnectorSettings(prismExplicitModelReader);
-		GRBConnector grbConnector = new GRBConnector(xmdp, costCriterion, grbConnSettings);
-		AlternativeExplorer altExplorer = new AlternativeExplorer(grbConnector, mSettings.getDifferenceScaler());
-		Set<PolicyInfo> altPolicies = altExplorer.getParetoOptimalAlternatives(policyInfo);
+			// GRBConnector
+			// GRBConnector is used in AlternativeExplorer
+			GRBConnectorSettings grbConnSettings = new GRBConnectorSettings(prismExplicitModelReader);
+			GRBConnector grbConnector = new GRBConnector(xmdp, costCriterion, grbConnSettings);
+			AlternativeExplorer altExplorer = new AlternativeExplorer(grbConnector, mSettings.getDifferenceScaler(),
+					mSettings.getNumExplorationThreads());
+			Set<PolicyInfo> altPolicies;
+			try {
+				altPolicies = altExplorer.getParetoOptimalAlternatives(policyInfo);
+			} finally {
+				grbConnector.dispose();
+			}
 
-		// Temporary solution: policyInfo might not have its event-based QA values computed yet
-		computeEventBasedQAValues(policyInfo, prismConnector);
+			// Temporary solution: policyInfo might not have its event-based QA values computed yet
+			computeEventBasedQAValues(policyInfo, prismConnector);
 
-		Set<Tradeoff> tradeoffs = new HashSet<>();
-		for (PolicyInfo altPolicyInfo : altPolicies) {
-			// Temporary solution: altPolicyInfo might not have its event-based QA values computed yet
-			computeEventBasedQAValues(altPolicyInfo, prismConnector);
+			for (PolicyInfo altPolicyInfo : altPolicies) {
+				// Temporary solution: altPolicyInfo might not have its event-based QA values computed yet
+				computeEventBasedQAValues(altPolicyInfo, prismConnector);
 
-			Tradeoff tradeoff = new Tradeoff(policyInfo, altPolicyInfo, xmdp.getQSpace(), DEFAULT_EQUALITY_TOL);
-			tradeoffs.add(tradeoff);
+				Tradeoff tradeoff = new Tradeoff(policyInfo, altPolicyInfo, xmdp.getQSpace(), DEFAULT_EQUALITY_TOL);
+				tradeoffs.add(tradeoff);
+			}
+		} finally {
+			// Close down PRISM -- the connector has already returned the engine to the pool
+			PrismEnginePool.getInstance().closeDownIdleEngines();
 		}
 
-		// Close down PRISM
-		prismConnector.terminate();
-
 		return new Explanation(policyInfo, tradeoffs);
 	}
 
@@ -11,6 +11,7 @@ public class ExplainerSettings {
 
 	private PrismConnectorSettings mPrismConnectorSettings;
 	private DifferenceScaler mDiffScaler;
+	private int mNumExplorationThreads = 1;
 
 	public ExplainerSettings(PrismConnectorSettings prismConnectorSettings) {
 		mPrismConnectorSettings = prismConnectorSettings;
@@ -28,6 +29,19 @@ public class ExplainerSettings {
 		return mDiffScaler;
 	}
 
+	/**
+	 * 
+	 * @param numExplorationThreads
+	 *            : Number of threads for computing alternative policies concurrently; 1 for sequential exploration
+	 */
+	public void setNumExplorationThreads(int numExplorationThreads) {
+		mNumExplorationThreads = numExplorationThreads;
+	}
+
+	public int getNumExplorationThreads() {
+		return mNumExplorationThreads;
+	}
+
 	@Override
 	public boolean equals(Object obj) {
 		if (obj == this) {
@@ -38,7 +52,8 @@ public class ExplainerSettings {
 		}
 		ExplainerSettings settings = (ExplainerSettings) obj;
 		return settings.mPrismConnectorSettings.equals(mPrismConnectorSettings) && (settings.mDiffScaler == mDiffScaler
-				|| settings.mDiffScaler != null && settings.mDiffScaler.equals(mDiffScaler));
+				|| settings.mDiffScaler != null && settings.mDiffScaler.equals(mDiffScaler))
+				&& settings.mNumExplorationThreads == mNumExplorationThreads;
 	}
 
 	@Override
@@ -48,6 +63,7 @@ public class ExplainerSettings {
 			result = 17;
 			result = 31 * result + mPrismConnectorSettings.hashCode();
 			result = 31 * result + (mDiffScaler == null ? 0 : mDiffScaler.hashCode());
+			result = 31 * result + mNumExplorationThreads;
 			hashCode = result;
 		}
 		return hashCode;
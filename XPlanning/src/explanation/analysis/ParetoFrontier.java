@@ -0,0 +1,100 @@
+package explanation.analysis;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import language.domain.metrics.IQFunction;
+
+/**
+ * {@link ParetoFrontier} is the convex Pareto frontier of the deterministic policies of an XMDP over all of its QAs.
+ * Each vertex is a {@link PolicyInfo}, containing the policy and its QA values, together with the supporting weights:
+ * a weight of each QA such that the policy uniquely minimizes the weighted sum of the QA values.
+ *
+ * @author rsukkerd
+ *
+ */
+public class ParetoFrontier implements Iterable<PolicyInfo> {
+
+	/*
+	 * Cached hashCode -- Effective Java
+	 */
+	private volatile int hashCode;
+
+	private List<PolicyInfo> mVertices = new ArrayList<>();
+	private Map<PolicyInfo, Map<IQFunction<?, ?>, Double>> mSupportingWeights = new HashMap<>();
+	private boolean mComplete;
+
+	/**
+	 *
+	 * @param complete
+	 *            : Whether all vertices are found, or the computation stopped early
+	 */
+	public ParetoFrontier(boolean complete) {
+		mComplete = complete;
+	}
+
+	public void addVertex(PolicyInfo policyInfo, Map<IQFunction<?, ?>, Double> supportingWeights) {
+		mVertices.add(policyInfo);
+		mSupportingWeights.put(policyInfo, supportingWeights);
+	}
+
+	public List<PolicyInfo> getVertices() {
+		return mVertices;
+	}
+
+	/**
+	 *
+	 * @param policyInfo
+	 *            : Vertex of this frontier
+	 * @return Weight of each QA such that the policy of the vertex uniquely minimizes the weighted sum of the QA values
+	 */
+	public Map<IQFunction<?, ?>, Double> getSupportingWeights(PolicyInfo policyInfo) {
+		return mSupportingWeights.get(policyInfo);
+	}
+
+	public int size() {
+		return mVertices.size();
+	}
+
+	public boolean isEmpty() {
+		return mVertices.isEmpty();
+	}
+
+	public boolean isComplete() {
+		return mComplete;
+	}
+
+	@Override
+	public Iterator<PolicyInfo> iterator() {
+		return mVertices.iterator();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		if (!(obj instanceof ParetoFrontier)) {
+			return false;
+		}
+		ParetoFrontier frontier = (ParetoFrontier) obj;
+		return frontier.mVertices.equals(mVertices) && frontier.mSupportingWeights.equals(mSupportingWeights)
+				&& frontier.mComplete == mComplete;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = hashCode;
+		if (result == 0) {
+			result = 17;
+			result = 31 * result + mVertices.hashCode();
+			result = 31 * result + mSupportingWeights.hashCode();
+			result = 31 * result + Boolean.hashCode(mComplete);
+			hashCode = result;
+		}
+		return hashCode;
+	}
+}
@@ -21,6 +21,10 @@ public class PolicyInfo {
 	private double mObjectiveCost;
 	private Map<IQFunction<?, ?>, Double> mScaledQACosts = new HashMap<>();
 
+	// Guaranteed bounds of the objective cost and QA values, only if the policy is evaluated by interval iteration
+	private ValueBounds mObjectiveCostBounds;
+	private Map<IQFunction<?, ?>, ValueBounds> mQAValueBounds = new HashMap<>();
+
 	public PolicyInfo(XMDP xmdp, Policy policy, double objectiveCost) {
 		mXMDP = xmdp;
 		mQuantPolicy = new QuantitativePolicy(policy);
@@ -40,6 +44,14 @@ public class PolicyInfo {
 		mScaledQACosts.put(qFunction, scaledQACost);
 	}
 
+	public void putObjectiveCostBounds(ValueBounds objectiveCostBounds) {
+		mObjectiveCostBounds = objectiveCostBounds;
+	}
+
+	public void putQAValueBounds(IQFunction<?, ?> qFunction, ValueBounds qaValueBounds) {
+		mQAValueBounds.put(qFunction, qaValueBounds);
+	}
+
 	public XMDP getXMDP() {
 		return mXMDP;
 	}
@@ -69,6 +81,24 @@ public class PolicyInfo {
 		return mScaledQACosts.get(qFunction);
 	}
 
+	/**
+	 * 
+	 * @return Guaranteed bounds of the objective cost, or null if the policy is not evaluated by interval iteration
+	 */
+	public ValueBounds getObjectiveCostBounds() {
+		return mObjectiveCostBounds;
+	}
+
+	/**
+	 * 
+	 * @param qFunction
+	 *            : QA function
+	 * @return Guaranteed bounds of the QA value, or null if the policy is not evaluated by interval iteration
+	 */
+	public ValueBounds getQAValueBounds(IQFunction<?, ?> qFunction) {
+		return mQAValueBounds.get(qFunction);
+	}
+
 	@Override
 	public boolean equals(Object obj) {
 		if (obj == this) {
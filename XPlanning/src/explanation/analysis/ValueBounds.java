@@ -0,0 +1,84 @@
+package explanation.analysis;
+
+/**
+ * {@link ValueBounds} is a guaranteed lower and upper bound of a quantity of a policy (e.g., its objective cost or a
+ * QA value), as computed by interval iteration. The exact value of the quantity lies within [lower, upper].
+ *
+ * @author rsukkerd
+ *
+ */
+public class ValueBounds {
+
+	/*
+	 * Cached hashCode -- Effective Java
+	 */
+	private volatile int hashCode;
+
+	private double mLower;
+	private double mUpper;
+
+	public ValueBounds(double lower, double upper) {
+		if (lower > upper) {
+			throw new IllegalArgumentException("Lower bound " + lower + " is greater than upper bound " + upper);
+		}
+		mLower = lower;
+		mUpper = upper;
+	}
+
+	public double getLowerBound() {
+		return mLower;
+	}
+
+	public double getUpperBound() {
+		return mUpper;
+	}
+
+	/**
+	 *
+	 * @return Upper bound - lower bound, which is 0 if both bounds are the same infinity
+	 */
+	public double getWidth() {
+		return mLower == mUpper ? 0 : mUpper - mLower;
+	}
+
+	/**
+	 *
+	 * @return Midpoint of the bounds, which is within half of the width from the exact value
+	 */
+	public double getMidpoint() {
+		return mLower == mUpper ? mLower : mLower + (mUpper - mLower) / 2;
+	}
+
+	public boolean contains(double value) {
+		return mLower <= value && value <= mUpper;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		if (!(obj instanceof ValueBounds)) {
+			return false;
+		}
+		ValueBounds bounds = (ValueBounds) obj;
+		return Double.compare(bounds.mLower, mLower) == 0 && Double.compare(bounds.mUpper, mUpper) == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = hashCode;
+		if (result == 0) {
+			result = 17;
+			result = 31 * result + Double.hashCode(mLower);
+			result = 31 * result + Double.hashCode(mUpper);
+			hashCode = result;
+		}
+		return hashCode;
+	}
+
+	@Override
+	public String toString() {
+		return "[" + mLower + ", " + mUpper + "]";
+	}
+}
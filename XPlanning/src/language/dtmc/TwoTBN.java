@@ -1,15 +1,18 @@
 package language.dtmc;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import language.domain.models.ActionDefinition;
 import language.domain.models.IAction;
 import language.exceptions.EffectClassNotFoundException;
 import language.exceptions.IncompatibleActionException;
 import language.exceptions.StateNotFoundException;
+import language.exceptions.XMDPException;
 import language.mdp.EffectClass;
 import language.mdp.ProbabilisticEffect;
 import language.mdp.StateVarTuple;
@@ -18,6 +21,10 @@ import language.mdp.StateVarTuple;
  * {@link TwoTBN} is a 2-step Temporal Bayesian Network (2TBN) for a particular action type (i.e.,
  * {@link ActionDefinition}).
  * 
+ * A 2TBN induced from a policy (see {@link XDTMC}) is lazy: the probabilistic effects of each state are only induced
+ * on first access. A derived 2TBN shares the induced probabilistic effects of its base 2TBN, for all states in which
+ * the same action is taken.
+ * 
  * @author rsukkerd
  *
  * @param <E>
@@ -30,13 +37,21 @@ public class TwoTBN<E extends IAction> implements Iterable<Entry<StateVarTuple,
 	private volatile int hashCode;
 
 	private ActionDefinition<E> mActionDef;
-	private Map<StateVarTuple, Map<EffectClass, ProbabilisticEffect>> m2TBN = new HashMap<>();
+	private Map<StateVarTuple, Map<EffectClass, ProbabilisticEffect>> m2TBN = new ConcurrentHashMap<>();
 	private Map<StateVarTuple, E> mSubPolicy = new HashMap<>();
 
+	// Inducer of the probabilistic effects of a state on first access, or null if all effects are added explicitly
+	private ProbabilisticEffectsInducer<E> mInducer;
+
 	public TwoTBN(ActionDefinition<E> actionDef) {
 		mActionDef = actionDef;
 	}
 
+	TwoTBN(ActionDefinition<E> actionDef, ProbabilisticEffectsInducer<E> inducer) {
+		mActionDef = actionDef;
+		mInducer = inducer;
+	}
+
 	/**
 	 * Add a probabilistic transition to this 2TBN.
 	 * 
@@ -53,12 +68,67 @@ public class TwoTBN<E extends IAction> implements Iterable<Entry<StateVarTuple,
 		if (!mActionDef.getActions().contains(action)) {
 			throw new IncompatibleActionException(action);
 		}
-		if (!m2TBN.containsKey(state)) {
-			Map<EffectClass, ProbabilisticEffect> probEffects = new HashMap<>();
-			m2TBN.put(state, probEffects);
+		Map<EffectClass, ProbabilisticEffect> probEffects = m2TBN.get(state);
+		if (probEffects == null) {
+			probEffects = new HashMap<>();
 			mSubPolicy.put(state, action);
+		} else {
+			// Copy on write: the probabilistic effects may be shared with a derived 2TBN
+			probEffects = new HashMap<>(probEffects);
+		}
+		probEffects.put(probEffect.getEffectClass(), probEffect);
+		m2TBN.put(state, probEffects);
+		hashCode = 0;
+	}
+
+	/**
+	 * Put a decision into this 2TBN, whose probabilistic effects are induced on first access. If the same decision is
+	 * in a base 2TBN, then the probabilistic effects already induced in the base 2TBN are shared instead.
+	 * 
+	 * @param state
+	 *            : State
+	 * @param action
+	 *            : Action taken in the state
+	 * @param base2TBN
+	 *            : 2TBN of the same action type from which this 2TBN is derived, or null
+	 */
+	void putDecision(StateVarTuple state, E action, TwoTBN<E> base2TBN) {
+		mSubPolicy.put(state, action);
+		m2TBN.remove(state);
+		if (base2TBN != null && action.equals(base2TBN.mSubPolicy.get(state))) {
+			Map<EffectClass, ProbabilisticEffect> baseProbEffects = base2TBN.m2TBN.get(state);
+			if (baseProbEffects != null) {
+				m2TBN.put(state, baseProbEffects);
+			}
+		}
+		hashCode = 0;
+	}
+
+	private Map<EffectClass, ProbabilisticEffect> getProbabilisticEffectsMap(StateVarTuple state)
+			throws XMDPException {
+		Map<EffectClass, ProbabilisticEffect> probEffects = m2TBN.get(state);
+		if (probEffects == null) {
+			E action = mSubPolicy.get(state);
+			if (mInducer == null || action == null) {
+				throw new StateNotFoundException(state);
+			}
+			probEffects = mInducer.induce(state, action);
+			m2TBN.put(state, probEffects);
+		}
+		return probEffects;
+	}
+
+	private void induceAll() {
+		if (mInducer == null) {
+			return;
+		}
+		try {
+			for (StateVarTuple state : mSubPolicy.keySet()) {
+				getProbabilisticEffectsMap(state);
+			}
+		} catch (XMDPException e) {
+			throw new IllegalStateException(e);
 		}
-		m2TBN.get(state).put(probEffect.getEffectClass(), probEffect);
 	}
 
 	public ActionDefinition<E> getActionDefinition() {
@@ -88,18 +158,27 @@ public class TwoTBN<E extends IAction> implements Iterable<Entry<StateVarTuple,
 	 * @param effectClass
 	 *            : An effect class
 	 * @return The probabilistic effect of the given class.
-	 * @throws StateNotFoundException
-	 * @throws EffectClassNotFoundException
+	 * @throws XMDPException
 	 */
 	public ProbabilisticEffect getProbabilisticEffect(StateVarTuple state, EffectClass effectClass)
-			throws StateNotFoundException, EffectClassNotFoundException {
-		if (!m2TBN.containsKey(state)) {
-			throw new StateNotFoundException(state);
-		}
-		if (!m2TBN.get(state).containsKey(effectClass)) {
+			throws XMDPException {
+		Map<EffectClass, ProbabilisticEffect> probEffects = getProbabilisticEffectsMap(state);
+		if (!probEffects.containsKey(effectClass)) {
 			throw new EffectClassNotFoundException(effectClass);
 		}
-		return m2TBN.get(state).get(effectClass);
+		return probEffects.get(effectClass);
+	}
+
+	/**
+	 * Get the probabilistic effects of all effect classes, given a previous state.
+	 * 
+	 * @param state
+	 *            : A tuple of state variables that are sufficient to (probabilistically) determine the next state(s).
+	 * @return The probabilistic effects of all (independent) effect classes of the action taken in the given state.
+	 * @throws XMDPException
+	 */
+	public Collection<ProbabilisticEffect> getProbabilisticEffects(StateVarTuple state) throws XMDPException {
+		return getProbabilisticEffectsMap(state).values();
 	}
 
 	@Override
@@ -116,6 +195,8 @@ public class TwoTBN<E extends IAction> implements Iterable<Entry<StateVarTuple,
 			return false;
 		}
 		TwoTBN<?> tbn = (TwoTBN<?>) obj;
+		induceAll();
+		tbn.induceAll();
 		return tbn.mActionDef.equals(mActionDef) && tbn.m2TBN.equals(m2TBN) && tbn.mSubPolicy.equals(mSubPolicy);
 	}
 
@@ -123,6 +204,7 @@ public class TwoTBN<E extends IAction> implements Iterable<Entry<StateVarTuple,
 	public int hashCode() {
 		int result = hashCode;
 		if (result == 0) {
+			induceAll();
 			result = 17;
 			result = 31 * result + mActionDef.hashCode();
 			result = 31 * result + m2TBN.hashCode();
@@ -131,4 +213,14 @@ public class TwoTBN<E extends IAction> implements Iterable<Entry<StateVarTuple,
 		}
 		return hashCode;
 	}
+
+	/**
+	 * {@link ProbabilisticEffectsInducer} is an interface to a function that induces the probabilistic effects of all
+	 * effect classes of the action taken in a given state.
+	 * 
+	 * @param <E>
+	 */
+	interface ProbabilisticEffectsInducer<E extends IAction> {
+		Map<EffectClass, ProbabilisticEffect> induce(StateVarTuple state, E action) throws XMDPException;
+	}
 }
@@ -10,6 +10,8 @@ import language.domain.models.IAction;
 import language.domain.models.IStateVarValue;
 import language.domain.models.StateVar;
 import language.domain.models.StateVarDefinition;
+import language.dtmc.TwoTBN.ProbabilisticEffectsInducer;
+import language.exceptions.IncompatibleActionException;
 import language.exceptions.XMDPException;
 import language.mdp.Discriminant;
 import language.mdp.DiscriminantClass;
@@ -26,6 +28,10 @@ import language.policy.Policy;
  * {@link XDTMC} is a discrete-time Markov chain induced from a policy and a MDP. It is consists of a 2TBN for each
  * action type.
  * 
+ * The probabilistic effects of each decision are induced lazily, on first access. An XDTMC can also be derived from
+ * an existing XDTMC of the same MDP and a similar policy (see {@link #XDTMC(XDTMC, Policy)}): only the decisions that
+ * differ from the existing XDTMC are induced again.
+ * 
  * @author rsukkerd
  *
  */
@@ -39,75 +45,115 @@ public class XDTMC implements Iterable<TwoTBN<IAction>> {
 	private XMDP mXMDP;
 	private Policy mPolicy;
 	private Map<ActionDefinition<IAction>, TwoTBN<IAction>> mDTMC = new HashMap<>();
+	private ProbabilisticEffectsInducer<IAction> mInducer = this::induceProbabilisticEffects;
 
 	public XDTMC(XMDP xmdp, Policy policy) throws XMDPException {
 		mXMDP = xmdp;
 		mPolicy = policy;
-		induceDTMC(xmdp, policy);
-	}
 
-	private void induceDTMC(XMDP xmdp, Policy policy) throws XMDPException {
 		for (Decision decision : policy) {
-			StateVarTuple predicate = decision.getState();
-			IAction action = decision.getAction();
-			ActionDefinition<IAction> actionDef = xmdp.getActionSpace().getActionDefinition(action);
+			putDecision(decision.getState(), decision.getAction(), null);
+		}
+	}
 
-			if (!mDTMC.containsKey(actionDef)) {
-				TwoTBN<IAction> twoTBN = new TwoTBN<>(actionDef);
-				mDTMC.put(actionDef, twoTBN);
-			}
+	/**
+	 * Derive an XDTMC from an existing XDTMC of the same MDP. All probabilistic effects already induced in the existing
+	 * XDTMC are shared, for the states in which the given policy takes the same actions. Only the decisions that
+	 * differ are induced again, on first access.
+	 * 
+	 * @param baseDTMC
+	 *            : Existing XDTMC of the same MDP, induced from a similar policy
+	 * @param policy
+	 *            : Policy
+	 * @throws XMDPException
+	 */
+	public XDTMC(XDTMC baseDTMC, Policy policy) throws XMDPException {
+		mXMDP = baseDTMC.mXMDP;
+		mPolicy = policy;
 
-			TwoTBN<IAction> twoTBN = mDTMC.get(actionDef);
+		for (Decision decision : policy) {
+			putDecision(decision.getState(), decision.getAction(), baseDTMC);
+		}
+	}
 
-			// Any action that is part of a composite action (i.e., constituent action) has additional effect classes
-			// that are defined in the composite action PSO, but not defined in the individual action PSO.
+	private void putDecision(StateVarTuple state, IAction action, XDTMC baseDTMC) throws XMDPException {
+		ActionDefinition<IAction> actionDef = mXMDP.getActionSpace().getActionDefinition(action);
 
-			// Therefore, when we look up action PSO of a constituent action (e.g., in a policy), we must get both the
-			// individual action PSO (if exists) and the parent composite action PSO -- so that we get all the effect
-			// classes of the constituent action.
+		if (!mDTMC.containsKey(actionDef)) {
+			TwoTBN<IAction> twoTBN = new TwoTBN<>(actionDef, mInducer);
+			mDTMC.put(actionDef, twoTBN);
+		}
 
-			// Need to handle any additional effect classes defined in the parent composite action PSO
-			ActionDefinition<IAction> parentCompActionDef = actionDef.getParentCompositeActionDefinition();
-			if (parentCompActionDef != null) {
-				// This actionDef is a constituent action defn
-				// Obtain the parent composition action PSO
-				FactoredPSO<IAction> parentCompActionPSO = xmdp.getTransitionFunction()
-						.getActionPSO(parentCompActionDef);
+		TwoTBN<IAction> twoTBN = mDTMC.get(actionDef);
+		if (!actionDef.getActions().contains(action)) {
+			throw new IncompatibleActionException(action);
+		}
+		TwoTBN<IAction> base2TBN = baseDTMC == null ? null : baseDTMC.mDTMC.get(actionDef);
+		twoTBN.putDecision(state, action, base2TBN);
+	}
 
-				// Add the tuples <predicate, action, probabilistic effect> of the additional effect classes, defined in
-				// the parent composite action PSO, to the 2TBN
-				induceDTMCHelper(predicate, action, parentCompActionPSO, twoTBN);
-			}
+	/**
+	 * Induce the probabilistic effects of all effect classes of an action taken in a given state.
+	 * 
+	 * @param predicate
+	 *            : State in which the action is taken
+	 * @param action
+	 *            : Action
+	 * @return Mapping from each effect class of the action to its probabilistic effect
+	 * @throws XMDPException
+	 */
+	private Map<EffectClass, ProbabilisticEffect> induceProbabilisticEffects(StateVarTuple predicate, IAction action)
+			throws XMDPException {
+		ActionDefinition<IAction> actionDef = mXMDP.getActionSpace().getActionDefinition(action);
+		Map<EffectClass, ProbabilisticEffect> probEffects = new HashMap<>();
+
+		// Any action that is part of a composite action (i.e., constituent action) has additional effect classes that
+		// are defined in the composite action PSO, but not defined in the individual action PSO.
+
+		// Therefore, when we look up action PSO of a constituent action (e.g., in a policy), we must get both the
+		// individual action PSO (if exists) and the parent composite action PSO -- so that we get all the effect
+		// classes of the constituent action.
+
+		// Need to handle any additional effect classes defined in the parent composite action PSO
+		ActionDefinition<IAction> parentCompActionDef = actionDef.getParentCompositeActionDefinition();
+		if (parentCompActionDef != null) {
+			// This actionDef is a constituent action defn
+			// Obtain the parent composition action PSO
+			FactoredPSO<IAction> parentCompActionPSO = mXMDP.getTransitionFunction().getActionPSO(parentCompActionDef);
+
+			// Add the probabilistic effects of the additional effect classes, defined in the parent composite action
+			// PSO
+			induceProbabilisticEffectsHelper(predicate, action, parentCompActionPSO, probEffects);
+		}
 
-			// Some constituent actions may only have their parent composite action PSOs, and don't have their own
-			// individual action PSOs (e.g., Fly and Tick actions in DART domain).
-			// For such constituent actions, skip the following steps.
+		// Some constituent actions may only have their parent composite action PSOs, and don't have their own
+		// individual action PSOs (e.g., Fly and Tick actions in DART domain).
+		// For such constituent actions, skip the following steps.
 
-			if (xmdp.getTransitionFunction().hasActionPSO(actionDef)) {
-				// This actionDef has its own individual action PSO
-				FactoredPSO<IAction> indivActionPSO = xmdp.getTransitionFunction().getActionPSO(actionDef);
+		if (mXMDP.getTransitionFunction().hasActionPSO(actionDef)) {
+			// This actionDef has its own individual action PSO
+			FactoredPSO<IAction> indivActionPSO = mXMDP.getTransitionFunction().getActionPSO(actionDef);
 
-				// Add the tuples <predicate, action, probabilistic effect> of the effect classes, defined directly in
-				// the individual action PSO, to the 2TBN
-				induceDTMCHelper(predicate, action, indivActionPSO, twoTBN);
-			}
+			// Add the probabilistic effects of the effect classes, defined directly in the individual action PSO
+			induceProbabilisticEffectsHelper(predicate, action, indivActionPSO, probEffects);
 		}
+		return probEffects;
 	}
 
 	/**
-	 * Add <predicate, action, probabilistic effect> tuples to the output 2TBN. The probabilistic effect is constructed
-	 * according to the effect classes defined in the given action PSO.
+	 * Add the probabilistic effects of the effect classes defined in the given action PSO, given a predicate and an
+	 * action.
 	 * 
 	 * @param predicate
 	 * @param action
 	 * @param actionPSO
 	 *            : This can be either: the individual action PSO, or the parent composite action PSO
-	 * @param twoTBN
-	 *            : 2TBN output parameter
+	 * @param probEffects
+	 *            : Probabilistic effects output parameter
 	 * @throws XMDPException
 	 */
-	private void induceDTMCHelper(StateVarTuple predicate, IAction action, FactoredPSO<IAction> actionPSO,
-			TwoTBN<IAction> twoTBN) throws XMDPException {
+	private void induceProbabilisticEffectsHelper(StateVarTuple predicate, IAction action,
+			FactoredPSO<IAction> actionPSO, Map<EffectClass, ProbabilisticEffect> probEffects) throws XMDPException {
 		// These effect classes are either:
 		// - defined directly in the individual action PSO, or
 		// - additional effect classes defined in the parent composite action PSO
@@ -125,7 +171,7 @@ public class XDTMC implements Iterable<TwoTBN<IAction>> {
 			}
 
 			ProbabilisticEffect probEffect = actionDesc.getProbabilisticEffect(discriminant, action);
-			twoTBN.add(predicate, action, probEffect);
+			probEffects.put(probEffect.getEffectClass(), probEffect);
 		}
 	}
 
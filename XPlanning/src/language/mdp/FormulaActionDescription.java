@@ -2,7 +2,9 @@ package language.mdp;
 
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import language.domain.models.ActionDefinition;
 import language.domain.models.IAction;
@@ -20,6 +22,11 @@ import language.exceptions.XMDPException;
  * action description functionally maps a set of mutually exclusive discriminants to the corresponding probabilistic
  * effects.
  * 
+ * The discriminants and the probabilistic effects of each action are memoized: the formula is only evaluated once for
+ * each (action, discriminant). This assumes that the precondition is not modified after this action description is
+ * created. A formula action description can also be precompiled into a {@link TabularActionDescription} (see
+ * {@link #toTabularActionDescription()}).
+ * 
  * @author rsukkerd
  *
  * @param <E>
@@ -37,6 +44,10 @@ public class FormulaActionDescription<E extends IAction> implements IActionDescr
 	private EffectClass mEffectClass;
 	private IProbabilisticTransitionFormula<E> mProbTransFormula;
 
+	// Memoized probabilistic transitions and probabilistic effects of each action
+	private Map<E, Set<ProbabilisticTransition<E>>> mProbTransitions = new ConcurrentHashMap<>();
+	private Map<E, Map<Discriminant, ProbabilisticEffect>> mProbEffects = new ConcurrentHashMap<>();
+
 	public FormulaActionDescription(ActionDefinition<E> actionDefinition, Precondition<E> precondition,
 			DiscriminantClass discriminantClass, EffectClass effectClass,
 			IProbabilisticTransitionFormula<E> transitionFormula) {
@@ -49,6 +60,30 @@ public class FormulaActionDescription<E extends IAction> implements IActionDescr
 
 	@Override
 	public Set<ProbabilisticTransition<E>> getProbabilisticTransitions(E action) throws XMDPException {
+		Set<ProbabilisticTransition<E>> probTransitions = mProbTransitions.get(action);
+		if (probTransitions == null) {
+			probTransitions = buildProbabilisticTransitions(action);
+			mProbTransitions.put(action, probTransitions);
+		}
+		return probTransitions;
+	}
+
+	/**
+	 * Precompile this formula action description into a tabular action description, which maps all discriminants of
+	 * each action to the corresponding probabilistic effects explicitly.
+	 * 
+	 * @return Tabular action description equivalent to this action description, for all applicable discriminants
+	 * @throws XMDPException
+	 */
+	public TabularActionDescription<E> toTabularActionDescription() throws XMDPException {
+		TabularActionDescription<E> tabularActionDesc = new TabularActionDescription<>(mActionDefinition);
+		for (E action : mActionDefinition.getActions()) {
+			tabularActionDesc.putAll(getProbabilisticTransitions(action));
+		}
+		return tabularActionDesc;
+	}
+
+	private Set<ProbabilisticTransition<E>> buildProbabilisticTransitions(E action) throws XMDPException {
 		Set<ProbabilisticTransition<E>> probTransitions = new HashSet<>();
 
 		if (mDiscriminantClass.isEmpty()) {
@@ -67,7 +102,7 @@ public class FormulaActionDescription<E extends IAction> implements IActionDescr
 
 	private ProbabilisticTransition<E> getProbabilisticTransition(Discriminant discriminant, E action)
 			throws XMDPException {
-		ProbabilisticEffect probEffect = mProbTransFormula.formula(discriminant, action);
+		ProbabilisticEffect probEffect = getProbabilisticEffect(discriminant, action);
 		return new ProbabilisticTransition<>(probEffect, discriminant, action);
 	}
 
@@ -144,7 +179,14 @@ public class FormulaActionDescription<E extends IAction> implements IActionDescr
 
 	@Override
 	public ProbabilisticEffect getProbabilisticEffect(Discriminant discriminant, E action) throws XMDPException {
-		return mProbTransFormula.formula(discriminant, action);
+		Map<Discriminant, ProbabilisticEffect> probEffects = mProbEffects.computeIfAbsent(action,
+				a -> new ConcurrentHashMap<>());
+		ProbabilisticEffect probEffect = probEffects.get(discriminant);
+		if (probEffect == null) {
+			probEffect = mProbTransFormula.formula(discriminant, action);
+			probEffects.put(discriminant, probEffect);
+		}
+		return probEffect;
 	}
 
 	@Override
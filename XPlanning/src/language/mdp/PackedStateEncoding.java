@@ -0,0 +1,128 @@
+package language.mdp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import language.domain.models.IStateVarValue;
+import language.domain.models.StateVar;
+import language.domain.models.StateVarDefinition;
+
+/**
+ * {@link PackedStateEncoding} is a compact encoding of the states of a {@link StateSpace}. Each state is packed into a
+ * single long, as a mixed-radix number whose digits are the ordinals of the values of the state variables, in a fixed
+ * variable order.
+ *
+ * This encoding is used to intern states as they are created: all states with the same packed code share a single
+ * immutable {@link StateVarTuple} instance, which is looked up by the packed code without building an intermediate
+ * state.
+ *
+ * @author rsukkerd
+ *
+ */
+public class PackedStateEncoding {
+
+	private List<StateVarDefinition<IStateVarValue>> mStateVarDefs;
+	private Map<StateVarDefinition<? extends IStateVarValue>, Integer> mStateVarIndices = new HashMap<>();
+	private List<Map<IStateVarValue, Integer>> mValueOrdinals = new ArrayList<>();
+	private List<List<StateVar<IStateVarValue>>> mStateVarsByOrdinal = new ArrayList<>();
+	private long[] mRadices;
+	private long[] mStrides;
+
+	// Interned states
+	private Map<Long, StateVarTuple> mInternedStates = new ConcurrentHashMap<>();
+
+	/**
+	 *
+	 * @param orderedStateVarDefs
+	 *            : State variables, in the order of the digits of the packed code (least significant first)
+	 * @param orderedPossibleValues
+	 *            : Possible values of each state variable, in the order of their ordinals
+	 * @throws IllegalArgumentException
+	 *             If the states cannot be packed into a long
+	 */
+	public PackedStateEncoding(List<StateVarDefinition<IStateVarValue>> orderedStateVarDefs,
+			Map<StateVarDefinition<IStateVarValue>, List<IStateVarValue>> orderedPossibleValues) {
+		mStateVarDefs = new ArrayList<>(orderedStateVarDefs);
+		mRadices = new long[mStateVarDefs.size()];
+		mStrides = new long[mStateVarDefs.size()];
+
+		long stride = 1;
+		for (int i = 0; i < mStateVarDefs.size(); i++) {
+			StateVarDefinition<IStateVarValue> stateVarDef = mStateVarDefs.get(i);
+			List<IStateVarValue> possibleValues = orderedPossibleValues.get(stateVarDef);
+
+			Map<IStateVarValue, Integer> valueOrdinals = new HashMap<>();
+			List<StateVar<IStateVarValue>> stateVars = new ArrayList<>();
+			for (IStateVarValue value : possibleValues) {
+				valueOrdinals.put(value, stateVars.size());
+				stateVars.add(stateVarDef.getStateVar(value));
+			}
+
+			mStateVarIndices.put(stateVarDef, i);
+			mValueOrdinals.add(valueOrdinals);
+			mStateVarsByOrdinal.add(stateVars);
+			mRadices[i] = possibleValues.size();
+			mStrides[i] = stride;
+
+			if (stride > Long.MAX_VALUE / mRadices[i]) {
+				throw new IllegalArgumentException("State space is too large to be packed into a long");
+			}
+			stride *= mRadices[i];
+		}
+	}
+
+	public int getNumStateVars() {
+		return mStateVarDefs.size();
+	}
+
+	/**
+	 *
+	 * @param stateVarDef
+	 *            : State variable definition
+	 * @return Position of the state variable in the packed code, or -1 if it is not in this encoding
+	 */
+	public int getStateVarIndex(StateVarDefinition<? extends IStateVarValue> stateVarDef) {
+		Integer index = mStateVarIndices.get(stateVarDef);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 *
+	 * @param stateVarIndex
+	 *            : Position of the state variable in the packed code
+	 * @param value
+	 *            : Value of the state variable
+	 * @return Contribution of the state variable value to the packed code
+	 */
+	public long getPackedValue(int stateVarIndex, IStateVarValue value) {
+		return mValueOrdinals.get(stateVarIndex).get(value) * mStrides[stateVarIndex];
+	}
+
+	/**
+	 *
+	 * @param code
+	 *            : Packed code of a state
+	 * @return Interned state of the packed code
+	 */
+	public StateVarTuple decode(long code) {
+		return mInternedStates.computeIfAbsent(code, this::createState);
+	}
+
+	private StateVar<IStateVarValue> getStateVar(int stateVarIndex, long code) {
+		int ordinal = (int) ((code / mStrides[stateVarIndex]) % mRadices[stateVarIndex]);
+		return mStateVarsByOrdinal.get(stateVarIndex).get(ordinal);
+	}
+
+	private StateVarTuple createState(long code) {
+		StateVarTuple state = new StateVarTuple();
+		for (int i = 0; i < mStateVarDefs.size(); i++) {
+			state.addStateVar(getStateVar(i, code));
+		}
+		// Interned states are shared, and therefore must not be modified
+		state.makeImmutable();
+		return state;
+	}
+}
@@ -1,16 +1,30 @@
 package language.mdp;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import language.domain.models.IStateVarValue;
+import language.domain.models.StateVar;
+import language.domain.models.StateVarDefinition;
 import language.exceptions.EffectNotFoundException;
 import language.exceptions.IncompatibleEffectClassException;
 
 /**
  * {@link ProbabilisticEffect} is a distribution over the changed state variables as a result of an action.
  * 
+ * Marginal probabilities are looked up from marginal tables, which are built lazily -- one table for each subset of
+ * variables that is queried. A product of independent probabilistic effects (see
+ * {@link #putAll(ProbabilisticEffect...)}) is only materialized when its joint effects are needed; its marginal
+ * probabilities are computed from the factors.
+ * 
  * @author rsukkerd
  *
  */
@@ -24,6 +38,14 @@ public class ProbabilisticEffect implements Iterable<Entry<Effect, Double>> {
 	private Map<Effect, Double> mProbEffect = new HashMap<>();
 	private EffectClass mEffectClass;
 
+	// Marginal tables: subset of variables -> (values of the subset -> marginal probability)
+	private Map<Set<StateVarDefinition<IStateVarValue>>, Map<StateVarTuple, Double>> mMarginalTables =
+			new ConcurrentHashMap<>();
+
+	// Independent factors of a product that is not yet materialized, or null if there is none
+	private volatile List<ProbabilisticEffect> mPendingFactors;
+	private boolean mDisjointFactors;
+
 	public ProbabilisticEffect(EffectClass effectClass) {
 		mEffectClass = effectClass;
 	}
@@ -32,46 +54,89 @@ public class ProbabilisticEffect implements Iterable<Entry<Effect, Double>> {
 		if (!sanityCheck(effect)) {
 			throw new IncompatibleEffectClassException(effect.getEffectClass());
 		}
+		materialize();
 		mProbEffect.put(effect, prob);
+		mMarginalTables.clear();
+		hashCode = 0;
 	}
 
 	public void putAll(ProbabilisticEffect probEffect) throws IncompatibleEffectClassException {
 		if (!sanityCheck(probEffect)) {
 			throw new IncompatibleEffectClassException(probEffect.getEffectClass());
 		}
+		materialize();
+		probEffect.materialize();
 		mProbEffect.putAll(probEffect.mProbEffect);
+		mMarginalTables.clear();
+		hashCode = 0;
 	}
 
+	/**
+	 * Put the product of independent probabilistic effects into this probabilistic effect. The effect class of this
+	 * probabilistic effect must be the union of the effect classes of the factors.
+	 * 
+	 * The joint effects of the product are not materialized until they are needed.
+	 * 
+	 * @param probEffects
+	 *            : Independent probabilistic effects
+	 * @throws IncompatibleEffectClassException
+	 */
 	public void putAll(ProbabilisticEffect... probEffects) throws IncompatibleEffectClassException {
-		EffectClass emptyEffectClass = new EffectClass();
-		ProbabilisticEffect runningProbEffect = new ProbabilisticEffect(emptyEffectClass);
+		EffectClass aggrEffectClass = new EffectClass();
+		boolean disjoint = true;
 		for (ProbabilisticEffect probEffect : probEffects) {
-			runningProbEffect = putAllHelper(runningProbEffect, probEffect);
+			disjoint &= !aggrEffectClass.overlaps(probEffect.getEffectClass());
+			aggrEffectClass.addAll(probEffect.getEffectClass());
 		}
+		if (!aggrEffectClass.equals(mEffectClass)) {
+			throw new IncompatibleEffectClassException(aggrEffectClass);
+		}
+
+		materialize();
+		mPendingFactors = Arrays.asList(probEffects.clone());
+		mDisjointFactors = disjoint;
+		mMarginalTables.clear();
+		hashCode = 0;
 	}
 
-	private ProbabilisticEffect putAllHelper(ProbabilisticEffect probEffectA, ProbabilisticEffect probEffectB)
-			throws IncompatibleEffectClassException {
-		EffectClass aggrEffectClass = new EffectClass();
-		aggrEffectClass.addAll(probEffectA.getEffectClass());
-		aggrEffectClass.addAll(probEffectB.getEffectClass());
-		ProbabilisticEffect aggrProbEffect = new ProbabilisticEffect(aggrEffectClass);
-
-		for (Entry<Effect, Double> eA : probEffectA) {
-			Effect effectA = eA.getKey();
-			Double probA = eA.getValue();
-			for (Entry<Effect, Double> eB : probEffectB) {
-				Effect effectB = eB.getKey();
-				Double probB = eB.getValue();
-
-				Effect aggrEffect = new Effect(aggrEffectClass);
-				aggrEffect.addAll(effectA);
-				aggrEffect.addAll(effectB);
-				double jointProb = probA * probB;
-				aggrProbEffect.put(aggrEffect, jointProb);
+	/**
+	 * Materialize the joint effects of the pending product, if any.
+	 */
+	private void materialize() {
+		if (mPendingFactors == null) {
+			return;
+		}
+		synchronized (this) {
+			List<ProbabilisticEffect> factors = mPendingFactors;
+			if (factors == null) {
+				return;
+			}
+
+			// Cross product of the factors, starting from the empty effect with probability 1
+			Map<Effect, Double> product = new LinkedHashMap<>();
+			product.put(new Effect(mEffectClass), 1.0);
+
+			for (ProbabilisticEffect factor : factors) {
+				Map<Effect, Double> nextProduct = new LinkedHashMap<>();
+				for (Entry<Effect, Double> eA : product.entrySet()) {
+					for (Entry<Effect, Double> eB : factor) {
+						Effect aggrEffect = new Effect(mEffectClass);
+						try {
+							aggrEffect.addAll(eA.getKey());
+							aggrEffect.addAll(eB.getKey());
+						} catch (IncompatibleEffectClassException e) {
+							// Effect class of each factor is already checked to be in the effect class of this
+							throw new IllegalStateException(e);
+						}
+						nextProduct.put(aggrEffect, eA.getValue() * eB.getValue());
+					}
+				}
+				product = nextProduct;
 			}
+
+			mProbEffect.putAll(product);
+			mPendingFactors = null;
 		}
-		return aggrProbEffect;
 	}
 
 	private boolean sanityCheck(Effect effect) {
@@ -83,22 +148,93 @@ public class ProbabilisticEffect implements Iterable<Entry<Effect, Double>> {
 	}
 
 	public double getProbability(Effect effect) throws EffectNotFoundException {
+		materialize();
 		if (!mProbEffect.containsKey(effect)) {
 			throw new EffectNotFoundException(effect);
 		}
 		return mProbEffect.get(effect);
 	}
 
+	/**
+	 * 
+	 * @param subEffect
+	 *            : Values of a subset of the variables in the effect class
+	 * @return Sum of the probabilities of all effects that contain the given values
+	 */
 	public double getMarginalProbability(StateVarTuple subEffect) {
-		double marginalProb = 0;
+		List<ProbabilisticEffect> factors = mPendingFactors;
+		if (factors != null && mDisjointFactors && mProbEffect.isEmpty()) {
+			return getFactoredMarginalProbability(factors, subEffect);
+		}
+
+		materialize();
+
+		Set<StateVarDefinition<IStateVarValue>> varDefs = new HashSet<>();
+		for (StateVar<IStateVarValue> var : subEffect) {
+			varDefs.add(var.getDefinition());
+		}
+
+		Map<StateVarTuple, Double> marginalTable = mMarginalTables.get(varDefs);
+		if (marginalTable == null) {
+			marginalTable = buildMarginalTable(varDefs);
+			mMarginalTables.put(varDefs, marginalTable);
+		}
+
+		Double marginalProb = marginalTable.get(subEffect);
+		return marginalProb == null ? 0 : marginalProb;
+	}
+
+	private synchronized Map<StateVarTuple, Double> buildMarginalTable(
+			Set<StateVarDefinition<IStateVarValue>> varDefs) {
+		Map<StateVarTuple, Double> marginalTable = new HashMap<>();
 		for (Entry<Effect, Double> e : mProbEffect.entrySet()) {
 			Effect effect = e.getKey();
 			double jointProb = e.getValue();
 
-			if (effect.contains(subEffect)) {
-				marginalProb += jointProb;
+			// Project the effect onto the subset of variables
+			StateVarTuple projection = new StateVarTuple();
+			int numVars = 0;
+			for (StateVar<IStateVarValue> var : effect) {
+				if (varDefs.contains(var.getDefinition())) {
+					projection.addStateVar(var);
+					numVars++;
+				}
+			}
+
+			if (numVars == varDefs.size()) {
+				// The effect contains all variables of the subset
+				Double marginalProb = marginalTable.get(projection);
+				marginalTable.put(projection, marginalProb == null ? jointProb : marginalProb + jointProb);
 			}
 		}
+		return marginalTable;
+	}
+
+	private static double getFactoredMarginalProbability(List<ProbabilisticEffect> factors, StateVarTuple subEffect) {
+		// Partition the variables of subEffect by the factors whose effect classes contain them
+		StateVarTuple[] subFactorEffects = new StateVarTuple[factors.size()];
+		for (int i = 0; i < subFactorEffects.length; i++) {
+			subFactorEffects[i] = new StateVarTuple();
+		}
+		for (StateVar<IStateVarValue> var : subEffect) {
+			int varFactorIndex = -1;
+			for (int i = 0; i < subFactorEffects.length && varFactorIndex < 0; i++) {
+				if (factors.get(i).getEffectClass().contains(var.getDefinition())) {
+					varFactorIndex = i;
+				}
+			}
+			if (varFactorIndex < 0) {
+				// No effect contains a variable outside of all factors
+				return 0;
+			}
+			subFactorEffects[varFactorIndex].addStateVar(var);
+		}
+
+		// Marginal of each factor over its partition of subEffect (an empty partition gives the factor's total mass)
+		double marginalProb = 1;
+		for (int i = 0; i < subFactorEffects.length; i++) {
+			marginalProb *= factors.get(i).getMarginalProbability(subFactorEffects[i]);
+		}
 		return marginalProb;
 	}
 
@@ -108,6 +244,7 @@ public class ProbabilisticEffect implements Iterable<Entry<Effect, Double>> {
 
 	@Override
 	public Iterator<Entry<Effect, Double>> iterator() {
+		materialize();
 		return mProbEffect.entrySet().iterator();
 	}
 
@@ -120,6 +257,8 @@ public class ProbabilisticEffect implements Iterable<Entry<Effect, Double>> {
 			return false;
 		}
 		ProbabilisticEffect probEffect = (ProbabilisticEffect) obj;
+		materialize();
+		probEffect.materialize();
 		return probEffect.mProbEffect.equals(mProbEffect) && probEffect.mEffectClass.equals(mEffectClass);
 	}
 
@@ -127,6 +266,7 @@ public class ProbabilisticEffect implements Iterable<Entry<Effect, Double>> {
 	public int hashCode() {
 		int result = hashCode;
 		if (result == 0) {
+			materialize();
 			result = 17;
 			result = 31 * result + mProbEffect.hashCode();
 			result = 31 * result + mEffectClass.hashCode();
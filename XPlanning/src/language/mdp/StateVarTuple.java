@@ -1,5 +1,6 @@
 package language.mdp;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -31,6 +32,14 @@ public class StateVarTuple implements IStateVarTuple {
 		// mStateVarMap and mMultivarClass initially empty
 	}
 
+	/**
+	 * Make this tuple unmodifiable. Any subsequent attempt to add or remove state variables will throw
+	 * {@link UnsupportedOperationException}.
+	 */
+	void makeImmutable() {
+		mStateVarMap = Collections.unmodifiableMap(mStateVarMap);
+	}
+
 	public void addStateVar(StateVar<? extends IStateVarValue> stateVar) {
 		mStateVarMap.put(stateVar.getDefinition(), stateVar);
 	}
@@ -1,18 +1,21 @@
 package language.policy;
 
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.Set;
+import java.util.Map.Entry;
 
 import language.domain.models.IAction;
 import language.exceptions.StateNotFoundException;
 import language.mdp.StateVarTuple;
 
 /**
- * {@link Policy} contains a set of {@link Decision}s.
- * 
+ * {@link Policy} contains a set of {@link Decision}s. The decisions are stored as a state->action index, and are only
+ * derived when the policy is iterated.
+ *
+ * A policy can be frozen into an immutable form (see {@link #freeze()}), whose hashCode is computed only once. A frozen
+ * policy is safe to use as a cache key.
+ *
  * @author rsukkerd
  *
  */
@@ -20,42 +23,49 @@ public class Policy implements Iterable<Decision> {
 
 	/*
 	 * Cached hashCode -- Effective Java
+	 *
+	 * The cached hashCode is reset whenever a mutable policy is modified
 	 */
 	private volatile int hashCode;
 
-	private Set<Decision> mDecisions = new HashSet<>();
-	private Map<StateVarTuple, IAction> mPolicy = new HashMap<>(); // For fast look-up
+	private Map<StateVarTuple, IAction> mPolicy;
+	private boolean mFrozen;
+
+	// Memoized frozen copy of this mutable policy -- reset whenever this policy is modified
+	private volatile Policy mFrozenPolicy;
 
 	public Policy() {
-		// mDecisions and mPolicy are initially empty
+		// mPolicy is initially empty
+		mPolicy = new HashMap<>();
 	}
 
 	public Policy(Policy initialPolicy) {
 		// Initialize this policy with existing content
 		// Part of this content may be overridden later
-		mDecisions.addAll(initialPolicy.mDecisions);
-		mPolicy.putAll(initialPolicy.mPolicy);
+		mPolicy = new HashMap<>(initialPolicy.mPolicy);
 	}
 
 	public void put(StateVarTuple state, IAction action) {
+		checkMutable();
 		// Override state->action mapping in this policy (if already exists)
-		mDecisions.removeIf(existingDecision -> existingDecision.getState().equals(state));
-
-		Decision decision = new Decision(state, action);
-		mDecisions.add(decision);
 		mPolicy.put(state, action);
+		hashCode = 0;
+		mFrozenPolicy = null;
 	}
 
 	public void remove(Decision decision) {
-		mDecisions.remove(decision);
+		checkMutable();
 		mPolicy.remove(decision.getState(), decision.getAction());
+		hashCode = 0;
+		mFrozenPolicy = null;
 	}
 
 	public IAction getAction(StateVarTuple state) throws StateNotFoundException {
-		if (!mPolicy.containsKey(state)) {
+		IAction action = mPolicy.get(state);
+		if (action == null) {
 			throw new StateNotFoundException(state);
 		}
-		return mPolicy.get(state);
+		return action;
 	}
 
 	public boolean containsState(StateVarTuple state) {
@@ -66,9 +76,64 @@ public class Policy implements Iterable<Decision> {
 		return mPolicy.containsValue(action);
 	}
 
+	public int size() {
+		return mPolicy.size();
+	}
+
+	/**
+	 * The frozen copy is memoized until this policy is modified. Therefore, freezing an unmodified policy repeatedly
+	 * (e.g., once per cache look-up) only copies it once, and the copy's hashCode is only computed once.
+	 *
+	 * @return An immutable copy of this policy, or this policy if it is already frozen
+	 */
+	public Policy freeze() {
+		if (mFrozen) {
+			return this;
+		}
+		Policy frozenPolicy = mFrozenPolicy;
+		if (frozenPolicy == null) {
+			frozenPolicy = new Policy(this);
+			frozenPolicy.mFrozen = true;
+			mFrozenPolicy = frozenPolicy;
+		}
+		return frozenPolicy;
+	}
+
+	public boolean isFrozen() {
+		return mFrozen;
+	}
+
+	private void checkMutable() {
+		if (mFrozen) {
+			throw new UnsupportedOperationException("Policy is frozen");
+		}
+	}
+
 	@Override
 	public Iterator<Decision> iterator() {
-		return mDecisions.iterator();
+		return new Iterator<Decision>() {
+
+			private Iterator<Entry<StateVarTuple, IAction>> iter = mPolicy.entrySet().iterator();
+
+			@Override
+			public boolean hasNext() {
+				return iter.hasNext();
+			}
+
+			@Override
+			public Decision next() {
+				Entry<StateVarTuple, IAction> entry = iter.next();
+				return new Decision(entry.getKey(), entry.getValue());
+			}
+
+			@Override
+			public void remove() {
+				checkMutable();
+				iter.remove();
+				hashCode = 0;
+				mFrozenPolicy = null;
+			}
+		};
 	}
 
 	@Override
@@ -80,7 +145,7 @@ public class Policy implements Iterable<Decision> {
 			return false;
 		}
 		Policy policy = (Policy) obj;
-		return policy.mDecisions.equals(mDecisions);
+		return policy.mPolicy.equals(mPolicy);
 	}
 
 	@Override
@@ -88,9 +153,9 @@ public class Policy implements Iterable<Decision> {
 		int result = hashCode;
 		if (result == 0) {
 			result = 17;
-			result = 31 * result + mDecisions.hashCode();
+			result = 31 * result + mPolicy.hashCode();
 			hashCode = result;
 		}
-		return hashCode;
+		return result;
 	}
 }
@@ -7,6 +7,8 @@ public class Constants {
 	 * does not support "constructing a strategy for Rmin in the presence of zero-reward ECs".
 	 * 
 	 * The cost offset is used in SSPs to ensure that all objective costs are positive, except in the goal states.
+	 * 
+	 * The native solution methods that handle zero-cost end components do not need the cost offset, and omit it.
 	 */
 	public static final double SSP_COST_OFFSET = 1e-4; // GRB's default value of OptimalityTol is 1e-6
 
@@ -2,9 +2,27 @@ package solver.common;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+/**
+ * {@link ExplicitMDP} is an explicit representation of an MDP, where states and actions are indexed.
+ * 
+ * Transition probabilities are stored in compressed sparse row (CSR) format: row (i,a) lists only the destination
+ * states j such that P(j|i,a) > 0, in increasing order of j. Therefore, the memory required is proportional to the
+ * number of non-zero transitions, and iterating over the successors of (i,a) does not require scanning all states.
+ * 
+ * Transitions can be added in any order. They are compressed into the CSR format on the first read access after a
+ * modification.
+ * 
+ * A reverse-transition (predecessor) index -- in compressed sparse column format -- is built on the first access to
+ * the predecessors of any state, so that the incoming transitions of a state can also be iterated without scanning all
+ * (state, action) pairs.
+ *
+ */
 public class ExplicitMDP {
 
 	/**
@@ -13,7 +31,7 @@ public class ExplicitMDP {
 	private static final int OBJECTIVE_FUNCTION_INDEX = 0;
 
 	/*
-	 * Cached hashCode -- Effective Java
+	 * Cached hashCode -- Effective Java; reset whenever the transitions or costs are modified
 	 */
 	private volatile int hashCode;
 
@@ -22,7 +40,30 @@ public class ExplicitMDP {
 	private CostType mCostType;
 	private int mIniState;
 	private Set<Integer> mGoalStates;
-	private double[][][] mTransProbs;
+	private Map<String, Integer> mActionIndices = new HashMap<>();
+
+	// Uncompressed transitions (row index i*m+a, dest state, probability), in the order they were added
+	private int mNumPendingTrans;
+	private int[] mPendingRows = new int[0];
+	private int[] mPendingDestStates = new int[0];
+	private double[] mPendingProbs = new double[0];
+	private volatile boolean mCompressed = true;
+
+	// Compressed transitions: successors of (i,a) are at indices [mRowOffsets[i*m+a], mRowOffsets[i*m+a+1])
+	private int[] mRowOffsets;
+	private int[] mSuccStates = new int[0];
+	private double[] mSuccProbs = new double[0];
+
+	// Predecessors of j are at indices [mPredOffsets[j], mPredOffsets[j+1]), or mPredOffsets is null if the index has
+	// not been built since the last compression
+	private volatile int[] mPredOffsets;
+	private int[] mPredSrcStates;
+	private int[] mPredActions;
+	private double[] mPredProbs;
+
+	// Bit i*m+a is set iff action a is applicable in state i
+	private BitSet mApplicableActions = new BitSet();
+
 	private double[][][] mTransCosts;
 	private double[][] mStateCosts;
 
@@ -32,7 +73,10 @@ public class ExplicitMDP {
 		mNumStates = numStates;
 		mIndexedActions = sortActions(actionNames);
 		mCostType = costType;
-		mTransProbs = new double[numStates][numActions][numStates];
+		for (int a = 0; a < numActions; a++) {
+			mActionIndices.put(mIndexedActions.get(a), a);
+		}
+		mRowOffsets = new int[numStates * numActions + 1];
 		if (costType == CostType.TRANSITION_COST) {
 			mTransCosts = new double[numCostFunctions][numStates][numActions];
 		} else if (costType == CostType.STATE_COST) {
@@ -65,7 +109,30 @@ public class ExplicitMDP {
 	 */
 	public void addTransitionProbability(int srcState, String actionName, int destState, double probability) {
 		int actionIndex = getActionIndex(actionName);
-		mTransProbs[srcState][actionIndex][destState] = probability;
+		addTransitionProbability(srcState, actionIndex, destState, probability);
+	}
+
+	public synchronized void addTransitionProbability(int srcState, int actionIndex, int destState,
+			double probability) {
+		if (mCompressed) {
+			// Move the compressed transitions back to the pending transitions, to be re-compressed together with the
+			// new transition
+			decompress();
+		}
+
+		if (mNumPendingTrans == mPendingRows.length) {
+			int newCapacity = Math.max(16, 2 * mNumPendingTrans);
+			mPendingRows = Arrays.copyOf(mPendingRows, newCapacity);
+			mPendingDestStates = Arrays.copyOf(mPendingDestStates, newCapacity);
+			mPendingProbs = Arrays.copyOf(mPendingProbs, newCapacity);
+		}
+
+		mPendingRows[mNumPendingTrans] = getRowIndex(srcState, actionIndex);
+		mPendingDestStates[mNumPendingTrans] = destState;
+		mPendingProbs[mNumPendingTrans] = probability;
+		mNumPendingTrans++;
+		mCompressed = false;
+		hashCode = 0;
 	}
 
 	/**
@@ -84,6 +151,7 @@ public class ExplicitMDP {
 	public void addTransitionCost(int costFuncIndex, int srcState, int actionIndex, double cost) {
 		checkTransitionCost();
 		mTransCosts[costFuncIndex][srcState][actionIndex] = cost;
+		hashCode = 0;
 	}
 
 	/**
@@ -96,6 +164,7 @@ public class ExplicitMDP {
 	public void addStateCost(int costFuncIndex, int state, double cost) {
 		checkStateCost();
 		mStateCosts[costFuncIndex][state] = cost;
+		hashCode = 0;
 	}
 
 	/**
@@ -108,6 +177,7 @@ public class ExplicitMDP {
 	public void addObjectiveTransitionCost(int srcState, int actionIndex, double objectiveCost) {
 		checkTransitionCost();
 		mTransCosts[OBJECTIVE_FUNCTION_INDEX][srcState][actionIndex] = objectiveCost;
+		hashCode = 0;
 	}
 
 	/**
@@ -119,6 +189,7 @@ public class ExplicitMDP {
 	public void addObjectiveStateCost(int state, double objectiveCost) {
 		checkStateCost();
 		mStateCosts[OBJECTIVE_FUNCTION_INDEX][state] = objectiveCost;
+		hashCode = 0;
 	}
 
 	/**
@@ -133,6 +204,7 @@ public class ExplicitMDP {
 		} else {
 			setObjectiveStateCosts(costFuncIndex);
 		}
+		hashCode = 0;
 	}
 
 	private void setObjectiveTransitionCosts(int costFuncIndex) {
@@ -161,6 +233,11 @@ public class ExplicitMDP {
 		return mIndexedActions.get(actionIndex);
 	}
 
+	public int getActionIndex(String actionName) {
+		Integer actionIndex = mActionIndices.get(actionName);
+		return actionIndex == null ? -1 : actionIndex;
+	}
+
 	public CostType getCostType() {
 		return mCostType;
 	}
@@ -192,17 +269,121 @@ public class ExplicitMDP {
 	 * @return Whether the action at a given index is applicable in a given state.
 	 */
 	public boolean isActionApplicable(int srcState, int actionIndex) {
-		double[] transProbs = mTransProbs[srcState][actionIndex];
-		for (int j = 0; j < transProbs.length; j++) {
-			if (transProbs[j] > 0) {
-				return true;
-			}
-		}
-		return false;
+		ensureCompressed();
+		return mApplicableActions.get(getRowIndex(srcState, actionIndex));
 	}
 
 	public double getTransitionProbability(int srcState, int actionIndex, int destState) {
-		return mTransProbs[srcState][actionIndex][destState];
+		ensureCompressed();
+		int rowIndex = getRowIndex(srcState, actionIndex);
+		int k = Arrays.binarySearch(mSuccStates, mRowOffsets[rowIndex], mRowOffsets[rowIndex + 1], destState);
+		return k >= 0 ? mSuccProbs[k] : 0;
+	}
+
+	/**
+	 * The successors of (i,a) -- that is, all states j such that P(j|i,a) > 0 -- are at the positions
+	 * getSuccessorsStart(i,a), ..., getSuccessorsEnd(i,a) - 1. Use {@link #getSuccessorState(int)} and
+	 * {@link #getSuccessorProbability(int)} to access the successor at each position.
+	 * 
+	 * @param srcState
+	 * @param actionIndex
+	 * @return First position of the successors of (i,a)
+	 */
+	public int getSuccessorsStart(int srcState, int actionIndex) {
+		ensureCompressed();
+		return mRowOffsets[getRowIndex(srcState, actionIndex)];
+	}
+
+	/**
+	 * 
+	 * @param srcState
+	 * @param actionIndex
+	 * @return Position after the last successor of (i,a)
+	 */
+	public int getSuccessorsEnd(int srcState, int actionIndex) {
+		ensureCompressed();
+		return mRowOffsets[getRowIndex(srcState, actionIndex) + 1];
+	}
+
+	/**
+	 * 
+	 * @param position
+	 *            : Position of a successor, as defined by {@link #getSuccessorsStart(int, int)}
+	 * @return Successor state at the position
+	 */
+	public int getSuccessorState(int position) {
+		return mSuccStates[position];
+	}
+
+	/**
+	 * 
+	 * @param position
+	 *            : Position of a successor, as defined by {@link #getSuccessorsStart(int, int)}
+	 * @return Transition probability to the successor state at the position
+	 */
+	public double getSuccessorProbability(int position) {
+		return mSuccProbs[position];
+	}
+
+	/**
+	 * 
+	 * @return Number of non-zero transition probabilities
+	 */
+	public int getNumTransitions() {
+		ensureCompressed();
+		return mSuccStates.length;
+	}
+
+	/**
+	 * The predecessors of j -- that is, all pairs (i,a) such that P(j|i,a) > 0 -- are at the positions
+	 * getPredecessorsStart(j), ..., getPredecessorsEnd(j) - 1, in increasing order of i and then a. Use
+	 * {@link #getPredecessorState(int)}, {@link #getPredecessorAction(int)}, and
+	 * {@link #getPredecessorProbability(int)} to access the predecessor at each position.
+	 * 
+	 * @param destState
+	 * @return First position of the predecessors of j
+	 */
+	public int getPredecessorsStart(int destState) {
+		return getPredecessorOffsets()[destState];
+	}
+
+	/**
+	 * 
+	 * @param destState
+	 * @return Position after the last predecessor of j
+	 */
+	public int getPredecessorsEnd(int destState) {
+		return getPredecessorOffsets()[destState + 1];
+	}
+
+	/**
+	 * 
+	 * @param position
+	 *            : Position of a predecessor, as defined by {@link #getPredecessorsStart(int)}
+	 * @return Predecessor state at the position
+	 */
+	public int getPredecessorState(int position) {
+		return mPredSrcStates[position];
+	}
+
+	/**
+	 * 
+	 * @param position
+	 *            : Position of a predecessor, as defined by {@link #getPredecessorsStart(int)}
+	 * @return Index of the action taken in the predecessor state at the position
+	 */
+	public int getPredecessorAction(int position) {
+		return mPredActions[position];
+	}
+
+	/**
+	 * 
+	 * @param position
+	 *            : Position of a predecessor, as defined by {@link #getPredecessorsStart(int)}
+	 * @return Transition probability from the predecessor state at the position
+	 */
+	public double getPredecessorProbability(int position) {
+		return mPredProbs[position];
 	}
 
 	public double getTransitionCost(int costFuncIndex, int srcState, int actionIndex) {
@@ -225,8 +406,172 @@ public class ExplicitMDP {
 		return mStateCosts[OBJECTIVE_FUNCTION_INDEX][state];
 	}
 
-	private int getActionIndex(String actionName) {
-		return mIndexedActions.indexOf(actionName);
+	private int getRowIndex(int srcState, int actionIndex) {
+		return srcState * mIndexedActions.size() + actionIndex;
+	}
+
+	private void ensureCompressed() {
+		if (!mCompressed) {
+			compress();
+		}
+	}
+
+	private int[] getPredecessorOffsets() {
+		ensureCompressed();
+		int[] predOffsets = mPredOffsets;
+		if (predOffsets == null) {
+			predOffsets = buildPredecessorIndex();
+		}
+		return predOffsets;
+	}
+
+	/**
+	 * Build the predecessor index from the compressed transitions, in time linear in the number of transitions.
+	 * 
+	 * @return Offsets of the predecessors of each state
+	 */
+	private synchronized int[] buildPredecessorIndex() {
+		if (mPredOffsets != null) {
+			return mPredOffsets;
+		}
+
+		int m = mIndexedActions.size();
+		int nnz = mSuccStates.length;
+
+		// Counting sort of the compressed transitions by destination state -- stable, so the predecessors of each
+		// state are in increasing order of (i,a)
+		int[] predOffsets = new int[mNumStates + 1];
+		for (int k = 0; k < nnz; k++) {
+			predOffsets[mSuccStates[k] + 1]++;
+		}
+		for (int j = 0; j < mNumStates; j++) {
+			predOffsets[j + 1] += predOffsets[j];
+		}
+
+		int[] predSrcStates = new int[nnz];
+		int[] predActions = new int[nnz];
+		double[] predProbs = new double[nnz];
+		int[] nextPositions = Arrays.copyOf(predOffsets, mNumStates);
+
+		for (int r = 0; r < mRowOffsets.length - 1; r++) {
+			for (int k = mRowOffsets[r]; k < mRowOffsets[r + 1]; k++) {
+				int p = nextPositions[mSuccStates[k]]++;
+				predSrcStates[p] = r / m;
+				predActions[p] = r % m;
+				predProbs[p] = mSuccProbs[k];
+			}
+		}
+
+		mPredSrcStates = predSrcStates;
+		mPredActions = predActions;
+		mPredProbs = predProbs;
+		// Publish the offsets last, so that the other arrays are visible once the offsets are
+		mPredOffsets = predOffsets;
+		return predOffsets;
+	}
+
+	/**
+	 * Compress the pending transitions into CSR format. If the same transition (i,a,j) was added multiple times, the
+	 * last probability added is kept. Zero probabilities are dropped.
+	 */
+	private synchronized void compress() {
+		if (mCompressed) {
+			return;
+		}
+
+		int numRows = mRowOffsets.length - 1;
+
+		// Counting sort of the pending transitions by row -- stable, so the order of addition is preserved within each
+		// row
+		int[] rowCounts = new int[numRows + 1];
+		for (int t = 0; t < mNumPendingTrans; t++) {
+			rowCounts[mPendingRows[t] + 1]++;
+		}
+		for (int r = 0; r < numRows; r++) {
+			rowCounts[r + 1] += rowCounts[r];
+		}
+		int[] sortedTrans = new int[mNumPendingTrans];
+		int[] nextPositions = Arrays.copyOf(rowCounts, numRows);
+		for (int t = 0; t < mNumPendingTrans; t++) {
+			sortedTrans[nextPositions[mPendingRows[t]]++] = t;
+		}
+
+		int[] succStates = new int[mNumPendingTrans];
+		double[] succProbs = new double[mNumPendingTrans];
+		BitSet applicableActions = new BitSet(numRows);
+		int nnz = 0;
+
+		for (int r = 0; r < numRows; r++) {
+			mRowOffsets[r] = nnz;
+			int rowStart = nnz;
+
+			for (int p = rowCounts[r]; p < rowCounts[r + 1]; p++) {
+				int t = sortedTrans[p];
+				int destState = mPendingDestStates[t];
+				double prob = mPendingProbs[t];
+
+				// Insert (destState, prob) into the row, keeping the destination states in increasing order
+				int k = Arrays.binarySearch(succStates, rowStart, nnz, destState);
+				if (k >= 0) {
+					// Later transition overwrites earlier one
+					succProbs[k] = prob;
+				} else {
+					int insertAt = -(k + 1);
+					System.arraycopy(succStates, insertAt, succStates, insertAt + 1, nnz - insertAt);
+					System.arraycopy(succProbs, insertAt, succProbs, insertAt + 1, nnz - insertAt);
+					succStates[insertAt] = destState;
+					succProbs[insertAt] = prob;
+					nnz++;
+				}
+			}
+
+			// Drop zero probabilities
+			int rowEnd = rowStart;
+			for (int k = rowStart; k < nnz; k++) {
+				if (succProbs[k] > 0) {
+					succStates[rowEnd] = succStates[k];
+					succProbs[rowEnd] = succProbs[k];
+					rowEnd++;
+				}
+			}
+			nnz = rowEnd;
+
+			if (nnz > rowStart) {
+				applicableActions.set(r);
+			}
+		}
+		mRowOffsets[numRows] = nnz;
+
+		mSuccStates = Arrays.copyOf(succStates, nnz);
+		mSuccProbs = Arrays.copyOf(succProbs, nnz);
+		mApplicableActions = applicableActions;
+
+		// Invalidate the predecessor index
+		mPredOffsets = null;
+
+		// Release the pending transitions
+		mNumPendingTrans = 0;
+		mPendingRows = new int[0];
+		mPendingDestStates = new int[0];
+		mPendingProbs = new double[0];
+		mCompressed = true;
+	}
+
+	/**
+	 * Move the compressed transitions back to the pending transitions.
+	 */
+	private void decompress() {
+		int numRows = mRowOffsets.length - 1;
+		int nnz = mSuccStates.length;
+		int capacity = Math.max(16, 2 * nnz);
+
+		mPendingRows = new int[capacity];
+		mPendingDestStates = Arrays.copyOf(mSuccStates, capacity);
+		mPendingProbs = Arrays.copyOf(mSuccProbs, capacity);
+		for (int r = 0; r < numRows; r++) {
+			Arrays.fill(mPendingRows, mRowOffsets[r], mRowOffsets[r + 1], r);
+		}
+		mNumPendingTrans = nnz;
 	}
 
 	private void checkTransitionCost() {
@@ -250,25 +595,31 @@ public class ExplicitMDP {
 			return false;
 		}
 		ExplicitMDP mdp = (ExplicitMDP) obj;
+		ensureCompressed();
+		mdp.ensureCompressed();
 		return mdp.mNumStates == mNumStates && mdp.mIndexedActions.equals(mIndexedActions) && mdp.mCostType == mCostType
 				&& mdp.mIniState == mIniState && mdp.mGoalStates.equals(mGoalStates)
-				&& Arrays.equals(mdp.mTransProbs, mTransProbs) && Arrays.equals(mdp.mTransCosts, mTransCosts)
-				&& Arrays.equals(mdp.mStateCosts, mStateCosts);
+				&& Arrays.equals(mdp.mRowOffsets, mRowOffsets) && Arrays.equals(mdp.mSuccStates, mSuccStates)
+				&& Arrays.equals(mdp.mSuccProbs, mSuccProbs) && Arrays.deepEquals(mdp.mTransCosts, mTransCosts)
+				&& Arrays.deepEquals(mdp.mStateCosts, mStateCosts);
 	}
 
 	@Override
 	public int hashCode() {
 		int result = hashCode;
 		if (result == 0) {
+			ensureCompressed();
 			result = 17;
 			result = 31 * result + mNumStates;
 			result = 31 * result + mIndexedActions.hashCode();
 			result = 31 * result + mCostType.hashCode();
 			result = 31 * result + mIniState;
 			result = 31 * result + mGoalStates.hashCode();
-			result = 31 * result + Arrays.hashCode(mTransProbs);
-			result = 31 * result + (mCostType == CostType.TRANSITION_COST ? Arrays.hashCode(mTransCosts) : 0);
-			result = 31 * result + (mCostType == CostType.STATE_COST ? Arrays.hashCode(mStateCosts) : 0);
+			result = 31 * result + Arrays.hashCode(mRowOffsets);
+			result = 31 * result + Arrays.hashCode(mSuccStates);
+			result = 31 * result + Arrays.hashCode(mSuccProbs);
+			result = 31 * result + (mCostType == CostType.TRANSITION_COST ? Arrays.deepHashCode(mTransCosts) : 0);
+			result = 31 * result + (mCostType == CostType.STATE_COST ? Arrays.deepHashCode(mStateCosts) : 0);
 			hashCode = result;
 		}
 		return hashCode;
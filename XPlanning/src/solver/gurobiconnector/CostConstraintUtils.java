@@ -5,6 +5,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import gurobi.GRB;
+import gurobi.GRBConstr;
 import gurobi.GRBException;
 import gurobi.GRBLinExpr;
 import gurobi.GRBModel;
@@ -126,11 +127,12 @@ public class CostConstraintUtils {
 	 *            : Occupation measure variables
 	 * @param model
 	 *            : GRB model to which to add the constraint
+	 * @return The added constraint
 	 * @throws GRBException
 	 */
-	public static void addHardCostConstraint(int costFuncIndex, NonStrictConstraint hardConstraint,
+	public static GRBConstr addHardCostConstraint(int costFuncIndex, NonStrictConstraint hardConstraint,
 			ExplicitMDP explicitMDP, GRBVar[][] xVars, GRBModel model) throws GRBException {
-		addCostConstraint(costFuncIndex, hardConstraint, explicitMDP, xVars, null, model);
+		return addCostConstraint(costFuncIndex, hardConstraint, explicitMDP, xVars, null, model);
 	}
 
 	/**
@@ -258,10 +260,11 @@ public class CostConstraintUtils {
 	 *            : Violation variable: v (null for hard constraint)
 	 * @param model
 	 *            : GRB model to which to add the constraint
+	 * @return The added constraint
 	 * @throws GRBException
 	 */
-	private static void addCostConstraint(int costFuncIndex, NonStrictConstraint constraint, ExplicitMDP explicitMDP,
-			GRBVar[][] xVars, GRBVar vVar, GRBModel model) throws GRBException {
+	private static GRBConstr addCostConstraint(int costFuncIndex, NonStrictConstraint constraint,
+			ExplicitMDP explicitMDP, GRBVar[][] xVars, GRBVar vVar, GRBModel model) throws GRBException {
 		// Expression: sum_i,a (x_ia * C_k(i,a))
 		GRBLinExpr constraintLinExpr = createCostTerm(costFuncIndex, explicitMDP, xVars);
 
@@ -277,7 +280,7 @@ public class CostConstraintUtils {
 
 		// Add constraint: [...] <= UB_k or >= LB_k
 		char sense = constraint.getBoundType() == BOUND_TYPE.UPPER_BOUND ? GRB.LESS_EQUAL : GRB.GREATER_EQUAL;
-		model.addConstr(constraintLinExpr, sense, constraint.getBoundValue(), constraintName);
+		return model.addConstr(constraintLinExpr, sense, constraint.getBoundValue(), constraintName);
 	}
 
 	private static GRBLinExpr createCostTerm(int costFuncIndex, ExplicitMDP explicitMDP, GRBVar[][] xVars) {
@@ -1,10 +1,12 @@
 package solver.gurobiconnector;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import explanation.analysis.PolicyInfo;
 import gurobi.GRBException;
@@ -40,7 +42,14 @@ public class GRBConnector {
 	private ExplicitMDP mExplicitMDP;
 
 	// Keep track of LP solution corresponding to each policy computed by GRBSolver
-	private Map<Policy, LPSolution> mPolicyToLPSolution = new HashMap<>();
+	// Policies may be computed concurrently (see AlternativeExplorer)
+	private Map<Policy, LPSolution> mPolicyToLPSolution = new ConcurrentHashMap<>();
+
+	// Reusable SSP solver sessions that are not currently in use -- one session is created per concurrent caller
+	private Queue<SSPSolverSession> mIdleSSPSolverSessions = new ConcurrentLinkedQueue<>();
+
+	// Upper bound of occupation measure of the SSP, computed only once (negative if not yet computed)
+	private double mUpperBoundOM = -1;
 
 	public GRBConnector(XMDP xmdp, CostCriterion costCriterion, GRBConnectorSettings settings)
 			throws IOException, ExplicitModelParsingException {
@@ -167,8 +176,14 @@ public class GRBConnector {
 		LPSolution solution = null;
 
 		if (mCostCriterion == CostCriterion.TOTAL_COST) {
-			SSPSolver solver = new SSPSolver(explicitMDP, softConstraints, hardConstraints, mSettings);
-			solution = solver.solveOptimalPolicy(policyMatrix);
+			// Reuse the SSP model across all objective functions and constraints
+			SSPSolverSession session = acquireSSPSolverSession();
+			try {
+				SSPSolver solver = new SSPSolver(explicitMDP, softConstraints, hardConstraints, mSettings, session);
+				solution = solver.solveOptimalPolicy(policyMatrix);
+			} finally {
+				mIdleSSPSolverSessions.offer(session);
+			}
 		} else if (mCostCriterion == CostCriterion.AVERAGE_COST) {
 			AverageCostMDPSolver solver = new AverageCostMDPSolver(explicitMDP, softConstraints, hardConstraints,
 					mSettings);
@@ -185,6 +200,39 @@ public class GRBConnector {
 		return null;
 	}
 
+	private SSPSolverSession acquireSSPSolverSession() throws GRBException {
+		SSPSolverSession session = mIdleSSPSolverSessions.poll();
+		if (session == null) {
+			// All ExplicitMDPs read by mExplicitMDPReader have the same structure as mExplicitMDP
+			session = new SSPSolverSession(mExplicitMDP, getUpperBoundOccupationMeasure(), mSettings);
+		}
+		return session;
+	}
+
+	private synchronized double getUpperBoundOccupationMeasure() throws GRBException {
+		if (mUpperBoundOM < 0) {
+			mUpperBoundOM = UpperBoundOccupationMeasureSolver.computeUpperBoundOccupationMeasure(mExplicitMDP,
+					mSettings.getFeasibilityTolerance());
+		}
+		return mUpperBoundOM;
+	}
+
+	/**
+	 * Dispose of the GRB models and environments kept for reuse. This connector can still be used afterwards, but
+	 * will build its models again.
+	 * 
+	 * Only the models that are not in use are disposed of. Therefore, invoke this method only after all computations
+	 * of this connector have returned -- e.g., AlternativeExplorer waits for its threads before returning.
+	 * 
+	 * @throws GRBException
+	 */
+	public void dispose() throws GRBException {
+		SSPSolverSession session;
+		while ((session = mIdleSSPSolverSessions.poll()) != null) {
+			session.dispose();
+		}
+	}
+
 	public PolicyInfo buildPolicyInfo(Policy policy) throws QFunctionNotFoundException {
 		double objectiveCost = computeCost(policy);
 		PolicyInfo policyInfo = new PolicyInfo(mXMDP, policy, objectiveCost);
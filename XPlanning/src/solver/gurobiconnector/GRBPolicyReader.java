@@ -21,7 +21,7 @@ public class GRBPolicyReader {
 
 	public Policy readPolicyFromPolicyMatrix(double[][] policyMatrix, ExplicitMDP explicitMDP)
 			throws VarNotFoundException, IOException {
-		Map<Integer, StateVarTuple> stateIndices = mPrismExplicitModelReader.readStatesFromFile();
+		Map<Integer, StateVarTuple> stateIndices = mPrismExplicitModelReader.readStates();
 
 		Policy policy = new Policy();
 
@@ -230,19 +230,14 @@ public class GRBSolverUtils {
 	 *            : Linear expression to which to add in_v(i) term
 	 */
 	public static void addInTerm(int i, double coeff, ExplicitMDP explicitMDP, GRBVar[][] vVars, GRBLinExpr linExpr) {
-		int n = explicitMDP.getNumStates();
-		int m = explicitMDP.getNumActions();
-
 		// in_v(i) = sum_j,a (v_ja * P(i|j,a))
 		// Expression += coeff * in_v(i)
-		for (int j = 0; j < n; j++) {
-			for (int a = 0; a < m; a++) {
-				// Exclude any v_ja term when action a is not applicable in state j
-				if (explicitMDP.isActionApplicable(j, a)) {
-					double prob = explicitMDP.getTransitionProbability(j, a, i);
-					linExpr.addTerm(coeff * prob, vVars[j][a]);
-				}
-			}
+		// Only the predecessors (j,a) of i -- where action a is applicable in state j and P(i|j,a) > 0 -- contribute
+		for (int p = explicitMDP.getPredecessorsStart(i); p < explicitMDP.getPredecessorsEnd(i); p++) {
+			int j = explicitMDP.getPredecessorState(p);
+			int a = explicitMDP.getPredecessorAction(p);
+			double prob = explicitMDP.getPredecessorProbability(p);
+			linExpr.addTerm(coeff * prob, vVars[j][a]);
 		}
 	}
 
@@ -458,19 +453,14 @@ public class GRBSolverUtils {
 	 * @return in_v(i) = sum_j,a (v_ja * P(i|j,a))
 	 */
 	static double getInValue(int i, double[][] vResults, ExplicitMDP explicitMDP) {
-		int n = explicitMDP.getNumStates();
-		int m = explicitMDP.getNumActions();
 		double inValue = 0;
 
 		// in_v(i) = sum_j,a (v_ja * P(i|j,a))
-		for (int j = 0; j < n; j++) {
-			for (int a = 0; a < m; a++) {
-				// Exclude any v_ja term when action a is not applicable in state j
-				if (explicitMDP.isActionApplicable(j, a)) {
-					double prob = explicitMDP.getTransitionProbability(j, a, i);
-					inValue += prob * vResults[j][a];
-				}
-			}
+		// Only the predecessors (j,a) of i -- where action a is applicable in state j and P(i|j,a) > 0 -- contribute
+		for (int p = explicitMDP.getPredecessorsStart(i); p < explicitMDP.getPredecessorsEnd(i); p++) {
+			int j = explicitMDP.getPredecessorState(p);
+			int a = explicitMDP.getPredecessorAction(p);
+			inValue += explicitMDP.getPredecessorProbability(p) * vResults[j][a];
 		}
 		return inValue;
 	}
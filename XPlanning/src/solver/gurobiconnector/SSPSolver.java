@@ -2,12 +2,7 @@ package solver.gurobiconnector;
 
 import java.util.Set;
 
-import gurobi.GRB;
-import gurobi.GRBEnv;
 import gurobi.GRBException;
-import gurobi.GRBLinExpr;
-import gurobi.GRBModel;
-import gurobi.GRBVar;
 import solver.common.ExplicitMDP;
 import solver.common.LPSolution;
 import solver.common.NonStrictConstraint;
@@ -18,6 +13,7 @@ public class SSPSolver {
 	private NonStrictConstraint[] mSoftConstraints;
 	private NonStrictConstraint[] mHardConstraints;
 	private GRBConnectorSettings mSettings;
+	private SSPSolverSession mSession;
 
 	/**
 	 * Constructor for unconstrained SSP.
@@ -54,6 +50,26 @@ public class SSPSolver {
 		mSettings = settings;
 	}
 
+	/**
+	 * SSP constructor, with a reusable solver session.
+	 * 
+	 * @param explicitMDP
+	 *            : Explicit MDP
+	 * @param softConstraints
+	 *            : Null iff unconstrained
+	 * @param hardConstraints
+	 *            : Null iff unconstrained
+	 * @param settings
+	 *            : GRBConnector settings, containing tolerance parameters
+	 * @param session
+	 *            : Solver session built on the same MDP structure as explicitMDP
+	 */
+	public SSPSolver(ExplicitMDP explicitMDP, NonStrictConstraint[] softConstraints,
+			NonStrictConstraint[] hardConstraints, GRBConnectorSettings settings, SSPSolverSession session) {
+		this(explicitMDP, softConstraints, hardConstraints, settings);
+		mSession = session;
+	}
+
 	public LPSolution solveOptimalPolicy(double[][] outputPolicy) throws GRBException {
 		double feasTol = mSettings.getFeasibilityTolerance();
 		double roundOff = mSettings.getRoundOff();
@@ -138,167 +154,38 @@ public class SSPSolver {
 	 * @throws GRBException
 	 */
 	public LPSolution solve(double[][] xResults) throws GRBException {
-		double intFeasTol = mSettings.getIntegralityTolerance();
-		double feasTol = mSettings.getFeasibilityTolerance();
-
-		GRBEnv env = new GRBEnv();
-		GRBModel model = new GRBModel(env);
-
-		GRBSolverUtils.configureToleranceParameters(model, intFeasTol, feasTol);
-
-		int n = mExplicitMDP.getNumStates();
-		int m = mExplicitMDP.getNumActions();
-
-		// Create variables: x_ia
-		// Lower bound on variables: x_ia >= 0
-		GRBVar[][] xVars = GRBSolverUtils.createOptimizationVars("x", GRB.CONTINUOUS, n, m, 0.0,
-				Double.POSITIVE_INFINITY, model);
-
-		// Create variables: Delta_ia (binary)
-		String deltaxVarName = "Deltax";
-		GRBVar[][] deltaVars = GRBSolverUtils.createOptimizationVars(deltaxVarName, GRB.BINARY, n, m, 0.0, 1.0, model);
-
-		// Set optimization objective
-		GRBSolverUtils.setOptimizationObjective(mExplicitMDP, xVars, model);
-
-		// Add constraints
-		addFlowConservationConstraints(xVars, model);
-		addSourceFlowConstraint(xVars, model);
-		addSinksFlowConstraint(xVars, model);
-
-		// Add constraints to ensure deterministic solution policy
-		GRBSolverUtils.addDeltaConstraints(mExplicitMDP, deltaxVarName, deltaVars, model);
+		if (mSession != null) {
+			return solve(mSession, xResults);
+		}
 
+		// Without a reusable session, build the model for this solve only
 		// For SSP, X is an upper-bound on occupation measure
 		double upperBoundOM = UpperBoundOccupationMeasureSolver.computeUpperBoundOccupationMeasure(mExplicitMDP,
-				feasTol);
-		GRBSolverUtils.addVarDeltaConstraints(upperBoundOM, mExplicitMDP, "x", xVars, deltaxVarName, deltaVars, model);
-
-		// Add (upper/lower bound) cost constraints, if any
-		if (mSoftConstraints != null) {
-			// Soft constraints
-			CostConstraintUtils.addSoftCostConstraints(mSoftConstraints, mHardConstraints, mExplicitMDP, xVars, model);
-		} else if (mHardConstraints != null) {
-			// Hard constraints
-			CostConstraintUtils.addHardCostConstraints(mHardConstraints, mExplicitMDP, xVars, model);
-		}
-
-		// Solve optimization problem for x_ia and Delta_ia
-		model.optimize();
-
-		int numSolutions = model.get(GRB.IntAttr.SolCount);
-		double objectiveValue = -1;
-
-		if (numSolutions > 0) {
-			// Solution found
-
-			// Objective value: sum_i,a (c_ia * x_ia)
-			objectiveValue = model.get(GRB.DoubleAttr.ObjVal);
-
-			// Query results: optimal values of x_ia and Delta_ia
-			double[][] grbXResults = model.get(GRB.DoubleAttr.X, xVars);
-			double[][] grbDeltaResults = model.get(GRB.DoubleAttr.X, deltaVars);
-
-			// Copy x_ia results to the return parameters
-			System.arraycopy(grbXResults, 0, xResults, 0, grbXResults.length);
-
-			// Consistency checks
-			verifyAllConstraints(grbXResults, grbDeltaResults, upperBoundOM);
-			assert GRBSolverUtils.consistencyCheckResults(grbXResults, grbDeltaResults, mExplicitMDP, feasTol);
+				mSettings.getFeasibilityTolerance());
+		SSPSolverSession session = new SSPSolverSession(mExplicitMDP, upperBoundOM, mSettings);
+		try {
+			return solve(session, xResults);
+		} finally {
+			// Dispose of model and environment
+			session.dispose();
 		}
-
-		// Dispose of model and environment
-		model.dispose();
-		env.dispose();
-
-		// LP solution
-		LPSolution solution = new LPSolution(numSolutions > 0, objectiveValue);
-		solution.addSolution("x", xResults);
-		return solution;
 	}
 
-	/**
-	 * Add the flow-conservation constraints C1: out(i) - in(i) = 0, for all i in S \ (G and s0).
-	 * 
-	 * @param xVars
-	 *            : Occupation measure variables
-	 * @param model
-	 *            : GRB model to which to add the flow-conservation constraints
-	 * @throws GRBException
-	 */
-	private void addFlowConservationConstraints(GRBVar[][] xVars, GRBModel model) throws GRBException {
+	private LPSolution solve(SSPSolverSession session, double[][] xResults) throws GRBException {
 		int n = mExplicitMDP.getNumStates();
-		Set<Integer> goals = mExplicitMDP.getGoalStates();
-		int iniState = mExplicitMDP.getInitialState();
-
-		for (int i = 0; i < n; i++) {
-			if (goals.contains(Integer.valueOf(i)) || iniState == i) {
-				// Exclude goal states G and initial state s0
-				continue;
-			}
-
-			String constraintName = "constraintC1_" + i;
-			// out(i) - in(i) = 0
-			GRBLinExpr constraintLinExpr = new GRBLinExpr();
-
-			// Expression += out(i)
-			GRBSolverUtils.addOutTerm(i, 1, mExplicitMDP, xVars, constraintLinExpr);
-
-			// Expression -= in(i)
-			GRBSolverUtils.addInTerm(i, -1, mExplicitMDP, xVars, constraintLinExpr);
-
-			// Add constraint
-			model.addConstr(constraintLinExpr, GRB.EQUAL, 0, constraintName);
-		}
-	}
-
-	/**
-	 * Add the source flow constraint C2: out(s0) - in(s0) = 1.
-	 * 
-	 * @param xVars
-	 *            : Occupation measure variables
-	 * @param model
-	 *            : GRB model to which to add the source flow constraint
-	 * @throws GRBException
-	 */
-	private void addSourceFlowConstraint(GRBVar[][] xVars, GRBModel model) throws GRBException {
-		int iniState = mExplicitMDP.getInitialState();
-
-		String constraintName = "constraintC3";
-		// out(s0) - in(s0) = 1
-		GRBLinExpr constraintLinExpr = new GRBLinExpr();
-
-		// Expression += out(s0)
-		GRBSolverUtils.addOutTerm(iniState, 1, mExplicitMDP, xVars, constraintLinExpr);
-
-		// Expression -= in(s0)
-		GRBSolverUtils.addInTerm(iniState, -1, mExplicitMDP, xVars, constraintLinExpr);
-
-		// Add constraint
-		model.addConstr(constraintLinExpr, GRB.EQUAL, 1, constraintName);
-	}
+		int m = mExplicitMDP.getNumActions();
+		double[][] deltaResults = new double[n][m];
 
-	/**
-	 * Add the sinks flow constraint C4: sum_{sg in G} (in(sg)) = 1.
-	 * 
-	 * @param xVars
-	 *            : Occupation measure variables
-	 * @param model
-	 *            : GRB model to which to add the sinks flow constraint
-	 * @throws GRBException
-	 */
-	private void addSinksFlowConstraint(GRBVar[][] xVars, GRBModel model) throws GRBException {
-		String constraintName = "constraintC4";
-		// sum_{sg in G} (in(sg)) = 1
-		GRBLinExpr constraintLinExpr = new GRBLinExpr();
+		LPSolution solution = session.solve(mExplicitMDP, mSoftConstraints, mHardConstraints, xResults,
+				deltaResults);
 
-		for (Integer goal : mExplicitMDP.getGoalStates()) {
-			// Expression += in(sg)
-			GRBSolverUtils.addInTerm(goal, 1, mExplicitMDP, xVars, constraintLinExpr);
+		if (solution.exists()) {
+			// Consistency checks
+			verifyAllConstraints(xResults, deltaResults, session.getUpperBoundOccupationMeasure());
+			assert GRBSolverUtils.consistencyCheckResults(xResults, deltaResults, mExplicitMDP,
+					mSettings.getFeasibilityTolerance());
 		}
-
-		// Add constraint
-		model.addConstr(constraintLinExpr, GRB.EQUAL, 1, constraintName);
+		return solution;
 	}
 
 	private void verifyAllConstraints(double[][] xResults, double[][] deltaResults, double upperBoundOM) {
@@ -0,0 +1,373 @@
+package solver.gurobiconnector;
+
+import java.util.Set;
+
+import gurobi.GRB;
+import gurobi.GRBConstr;
+import gurobi.GRBEnv;
+import gurobi.GRBException;
+import gurobi.GRBLinExpr;
+import gurobi.GRBModel;
+import gurobi.GRBVar;
+import language.objectives.AttributeConstraint.BOUND_TYPE;
+import solver.common.CostType;
+import solver.common.ExplicitMDP;
+import solver.common.LPSolution;
+import solver.common.NonStrictConstraint;
+
+/**
+ * {@link SSPSolverSession} is a reusable, constrained SSP model of a fixed MDP structure. The base model -- the x and
+ * Delta variables, and the flow-conservation and Delta constraints -- is built only once, with an upper bound of
+ * occupation measure that is computed only once. Each subsequent solve only swaps the objective coefficients and the
+ * cost-constraint rows, and warm-starts from the previous solution.
+ *
+ * All {@link ExplicitMDP}s solved in a session must have the same transitions, initial state, goal states, and
+ * non-objective cost functions as the one the session is created with. Only their objective costs may differ.
+ *
+ * A session is not meant to be shared by concurrent solves; {@link GRBConnector} keeps one session per concurrent
+ * caller.
+ *
+ * @author rsukkerd
+ *
+ */
+public class SSPSolverSession {
+
+	private static final String X_VAR_NAME = "x";
+	private static final String DELTAX_VAR_NAME = "Deltax";
+
+	private ExplicitMDP mExplicitMDP;
+	private double mUpperBoundOM;
+	private GRBConnectorSettings mSettings;
+
+	// Base model, built on the first solve
+	private GRBEnv mEnv;
+	private GRBModel mModel;
+	private GRBVar[][] mXVars;
+	private GRBVar[][] mDeltaVars;
+
+	// Hard cost-constraint row of each cost function k, or null if no solve has constrained the k-th cost yet
+	private GRBConstr[] mHardCostConstrs;
+
+	// Solution of the previous feasible solve, as a MIP start; null if there is none
+	private double[][] mXStart;
+	private double[][] mDeltaStart;
+
+	/**
+	 *
+	 * @param explicitMDP
+	 *            : Explicit MDP whose structure the session is built on; its objective costs are not used
+	 * @param upperBoundOM
+	 *            : Upper bound of occupation measure X >= x_ia for all i, a (see
+	 *            {@link UpperBoundOccupationMeasureSolver})
+	 * @param settings
+	 *            : GRBConnector settings, containing tolerance parameters
+	 */
+	public SSPSolverSession(ExplicitMDP explicitMDP, double upperBoundOM, GRBConnectorSettings settings) {
+		mExplicitMDP = explicitMDP;
+		mUpperBoundOM = upperBoundOM;
+		mSettings = settings;
+	}
+
+	public double getUpperBoundOccupationMeasure() {
+		return mUpperBoundOM;
+	}
+
+	/**
+	 * Solve the constrained SSP with the objective costs of a given explicit MDP (see {@link SSPSolver#solve}).
+	 *
+	 * @param explicitMDP
+	 *            : Explicit MDP with the same structure as this session, and with the objective costs to minimize
+	 * @param softConstraints
+	 *            : Null iff there is no soft constraint
+	 * @param hardConstraints
+	 *            : Null iff unconstrained
+	 * @param xResults
+	 *            : Return parameter of x*_ia results
+	 * @param deltaResults
+	 *            : Return parameter of Delta*_ia results
+	 * @return Whether a feasible solution exists, its objective value, and the solution
+	 * @throws GRBException
+	 */
+	public synchronized LPSolution solve(ExplicitMDP explicitMDP, NonStrictConstraint[] softConstraints,
+			NonStrictConstraint[] hardConstraints, double[][] xResults, double[][] deltaResults)
+			throws GRBException {
+		if (mModel == null) {
+			buildBaseModel();
+		}
+
+		// Swap the objective coefficients
+		setObjectiveCoefficients(explicitMDP);
+
+		// Swap the (upper/lower bound) cost constraints, if any
+		// Soft constraints replace the hard constraints, and are only added for this solve
+		int numBaseVars = 0;
+		int numBaseConstrs = 0;
+		if (softConstraints != null) {
+			updateHardCostConstraints(null);
+			mModel.update();
+			numBaseVars = mModel.getVars().length;
+			numBaseConstrs = mModel.getConstrs().length;
+			CostConstraintUtils.addSoftCostConstraints(softConstraints, hardConstraints, mExplicitMDP, mXVars,
+					mModel);
+		} else {
+			updateHardCostConstraints(hardConstraints);
+		}
+
+		int numSolutions;
+		double objectiveValue = -1;
+
+		try {
+			// Warm-start from the previous solution
+			if (mXStart != null) {
+				mModel.set(GRB.DoubleAttr.Start, mXVars, mXStart);
+				mModel.set(GRB.DoubleAttr.Start, mDeltaVars, mDeltaStart);
+			}
+
+			// Solve optimization problem for x_ia and Delta_ia
+			mModel.optimize();
+
+			numSolutions = mModel.get(GRB.IntAttr.SolCount);
+
+			if (numSolutions > 0) {
+				// Solution found
+
+				// Objective value: sum_i,a (c_ia * x_ia)
+				objectiveValue = mModel.get(GRB.DoubleAttr.ObjVal);
+
+				// Query results: optimal values of x_ia and Delta_ia
+				double[][] grbXResults = mModel.get(GRB.DoubleAttr.X, mXVars);
+				double[][] grbDeltaResults = mModel.get(GRB.DoubleAttr.X, mDeltaVars);
+
+				// Copy x_ia and Delta_ia results to the return parameters
+				System.arraycopy(grbXResults, 0, xResults, 0, grbXResults.length);
+				System.arraycopy(grbDeltaResults, 0, deltaResults, 0, grbDeltaResults.length);
+
+				mXStart = grbXResults;
+				mDeltaStart = grbDeltaResults;
+			}
+		} finally {
+			if (softConstraints != null) {
+				// Remove the variables and constraints of the soft constraints, so that the session can be reused
+				removeAddedVarsAndConstrs(numBaseVars, numBaseConstrs);
+			}
+		}
+
+		// LP solution
+		LPSolution solution = new LPSolution(numSolutions > 0, objectiveValue);
+		solution.addSolution(X_VAR_NAME, xResults);
+		return solution;
+	}
+
+	/**
+	 * Dispose of the model and environment of this session.
+	 *
+	 * @throws GRBException
+	 */
+	public synchronized void dispose() throws GRBException {
+		if (mModel != null) {
+			mModel.dispose();
+			mEnv.dispose();
+			mModel = null;
+			mEnv = null;
+		}
+	}
+
+	/**
+	 * Build the base model: C1-C6 of {@link SSPSolver#solve}.
+	 *
+	 * @throws GRBException
+	 */
+	private void buildBaseModel() throws GRBException {
+		double intFeasTol = mSettings.getIntegralityTolerance();
+		double feasTol = mSettings.getFeasibilityTolerance();
+
+		mEnv = new GRBEnv();
+		mModel = new GRBModel(mEnv);
+
+		GRBSolverUtils.configureToleranceParameters(mModel, intFeasTol, feasTol);
+
+		int n = mExplicitMDP.getNumStates();
+		int m = mExplicitMDP.getNumActions();
+
+		// Create variables: x_ia
+		// Lower bound on variables: x_ia >= 0
+		mXVars = GRBSolverUtils.createOptimizationVars(X_VAR_NAME, GRB.CONTINUOUS, n, m, 0.0,
+				Double.POSITIVE_INFINITY, mModel);
+
+		// Create variables: Delta_ia (binary)
+		mDeltaVars = GRBSolverUtils.createOptimizationVars(DELTAX_VAR_NAME, GRB.BINARY, n, m, 0.0, 1.0, mModel);
+
+		// Objective coefficients are set for each solve
+		mModel.set(GRB.IntAttr.ModelSense, GRB.MINIMIZE);
+
+		// Add constraints
+		addFlowConservationConstraints();
+		addSourceFlowConstraint();
+		addSinksFlowConstraint();
+
+		// Add constraints to ensure deterministic solution policy
+		GRBSolverUtils.addDeltaConstraints(mExplicitMDP, DELTAX_VAR_NAME, mDeltaVars, mModel);
+
+		// For SSP, X is an upper-bound on occupation measure
+		GRBSolverUtils.addVarDeltaConstraints(mUpperBoundOM, mExplicitMDP, X_VAR_NAME, mXVars, DELTAX_VAR_NAME,
+				mDeltaVars, mModel);
+
+		mHardCostConstrs = new GRBConstr[mExplicitMDP.getNumCostFunctions()];
+	}
+
+	/**
+	 * Set the objective coefficients of x_ia to the objective costs of a given explicit MDP: c_ia for transition
+	 * costs, or c_i for state costs.
+	 *
+	 * @param explicitMDP
+	 *            : Explicit MDP with the objective costs
+	 * @throws GRBException
+	 */
+	private void setObjectiveCoefficients(ExplicitMDP explicitMDP) throws GRBException {
+		int n = explicitMDP.getNumStates();
+		int m = explicitMDP.getNumActions();
+		double[][] objectiveCoeffs = new double[n][m];
+
+		for (int i = 0; i < n; i++) {
+			for (int a = 0; a < m; a++) {
+				// Exclude any x_ia term when action a is not applicable in state i
+				if (explicitMDP.isActionApplicable(i, a)) {
+					objectiveCoeffs[i][a] = explicitMDP.getCostType() == CostType.TRANSITION_COST
+							? explicitMDP.getObjectiveTransitionCost(i, a)
+							: explicitMDP.getObjectiveStateCost(i);
+				}
+			}
+		}
+
+		mModel.set(GRB.DoubleAttr.Obj, mXVars, objectiveCoeffs);
+	}
+
+	/**
+	 * Update the hard cost-constraint rows: the row of each constrained cost function is added on its first use, and
+	 * afterwards only its sense and right-hand side are changed. The row of each unconstrained cost function is
+	 * relaxed to sum_i,a (c^k_ia * x_ia) <= infinity.
+	 *
+	 * @param hardConstraints
+	 *            : Null iff unconstrained
+	 * @throws GRBException
+	 */
+	private void updateHardCostConstraints(NonStrictConstraint[] hardConstraints) throws GRBException {
+		// Non-objective cost functions start at index 1 in ExplicitMDP
+		for (int k = 1; k < mHardCostConstrs.length; k++) {
+			NonStrictConstraint hardConstraint = hardConstraints != null && k < hardConstraints.length
+					? hardConstraints[k]
+					: null;
+			GRBConstr constr = mHardCostConstrs[k];
+
+			if (hardConstraint == null && constr != null) {
+				// Relax the row -- there is no constraint on this cost function k
+				constr.set(GRB.CharAttr.Sense, GRB.LESS_EQUAL);
+				constr.set(GRB.DoubleAttr.RHS, GRB.INFINITY);
+			} else if (hardConstraint != null && constr == null) {
+				mHardCostConstrs[k] = CostConstraintUtils.addHardCostConstraint(k, hardConstraint, mExplicitMDP,
+						mXVars, mModel);
+			} else if (hardConstraint != null) {
+				char sense = hardConstraint.getBoundType() == BOUND_TYPE.UPPER_BOUND ? GRB.LESS_EQUAL
+						: GRB.GREATER_EQUAL;
+				constr.set(GRB.CharAttr.Sense, sense);
+				constr.set(GRB.DoubleAttr.RHS, hardConstraint.getBoundValue());
+			}
+		}
+	}
+
+	/**
+	 * Remove all variables and constraints that were added after the first numBaseVars variables and numBaseConstrs
+	 * constraints.
+	 *
+	 * @param numBaseVars
+	 *            : Number of variables to keep
+	 * @param numBaseConstrs
+	 *            : Number of constraints to keep
+	 * @throws GRBException
+	 */
+	private void removeAddedVarsAndConstrs(int numBaseVars, int numBaseConstrs) throws GRBException {
+		mModel.update();
+		GRBVar[] vars = mModel.getVars();
+		GRBConstr[] constrs = mModel.getConstrs();
+
+		for (int v = numBaseVars; v < vars.length; v++) {
+			mModel.remove(vars[v]);
+		}
+		for (int c = numBaseConstrs; c < constrs.length; c++) {
+			mModel.remove(constrs[c]);
+		}
+		mModel.update();
+	}
+
+	/**
+	 * Add the flow-conservation constraints C1: out(i) - in(i) = 0, for all i in S \ (G and s0).
+	 *
+	 * @throws GRBException
+	 */
+	private void addFlowConservationConstraints() throws GRBException {
+		int n = mExplicitMDP.getNumStates();
+		Set<Integer> goals = mExplicitMDP.getGoalStates();
+		int iniState = mExplicitMDP.getInitialState();
+
+		for (int i = 0; i < n; i++) {
+			if (goals.contains(Integer.valueOf(i)) || iniState == i) {
+				// Exclude goal states G and initial state s0
+				continue;
+			}
+
+			String constraintName = "constraintC1_" + i;
+			// out(i) - in(i) = 0
+			GRBLinExpr constraintLinExpr = new GRBLinExpr();
+
+			// Expression += out(i)
+			GRBSolverUtils.addOutTerm(i, 1, mExplicitMDP, mXVars, constraintLinExpr);
+
+			// Expression -= in(i)
+			GRBSolverUtils.addInTerm(i, -1, mExplicitMDP, mXVars, constraintLinExpr);
+
+			// Add constraint
+			mModel.addConstr(constraintLinExpr, GRB.EQUAL, 0, constraintName);
+		}
+	}
+
+	/**
+	 * Add the source flow constraint C2: out(s0) - in(s0) = 1.
+	 *
+	 * @throws GRBException
+	 */
+	private void addSourceFlowConstraint() throws GRBException {
+		int iniState = mExplicitMDP.getInitialState();
+
+		String constraintName = "constraintC3";
+		// out(s0) - in(s0) = 1
+		GRBLinExpr constraintLinExpr = new GRBLinExpr();
+
+		// Expression += out(s0)
+		GRBSolverUtils.addOutTerm(iniState, 1, mExplicitMDP, mXVars, constraintLinExpr);
+
+		// Expression -= in(s0)
+		GRBSolverUtils.addInTerm(iniState, -1, mExplicitMDP, mXVars, constraintLinExpr);
+
+		// Add constraint
+		mModel.addConstr(constraintLinExpr, GRB.EQUAL, 1, constraintName);
+	}
+
+	/**
+	 * Add the sinks flow constraint C4: sum_{sg in G} (in(sg)) = 1.
+	 *
+	 * @throws GRBException
+	 */
+	private void addSinksFlowConstraint() throws GRBException {
+		String constraintName = "constraintC4";
+		// sum_{sg in G} (in(sg)) = 1
+		GRBLinExpr constraintLinExpr = new GRBLinExpr();
+
+		for (Integer goal : mExplicitMDP.getGoalStates()) {
+			// Expression += in(sg)
+			GRBSolverUtils.addInTerm(goal, 1, mExplicitMDP, mXVars, constraintLinExpr);
+		}
+
+		// Add constraint
+		mModel.addConstr(constraintLinExpr, GRB.EQUAL, 1, constraintName);
+	}
+}
@@ -0,0 +1,118 @@
+package solver.nativeconnector;
+
+import java.util.Arrays;
+
+import solver.common.ExplicitMDP;
+import solver.common.ExplicitModelChecker;
+import solver.common.LPSolution;
+
+/**
+ * {@link AverageCostMDPSolver} solves an unconstrained average-cost MDP in pure Java, using relative value iteration.
+ * The MDP is assumed to be unichain.
+ *
+ * The result is returned in the same form as the LP-based solver: a deterministic policy matrix, and an
+ * {@link LPSolution} containing the occupation measure "x" of the solution policy -- that is, the limiting
+ * probability that the system occupies state i and chooses action a, when the initial state distribution is uniform.
+ *
+ * @author rsukkerd
+ *
+ */
+public class AverageCostMDPSolver {
+
+	private ExplicitMDP mExplicitMDP;
+	private NativeConnectorSettings mSettings;
+
+	/**
+	 * Constructor for unconstrained average-cost MDP.
+	 *
+	 * @param explicitMDP
+	 *            : Explicit MDP
+	 * @param settings
+	 *            : NativeConnector settings, containing convergence parameters
+	 */
+	public AverageCostMDPSolver(ExplicitMDP explicitMDP, NativeConnectorSettings settings) {
+		mExplicitMDP = explicitMDP;
+		mSettings = settings;
+	}
+
+	/**
+	 * Solve for an optimal policy for the average-cost MDP.
+	 *
+	 * @param outputPolicy
+	 *            : Return parameter of optimal policy
+	 * @return Whether a solution policy exists, its objective value, and the occupation measure of the policy
+	 */
+	public LPSolution solveOptimalPolicy(double[][] outputPolicy) {
+		int n = mExplicitMDP.getNumStates();
+		int m = mExplicitMDP.getNumActions();
+
+		int[] policy = new int[n];
+		relativeValueIteration(policy);
+
+		// Limiting state distribution when the initial state distribution is uniform
+		double[] iniDist = new double[n];
+		Arrays.fill(iniDist, 1.0 / n);
+		double[] stationaryDist = NativeSolverUtils.computeLimitingDistribution(mExplicitMDP, policy, iniDist,
+				mSettings.getEpsilon(), mSettings.getMaxIterations());
+		double[][] xResults = new double[n][m];
+
+		for (int i = 0; i < n; i++) {
+			if (policy[i] >= 0) {
+				xResults[i][policy[i]] = stationaryDist[i];
+
+				// Both recurrent and transient states are assigned an action
+				outputPolicy[i][policy[i]] = 1;
+			}
+		}
+
+		// Average cost of the policy: sum_i,a (x_ia * c_ia)
+		double objectiveValue = ExplicitModelChecker.computeOccupancyCost(xResults, 0, mExplicitMDP);
+
+		LPSolution solution = new LPSolution(true, objectiveValue);
+		solution.addSolution("x", xResults);
+		return solution;
+	}
+
+	/**
+	 * Relative value iteration on the aperiodicity-transformed MDP:
+	 *
+	 * h_{t+1}(i) = T h_t(i) - T h_t(ref), where T h(i) = min_a (tau * c_ia + tau * sum_j (P(j|i,a) * h(j)) + (1 -
+	 * tau) * h(i)).
+	 *
+	 * @param policy
+	 *            : Return parameter of the optimal action index at each state
+	 */
+	private void relativeValueIteration(int[] policy) {
+		int n = mExplicitMDP.getNumStates();
+		int refState = mExplicitMDP.getInitialState();
+		double tau = NativeSolverUtils.APERIODICITY_TAU;
+
+		double[] bias = new double[n];
+		double[] newBias = new double[n];
+		Arrays.fill(policy, -1);
+
+		for (int iter = 0; iter < mSettings.getMaxIterations(); iter++) {
+			for (int i = 0; i < n; i++) {
+				double backupValue = NativeSolverUtils.backup(mExplicitMDP, i, bias, policy);
+				newBias[i] = Double.isInfinite(backupValue) ? bias[i] : tau * backupValue + (1 - tau) * bias[i];
+			}
+
+			// Normalize the bias at the reference state to 0
+			double refValue = newBias[refState];
+
+			// Span of the difference between successive bias vectors
+			double maxDelta = Double.NEGATIVE_INFINITY;
+			double minDelta = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < n; i++) {
+				double delta = newBias[i] - bias[i];
+				maxDelta = Math.max(maxDelta, delta);
+				minDelta = Math.min(minDelta, delta);
+				bias[i] = newBias[i] - refValue;
+			}
+
+			if (maxDelta - minDelta < mSettings.getEpsilon()) {
+				break;
+			}
+		}
+	}
+}
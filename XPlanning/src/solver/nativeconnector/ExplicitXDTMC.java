@@ -0,0 +1,295 @@
+package solver.nativeconnector;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.Set;
+
+import language.domain.models.ActionDefinition;
+import language.domain.models.IAction;
+import language.dtmc.TwoTBN;
+import language.dtmc.XDTMC;
+import language.exceptions.XMDPException;
+import language.mdp.Effect;
+import language.mdp.ProbabilisticEffect;
+import language.mdp.StateVarTuple;
+import language.policy.Policy;
+import solver.common.CostType;
+import solver.common.ExplicitMDP;
+
+/**
+ * {@link ExplicitXDTMC} is the explicit form of an {@link XDTMC}: all states that are reachable from the initial state
+ * of the XMDP by following the policy, and their successor distributions. It is built by a single forward exploration
+ * of the induced Markov chain, without translating the XDTMC to PRISM.
+ *
+ * The chain is stored as an {@link ExplicitMDP} with at most 1 applicable action per state: the policy action. Goal
+ * states are absorbing and are not expanded -- except the initial state, in which an action is always taken. A state
+ * that is not in the policy is a deadlock state: it has no action, and is also absorbing.
+ *
+ * @author rsukkerd
+ *
+ */
+public class ExplicitXDTMC {
+
+	/**
+	 * Function that assigns rewards to each action step of the chain.
+	 */
+	interface StepRewardFunction {
+		double[] computeStepRewards(StateVarTuple state, IAction action, Map<StateVarTuple, Double> successors)
+				throws XMDPException;
+	}
+
+	private XDTMC mXDTMC;
+	private List<StateVarTuple> mStates = new ArrayList<>();
+	private Map<StateVarTuple, Integer> mExpandedStateIndices = new HashMap<>();
+	private Map<StateVarTuple, Integer> mGoalStateIndices = new HashMap<>();
+	private ExplicitMDP mChain;
+	private int[] mPolicy;
+
+	public ExplicitXDTMC(XDTMC xdtmc) throws XMDPException {
+		this(xdtmc, 0, null);
+	}
+
+	/**
+	 *
+	 * @param xdtmc
+	 *            : Markov chain induced by a policy
+	 * @param numRewards
+	 *            : Number of reward structures of the chain
+	 * @param rewardFunction
+	 *            : Function that assigns rewards to each action step, or null if there is no reward structure
+	 * @throws XMDPException
+	 */
+	ExplicitXDTMC(XDTMC xdtmc, int numRewards, StepRewardFunction rewardFunction) throws XMDPException {
+		mXDTMC = xdtmc;
+		List<ChainNode> nodes = exploreInducedChain(rewardFunction);
+		buildChain(nodes, numRewards);
+	}
+
+	/**
+	 * Explore all states of the induced chain that are reachable from the initial state, in breadth-first order.
+	 *
+	 * @param rewardFunction
+	 *            : Function that assigns rewards to each action step, or null
+	 * @return Explored states, where the initial state has index 0
+	 * @throws XMDPException
+	 */
+	private List<ChainNode> exploreInducedChain(StepRewardFunction rewardFunction) throws XMDPException {
+		Policy policy = mXDTMC.getPolicy();
+		List<ChainNode> nodes = new ArrayList<>();
+		Queue<Integer> queue = new ArrayDeque<>();
+
+		StateVarTuple iniState = mXDTMC.getXMDP().getInitialState();
+		mStates.add(iniState);
+		mExpandedStateIndices.put(iniState, 0);
+		nodes.add(new ChainNode());
+		queue.add(0);
+
+		while (!queue.isEmpty()) {
+			int i = queue.poll();
+			StateVarTuple state = mStates.get(i);
+			ChainNode node = nodes.get(i);
+
+			if (!policy.containsState(state)) {
+				// No action is taken in this state: PRISM treats it as a deadlock
+				continue;
+			}
+
+			IAction action = policy.getAction(state);
+			Map<StateVarTuple, Double> successors = computeSuccessors(state, action);
+
+			node.mAction = action;
+			node.mSuccStates = new int[successors.size()];
+			node.mSuccProbs = new double[successors.size()];
+			if (rewardFunction != null) {
+				node.mRewards = rewardFunction.computeStepRewards(state, action, successors);
+			}
+
+			int k = 0;
+			for (Entry<StateVarTuple, Double> entry : successors.entrySet()) {
+				StateVarTuple succ = entry.getKey();
+				boolean isGoal = isGoal(succ);
+				Map<StateVarTuple, Integer> stateIndices = isGoal ? mGoalStateIndices : mExpandedStateIndices;
+
+				Integer j = stateIndices.get(succ);
+				if (j == null) {
+					j = mStates.size();
+					mStates.add(succ);
+					stateIndices.put(succ, j);
+
+					ChainNode succNode = new ChainNode();
+					succNode.mIsGoal = isGoal;
+					nodes.add(succNode);
+
+					if (!isGoal) {
+						queue.add(j);
+					}
+				}
+
+				node.mSuccStates[k] = j;
+				node.mSuccProbs[k] = entry.getValue();
+				k++;
+			}
+		}
+		return nodes;
+	}
+
+	/**
+	 * Compute the distribution of the next state, as the product of the independent probabilistic effects of the
+	 * action.
+	 *
+	 * @param state
+	 *            : Current state
+	 * @param action
+	 *            : Action taken in the current state
+	 * @return Distribution of the next state
+	 * @throws XMDPException
+	 */
+	private Map<StateVarTuple, Double> computeSuccessors(StateVarTuple state, IAction action) throws XMDPException {
+		ActionDefinition<IAction> actionDef = mXDTMC.getXMDP().getActionSpace().getActionDefinition(action);
+		TwoTBN<IAction> twoTBN = mXDTMC.get2TBN(actionDef);
+
+		// Use insertion order, so that the state indices of the chain are deterministic
+		Map<StateVarTuple, Double> dist = new LinkedHashMap<>();
+		dist.put(state, 1.0);
+
+		for (ProbabilisticEffect probEffect : twoTBN.getProbabilisticEffects(state)) {
+			Map<StateVarTuple, Double> newDist = new LinkedHashMap<>();
+
+			for (Entry<StateVarTuple, Double> entry : dist.entrySet()) {
+				for (Entry<Effect, Double> effectEntry : probEffect) {
+					double prob = entry.getValue() * effectEntry.getValue();
+					if (prob == 0) {
+						continue;
+					}
+
+					StateVarTuple succ = new StateVarTuple();
+					succ.addStateVarTuple(entry.getKey());
+					succ.addStateVarTuple(effectEntry.getKey());
+					newDist.merge(succ, prob, Double::sum);
+				}
+			}
+			dist = newDist;
+		}
+		return dist;
+	}
+
+	private void buildChain(List<ChainNode> nodes, int numRewards) {
+		int n = nodes.size();
+		Set<String> actionNames = new HashSet<>();
+		Set<Integer> goals = new HashSet<>();
+
+		for (int i = 0; i < n; i++) {
+			ChainNode node = nodes.get(i);
+			if (node.mAction != null) {
+				actionNames.add(node.mAction.getName());
+			}
+			if (node.mIsGoal) {
+				goals.add(i);
+			}
+		}
+
+		mChain = new ExplicitMDP(n, actionNames, CostType.TRANSITION_COST, numRewards, 0, goals);
+		mPolicy = new int[n];
+
+		for (int i = 0; i < n; i++) {
+			ChainNode node = nodes.get(i);
+			if (node.mAction == null) {
+				// Goal state or deadlock state
+				mPolicy[i] = -1;
+				continue;
+			}
+
+			int a = mChain.getActionIndex(node.mAction.getName());
+			mPolicy[i] = a;
+
+			for (int k = 0; k < node.mSuccStates.length; k++) {
+				mChain.addTransitionProbability(i, a, node.mSuccStates[k], node.mSuccProbs[k]);
+			}
+			for (int r = 0; r < numRewards; r++) {
+				mChain.addTransitionCost(r, i, a, node.mRewards[r]);
+			}
+		}
+	}
+
+	private boolean isGoal(StateVarTuple state) {
+		StateVarTuple goal = mXDTMC.getXMDP().getGoal();
+		return goal != null && state.contains(goal);
+	}
+
+	public XDTMC getXDTMC() {
+		return mXDTMC;
+	}
+
+	public int getNumStates() {
+		return mStates.size();
+	}
+
+	public StateVarTuple getState(int i) {
+		return mStates.get(i);
+	}
+
+	/**
+	 *
+	 * @param state
+	 *            : State
+	 * @return Index of the state in the chain, or -1 if the state is not reachable from the initial state
+	 */
+	public int getStateIndex(StateVarTuple state) {
+		Integer index = mExpandedStateIndices.get(state);
+		if (index == null) {
+			index = mGoalStateIndices.get(state);
+		}
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * Graph-only reachability: all states of the chain are reachable from the initial state with positive probability.
+	 *
+	 * @param state
+	 *            : State
+	 * @return Whether the state is reachable from the initial state with positive probability
+	 */
+	public boolean isReachable(StateVarTuple state) {
+		return getStateIndex(state) >= 0;
+	}
+
+	/**
+	 *
+	 * @return All states that are reachable from the initial state with positive probability
+	 */
+	public Set<StateVarTuple> getReachableStates() {
+		return new HashSet<>(mStates);
+	}
+
+	/**
+	 *
+	 * @return Explicit chain, where each state has at most 1 applicable action
+	 */
+	public ExplicitMDP getExplicitMDP() {
+		return mChain;
+	}
+
+	/**
+	 *
+	 * @return policy[i] is the action index at state i in the explicit chain, or -1 if state i has no action
+	 */
+	public int[] getPolicy() {
+		return mPolicy;
+	}
+
+	private static class ChainNode {
+		// Policy action, or null if the state is a goal state or a deadlock state
+		private IAction mAction;
+		private boolean mIsGoal;
+		private int[] mSuccStates;
+		private double[] mSuccProbs;
+		private double[] mRewards;
+	}
+}
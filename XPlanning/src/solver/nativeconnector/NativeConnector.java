@@ -0,0 +1,342 @@
+package solver.nativeconnector;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import explanation.analysis.ParetoFrontier;
+import explanation.analysis.PolicyInfo;
+import language.domain.metrics.IQFunction;
+import language.domain.metrics.ITransitionStructure;
+import language.domain.models.IAction;
+import language.exceptions.QFunctionNotFoundException;
+import language.exceptions.XMDPException;
+import language.mdp.XMDP;
+import language.objectives.AttributeCostFunction;
+import language.objectives.CostCriterion;
+import language.objectives.CostFunction;
+import language.objectives.IAdditiveCostFunction;
+import language.policy.Policy;
+import solver.common.ExplicitMDP;
+import solver.common.ExplicitModelChecker;
+import solver.common.LPSolution;
+import solver.gurobiconnector.GRBPolicyReader;
+import solver.prismconnector.QFunctionEncodingScheme;
+import solver.prismconnector.exceptions.ExplicitModelParsingException;
+import solver.prismconnector.explicitmodel.ExplicitMDPReader;
+import solver.prismconnector.explicitmodel.PrismExplicitModelReader;
+
+/**
+ * {@link NativeConnector} computes optimal policies of unconstrained MDPs using the pure-Java solvers in this package,
+ * which operate directly on the {@link ExplicitMDP} read from PRISM explicit model files. It requires neither PRISM's
+ * model checker nor Gurobi.
+ *
+ * Constrained MDPs are not supported; use GRBConnector for those.
+ *
+ * @author rsukkerd
+ *
+ */
+public class NativeConnector {
+
+	private XMDP mXMDP;
+	private CostCriterion mCostCriterion;
+	private NativeConnectorSettings mSettings;
+	private QFunctionEncodingScheme mQFunctionEncoding;
+	private ExplicitMDPReader mExplicitMDPReader;
+	private GRBPolicyReader mPolicyReader;
+
+	// Explicit MDP corresponding to the given XMDP but with empty slots for objective costs (unused)
+	private ExplicitMDP mExplicitMDP;
+
+	// Keep track of occupation measure corresponding to each policy computed by the native solvers
+	// Policies may be computed and queried by multiple threads, as are the policies of GRBConnector
+	private Map<Policy, LPSolution> mPolicyToSolution = new ConcurrentHashMap<>();
+
+	public NativeConnector(XMDP xmdp, CostCriterion costCriterion, NativeConnectorSettings settings)
+			throws IOException, ExplicitModelParsingException {
+		mXMDP = xmdp;
+		mCostCriterion = costCriterion;
+		mSettings = settings;
+
+		PrismExplicitModelReader prismExplicitModelReader = settings.getPrismExplicitModelReader();
+		mQFunctionEncoding = prismExplicitModelReader.getValueEncodingScheme().getQFunctionEncodingScheme();
+		mExplicitMDPReader = new ExplicitMDPReader(prismExplicitModelReader, costCriterion);
+		mPolicyReader = new GRBPolicyReader(prismExplicitModelReader);
+
+		// Explicit MDP corresponding to the given XMDP but with empty slots for objective costs (unused)
+		mExplicitMDP = mExplicitMDPReader.readExplicitMDP();
+	}
+
+	/**
+	 * Generate an optimal policy for this MDP.
+	 *
+	 * @return Optimal policy
+	 * @throws IOException
+	 * @throws ExplicitModelParsingException
+	 * @throws XMDPException
+	 */
+	public PolicyInfo generateOptimalPolicy() throws IOException, ExplicitModelParsingException, XMDPException {
+		return generateOptimalPolicy(mXMDP.getCostFunction());
+	}
+
+	/**
+	 * Generate an optimal policy for this MDP with the given objective function.
+	 *
+	 * @param objectiveFunction
+	 *            : Optimization objective function
+	 * @return Optimal policy
+	 * @throws IOException
+	 * @throws ExplicitModelParsingException
+	 * @throws XMDPException
+	 */
+	public PolicyInfo generateOptimalPolicy(IAdditiveCostFunction objectiveFunction)
+			throws IOException, ExplicitModelParsingException, XMDPException {
+		// Create a new ExplicitMDP for every new objective function, because this method will fill in the
+		// ExplicitMDP with the objective costs
+		// The auxiliary cost of SSPs is omitted if the solution method supports zero-cost end components
+		boolean includeAuxiliaryCost = mCostCriterion != CostCriterion.TOTAL_COST
+				|| !mSettings.getSolutionMethod().handlesZeroCostEndComponents();
+		ExplicitMDP explicitMDP = mExplicitMDPReader.readExplicitMDP(objectiveFunction, includeAuxiliaryCost);
+		return generateOptimalPolicy(explicitMDP);
+	}
+
+	/**
+	 * Generate an optimal policy for each of the given cost functions, which are over the QA functions of this MDP but
+	 * may have different scaling constants (e.g., different preference profiles).
+	 *
+	 * The explicit model is read only once. For each cost function, only the objective costs are recomputed as a
+	 * weighted sum of the QA costs in the model, and the SSP is warm-started from the optimal values of the previous
+	 * cost function. Therefore, the cost functions should be ordered such that consecutive ones are similar.
+	 *
+	 * @param costFunctions
+	 *            : Cost functions over the QA functions of this MDP
+	 * @return Optimal policy of each cost function, in the same order, whose XMDP is this MDP with the cost function;
+	 *         or null if there is no solution policy
+	 * @throws IOException
+	 * @throws ExplicitModelParsingException
+	 * @throws XMDPException
+	 */
+	public List<PolicyInfo> generateOptimalPolicies(List<CostFunction> costFunctions)
+			throws IOException, ExplicitModelParsingException, XMDPException {
+		// The objective costs of this ExplicitMDP are rewritten for every cost function
+		ExplicitMDP explicitMDP = mExplicitMDPReader.readExplicitMDP();
+		boolean includeAuxiliaryCost = mCostCriterion != CostCriterion.TOTAL_COST
+				|| !mSettings.getSolutionMethod().handlesZeroCostEndComponents();
+
+		int n = explicitMDP.getNumStates();
+		int m = explicitMDP.getNumActions();
+		double[] values = new double[n];
+		List<PolicyInfo> policyInfos = new ArrayList<>();
+
+		for (CostFunction costFunction : costFunctions) {
+			mExplicitMDPReader.setObjectiveCosts(explicitMDP, costFunction, includeAuxiliaryCost);
+
+			double[][] policyMatrix = new double[n][m];
+			LPSolution solution = null;
+
+			if (mCostCriterion == CostCriterion.TOTAL_COST) {
+				SSPSolver solver = new SSPSolver(explicitMDP, mSettings);
+				solution = solver.solveOptimalPolicy(policyMatrix, values);
+			} else if (mCostCriterion == CostCriterion.AVERAGE_COST) {
+				AverageCostMDPSolver solver = new AverageCostMDPSolver(explicitMDP, mSettings);
+				solution = solver.solveOptimalPolicy(policyMatrix);
+			}
+
+			if (solution != null && solution.exists()) {
+				Policy policy = mPolicyReader.readPolicyFromPolicyMatrix(policyMatrix, explicitMDP);
+				// Keep track of occupation measure corresponding to each policy computed by the native solvers
+				mPolicyToSolution.put(policy, solution);
+				policyInfos.add(buildPolicyInfo(policy, createXMDP(costFunction)));
+			} else {
+				policyInfos.add(null);
+			}
+		}
+		return policyInfos;
+	}
+
+	/**
+	 * Compute the convex Pareto frontier of the deterministic policies of this MDP over all of its QAs, with the
+	 * default tolerance and maximum number of weight checks (see {@link ParetoFrontierSolver}).
+	 *
+	 * @return Vertex policies of the convex Pareto frontier, with their QA values and supporting weights
+	 * @throws IOException
+	 * @throws ExplicitModelParsingException
+	 * @throws XMDPException
+	 */
+	public ParetoFrontier computeParetoFrontier() throws IOException, ExplicitModelParsingException, XMDPException {
+		return computeParetoFrontier(ParetoFrontierSolver.DEFAULT_TOLERANCE,
+				ParetoFrontierSolver.DEFAULT_MAX_WEIGHT_CHECKS);
+	}
+
+	/**
+	 * Compute the convex Pareto frontier of the deterministic policies of this MDP over all of its QAs, by adaptive
+	 * refinement of the QA weights. All weighted problems are solved on a single explicit MDP.
+	 *
+	 * @param tolerance
+	 *            : Relative tolerance for comparing QA vectors and weighted values
+	 * @param maxWeightChecks
+	 *            : Maximum number of weight vectors to check
+	 * @return Vertex policies of the convex Pareto frontier, with their QA values and supporting weights
+	 * @throws IOException
+	 * @throws ExplicitModelParsingException
+	 * @throws XMDPException
+	 */
+	public ParetoFrontier computeParetoFrontier(double tolerance, int maxWeightChecks)
+			throws IOException, ExplicitModelParsingException, XMDPException {
+		List<IQFunction<IAction, ITransitionStructure<IAction>>> qFunctions = mQFunctionEncoding
+				.getOrderedQFunctions();
+		int[] objectiveIndices = new int[qFunctions.size()];
+		for (int q = 0; q < qFunctions.size(); q++) {
+			objectiveIndices[q] = mQFunctionEncoding.getRewardStructureIndex(qFunctions.get(q));
+		}
+
+		// The objective costs of this ExplicitMDP are rewritten for every weight vector
+		ExplicitMDP explicitMDP = mExplicitMDPReader.readExplicitMDP();
+		boolean includeAuxiliaryCost = mCostCriterion != CostCriterion.TOTAL_COST
+				|| !mSettings.getSolutionMethod().handlesZeroCostEndComponents();
+		double auxiliaryCost = includeAuxiliaryCost ? mXMDP.getCostFunction().getOffset() : 0;
+
+		ParetoFrontierSolver solver = new ParetoFrontierSolver(explicitMDP, objectiveIndices, mCostCriterion,
+				mSettings, auxiliaryCost, tolerance, maxWeightChecks);
+		List<ParetoFrontierSolver.Vertex> vertices = solver.solve();
+
+		ParetoFrontier frontier = new ParetoFrontier(solver.isComplete());
+		for (ParetoFrontierSolver.Vertex vertex : vertices) {
+			Policy policy = mPolicyReader.readPolicyFromPolicyMatrix(vertex.getPolicyMatrix(), explicitMDP);
+			// Keep track of occupation measure corresponding to each policy computed by the native solvers
+			mPolicyToSolution.put(policy, vertex.getSolution());
+
+			Map<IQFunction<?, ?>, Double> supportingWeights = new HashMap<>();
+			for (int q = 0; q < qFunctions.size(); q++) {
+				supportingWeights.put(qFunctions.get(q), vertex.getWeights()[q]);
+			}
+			frontier.addVertex(buildPolicyInfo(policy), supportingWeights);
+		}
+		return frontier;
+	}
+
+	private PolicyInfo generateOptimalPolicy(ExplicitMDP explicitMDP) throws XMDPException, IOException {
+		int n = explicitMDP.getNumStates();
+		int m = explicitMDP.getNumActions();
+		double[][] policyMatrix = new double[n][m];
+		LPSolution solution = null;
+
+		if (mCostCriterion == CostCriterion.TOTAL_COST) {
+			SSPSolver solver = new SSPSolver(explicitMDP, mSettings);
+			solution = solver.solveOptimalPolicy(policyMatrix);
+		} else if (mCostCriterion == CostCriterion.AVERAGE_COST) {
+			AverageCostMDPSolver solver = new AverageCostMDPSolver(explicitMDP, mSettings);
+			solution = solver.solveOptimalPolicy(policyMatrix);
+		}
+
+		if (solution != null && solution.exists()) {
+			Policy policy = mPolicyReader.readPolicyFromPolicyMatrix(policyMatrix, explicitMDP);
+			// Keep track of occupation measure corresponding to each policy computed by the native solvers
+			mPolicyToSolution.put(policy, solution);
+			return buildPolicyInfo(policy);
+		}
+
+		return null;
+	}
+
+	public PolicyInfo buildPolicyInfo(Policy policy) throws QFunctionNotFoundException {
+		return buildPolicyInfo(policy, mXMDP);
+	}
+
+	private PolicyInfo buildPolicyInfo(Policy policy, XMDP xmdp) throws QFunctionNotFoundException {
+		CostFunction costFunction = xmdp.getCostFunction();
+		double objectiveCost = computeCost(policy, costFunction);
+		PolicyInfo policyInfo = new PolicyInfo(xmdp, policy, objectiveCost);
+
+		for (IQFunction<?, ?> qFunction : xmdp.getQSpace()) {
+			// QA value
+			double qaValue = computeQAValue(policy, qFunction);
+			policyInfo.putQAValue(qFunction, qaValue);
+
+			// Scaled QA cost
+			AttributeCostFunction<?> attrCostFunction = costFunction.getAttributeCostFunction(qFunction);
+			double nonScaledQACost = computeQACost(policy, qFunction, costFunction);
+			double scaledQACost = nonScaledQACost * costFunction.getScalingConstant(attrCostFunction);
+			policyInfo.putScaledQACost(qFunction, scaledQACost);
+		}
+		return policyInfo;
+	}
+
+	/**
+	 * This MDP with a different cost function. All other components are shared.
+	 */
+	private XMDP createXMDP(CostFunction costFunction) {
+		if (costFunction.equals(mXMDP.getCostFunction())) {
+			return mXMDP;
+		}
+		return new XMDP(mXMDP.getStateSpace(), mXMDP.getActionSpace(), mXMDP.getInitialState(), mXMDP.getGoal(),
+				mXMDP.getTransitionFunction(), mXMDP.getQSpace(), costFunction);
+	}
+
+	public double computeCost(Policy policy) {
+		int costFuncIndex = mQFunctionEncoding.getRewardStructureIndex(mXMDP.getCostFunction());
+		return computeOccupancyCost(policy, costFuncIndex, 0, 1);
+	}
+
+	private double computeCost(Policy policy, CostFunction costFunction) throws QFunctionNotFoundException {
+		if (costFunction.equals(mXMDP.getCostFunction())) {
+			return computeCost(policy);
+		}
+
+		// The cost function doesn't have a corresponding reward structure in the model:
+		// sum_k (scaling const * QA cost) + offset * expected number of "compute" transitions
+		double cost = 0;
+		for (AttributeCostFunction<IQFunction<IAction, ITransitionStructure<IAction>>> attrCostFunction : costFunction
+				.getAttributeCostFunctions()) {
+			double nonScaledQACost = computeQACost(policy, attrCostFunction.getQFunction(), costFunction);
+			cost += nonScaledQACost * costFunction.getScalingConstant(attrCostFunction);
+		}
+		return cost + costFunction.getOffset() * computeExpectedNumComputeTransitions(policy);
+	}
+
+	private double computeExpectedNumComputeTransitions(Policy policy) {
+		double[][] xResults = mPolicyToSolution.get(policy).getSolution("x");
+		int n = mExplicitMDP.getNumStates();
+		int m = mExplicitMDP.getNumActions();
+		double sum = 0;
+		for (int a = 0; a < m; a++) {
+			if (!mExplicitMDP.getActionNameAtIndex(a).equals("compute")) {
+				continue;
+			}
+			for (int i = 0; i < n; i++) {
+				if (mExplicitMDP.isActionApplicable(i, a)) {
+					sum += xResults[i][a];
+				}
+			}
+		}
+		return sum;
+	}
+
+	public double computeQAValue(Policy policy, IQFunction<?, ?> qFunction) throws QFunctionNotFoundException {
+		int costFuncIndex = mQFunctionEncoding.getRewardStructureIndex(qFunction);
+		return computeOccupancyCost(policy, costFuncIndex, 0, 1);
+	}
+
+	public double computeQACost(Policy policy, IQFunction<?, ?> qFunction) throws QFunctionNotFoundException {
+		return computeQACost(policy, qFunction, mXMDP.getCostFunction());
+	}
+
+	private double computeQACost(Policy policy, IQFunction<?, ?> qFunction, CostFunction costFunction)
+			throws QFunctionNotFoundException {
+		int costFuncIndex = mQFunctionEncoding.getRewardStructureIndex(qFunction);
+		AttributeCostFunction<?> attrCostFunction = costFunction.getAttributeCostFunction(qFunction);
+		double costShift = attrCostFunction.getIntercept();
+		double costMultiplier = attrCostFunction.getSlope();
+		return computeOccupancyCost(policy, costFuncIndex, costShift, costMultiplier);
+	}
+
+	private double computeOccupancyCost(Policy policy, int costFuncIndex, double costShift, double costMultiplier) {
+		LPSolution solution = mPolicyToSolution.get(policy);
+		double[][] xResults = solution.getSolution("x");
+		return ExplicitModelChecker.computeOccupancyCost(xResults, costFuncIndex, costShift, costMultiplier,
+				mExplicitMDP);
+	}
+}
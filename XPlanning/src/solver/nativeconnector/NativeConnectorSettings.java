@@ -0,0 +1,133 @@
+package solver.nativeconnector;
+
+import solver.prismconnector.explicitmodel.PrismExplicitModelReader;
+
+public class NativeConnectorSettings {
+
+	public enum NativeSolutionMethod {
+		VALUE_ITERATION("Value iteration", false), GAUSS_SEIDEL("Gauss-Seidel", true), TOPOLOGICAL_VALUE_ITERATION(
+				"Topological value iteration", true), POLICY_ITERATION("Policy iteration", false), BACKWARD_INDUCTION(
+						"Backward induction", true);
+
+		private String mName;
+		private boolean mHandlesZeroCostEndComponents;
+
+		NativeSolutionMethod(String name, boolean handlesZeroCostEndComponents) {
+			mName = name;
+			mHandlesZeroCostEndComponents = handlesZeroCostEndComponents;
+		}
+
+		/**
+		 *
+		 * @return Whether this method finds an optimal proper policy even if the MDP has zero-cost cycles -- i.e.,
+		 *         whether it does not require the auxiliary cost of SSPs
+		 */
+		public boolean handlesZeroCostEndComponents() {
+			return mHandlesZeroCostEndComponents;
+		}
+
+		@Override
+		public String toString() {
+			return mName;
+		}
+	}
+
+	/*
+	 * Cached hashCode -- Effective Java
+	 */
+	private volatile int hashCode;
+
+	private PrismExplicitModelReader mPrismExplicitModelReader;
+	private NativeSolutionMethod mSolutionMethod;
+	private double mEpsilon;
+	private int mMaxIterations;
+	private double mRoundOff;
+
+	/**
+	 * Default native solver settings: Solution method: Gauss-Seidel, with the default convergence threshold, maximum
+	 * number of iterations, and round-off value.
+	 *
+	 * @param prismExplicitModelReader
+	 *            : PRISM explicit model reader
+	 */
+	public NativeConnectorSettings(PrismExplicitModelReader prismExplicitModelReader) {
+		this(prismExplicitModelReader, NativeSolutionMethod.GAUSS_SEIDEL, NativeSolverUtils.DEFAULT_EPSILON,
+				NativeSolverUtils.DEFAULT_MAX_ITERATIONS, NativeSolverUtils.DEFAULT_ROUND_OFF);
+	}
+
+	public NativeConnectorSettings(PrismExplicitModelReader prismExplicitModelReader,
+			NativeSolutionMethod solutionMethod) {
+		this(prismExplicitModelReader, solutionMethod, NativeSolverUtils.DEFAULT_EPSILON,
+				NativeSolverUtils.DEFAULT_MAX_ITERATIONS, NativeSolverUtils.DEFAULT_ROUND_OFF);
+	}
+
+	public NativeConnectorSettings(PrismExplicitModelReader prismExplicitModelReader,
+			NativeSolutionMethod solutionMethod, double epsilon, int maxIterations, double roundOff) {
+		mPrismExplicitModelReader = prismExplicitModelReader;
+		mSolutionMethod = solutionMethod;
+		mEpsilon = epsilon;
+		mMaxIterations = maxIterations;
+		mRoundOff = roundOff;
+	}
+
+	public PrismExplicitModelReader getPrismExplicitModelReader() {
+		return mPrismExplicitModelReader;
+	}
+
+	public NativeSolutionMethod getSolutionMethod() {
+		return mSolutionMethod;
+	}
+
+	/**
+	 * Iterative methods stop when the maximum relative difference between the values of two successive iterations is
+	 * smaller than epsilon.
+	 *
+	 * @return Convergence threshold
+	 */
+	public double getEpsilon() {
+		return mEpsilon;
+	}
+
+	public int getMaxIterations() {
+		return mMaxIterations;
+	}
+
+	/**
+	 * Any value smaller than the round-off value will be considered zero. This is used for determining if occupation
+	 * measure, x_ia of state i and action a, is positive.
+	 *
+	 * @return Round-off value
+	 */
+	public double getRoundOff() {
+		return mRoundOff;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		if (!(obj instanceof NativeConnectorSettings)) {
+			return false;
+		}
+		NativeConnectorSettings settings = (NativeConnectorSettings) obj;
+		return settings.mPrismExplicitModelReader.equals(mPrismExplicitModelReader)
+				&& settings.mSolutionMethod == mSolutionMethod && Double.compare(settings.mEpsilon, mEpsilon) == 0
+				&& settings.mMaxIterations == mMaxIterations && Double.compare(settings.mRoundOff, mRoundOff) == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = hashCode;
+		if (result == 0) {
+			result = 17;
+			result = 31 * result + mPrismExplicitModelReader.hashCode();
+			result = 31 * result + mSolutionMethod.hashCode();
+			result = 31 * result + Double.hashCode(mEpsilon);
+			result = 31 * result + mMaxIterations;
+			result = 31 * result + Double.hashCode(mRoundOff);
+			hashCode = result;
+		}
+		return hashCode;
+	}
+}
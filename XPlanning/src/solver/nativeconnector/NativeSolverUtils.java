@@ -0,0 +1,357 @@
+package solver.nativeconnector;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
+import solver.common.CostType;
+import solver.common.ExplicitMDP;
+
+public class NativeSolverUtils {
+
+	public static final double DEFAULT_EPSILON = 1e-6;
+	public static final int DEFAULT_MAX_ITERATIONS = 100000;
+	public static final double DEFAULT_ROUND_OFF = 1e-5;
+
+	/**
+	 * Value assigned to the actions that are not applicable in a state, or to the states from which no goal state is
+	 * reachable.
+	 */
+	public static final double UNREACHABLE_VALUE = Double.POSITIVE_INFINITY;
+
+	/**
+	 * Aperiodicity transformation: P' = tau * P + (1 - tau) * I, and c' = tau * c. This ensures convergence of relative
+	 * value iteration and power iteration for periodic chains, and preserves the optimal policies and the limiting
+	 * distributions.
+	 */
+	static final double APERIODICITY_TAU = 0.5;
+
+	private NativeSolverUtils() {
+		throw new IllegalStateException("Utility class");
+	}
+
+	/**
+	 *
+	 * @param explicitMDP
+	 *            : Explicit MDP
+	 * @param i
+	 *            : State
+	 * @param a
+	 *            : Action
+	 * @return Objective transition cost c_ia, or objective state cost c_i
+	 */
+	public static double getObjectiveStepCost(ExplicitMDP explicitMDP, int i, int a) {
+		return explicitMDP.getCostType() == CostType.TRANSITION_COST ? explicitMDP.getObjectiveTransitionCost(i, a)
+				: explicitMDP.getObjectiveStateCost(i);
+	}
+
+	/**
+	 * Compute Q(i,a) = c_ia + sum_j (P(j|i,a) * V(j)).
+	 *
+	 * @param explicitMDP
+	 *            : Explicit MDP
+	 * @param i
+	 *            : State
+	 * @param a
+	 *            : Action
+	 * @param values
+	 *            : State values V
+	 * @return Q(i,a)
+	 */
+	static double computeQValue(ExplicitMDP explicitMDP, int i, int a, double[] values) {
+		double qValue = getObjectiveStepCost(explicitMDP, i, a);
+		for (int k = explicitMDP.getSuccessorsStart(i, a); k < explicitMDP.getSuccessorsEnd(i, a); k++) {
+			qValue += explicitMDP.getSuccessorProbability(k) * values[explicitMDP.getSuccessorState(k)];
+		}
+		return qValue;
+	}
+
+	/**
+	 * Bellman backup of state i: min_a Q(i,a), where the minimizing action is stored in policy[i].
+	 *
+	 * @param explicitMDP
+	 *            : Explicit MDP
+	 * @param i
+	 *            : State
+	 * @param values
+	 *            : State values V
+	 * @param policy
+	 *            : Return parameter of the minimizing action at state i (unchanged if no action is applicable)
+	 * @return min_a Q(i,a)
+	 */
+	static double backup(ExplicitMDP explicitMDP, int i, double[] values, int[] policy) {
+		int m = explicitMDP.getNumActions();
+		double minQValue = UNREACHABLE_VALUE;
+
+		for (int a = 0; a < m; a++) {
+			// Exclude any action a that is not applicable in state i
+			if (explicitMDP.isActionApplicable(i, a)) {
+				double qValue = computeQValue(explicitMDP, i, a, values);
+
+				// Ties are broken in favor of the action with the smallest index
+				if (qValue < minQValue) {
+					minQValue = qValue;
+					policy[i] = a;
+				}
+			}
+		}
+		return minQValue;
+	}
+
+	/**
+	 *
+	 * @param oldValue
+	 * @param newValue
+	 * @return Relative difference between the two values, or absolute difference if the new value is zero
+	 */
+	static double difference(double oldValue, double newValue) {
+		if (oldValue == newValue) {
+			// Including the case where both values are infinite
+			return 0;
+		}
+		double diff = Math.abs(newValue - oldValue);
+		return newValue != 0 ? diff / Math.abs(newValue) : diff;
+	}
+
+	/**
+	 * Find all states from which a goal state is reachable with positive probability under some policy.
+	 *
+	 * @param explicitMDP
+	 *            : Explicit MDP
+	 * @return canReachGoal[i] iff a goal state is reachable from state i
+	 */
+	static boolean[] computeGoalReachableStates(ExplicitMDP explicitMDP) {
+		int n = explicitMDP.getNumStates();
+		Set<Integer> goals = explicitMDP.getGoalStates();
+		boolean[] canReachGoal = new boolean[n];
+		Deque<Integer> queue = new ArrayDeque<>();
+
+		for (Integer goal : goals) {
+			canReachGoal[goal] = true;
+			queue.add(goal);
+		}
+
+		// Backward search: state i can reach goal iff some action has a successor that can reach goal
+		while (!queue.isEmpty()) {
+			int j = queue.poll();
+			for (int k = explicitMDP.getPredecessorsStart(j); k < explicitMDP.getPredecessorsEnd(j); k++) {
+				int i = explicitMDP.getPredecessorState(k);
+				if (!canReachGoal[i]) {
+					canReachGoal[i] = true;
+					queue.add(i);
+				}
+			}
+		}
+		return canReachGoal;
+	}
+
+	/**
+	 * Compute the occupation measure x_ia of a deterministic policy of an SSP: the expected number of times action a is
+	 * executed in state i, starting from the initial state, before reaching a goal state.
+	 *
+	 * This is done by propagating the flow out of the initial state along the induced Markov chain until the
+	 * remaining flow is negligible.
+	 *
+	 * @param explicitMDP
+	 *            : Explicit MDP
+	 * @param policy
+	 *            : Deterministic policy, where policy[i] is the action index at state i
+	 * @param epsilon
+	 *            : Residual flow below which the propagation stops
+	 * @param maxIterations
+	 *            : Maximum number of propagation steps per state
+	 * @return Occupation measure x_ia
+	 */
+	static double[][] computeSSPOccupationMeasure(ExplicitMDP explicitMDP, int[] policy, double epsilon,
+			int maxIterations) {
+		int n = explicitMDP.getNumStates();
+		int m = explicitMDP.getNumActions();
+		Set<Integer> goals = explicitMDP.getGoalStates();
+
+		double[] visits = new double[n];
+		double[] residuals = new double[n];
+		boolean[] queued = new boolean[n];
+		Deque<Integer> queue = new ArrayDeque<>();
+
+		int iniState = explicitMDP.getInitialState();
+		residuals[iniState] = 1;
+		queue.add(iniState);
+		queued[iniState] = true;
+
+		long maxSteps = (long) maxIterations * n;
+		long steps = 0;
+
+		while (!queue.isEmpty() && steps < maxSteps) {
+			int i = queue.poll();
+			queued[i] = false;
+			double flow = residuals[i];
+			residuals[i] = 0;
+			steps++;
+
+			if (goals.contains(i) || policy[i] < 0) {
+				// Flow is absorbed at goal states
+				continue;
+			}
+
+			visits[i] += flow;
+			int a = policy[i];
+
+			for (int k = explicitMDP.getSuccessorsStart(i, a); k < explicitMDP.getSuccessorsEnd(i, a); k++) {
+				int j = explicitMDP.getSuccessorState(k);
+				residuals[j] += explicitMDP.getSuccessorProbability(k) * flow;
+
+				if (!queued[j] && residuals[j] > epsilon * epsilon) {
+					queue.add(j);
+					queued[j] = true;
+				}
+			}
+		}
+
+		double[][] xResults = new double[n][m];
+		for (int i = 0; i < n; i++) {
+			if (policy[i] >= 0 && !goals.contains(i)) {
+				xResults[i][policy[i]] = visits[i];
+			}
+		}
+		return xResults;
+	}
+
+	/**
+	 * Compute the occupation measure x_ia of a deterministic policy of an acyclic SSP, by a single forward sweep over
+	 * the layers of its states: the expected number of visits to state j is the initial probability of j plus the flow
+	 * into j from its predecessors, all of which are in higher layers.
+	 *
+	 * @param explicitMDP
+	 *            : Explicit MDP whose underlying graph is acyclic
+	 * @param policy
+	 *            : Deterministic policy, where policy[i] is the action index at state i
+	 * @param layers
+	 *            : Layers of single-state SCCs of the explicit MDP, from the lowest to the highest (see
+	 *            {@link StronglyConnectedComponents#getLayers()})
+	 * @return Occupation measure x_ia
+	 */
+	static double[][] computeAcyclicOccupationMeasure(ExplicitMDP explicitMDP, int[] policy, List<List<int[]>> layers) {
+		int n = explicitMDP.getNumStates();
+		int m = explicitMDP.getNumActions();
+		Set<Integer> goals = explicitMDP.getGoalStates();
+		int iniState = explicitMDP.getInitialState();
+		double[] visits = new double[n];
+
+		for (int h = layers.size() - 1; h >= 0; h--) {
+			List<int[]> layer = layers.get(h);
+			if (layer.size() < SSPSolver.MIN_PARALLEL_LAYER_SIZE) {
+				for (int[] scc : layer) {
+					int j = scc[0];
+					visits[j] = computeInFlow(explicitMDP, policy, goals, iniState, j, visits);
+				}
+			} else {
+				layer.parallelStream().forEach(scc -> {
+					int j = scc[0];
+					visits[j] = computeInFlow(explicitMDP, policy, goals, iniState, j, visits);
+				});
+			}
+		}
+
+		double[][] xResults = new double[n][m];
+		for (int i = 0; i < n; i++) {
+			if (policy[i] >= 0 && !goals.contains(i)) {
+				xResults[i][policy[i]] = visits[i];
+			}
+		}
+		return xResults;
+	}
+
+	private static double computeInFlow(ExplicitMDP explicitMDP, int[] policy, Set<Integer> goals, int iniState,
+			int j, double[] visits) {
+		double inFlow = j == iniState ? 1 : 0;
+		for (int k = explicitMDP.getPredecessorsStart(j); k < explicitMDP.getPredecessorsEnd(j); k++) {
+			int i = explicitMDP.getPredecessorState(k);
+			// Flow is absorbed at goal states
+			if (policy[i] == explicitMDP.getPredecessorAction(k) && !goals.contains(i)) {
+				inFlow += explicitMDP.getPredecessorProbability(k) * visits[i];
+			}
+		}
+		return inFlow;
+	}
+
+	/**
+	 * Compute the limiting state distribution of the Markov chain induced by a deterministic policy, from a given
+	 * initial state distribution, by power iteration on the aperiodicity-transformed chain. A state with no action
+	 * (policy[i] = -1) is absorbing.
+	 *
+	 * @param explicitMDP
+	 *            : Explicit MDP
+	 * @param policy
+	 *            : Deterministic policy, where policy[i] is the action index at state i
+	 * @param iniDist
+	 *            : Initial state distribution
+	 * @param epsilon
+	 *            : Convergence threshold
+	 * @param maxIterations
+	 *            : Maximum number of iterations
+	 * @return Limiting state distribution
+	 */
+	static double[] computeLimitingDistribution(ExplicitMDP explicitMDP, int[] policy, double[] iniDist,
+			double epsilon, int maxIterations) {
+		int n = explicitMDP.getNumStates();
+
+		double[] dist = Arrays.copyOf(iniDist, n);
+		double[] newDist = new double[n];
+
+		for (int iter = 0; iter < maxIterations; iter++) {
+			for (int j = 0; j < n; j++) {
+				newDist[j] = (1 - APERIODICITY_TAU) * dist[j];
+			}
+
+			for (int i = 0; i < n; i++) {
+				int a = policy[i];
+				if (a < 0) {
+					newDist[i] += APERIODICITY_TAU * dist[i];
+					continue;
+				}
+
+				for (int k = explicitMDP.getSuccessorsStart(i, a); k < explicitMDP.getSuccessorsEnd(i, a); k++) {
+					newDist[explicitMDP.getSuccessorState(k)] += APERIODICITY_TAU * dist[i]
+							* explicitMDP.getSuccessorProbability(k);
+				}
+			}
+
+			double maxDiff = 0;
+			for (int j = 0; j < n; j++) {
+				maxDiff = Math.max(maxDiff, Math.abs(newDist[j] - dist[j]));
+			}
+
+			double[] temp = dist;
+			dist = newDist;
+			newDist = temp;
+
+			if (maxDiff < epsilon * epsilon) {
+				break;
+			}
+		}
+		return dist;
+	}
+
+	/**
+	 * Fill in a deterministic policy matrix: pi_ia = 1 iff a = policy[i], for every state i whose occupation measure
+	 * is positive.
+	 *
+	 * @param policy
+	 *            : Deterministic policy, where policy[i] is the action index at state i
+	 * @param xResults
+	 *            : Occupation measure x_ia
+	 * @param roundOff
+	 *            : Round-off value
+	 * @param outputPolicy
+	 *            : Return parameter of the policy matrix
+	 */
+	static void fillPolicyMatrix(int[] policy, double[][] xResults, double roundOff, double[][] outputPolicy) {
+		for (int i = 0; i < policy.length; i++) {
+			if (policy[i] >= 0 && xResults[i][policy[i]] > roundOff) {
+				outputPolicy[i][policy[i]] = 1;
+			}
+		}
+	}
+}
@@ -0,0 +1,695 @@
+package solver.nativeconnector;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import language.objectives.CostCriterion;
+import solver.common.CostType;
+import solver.common.ExplicitMDP;
+import solver.common.ExplicitModelChecker;
+import solver.common.LPSolution;
+
+/**
+ * {@link ParetoFrontierSolver} computes the convex Pareto frontier of the deterministic policies of an explicit MDP
+ * over multiple objectives (e.g., all QA functions of an XMDP). Each vertex of the convex frontier is an optimal
+ * policy of the weighted sum of the objectives, for some weight vector in the weight simplex.
+ *
+ * The weights are refined adaptively by optimistic linear support. The optimal weighted value V*(w) is concave and
+ * piecewise linear in the weights w, and is bounded above by the lower envelope of the objective vectors found so far:
+ * min_v (w . v). Starting from the single-objective corners, the weighted problem is only solved at the corner
+ * weights of the envelope -- i.e., where the envelope changes from one vector to another. If an optimal policy
+ * improves upon the envelope at a corner weight, then its objective vector is added to the envelope. Otherwise, the
+ * envelope is exact at that weight. Once the envelope is exact at all of its corner weights, it is exact everywhere,
+ * and the vectors that are strictly optimal for some weights are the vertices of the frontier.
+ *
+ * The envelope is kept as the polytope {(w, y) : w in the weight simplex, y_lo <= y <= w . v for all found v}, whose
+ * upper vertices are the corner weights. Adding a vector cuts the polytope by a single half-space.
+ *
+ * All weighted problems are solved on the same explicit MDP: only its objective costs are rewritten for each weight
+ * vector, and they are restored once the frontier is computed. Therefore, the solver must not be used concurrently
+ * with any other solver of the same explicit MDP.
+ *
+ * @author rsukkerd
+ *
+ */
+public class ParetoFrontierSolver {
+
+	/**
+	 * Default relative tolerance for comparing objective vectors and weighted values.
+	 */
+	public static final double DEFAULT_TOLERANCE = 1e-4;
+
+	/**
+	 * Default maximum number of corner weights to check.
+	 */
+	public static final int DEFAULT_MAX_WEIGHT_CHECKS = 1000;
+
+	private static final double NUMERICAL_TOL = 1e-9;
+	private static final String COMPUTE_ACTION_NAME = "compute";
+
+	private ExplicitMDP mExplicitMDP;
+	private int[] mObjectiveIndices;
+	private CostCriterion mCostCriterion;
+	private NativeConnectorSettings mSettings;
+	private double mAuxiliaryCost;
+	private double mTolerance;
+	private int mMaxWeightChecks;
+
+	// Weight vectors solved so far, and the index of the objective vector found at each of them
+	private List<double[]> mSolvedWeights = new ArrayList<>();
+	private List<Integer> mSolvedVectors = new ArrayList<>();
+
+	// Distinct objective vectors found so far
+	private List<Vertex> mVectors = new ArrayList<>();
+
+	// Envelope polytope in coordinates z = (w_0, ..., w_{d-2}, y), where w_{d-1} = 1 - sum of the other weights.
+	// Constraints a . z <= b: [0, d-1) w_j >= 0, [d-1] w_{d-1} >= 0, [d] y >= y_lo, [d+1, ...) y <= w . v of each
+	// vector in the envelope.
+	private List<double[]> mConstraintRows;
+	private List<Double> mConstraintBounds;
+	private List<Integer> mEnvelopeVectors;
+	private List<EnvelopePoint> mPoints;
+
+	private boolean mComplete;
+
+	/**
+	 *
+	 * @param explicitMDP
+	 *            : Explicit MDP, whose objective costs are rewritten while the frontier is computed
+	 * @param objectiveIndices
+	 *            : Cost function indices of the objectives in the explicit MDP
+	 * @param costCriterion
+	 *            : Cost criterion of the MDP
+	 * @param settings
+	 *            : NativeConnector settings, containing solution method and convergence parameters
+	 * @param auxiliaryCost
+	 *            : Auxiliary cost of every "compute" transition, which is added to the weighted objective costs
+	 * @param tolerance
+	 *            : Relative tolerance for comparing objective vectors and weighted values
+	 * @param maxWeightChecks
+	 *            : Maximum number of corner weights to check, each of which solves at most one weighted problem
+	 */
+	public ParetoFrontierSolver(ExplicitMDP explicitMDP, int[] objectiveIndices, CostCriterion costCriterion,
+			NativeConnectorSettings settings, double auxiliaryCost, double tolerance, int maxWeightChecks) {
+		mExplicitMDP = explicitMDP;
+		mObjectiveIndices = objectiveIndices;
+		mCostCriterion = costCriterion;
+		mSettings = settings;
+		mAuxiliaryCost = auxiliaryCost;
+		mTolerance = tolerance;
+		mMaxWeightChecks = maxWeightChecks;
+	}
+
+	/**
+	 * Compute the vertices of the convex Pareto frontier.
+	 *
+	 * @return Vertices of the convex Pareto frontier, or an empty list if there is no solution policy
+	 */
+	public List<Vertex> solve() {
+		double[][] objectiveCosts = getObjectiveCosts();
+		try {
+			return solveFrontier();
+		} finally {
+			setObjectiveCosts(objectiveCosts);
+		}
+	}
+
+	private List<Vertex> solveFrontier() {
+		int d = mObjectiveIndices.length;
+		mComplete = true;
+
+		int[] cornerVectors = new int[d];
+		for (int j = 0; j < d; j++) {
+			double[] corner = new double[d];
+			corner[j] = 1;
+			cornerVectors[j] = solveWeightedProblem(corner);
+
+			if (cornerVectors[j] < 0) {
+				// The existence of a solution policy does not depend on the weights
+				return new ArrayList<>();
+			}
+		}
+
+		if (d == 1) {
+			Vertex vertex = mVectors.get(cornerVectors[0]);
+			vertex.mWeights = new double[] { 1 };
+			List<Vertex> vertices = new ArrayList<>();
+			vertices.add(vertex);
+			return vertices;
+		}
+
+		initializeEnvelope(cornerVectors);
+		for (int j = 1; j < d; j++) {
+			if (!mEnvelopeVectors.contains(cornerVectors[j])) {
+				cutEnvelope(cornerVectors[j]);
+			}
+		}
+		// The envelope is exact at the corners of the weight simplex
+		for (EnvelopePoint point : mPoints) {
+			point.mChecked = isSimplexCorner(toWeights(point.mCoordinates));
+		}
+
+		int numWeightChecks = 0;
+		EnvelopePoint point;
+		while ((point = findUncheckedCornerWeight()) != null) {
+			if (numWeightChecks >= mMaxWeightChecks) {
+				mComplete = false;
+				break;
+			}
+			numWeightChecks++;
+			point.mChecked = true;
+
+			double[] weights = toWeights(point.mCoordinates);
+			int vectorIndex = solveWeightedProblem(weights);
+			if (vectorIndex < 0) {
+				continue;
+			}
+
+			double envelope = point.mCoordinates[d - 1];
+			double value = mVectors.get(vectorIndex).getWeightedValue(weights);
+			if (value < envelope - mTolerance * Math.max(1, Math.abs(envelope))
+					&& !mEnvelopeVectors.contains(vectorIndex)) {
+				cutEnvelope(vectorIndex);
+			}
+		}
+		return selectVertices();
+	}
+
+	/**
+	 *
+	 * @return Whether the last computed frontier is complete -- i.e., the maximum number of weight checks was not
+	 *         reached
+	 */
+	public boolean isComplete() {
+		return mComplete;
+	}
+
+	/**
+	 * Initialize the envelope polytope to the prism between y = y_lo and y = w . v of the first corner vector: its
+	 * vertices are (e_j, y_lo) and (e_j, v_j) of each corner e_j of the weight simplex.
+	 */
+	private void initializeEnvelope(int[] cornerVectors) {
+		int d = mObjectiveIndices.length;
+		double[] objectiveValues = mVectors.get(cornerVectors[0]).mObjectiveValues;
+		mConstraintRows = new ArrayList<>();
+		mConstraintBounds = new ArrayList<>();
+		mEnvelopeVectors = new ArrayList<>();
+		mPoints = new ArrayList<>();
+
+		for (int j = 0; j < d - 1; j++) {
+			double[] row = new double[d];
+			row[j] = -1;
+			addConstraint(row, 0);
+		}
+		double[] sumRow = new double[d];
+		for (int j = 0; j < d - 1; j++) {
+			sumRow[j] = 1;
+		}
+		addConstraint(sumRow, 1);
+
+		// V*(w) >= sum_j w_j V*(e_j) >= min_j V*(e_j), where V*(e_j) is the j-th value of the j-th corner vector
+		double yLo = 0;
+		for (int j = 0; j < d; j++) {
+			yLo = Math.min(yLo, mVectors.get(cornerVectors[j]).mObjectiveValues[j]);
+		}
+		yLo -= 1;
+		double[] yLoRow = new double[d];
+		yLoRow[d - 1] = -1;
+		addConstraint(yLoRow, -yLo);
+
+		addVectorConstraint(cornerVectors[0]);
+		int vectorConstraint = d + 1;
+
+		for (int j = 0; j < d; j++) {
+			BitSet active = new BitSet();
+			for (int c = 0; c < d; c++) {
+				if (c != j) {
+					active.set(c);
+				}
+			}
+			double[] bottom = new double[d];
+			double[] top = new double[d];
+			if (j < d - 1) {
+				bottom[j] = 1;
+				top[j] = 1;
+			}
+			bottom[d - 1] = yLo;
+			top[d - 1] = objectiveValues[j];
+
+			BitSet bottomActive = (BitSet) active.clone();
+			bottomActive.set(d);
+			BitSet topActive = (BitSet) active.clone();
+			topActive.set(vectorConstraint);
+			mPoints.add(new EnvelopePoint(bottom, bottomActive));
+			mPoints.add(new EnvelopePoint(top, topActive));
+		}
+	}
+
+	/**
+	 * Cut the envelope polytope by the half-space y <= w . v of a new vector (double description method): remove the
+	 * points above the hyperplane, and add the intersection of the hyperplane with every edge between a removed point
+	 * and a kept point.
+	 */
+	private void cutEnvelope(int vectorIndex) {
+		int constraint = addVectorConstraint(vectorIndex);
+		double[] row = mConstraintRows.get(constraint);
+		double bound = mConstraintBounds.get(constraint);
+		int dim = row.length;
+
+		List<EnvelopePoint> removed = new ArrayList<>();
+		List<EnvelopePoint> kept = new ArrayList<>();
+		List<Double> removedSlacks = new ArrayList<>();
+		List<Double> keptSlacks = new ArrayList<>();
+
+		for (EnvelopePoint point : mPoints) {
+			double slack = bound - dot(row, point.mCoordinates);
+			double tol = NUMERICAL_TOL * Math.max(1, Math.abs(point.mCoordinates[dim - 1]));
+			if (slack < -tol) {
+				removed.add(point);
+				removedSlacks.add(slack);
+			} else {
+				if (slack <= tol) {
+					point.mActive.set(constraint);
+				}
+				kept.add(point);
+				keptSlacks.add(slack);
+			}
+		}
+
+		int numKept = kept.size();
+		for (int r = 0; r < removed.size(); r++) {
+			EnvelopePoint removedPoint = removed.get(r);
+			for (int k = 0; k < numKept; k++) {
+				EnvelopePoint keptPoint = kept.get(k);
+				if (keptSlacks.get(k) <= 0 || !areAdjacent(removedPoint, keptPoint, dim)) {
+					continue;
+				}
+
+				double t = removedSlacks.get(r) / (removedSlacks.get(r) - keptSlacks.get(k));
+				double[] coordinates = new double[dim];
+				for (int i = 0; i < dim; i++) {
+					coordinates[i] = removedPoint.mCoordinates[i]
+							+ t * (keptPoint.mCoordinates[i] - removedPoint.mCoordinates[i]);
+				}
+				BitSet active = (BitSet) removedPoint.mActive.clone();
+				active.and(keptPoint.mActive);
+				active.set(constraint);
+				addOrMergePoint(kept, new EnvelopePoint(coordinates, active));
+			}
+		}
+
+		mPoints = kept;
+
+		// A new point may coincidentally lie on other constraints (degeneracy), which the adjacency test relies on
+		for (int p = numKept; p < kept.size(); p++) {
+			updateActiveConstraints(kept.get(p));
+		}
+	}
+
+	/**
+	 * At a degenerate vertex of the polytope, the same point can be the intersection of several edges, or an existing
+	 * point on the hyperplane. Duplicate points must be merged, otherwise the adjacency test fails for all of them.
+	 */
+	private static void addOrMergePoint(List<EnvelopePoint> points, EnvelopePoint newPoint) {
+		for (EnvelopePoint point : points) {
+			if (equals(point.mCoordinates, newPoint.mCoordinates, NUMERICAL_TOL)) {
+				point.mActive.or(newPoint.mActive);
+				return;
+			}
+		}
+		points.add(newPoint);
+	}
+
+	private void updateActiveConstraints(EnvelopePoint point) {
+		double tol = NUMERICAL_TOL * Math.max(1, Math.abs(point.mCoordinates[point.mCoordinates.length - 1]));
+		for (int c = 0; c < mConstraintRows.size(); c++) {
+			if (Math.abs(mConstraintBounds.get(c) - dot(mConstraintRows.get(c), point.mCoordinates)) <= tol) {
+				point.mActive.set(c);
+			}
+		}
+	}
+
+	/**
+	 * Combinatorial adjacency test: two points are adjacent iff they share at least dim-1 active constraints, and no
+	 * other point has all of the shared active constraints.
+	 */
+	private boolean areAdjacent(EnvelopePoint point1, EnvelopePoint point2, int dim) {
+		BitSet common = (BitSet) point1.mActive.clone();
+		common.and(point2.mActive);
+		if (common.cardinality() < dim - 1) {
+			return false;
+		}
+
+		for (EnvelopePoint other : mPoints) {
+			if (other == point1 || other == point2) {
+				continue;
+			}
+			BitSet otherCommon = (BitSet) common.clone();
+			otherCommon.andNot(other.mActive);
+			if (otherCommon.isEmpty()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int addVectorConstraint(int vectorIndex) {
+		int d = mObjectiveIndices.length;
+		double[] objectiveValues = mVectors.get(vectorIndex).mObjectiveValues;
+
+		// y - sum_{j<d-1} w_j (v_j - v_{d-1}) <= v_{d-1}
+		double[] row = new double[d];
+		for (int j = 0; j < d - 1; j++) {
+			row[j] = -(objectiveValues[j] - objectiveValues[d - 1]);
+		}
+		row[d - 1] = 1;
+		mEnvelopeVectors.add(vectorIndex);
+		return addConstraint(row, objectiveValues[d - 1]);
+	}
+
+	private int addConstraint(double[] row, double bound) {
+		mConstraintRows.add(row);
+		mConstraintBounds.add(bound);
+		return mConstraintRows.size() - 1;
+	}
+
+	/**
+	 *
+	 * @return An unchecked upper point of the envelope polytope, or null if there is none
+	 */
+	private EnvelopePoint findUncheckedCornerWeight() {
+		int d = mObjectiveIndices.length;
+		for (EnvelopePoint point : mPoints) {
+			// Lower points (y = y_lo) are not on the envelope
+			if (!point.mChecked && !point.mActive.get(d)) {
+				return point;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Select the vectors that are vertices of the frontier: those that are strictly optimal for some weights. The
+	 * region of a vector in the exact envelope is the facet of the polytope on its constraint; the vector is strictly
+	 * optimal at the centroid of the facet iff the facet is full-dimensional. The centroid is used as the supporting
+	 * weights of the vertex.
+	 */
+	private List<Vertex> selectVertices() {
+		int d = mObjectiveIndices.length;
+		Map<Integer, double[]> vertexWeights = new LinkedHashMap<>();
+
+		for (int e = 0; e < mEnvelopeVectors.size(); e++) {
+			int vectorIndex = mEnvelopeVectors.get(e);
+			int constraint = d + 1 + e;
+			if (vertexWeights.containsKey(vectorIndex)) {
+				continue;
+			}
+
+			double[] centroid = new double[d];
+			int facetSize = 0;
+			for (EnvelopePoint point : mPoints) {
+				if (point.mActive.get(constraint)) {
+					double[] weights = toWeights(point.mCoordinates);
+					for (int j = 0; j < d; j++) {
+						centroid[j] += weights[j];
+					}
+					facetSize++;
+				}
+			}
+			if (facetSize == 0) {
+				continue;
+			}
+			for (int j = 0; j < d; j++) {
+				centroid[j] /= facetSize;
+			}
+
+			if (isStrictlyOptimal(vectorIndex, centroid)) {
+				vertexWeights.put(vectorIndex, centroid);
+			}
+		}
+
+		List<Vertex> vertices = new ArrayList<>();
+		for (Map.Entry<Integer, double[]> entry : vertexWeights.entrySet()) {
+			Vertex vertex = mVectors.get(entry.getKey());
+			vertex.mWeights = entry.getValue();
+			vertices.add(vertex);
+		}
+		return vertices;
+	}
+
+	private boolean isStrictlyOptimal(int vectorIndex, double[] weights) {
+		double value = mVectors.get(vectorIndex).getWeightedValue(weights);
+		for (int v = 0; v < mVectors.size(); v++) {
+			if (v != vectorIndex && mVectors.get(v).getWeightedValue(weights) <= value
+					+ NUMERICAL_TOL * Math.max(1, Math.abs(value))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Solve the weighted problem, unless it is already solved.
+	 *
+	 * @param weights
+	 *            : Weight of each objective
+	 * @return Index of the objective vector of an optimal policy, or -1 if there is no solution policy
+	 */
+	private int solveWeightedProblem(double[] weights) {
+		int solvedIndex = findSolvedWeights(weights);
+		if (solvedIndex >= 0) {
+			return mSolvedVectors.get(solvedIndex);
+		}
+
+		setWeightedObjectiveCosts(weights);
+
+		int n = mExplicitMDP.getNumStates();
+		int m = mExplicitMDP.getNumActions();
+		double[][] policyMatrix = new double[n][m];
+		LPSolution solution;
+
+		if (mCostCriterion == CostCriterion.TOTAL_COST) {
+			solution = new SSPSolver(mExplicitMDP, mSettings).solveOptimalPolicy(policyMatrix);
+		} else {
+			solution = new AverageCostMDPSolver(mExplicitMDP, mSettings).solveOptimalPolicy(policyMatrix);
+		}
+
+		int vectorIndex = -1;
+		if (solution != null && solution.exists()) {
+			double[][] xResults = solution.getSolution("x");
+			double[] objectiveValues = new double[mObjectiveIndices.length];
+			for (int q = 0; q < mObjectiveIndices.length; q++) {
+				objectiveValues[q] = ExplicitModelChecker.computeOccupancyCost(xResults, mObjectiveIndices[q],
+						mExplicitMDP);
+			}
+			vectorIndex = findOrAddVector(new Vertex(objectiveValues, policyMatrix, solution));
+		}
+
+		mSolvedWeights.add(weights);
+		mSolvedVectors.add(vectorIndex);
+		return vectorIndex;
+	}
+
+	/**
+	 * Objective cost of each transition (or state): sum_q (w_q * c_q[i][a]), plus the auxiliary cost of "compute"
+	 * transitions.
+	 */
+	private void setWeightedObjectiveCosts(double[] weights) {
+		int n = mExplicitMDP.getNumStates();
+		int m = mExplicitMDP.getNumActions();
+		boolean transitionCost = mExplicitMDP.getCostType() == CostType.TRANSITION_COST;
+
+		for (int i = 0; i < n; i++) {
+			if (!transitionCost) {
+				double objectiveCost = 0;
+				for (int q = 0; q < mObjectiveIndices.length; q++) {
+					objectiveCost += weights[q] * mExplicitMDP.getStateCost(mObjectiveIndices[q], i);
+				}
+				mExplicitMDP.addObjectiveStateCost(i, objectiveCost);
+				continue;
+			}
+
+			for (int a = 0; a < m; a++) {
+				// Skip any action a that is not applicable in state i
+				if (!mExplicitMDP.isActionApplicable(i, a)) {
+					continue;
+				}
+
+				double objectiveCost = 0;
+				for (int q = 0; q < mObjectiveIndices.length; q++) {
+					objectiveCost += weights[q] * mExplicitMDP.getTransitionCost(mObjectiveIndices[q], i, a);
+				}
+				if (mExplicitMDP.getActionNameAtIndex(a).equals(COMPUTE_ACTION_NAME)) {
+					objectiveCost += mAuxiliaryCost;
+				}
+				mExplicitMDP.addObjectiveTransitionCost(i, a, objectiveCost);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return Copy of the objective costs of the explicit MDP: C[i][a], or C[i][0] if the cost type is state
+	 */
+	private double[][] getObjectiveCosts() {
+		int n = mExplicitMDP.getNumStates();
+		int m = mExplicitMDP.getNumActions();
+		boolean transitionCost = mExplicitMDP.getCostType() == CostType.TRANSITION_COST;
+
+		double[][] objectiveCosts = new double[n][transitionCost ? m : 1];
+		for (int i = 0; i < n; i++) {
+			if (!transitionCost) {
+				objectiveCosts[i][0] = mExplicitMDP.getObjectiveStateCost(i);
+				continue;
+			}
+			for (int a = 0; a < m; a++) {
+				objectiveCosts[i][a] = mExplicitMDP.getObjectiveTransitionCost(i, a);
+			}
+		}
+		return objectiveCosts;
+	}
+
+	/**
+	 * Restore the objective costs of the explicit MDP.
+	 *
+	 * @param objectiveCosts
+	 *            : Objective costs returned by {@link #getObjectiveCosts()}
+	 */
+	private void setObjectiveCosts(double[][] objectiveCosts) {
+		boolean transitionCost = mExplicitMDP.getCostType() == CostType.TRANSITION_COST;
+
+		for (int i = 0; i < objectiveCosts.length; i++) {
+			if (!transitionCost) {
+				mExplicitMDP.addObjectiveStateCost(i, objectiveCosts[i][0]);
+				continue;
+			}
+			for (int a = 0; a < objectiveCosts[i].length; a++) {
+				mExplicitMDP.addObjectiveTransitionCost(i, a, objectiveCosts[i][a]);
+			}
+		}
+	}
+
+	private int findSolvedWeights(double[] weights) {
+		for (int s = 0; s < mSolvedWeights.size(); s++) {
+			if (equals(mSolvedWeights.get(s), weights, NUMERICAL_TOL)) {
+				return s;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Different policies with the same objective vector (within the tolerance) are represented by the first one found.
+	 */
+	private int findOrAddVector(Vertex vertex) {
+		for (int v = 0; v < mVectors.size(); v++) {
+			if (equals(mVectors.get(v).mObjectiveValues, vertex.mObjectiveValues, mTolerance)) {
+				return v;
+			}
+		}
+		mVectors.add(vertex);
+		return mVectors.size() - 1;
+	}
+
+	/**
+	 *
+	 * @param coordinates
+	 *            : Coordinates (w_0, ..., w_{d-2}, y) of a point of the envelope polytope
+	 * @return Weight vector (w_0, ..., w_{d-1}) of the point
+	 */
+	private double[] toWeights(double[] coordinates) {
+		int d = coordinates.length;
+		double[] weights = new double[d];
+		double sum = 0;
+		for (int j = 0; j < d - 1; j++) {
+			weights[j] = Math.max(0, coordinates[j]);
+			sum += weights[j];
+		}
+		weights[d - 1] = Math.max(0, 1 - sum);
+		sum += weights[d - 1];
+		for (int j = 0; j < d; j++) {
+			weights[j] /= sum;
+		}
+		return weights;
+	}
+
+	private static boolean isSimplexCorner(double[] weights) {
+		for (double weight : weights) {
+			if (weight > 1 - NUMERICAL_TOL) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean equals(double[] u, double[] v, double relativeTol) {
+		for (int j = 0; j < u.length; j++) {
+			if (Math.abs(u[j] - v[j]) > relativeTol * Math.max(1, Math.max(Math.abs(u[j]), Math.abs(v[j])))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static double dot(double[] u, double[] v) {
+		double sum = 0;
+		for (int j = 0; j < u.length; j++) {
+			sum += u[j] * v[j];
+		}
+		return sum;
+	}
+
+	/**
+	 * Vertex of the envelope polytope, and the constraints that are active at it.
+	 */
+	private static class EnvelopePoint {
+		private double[] mCoordinates;
+		private BitSet mActive;
+		private boolean mChecked;
+
+		EnvelopePoint(double[] coordinates, BitSet active) {
+			mCoordinates = coordinates;
+			mActive = active;
+		}
+	}
+
+	/**
+	 * A vertex of the convex Pareto frontier: the objective vector of a policy, the policy and its occupation measure,
+	 * and the weights at which the policy is strictly optimal.
+	 */
+	public static class Vertex {
+		private double[] mObjectiveValues;
+		private double[][] mPolicyMatrix;
+		private LPSolution mSolution;
+		private double[] mWeights;
+
+		Vertex(double[] objectiveValues, double[][] policyMatrix, LPSolution solution) {
+			mObjectiveValues = objectiveValues;
+			mPolicyMatrix = policyMatrix;
+			mSolution = solution;
+		}
+
+		public double[] getObjectiveValues() {
+			return mObjectiveValues;
+		}
+
+		public double[][] getPolicyMatrix() {
+			return mPolicyMatrix;
+		}
+
+		public LPSolution getSolution() {
+			return mSolution;
+		}
+
+		public double[] getWeights() {
+			return mWeights;
+		}
+
+		public double getWeightedValue(double[] weights) {
+			return dot(weights, mObjectiveValues);
+		}
+	}
+}
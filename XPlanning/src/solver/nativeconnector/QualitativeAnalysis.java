@@ -0,0 +1,257 @@
+package solver.nativeconnector;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
+import solver.common.ExplicitMDP;
+
+/**
+ * {@link QualitativeAnalysis} is a graph-based precomputation over an {@link ExplicitMDP}, which does not depend on
+ * the exact transition probabilities:
+ *
+ * (1) Prob0: the states from which no goal state is reachable under any policy.
+ *
+ * (2) Prob1: the states from which some policy reaches a goal state with probability 1. The expected total cost of any
+ * other state is infinite.
+ *
+ * (3) Zero-cost maximal end components (MECs): maximal sets of Prob1 states in which some policy can stay forever at
+ * zero objective cost. Value iteration from zero converges to a wrong fixed point in the presence of such components.
+ * Instead, each component is solved as a single unit whose value is the minimum over its exit actions (see
+ * {@link SSPSolver}).
+ *
+ * @author rsukkerd
+ *
+ */
+class QualitativeAnalysis {
+
+	private ExplicitMDP mExplicitMDP;
+	private boolean[] mCanReachGoal;
+	private boolean[] mReachGoalAlmostSurely;
+
+	// Index of the zero-cost MEC containing each state, or -1
+	private int[] mEndComponentIndices;
+	private List<int[]> mEndComponents = new ArrayList<>();
+
+	// Bit i*m+a is set iff action a in state i is a zero-cost action that stays within the MEC of state i
+	private BitSet mInternalActions = new BitSet();
+
+	QualitativeAnalysis(ExplicitMDP explicitMDP) {
+		mExplicitMDP = explicitMDP;
+		mCanReachGoal = NativeSolverUtils.computeGoalReachableStates(explicitMDP);
+		mReachGoalAlmostSurely = computeAlmostSureGoalReachableStates();
+		computeZeroCostEndComponents();
+	}
+
+	/**
+	 *
+	 * @param i
+	 *            : State
+	 * @return Whether a goal state is reachable from state i with positive probability under some policy
+	 */
+	boolean canReachGoal(int i) {
+		return mCanReachGoal[i];
+	}
+
+	/**
+	 *
+	 * @param i
+	 *            : State
+	 * @return Whether a goal state is reachable from state i with probability 1 under some policy
+	 */
+	boolean reachesGoalAlmostSurely(int i) {
+		return mReachGoalAlmostSurely[i];
+	}
+
+	/**
+	 *
+	 * @param i
+	 *            : State
+	 * @return Index of the zero-cost MEC containing state i, or -1 if there is none
+	 */
+	int getEndComponentIndex(int i) {
+		return mEndComponentIndices[i];
+	}
+
+	/**
+	 *
+	 * @param c
+	 *            : Index of a zero-cost MEC
+	 * @return States of the MEC
+	 */
+	int[] getEndComponent(int c) {
+		return mEndComponents.get(c);
+	}
+
+	int getNumEndComponents() {
+		return mEndComponents.size();
+	}
+
+	/**
+	 *
+	 * @param i
+	 *            : State
+	 * @param a
+	 *            : Action
+	 * @return Whether action a in state i has zero objective cost and stays within the zero-cost MEC of state i
+	 */
+	boolean isInternalAction(int i, int a) {
+		return mInternalActions.get(i * mExplicitMDP.getNumActions() + a);
+	}
+
+	/**
+	 * Prob1E: the greatest fixed point U such that every state in U can reach a goal state while staying within U.
+	 * Starting from the Prob0 complement, each iteration keeps the states that can reach a goal state using only the
+	 * actions whose successors are all in U.
+	 */
+	private boolean[] computeAlmostSureGoalReachableStates() {
+		int n = mExplicitMDP.getNumStates();
+		Set<Integer> goals = mExplicitMDP.getGoalStates();
+		boolean[] states = Arrays.copyOf(mCanReachGoal, n);
+
+		while (true) {
+			boolean[] reachable = new boolean[n];
+			Deque<Integer> queue = new ArrayDeque<>();
+			for (Integer goal : goals) {
+				reachable[goal] = true;
+				queue.add(goal);
+			}
+
+			// Backward search over the actions that stay within the current states
+			while (!queue.isEmpty()) {
+				int j = queue.poll();
+				for (int k = mExplicitMDP.getPredecessorsStart(j); k < mExplicitMDP.getPredecessorsEnd(j); k++) {
+					int i = mExplicitMDP.getPredecessorState(k);
+					if (!reachable[i] && states[i] && !goals.contains(i)
+							&& allSuccessorsIn(i, mExplicitMDP.getPredecessorAction(k), states)) {
+						reachable[i] = true;
+						queue.add(i);
+					}
+				}
+			}
+
+			if (Arrays.equals(reachable, states)) {
+				return states;
+			}
+			states = reachable;
+		}
+	}
+
+	/**
+	 * Compute the MECs of the sub-MDP of the Prob1 states and their zero-cost actions whose successors are all Prob1
+	 * states: repeatedly decompose the sub-MDP into SCCs, and remove every action that leaves its SCC and every state
+	 * that has no remaining action, until nothing is removed.
+	 */
+	private void computeZeroCostEndComponents() {
+		int n = mExplicitMDP.getNumStates();
+		int m = mExplicitMDP.getNumActions();
+		Set<Integer> goals = mExplicitMDP.getGoalStates();
+
+		BitSet actions = new BitSet();
+		boolean[] active = new boolean[n];
+		for (int i = 0; i < n; i++) {
+			if (!mReachGoalAlmostSurely[i] || goals.contains(i)) {
+				continue;
+			}
+			for (int a = 0; a < m; a++) {
+				if (mExplicitMDP.isActionApplicable(i, a)
+						&& NativeSolverUtils.getObjectiveStepCost(mExplicitMDP, i, a) == 0
+						&& allSuccessorsIn(i, a, mReachGoalAlmostSurely)) {
+					actions.set(i * m + a);
+					active[i] = true;
+				}
+			}
+		}
+
+		StronglyConnectedComponents sccs;
+		boolean changed;
+		do {
+			sccs = new StronglyConnectedComponents(buildAdjacency(actions, active));
+			changed = false;
+
+			for (int i = 0; i < n; i++) {
+				if (!active[i]) {
+					continue;
+				}
+				boolean hasAction = false;
+				for (int a = 0; a < m; a++) {
+					if (!actions.get(i * m + a)) {
+						continue;
+					}
+					if (staysWithinSCC(i, a, active, sccs)) {
+						hasAction = true;
+					} else {
+						actions.clear(i * m + a);
+						changed = true;
+					}
+				}
+				if (!hasAction) {
+					active[i] = false;
+					changed = true;
+				}
+			}
+		} while (changed);
+
+		mEndComponentIndices = new int[n];
+		Arrays.fill(mEndComponentIndices, -1);
+		for (int[] scc : sccs.getSCCs()) {
+			if (!active[scc[0]]) {
+				// All states of an SCC are either active or inactive after the fixed point
+				continue;
+			}
+			for (int i : scc) {
+				mEndComponentIndices[i] = mEndComponents.size();
+			}
+			mEndComponents.add(scc);
+		}
+		mInternalActions = actions;
+	}
+
+	private int[][] buildAdjacency(BitSet actions, boolean[] active) {
+		int n = mExplicitMDP.getNumStates();
+		int m = mExplicitMDP.getNumActions();
+		int[][] adjacency = new int[n][];
+		int[] successors = new int[0];
+
+		for (int i = 0; i < n; i++) {
+			int size = 0;
+			for (int a = 0; active[i] && a < m; a++) {
+				if (!actions.get(i * m + a)) {
+					continue;
+				}
+				for (int k = mExplicitMDP.getSuccessorsStart(i, a); k < mExplicitMDP.getSuccessorsEnd(i, a); k++) {
+					if (size == successors.length) {
+						successors = Arrays.copyOf(successors, Math.max(4, 2 * size));
+					}
+					successors[size++] = mExplicitMDP.getSuccessorState(k);
+				}
+			}
+			adjacency[i] = Arrays.copyOf(successors, size);
+		}
+		return adjacency;
+	}
+
+	private boolean staysWithinSCC(int i, int a, boolean[] active, StronglyConnectedComponents sccs) {
+		int c = sccs.getSCCIndex(i);
+		for (int k = mExplicitMDP.getSuccessorsStart(i, a); k < mExplicitMDP.getSuccessorsEnd(i, a); k++) {
+			int j = mExplicitMDP.getSuccessorState(k);
+			if (!active[j] || sccs.getSCCIndex(j) != c) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean allSuccessorsIn(int i, int a, boolean[] states) {
+		for (int k = mExplicitMDP.getSuccessorsStart(i, a); k < mExplicitMDP.getSuccessorsEnd(i, a); k++) {
+			if (!states[mExplicitMDP.getSuccessorState(k)]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,516 @@
+package solver.nativeconnector;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
+import solver.common.ExplicitMDP;
+import solver.common.LPSolution;
+
+/**
+ * {@link SSPSolver} solves an unconstrained stochastic shortest path (SSP) problem in pure Java, using one of the
+ * iterative methods in {@link NativeConnectorSettings.NativeSolutionMethod}.
+ *
+ * All methods first run a {@link QualitativeAnalysis}: the states that cannot reach the goal with probability 1 have
+ * infinite values and are never backed up. The Gauss-Seidel-based methods also back up each zero-cost maximal end
+ * component as a single unit; therefore, unlike PRISM, they do not require an auxiliary cost on every step to rule
+ * out zero-cost cycles. Backward induction only applies to acyclic models, which have no such cycles.
+ *
+ * The result is returned in the same form as the LP-based solver: a deterministic policy matrix, and an
+ * {@link LPSolution} containing the occupation measure "x" of the solution policy.
+ *
+ * @author rsukkerd
+ *
+ */
+public class SSPSolver {
+
+	/**
+	 * Minimum number of SCCs in a layer for the layer to be solved in parallel by topological value iteration or
+	 * backward induction.
+	 */
+	static final int MIN_PARALLEL_LAYER_SIZE = 64;
+
+	private ExplicitMDP mExplicitMDP;
+	private NativeConnectorSettings mSettings;
+
+	// SCC decomposition and qualitative analysis of the explicit MDP, computed on first use
+	private StronglyConnectedComponents mSCCs;
+	private QualitativeAnalysis mQualAnalysis;
+
+	// Minimizing exit (state, action) of each zero-cost MEC
+	private int[] mEndComponentExitStates;
+	private int[] mEndComponentExitActions;
+
+	/**
+	 * Constructor for unconstrained SSP.
+	 *
+	 * @param explicitMDP
+	 *            : Explicit MDP
+	 * @param settings
+	 *            : NativeConnector settings, containing solution method and convergence parameters
+	 */
+	public SSPSolver(ExplicitMDP explicitMDP, NativeConnectorSettings settings) {
+		mExplicitMDP = explicitMDP;
+		mSettings = settings;
+	}
+
+	/**
+	 * Solve for an optimal policy for the SSP.
+	 *
+	 * @param outputPolicy
+	 *            : Return parameter of optimal policy
+	 * @return Whether a solution policy exists, its objective value, and the occupation measure of the policy
+	 */
+	public LPSolution solveOptimalPolicy(double[][] outputPolicy) {
+		return solveOptimalPolicy(outputPolicy, new double[mExplicitMDP.getNumStates()]);
+	}
+
+	/**
+	 * Solve for an optimal policy for the SSP, warm-started from the given values -- e.g., the optimal values of the
+	 * same model under a similar objective function. Warm starting does not affect the fixed point, since the values
+	 * of the states that reach a goal state almost surely converge to V*(i) from any initial values.
+	 *
+	 * @param outputPolicy
+	 *            : Return parameter of optimal policy
+	 * @param values
+	 *            : Initial values V(i), which are overwritten with the optimal values V*(i)
+	 * @return Whether a solution policy exists, its objective value, and the occupation measure of the policy
+	 */
+	public LPSolution solveOptimalPolicy(double[][] outputPolicy, double[] values) {
+		int n = mExplicitMDP.getNumStates();
+		int m = mExplicitMDP.getNumActions();
+		int iniState = mExplicitMDP.getInitialState();
+
+		int[] policy = new int[n];
+		solve(values, policy, true);
+
+		double[][] xResults = new double[n][m];
+		boolean exists = !Double.isInfinite(values[iniState]) && policy[iniState] >= 0;
+
+		if (exists && mSCCs != null && mSCCs.isAcyclic()) {
+			// Acyclic model: the occupation measure is exact after a single forward sweep
+			xResults = NativeSolverUtils.computeAcyclicOccupationMeasure(mExplicitMDP, policy, mSCCs.getLayers());
+			NativeSolverUtils.fillPolicyMatrix(policy, xResults, mSettings.getRoundOff(), outputPolicy);
+		} else if (exists) {
+			xResults = NativeSolverUtils.computeSSPOccupationMeasure(mExplicitMDP, policy, mSettings.getEpsilon(),
+					mSettings.getMaxIterations());
+			NativeSolverUtils.fillPolicyMatrix(policy, xResults, mSettings.getRoundOff(), outputPolicy);
+		}
+
+		LPSolution solution = new LPSolution(exists, exists ? values[iniState] : -1);
+		solution.addSolution("x", xResults);
+		return solution;
+	}
+
+	/**
+	 * Solve for the optimal values V*(i) and a corresponding optimal policy.
+	 *
+	 * @param values
+	 *            : Return parameter of V*(i), which is infinite if no policy reaches a goal state from state i with
+	 *            probability 1
+	 * @param policy
+	 *            : Return parameter of optimal action index at each state, or -1 if there is no applicable action or
+	 *            state i is a goal state
+	 */
+	public void solve(double[] values, int[] policy) {
+		solve(values, policy, false);
+	}
+
+	private void solve(double[] values, int[] policy, boolean warmStart) {
+		int n = mExplicitMDP.getNumStates();
+		Set<Integer> goals = mExplicitMDP.getGoalStates();
+		QualitativeAnalysis qualAnalysis = getQualitativeAnalysis();
+
+		Arrays.fill(policy, -1);
+		for (int i = 0; i < n; i++) {
+			if (goals.contains(i)) {
+				values[i] = 0;
+			} else if (!qualAnalysis.reachesGoalAlmostSurely(i)) {
+				// V(i) = infinity for all states that cannot reach goal almost surely
+				values[i] = NativeSolverUtils.UNREACHABLE_VALUE;
+			} else if (!warmStart || values[i] >= NativeSolverUtils.UNREACHABLE_VALUE) {
+				values[i] = 0;
+			}
+		}
+
+		int numEndComponents = qualAnalysis.getNumEndComponents();
+		mEndComponentExitStates = new int[numEndComponents];
+		mEndComponentExitActions = new int[numEndComponents];
+		Arrays.fill(mEndComponentExitStates, -1);
+
+		switch (mSettings.getSolutionMethod()) {
+		case VALUE_ITERATION:
+			valueIteration(values, policy, qualAnalysis);
+			break;
+		case GAUSS_SEIDEL:
+			gaussSeidel(values, policy, qualAnalysis);
+			break;
+		case TOPOLOGICAL_VALUE_ITERATION:
+			topologicalValueIteration(values, policy, qualAnalysis);
+			break;
+		case BACKWARD_INDUCTION:
+			backwardInduction(values, policy, qualAnalysis);
+			break;
+		case POLICY_ITERATION:
+			policyIteration(values, policy, qualAnalysis);
+			break;
+		default:
+			throw new UnsupportedOperationException(mSettings.getSolutionMethod().toString());
+		}
+
+		if (mSettings.getSolutionMethod().handlesZeroCostEndComponents()) {
+			resolveEndComponentPolicies(policy, qualAnalysis);
+		}
+	}
+
+	/**
+	 * Jacobi value iteration: V_{t+1}(i) = min_a (c_ia + sum_j (P(j|i,a) * V_t(j))).
+	 */
+	private void valueIteration(double[] values, int[] policy, QualitativeAnalysis qualAnalysis) {
+		int n = mExplicitMDP.getNumStates();
+		double[] newValues = new double[n];
+
+		for (int iter = 0; iter < mSettings.getMaxIterations(); iter++) {
+			double maxDiff = 0;
+
+			for (int i = 0; i < n; i++) {
+				if (!isBackupState(i, qualAnalysis)) {
+					newValues[i] = values[i];
+					continue;
+				}
+
+				newValues[i] = NativeSolverUtils.backup(mExplicitMDP, i, values, policy);
+				maxDiff = Math.max(maxDiff, NativeSolverUtils.difference(values[i], newValues[i]));
+			}
+
+			System.arraycopy(newValues, 0, values, 0, n);
+
+			if (maxDiff < mSettings.getEpsilon()) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Gauss-Seidel value iteration: same as value iteration, except that the updated values are used as soon as they
+	 * are available.
+	 */
+	private void gaussSeidel(double[] values, int[] policy, QualitativeAnalysis qualAnalysis) {
+		int n = mExplicitMDP.getNumStates();
+		int[] states = new int[n];
+		for (int i = 0; i < n; i++) {
+			states[i] = i;
+		}
+		gaussSeidel(states, values, policy, qualAnalysis);
+	}
+
+	private void gaussSeidel(int[] states, double[] values, int[] policy, QualitativeAnalysis qualAnalysis) {
+		for (int iter = 0; iter < mSettings.getMaxIterations(); iter++) {
+			double maxDiff = 0;
+
+			for (int i : states) {
+				if (!isBackupState(i, qualAnalysis)) {
+					continue;
+				}
+
+				double oldValue = values[i];
+				double newValue;
+				int c = qualAnalysis.getEndComponentIndex(i);
+				if (c < 0) {
+					newValue = NativeSolverUtils.backup(mExplicitMDP, i, values, policy);
+				} else if (qualAnalysis.getEndComponent(c)[0] == i) {
+					// The first state of a zero-cost MEC backs up the whole MEC as a single unit
+					newValue = backupEndComponent(c, values, qualAnalysis);
+				} else {
+					continue;
+				}
+				maxDiff = Math.max(maxDiff, NativeSolverUtils.difference(oldValue, newValue));
+				values[i] = newValue;
+			}
+
+			if (maxDiff < mSettings.getEpsilon()) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Back up a zero-cost MEC as a single unit: all of its states have the same value, which is the minimum Q-value
+	 * over the actions that exit the MEC or have positive cost. The minimizing exit is recorded for
+	 * {@link #resolveEndComponentPolicies(int[], QualitativeAnalysis)}.
+	 *
+	 * @return Value of the MEC
+	 */
+	private double backupEndComponent(int c, double[] values, QualitativeAnalysis qualAnalysis) {
+		int m = mExplicitMDP.getNumActions();
+		int[] endComponent = qualAnalysis.getEndComponent(c);
+		double minQValue = NativeSolverUtils.UNREACHABLE_VALUE;
+
+		for (int i : endComponent) {
+			for (int a = 0; a < m; a++) {
+				if (mExplicitMDP.isActionApplicable(i, a) && !qualAnalysis.isInternalAction(i, a)) {
+					double qValue = NativeSolverUtils.computeQValue(mExplicitMDP, i, a, values);
+					if (qValue < minQValue) {
+						minQValue = qValue;
+						mEndComponentExitStates[c] = i;
+						mEndComponentExitActions[c] = a;
+					}
+				}
+			}
+		}
+
+		for (int i : endComponent) {
+			values[i] = minQValue;
+		}
+		return minQValue;
+	}
+
+	/**
+	 * Choose the actions in each zero-cost MEC: the exit state takes the minimizing exit action, and every other state
+	 * takes a zero-cost internal action that moves closer to the exit state with positive probability. The resulting
+	 * policy leaves the MEC through its exit with probability 1, at no additional cost.
+	 */
+	private void resolveEndComponentPolicies(int[] policy, QualitativeAnalysis qualAnalysis) {
+		Deque<Integer> queue = new ArrayDeque<>();
+
+		for (int c = 0; c < qualAnalysis.getNumEndComponents(); c++) {
+			int exitState = mEndComponentExitStates[c];
+			if (exitState < 0) {
+				continue;
+			}
+
+			for (int i : qualAnalysis.getEndComponent(c)) {
+				policy[i] = -1;
+			}
+			policy[exitState] = mEndComponentExitActions[c];
+			queue.add(exitState);
+
+			// Backward search from the exit state over the internal actions
+			while (!queue.isEmpty()) {
+				int j = queue.poll();
+				for (int k = mExplicitMDP.getPredecessorsStart(j); k < mExplicitMDP.getPredecessorsEnd(j); k++) {
+					int i = mExplicitMDP.getPredecessorState(k);
+					int a = mExplicitMDP.getPredecessorAction(k);
+					if (policy[i] < 0 && qualAnalysis.getEndComponentIndex(i) == c
+							&& qualAnalysis.isInternalAction(i, a)) {
+						policy[i] = a;
+						queue.add(i);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Topological value iteration: solve the strongly connected components (SCCs) layer by layer, from the layer
+	 * closest to the goal states -- so that the values of all successor SCCs have converged before an SCC is solved.
+	 * The SCCs in the same layer do not reach one another, and therefore are solved in parallel.
+	 *
+	 * If the model is acyclic (e.g., a finite-horizon model), every SCC is a single state, and each state is backed up
+	 * exactly once -- as in {@link #backwardInduction(double[], int[], QualitativeAnalysis)}. If the model is layered
+	 * (e.g., its time step never decreases, but its other state variables may cycle within a time step), each SCC
+	 * within a layer is solved by Gauss-Seidel.
+	 */
+	private void topologicalValueIteration(double[] values, int[] policy, QualitativeAnalysis qualAnalysis) {
+		for (List<int[]> layer : getSCCs().getLayers()) {
+			if (layer.size() < MIN_PARALLEL_LAYER_SIZE) {
+				for (int[] scc : layer) {
+					solveSCC(scc, values, policy, qualAnalysis);
+				}
+			} else {
+				// Each SCC only updates the values and actions of its own states, and of its own zero-cost MECs
+				layer.parallelStream().forEach(scc -> solveSCC(scc, values, policy, qualAnalysis));
+			}
+		}
+	}
+
+	/**
+	 * Backward induction: back up each state exactly once, layer by layer, from the layer closest to the goal states.
+	 * This requires the model to be acyclic (e.g., a finite-horizon model), so that the values of all successors of a
+	 * state are final when the state is backed up. There is no convergence loop, and the resulting values are exact.
+	 *
+	 * @throws IllegalStateException
+	 *             If the model has a cycle
+	 */
+	private void backwardInduction(double[] values, int[] policy, QualitativeAnalysis qualAnalysis) {
+		StronglyConnectedComponents sccs = getSCCs();
+		if (!sccs.isAcyclic()) {
+			throw new IllegalStateException("Backward induction requires an acyclic model");
+		}
+
+		for (List<int[]> layer : sccs.getLayers()) {
+			if (layer.size() < MIN_PARALLEL_LAYER_SIZE) {
+				for (int[] scc : layer) {
+					backupOnce(scc[0], values, policy, qualAnalysis);
+				}
+			} else {
+				// Each single-state SCC only updates the value and action of its own state
+				layer.parallelStream().forEach(scc -> backupOnce(scc[0], values, policy, qualAnalysis));
+			}
+		}
+	}
+
+	private void backupOnce(int i, double[] values, int[] policy, QualitativeAnalysis qualAnalysis) {
+		if (isBackupState(i, qualAnalysis)) {
+			values[i] = NativeSolverUtils.backup(mExplicitMDP, i, values, policy);
+		}
+	}
+
+	/**
+	 * Solve an SCC by Gauss-Seidel, assuming that the values of all of its successor SCCs have converged.
+	 */
+	private void solveSCC(int[] scc, double[] values, int[] policy, QualitativeAnalysis qualAnalysis) {
+		if (scc.length == 1 && !hasSelfLoop(scc[0])) {
+			// Trivial SCC: a single backup suffices
+			backupOnce(scc[0], values, policy, qualAnalysis);
+			return;
+		}
+
+		gaussSeidel(scc, values, policy, qualAnalysis);
+	}
+
+	/**
+	 * Policy iteration: starting from a proper policy (see
+	 * {@link #initializeProperPolicy(int[], QualitativeAnalysis)}), alternately evaluate the current policy and improve
+	 * it greedily, until the policy no longer changes.
+	 */
+	private void policyIteration(double[] values, int[] policy, QualitativeAnalysis qualAnalysis) {
+		int n = mExplicitMDP.getNumStates();
+		int m = mExplicitMDP.getNumActions();
+		initializeProperPolicy(policy, qualAnalysis);
+
+		for (int iter = 0; iter < mSettings.getMaxIterations(); iter++) {
+			evaluatePolicy(values, policy, qualAnalysis);
+
+			boolean changed = false;
+			for (int i = 0; i < n; i++) {
+				if (!isBackupState(i, qualAnalysis)) {
+					continue;
+				}
+
+				double currQValue = NativeSolverUtils.computeQValue(mExplicitMDP, i, policy[i], values);
+				double minQValue = currQValue;
+				int minAction = policy[i];
+
+				for (int a = 0; a < m; a++) {
+					if (mExplicitMDP.isActionApplicable(i, a)) {
+						double qValue = NativeSolverUtils.computeQValue(mExplicitMDP, i, a, values);
+						if (qValue < minQValue) {
+							minQValue = qValue;
+							minAction = a;
+						}
+					}
+				}
+
+				// Only switch action when the improvement is significant -- to avoid cycling between equally-good
+				// actions due to floating-point arithmetic error
+				if (minAction != policy[i]
+						&& NativeSolverUtils.difference(currQValue, minQValue) >= mSettings.getEpsilon()) {
+					policy[i] = minAction;
+					changed = true;
+				}
+			}
+
+			if (!changed) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Iteratively evaluate a fixed policy: V(i) = c_i,pi(i) + sum_j (P(j|i,pi(i)) * V(j)).
+	 */
+	private void evaluatePolicy(double[] values, int[] policy, QualitativeAnalysis qualAnalysis) {
+		int n = mExplicitMDP.getNumStates();
+
+		for (int iter = 0; iter < mSettings.getMaxIterations(); iter++) {
+			double maxDiff = 0;
+
+			for (int i = 0; i < n; i++) {
+				if (!isBackupState(i, qualAnalysis)) {
+					continue;
+				}
+
+				double newValue = NativeSolverUtils.computeQValue(mExplicitMDP, i, policy[i], values);
+				maxDiff = Math.max(maxDiff, NativeSolverUtils.difference(values[i], newValue));
+				values[i] = newValue;
+			}
+
+			if (maxDiff < mSettings.getEpsilon()) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Initialize a proper policy by an attractor construction: a backward breadth-first search from the goal states
+	 * over the predecessor index. When a state is first reached from a state j, it takes an action that leads to j with
+	 * positive probability and whose successors are all states that reach the goal almost surely.
+	 *
+	 * Every state that reaches the goal almost surely is assigned an action, since it can reach a goal state while
+	 * staying within such states (see {@link QualitativeAnalysis}). Under the resulting policy, every state moves with
+	 * positive probability to a state that was assigned earlier, and never leaves these states; therefore, the goal is
+	 * reached with probability 1 from every state.
+	 */
+	private void initializeProperPolicy(int[] policy, QualitativeAnalysis qualAnalysis) {
+		Set<Integer> goals = mExplicitMDP.getGoalStates();
+		Deque<Integer> queue = new ArrayDeque<>(goals);
+
+		while (!queue.isEmpty()) {
+			int j = queue.poll();
+			for (int k = mExplicitMDP.getPredecessorsStart(j); k < mExplicitMDP.getPredecessorsEnd(j); k++) {
+				int i = mExplicitMDP.getPredecessorState(k);
+				int a = mExplicitMDP.getPredecessorAction(k);
+				if (policy[i] < 0 && isBackupState(i, qualAnalysis)
+						&& allSuccessorsReachGoalAlmostSurely(i, a, qualAnalysis)) {
+					policy[i] = a;
+					queue.add(i);
+				}
+			}
+		}
+	}
+
+	private boolean allSuccessorsReachGoalAlmostSurely(int i, int a, QualitativeAnalysis qualAnalysis) {
+		for (int k = mExplicitMDP.getSuccessorsStart(i, a); k < mExplicitMDP.getSuccessorsEnd(i, a); k++) {
+			if (!qualAnalysis.reachesGoalAlmostSurely(mExplicitMDP.getSuccessorState(k))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private StronglyConnectedComponents getSCCs() {
+		if (mSCCs == null) {
+			mSCCs = new StronglyConnectedComponents(mExplicitMDP);
+		}
+		return mSCCs;
+	}
+
+	private boolean hasSelfLoop(int i) {
+		int m = mExplicitMDP.getNumActions();
+		for (int a = 0; a < m; a++) {
+			for (int k = mExplicitMDP.getSuccessorsStart(i, a); k < mExplicitMDP.getSuccessorsEnd(i, a); k++) {
+				if (mExplicitMDP.getSuccessorState(k) == i) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private QualitativeAnalysis getQualitativeAnalysis() {
+		if (mQualAnalysis == null) {
+			mQualAnalysis = new QualitativeAnalysis(mExplicitMDP);
+		}
+		return mQualAnalysis;
+	}
+
+	/**
+	 * Goal states and states that cannot reach goal with probability 1 have fixed values.
+	 */
+	private boolean isBackupState(int i, QualitativeAnalysis qualAnalysis) {
+		return qualAnalysis.reachesGoalAlmostSurely(i) && !mExplicitMDP.getGoalStates().contains(i);
+	}
+}
@@ -0,0 +1,211 @@
+package solver.nativeconnector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import solver.common.ExplicitMDP;
+
+/**
+ * {@link StronglyConnectedComponents} decomposes the underlying graph of an {@link ExplicitMDP} -- where there is an
+ * edge i -> j iff P(j|i,a) > 0 for some action a -- into strongly connected components (SCCs), using Tarjan's
+ * algorithm. Goal states are treated as absorbing.
+ *
+ * The SCCs are listed in reverse topological order: every SCC appears after all of the SCCs reachable from it.
+ *
+ * The SCCs are also grouped into layers by their height in the condensation graph: layer 0 contains the SCCs with no
+ * successor SCC, and layer h contains the SCCs whose successor SCCs are all in layers < h. The SCCs in the same layer
+ * do not reach one another, and therefore can be solved independently once all lower layers are solved. A layered
+ * model -- e.g., one whose state has a time step or route segment that never decreases -- has few, wide layers.
+ *
+ * @author rsukkerd
+ *
+ */
+class StronglyConnectedComponents {
+
+	private List<int[]> mSCCs = new ArrayList<>();
+	private int[] mSCCIndices;
+	private List<List<int[]>> mLayers = new ArrayList<>();
+	private boolean mAcyclic = true;
+
+	StronglyConnectedComponents(ExplicitMDP explicitMDP) {
+		decompose(buildAdjacency(explicitMDP));
+	}
+
+	/**
+	 *
+	 * @param adjacency
+	 *            : Successors of each state of an arbitrary graph -- e.g., a sub-graph of an MDP restricted to some of
+	 *            its actions
+	 */
+	StronglyConnectedComponents(int[][] adjacency) {
+		decompose(adjacency);
+	}
+
+	/**
+	 *
+	 * @return SCCs in reverse topological order
+	 */
+	List<int[]> getSCCs() {
+		return mSCCs;
+	}
+
+	/**
+	 *
+	 * @param i
+	 *            : State
+	 * @return Index of the SCC containing state i, in {@link #getSCCs()}
+	 */
+	int getSCCIndex(int i) {
+		return mSCCIndices[i];
+	}
+
+	/**
+	 *
+	 * @return Layers of SCCs, from the lowest (i.e., the SCCs with no successor SCC) to the highest
+	 */
+	List<List<int[]>> getLayers() {
+		return mLayers;
+	}
+
+	/**
+	 *
+	 * @return Whether the underlying graph is acyclic, i.e., every SCC is a single state without a self-loop
+	 */
+	boolean isAcyclic() {
+		return mAcyclic;
+	}
+
+	private static int[][] buildAdjacency(ExplicitMDP explicitMDP) {
+		int n = explicitMDP.getNumStates();
+		int[][] adjacency = new int[n][];
+
+		// Successors of each state over all actions
+		Set<Integer> goals = explicitMDP.getGoalStates();
+		for (int i = 0; i < n; i++) {
+			adjacency[i] = goals.contains(i) ? new int[0] : collectSuccessors(explicitMDP, i);
+		}
+		return adjacency;
+	}
+
+	private void decompose(int[][] adjacency) {
+		int n = adjacency.length;
+		int[] index = new int[n];
+		int[] lowLink = new int[n];
+		boolean[] onStack = new boolean[n];
+		Arrays.fill(index, -1);
+
+		int[] sccStack = new int[n];
+		int sccStackSize = 0;
+
+		// Explicit call stack of (state, next successor position) -- to avoid deep recursion on large models
+		int[] callStates = new int[n];
+		int[] callPositions = new int[n];
+		int nextIndex = 0;
+
+		for (int root = 0; root < n; root++) {
+			if (index[root] != -1) {
+				continue;
+			}
+
+			int callDepth = 0;
+			callStates[0] = root;
+			callPositions[0] = 0;
+			index[root] = lowLink[root] = nextIndex++;
+			sccStack[sccStackSize++] = root;
+			onStack[root] = true;
+
+			while (callDepth >= 0) {
+				int v = callStates[callDepth];
+				int[] vSuccs = adjacency[v];
+
+				if (callPositions[callDepth] < vSuccs.length) {
+					int w = vSuccs[callPositions[callDepth]++];
+
+					if (index[w] == -1) {
+						// Visit successor w
+						callDepth++;
+						callStates[callDepth] = w;
+						callPositions[callDepth] = 0;
+						index[w] = lowLink[w] = nextIndex++;
+						sccStack[sccStackSize++] = w;
+						onStack[w] = true;
+					} else if (onStack[w]) {
+						lowLink[v] = Math.min(lowLink[v], index[w]);
+					}
+				} else {
+					if (lowLink[v] == index[v]) {
+						// v is the root of an SCC
+						int start = sccStackSize;
+						do {
+							start--;
+							onStack[sccStack[start]] = false;
+						} while (sccStack[start] != v);
+
+						mSCCs.add(Arrays.copyOfRange(sccStack, start, sccStackSize));
+						sccStackSize = start;
+					}
+
+					callDepth--;
+					if (callDepth >= 0) {
+						int parent = callStates[callDepth];
+						lowLink[parent] = Math.min(lowLink[parent], lowLink[v]);
+					}
+				}
+			}
+		}
+
+		computeLayers(adjacency);
+	}
+
+	private void computeLayers(int[][] adjacency) {
+		int[] sccIndices = new int[adjacency.length];
+		for (int c = 0; c < mSCCs.size(); c++) {
+			for (int v : mSCCs.get(c)) {
+				sccIndices[v] = c;
+			}
+		}
+		mSCCIndices = sccIndices;
+
+		// Successor SCCs precede each SCC in reverse topological order, so their heights are already computed
+		int[] heights = new int[mSCCs.size()];
+		for (int c = 0; c < mSCCs.size(); c++) {
+			int[] scc = mSCCs.get(c);
+			int height = 0;
+			for (int v : scc) {
+				for (int w : adjacency[v]) {
+					if (sccIndices[w] != c) {
+						height = Math.max(height, heights[sccIndices[w]] + 1);
+					} else {
+						// Self-loop, or an edge within a non-trivial SCC
+						mAcyclic = false;
+					}
+				}
+			}
+			heights[c] = height;
+
+			while (mLayers.size() <= height) {
+				mLayers.add(new ArrayList<>());
+			}
+			mLayers.get(height).add(scc);
+		}
+	}
+
+	private static int[] collectSuccessors(ExplicitMDP explicitMDP, int i) {
+		int m = explicitMDP.getNumActions();
+		int count = 0;
+		for (int a = 0; a < m; a++) {
+			count += explicitMDP.getSuccessorsEnd(i, a) - explicitMDP.getSuccessorsStart(i, a);
+		}
+
+		int[] successors = new int[count];
+		int size = 0;
+		for (int a = 0; a < m; a++) {
+			for (int k = explicitMDP.getSuccessorsStart(i, a); k < explicitMDP.getSuccessorsEnd(i, a); k++) {
+				successors[size++] = explicitMDP.getSuccessorState(k);
+			}
+		}
+		return successors;
+	}
+}
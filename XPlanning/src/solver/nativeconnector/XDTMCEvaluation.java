@@ -0,0 +1,131 @@
+package solver.nativeconnector;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import explanation.analysis.EventBasedQAValue;
+import explanation.analysis.ValueBounds;
+import language.domain.metrics.IEvent;
+import language.domain.metrics.IQFunction;
+import language.domain.metrics.NonStandardMetricQFunction;
+
+/**
+ * {@link XDTMCEvaluation} contains all quantities of a policy computed by {@link XDTMCEvaluator} in a single pass: the
+ * objective cost, the QA value and the (non-scaled) QA cost of every QA function, and the expected count of every event
+ * of the non-standard QA metrics.
+ *
+ * If the policy is evaluated by interval iteration, then the evaluation also contains the guaranteed bounds of the
+ * objective cost and of every QA value, and each reported quantity is the midpoint of its bounds -- unless interval
+ * iteration does not know any bounds within its maximum number of iterations (see
+ * {@link #isComputedByValueIteration()}).
+ *
+ * @author rsukkerd
+ *
+ */
+public class XDTMCEvaluation {
+
+	private double mCost;
+	private Map<IQFunction<?, ?>, Double> mQAValues = new HashMap<>();
+	private Map<IQFunction<?, ?>, Double> mQACosts = new HashMap<>();
+	private Map<IEvent<?, ?>, Double> mEventCounts = new HashMap<>();
+	private ValueBounds mCostBounds;
+	private Map<IQFunction<?, ?>, ValueBounds> mQAValueBounds = new HashMap<>();
+	private boolean mComputedByValueIteration;
+
+	public XDTMCEvaluation(double cost) {
+		mCost = cost;
+	}
+
+	public void putQAValue(IQFunction<?, ?> qFunction, double qaValue) {
+		mQAValues.put(qFunction, qaValue);
+	}
+
+	public void putQACost(IQFunction<?, ?> qFunction, double qaCost) {
+		mQACosts.put(qFunction, qaCost);
+	}
+
+	public void putEventCount(IEvent<?, ?> event, double expectedCount) {
+		mEventCounts.put(event, expectedCount);
+	}
+
+	public void putCostBounds(ValueBounds costBounds) {
+		mCostBounds = costBounds;
+	}
+
+	public void putQAValueBounds(IQFunction<?, ?> qFunction, ValueBounds qaValueBounds) {
+		mQAValueBounds.put(qFunction, qaValueBounds);
+	}
+
+	public void setComputedByValueIteration() {
+		mComputedByValueIteration = true;
+	}
+
+	public double getCost() {
+		return mCost;
+	}
+
+	public double getQAValue(IQFunction<?, ?> qFunction) {
+		return mQAValues.get(qFunction);
+	}
+
+	public double getQACost(IQFunction<?, ?> qFunction) {
+		return mQACosts.get(qFunction);
+	}
+
+	public Map<IQFunction<?, ?>, Double> getQAValues() {
+		return mQAValues;
+	}
+
+	public Map<IQFunction<?, ?>, Double> getQACosts() {
+		return mQACosts;
+	}
+
+	public double getEventCount(IEvent<?, ?> event) {
+		return mEventCounts.get(event);
+	}
+
+	public Map<IEvent<?, ?>, Double> getEventCounts() {
+		return mEventCounts;
+	}
+
+	/**
+	 *
+	 * @return Guaranteed bounds of the objective cost, or null if the policy is not evaluated by interval iteration
+	 */
+	public ValueBounds getCostBounds() {
+		return mCostBounds;
+	}
+
+	/**
+	 *
+	 * @return Guaranteed bounds of all QA values, which is empty if the policy is not evaluated by interval iteration
+	 */
+	public Map<IQFunction<?, ?>, ValueBounds> getQAValueBounds() {
+		return mQAValueBounds;
+	}
+
+	/**
+	 *
+	 * @return Whether interval iteration reached its maximum number of iterations before any bounds were known, and
+	 *         therefore the quantities are computed by plain value iteration -- with the same maximum number of
+	 *         iterations -- and are not guaranteed to be within any bounds
+	 */
+	public boolean isComputedByValueIteration() {
+		return mComputedByValueIteration;
+	}
+
+	/**
+	 *
+	 * @param qFunction
+	 *            : Non-standard QA function
+	 * @return Expected total occurrences of each event of the QA function
+	 */
+	public <E extends IEvent<?, ?>> EventBasedQAValue<E> getEventBasedQAValue(
+			NonStandardMetricQFunction<?, ?, E> qFunction) {
+		EventBasedQAValue<E> eventBasedQAValue = new EventBasedQAValue<>();
+		for (E event : qFunction.getEventBasedMetric().getEvents()) {
+			eventBasedQAValue.putExpectedCount(event, mEventCounts.get(event));
+		}
+		return eventBasedQAValue;
+	}
+}
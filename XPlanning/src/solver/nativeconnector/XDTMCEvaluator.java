@@ -0,0 +1,460 @@
+package solver.nativeconnector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import explanation.analysis.ValueBounds;
+
+import language.domain.metrics.IEvent;
+import language.domain.metrics.IQFunction;
+import language.domain.metrics.ITransitionStructure;
+import language.domain.metrics.NonStandardMetricQFunction;
+import language.domain.metrics.Transition;
+import language.domain.models.IAction;
+import language.dtmc.XDTMC;
+import language.exceptions.XMDPException;
+import language.mdp.StateVarTuple;
+import language.objectives.AttributeCostFunction;
+import language.objectives.CostCriterion;
+import language.objectives.CostFunction;
+import solver.common.ExplicitMDP;
+import solver.common.ExplicitModelChecker;
+
+/**
+ * {@link XDTMCEvaluator} evaluates a policy in pure Java, without translating its {@link XDTMC} to PRISM. The Markov
+ * chain induced by the policy is explored once from the initial state (see {@link ExplicitXDTMC}), and all quantities
+ * of the policy are computed from it in a single pass: the objective cost, every QA value, every QA cost, and every
+ * event count of the non-standard QA metrics.
+ *
+ * The results are the same as those of the corresponding PRISM DTMC queries: expected total rewards until reaching the
+ * goal for SSP (infinite if the goal is not reached with probability 1), and long-run average rewards per PRISM step
+ * for average-cost MDP.
+ *
+ * For SSP, a policy can also be evaluated by interval iteration (see {@link #evaluateWithBounds(double)}), which
+ * computes a guaranteed lower and upper bound of every quantity, and stops as soon as all bounds are within a given
+ * precision.
+ *
+ * @author rsukkerd
+ *
+ */
+public class XDTMCEvaluator {
+
+	private static final int COST_INDEX = 0;
+
+	private XDTMC mXDTMC;
+	private CostCriterion mCostCriterion;
+	private double mEpsilon;
+	private int mMaxIterations;
+
+	// Reward structures of the induced chain: [cost, QA values, QA costs, event counts]
+	private List<IQFunction<IAction, ITransitionStructure<IAction>>> mQFunctions = new ArrayList<>();
+	private List<IEvent<?, ?>> mEvents = new ArrayList<>();
+
+	public XDTMCEvaluator(XDTMC xdtmc, CostCriterion costCriterion) {
+		this(xdtmc, costCriterion, NativeSolverUtils.DEFAULT_EPSILON, NativeSolverUtils.DEFAULT_MAX_ITERATIONS);
+	}
+
+	/**
+	 *
+	 * @param xdtmc
+	 *            : Markov chain induced by a policy
+	 * @param costCriterion
+	 *            : Cost criterion of the corresponding MDP
+	 * @param epsilon
+	 *            : Convergence threshold
+	 * @param maxIterations
+	 *            : Maximum number of iterations
+	 */
+	public XDTMCEvaluator(XDTMC xdtmc, CostCriterion costCriterion, double epsilon, int maxIterations) {
+		mXDTMC = xdtmc;
+		mCostCriterion = costCriterion;
+		mEpsilon = epsilon;
+		mMaxIterations = maxIterations;
+
+		for (IQFunction<IAction, ITransitionStructure<IAction>> qFunction : xdtmc.getXMDP().getQSpace()) {
+			mQFunctions.add(qFunction);
+
+			if (qFunction instanceof NonStandardMetricQFunction<?, ?, ?>) {
+				NonStandardMetricQFunction<?, ?, ?> nonStdQFunction = (NonStandardMetricQFunction<?, ?, ?>) qFunction;
+				mEvents.addAll(nonStdQFunction.getEventBasedMetric().getEvents());
+			}
+		}
+	}
+
+	/**
+	 * Compute the objective cost, all QA values, all QA costs, and all event counts of the policy.
+	 *
+	 * @return All quantities of the policy
+	 * @throws XMDPException
+	 */
+	public XDTMCEvaluation evaluate() throws XMDPException {
+		ExplicitXDTMC explicitXDTMC = new ExplicitXDTMC(mXDTMC, getNumRewards(), this::computeStepRewards);
+		ExplicitMDP chain = explicitXDTMC.getExplicitMDP();
+		int[] policy = explicitXDTMC.getPolicy();
+
+		double[][] xResults;
+		if (mCostCriterion == CostCriterion.TOTAL_COST) {
+			xResults = computeTotalOccupationMeasure(chain, policy);
+		} else {
+			xResults = computeAverageOccupationMeasure(chain, policy);
+		}
+		return buildEvaluation(chain, xResults);
+	}
+
+	/**
+	 * Compute the objective cost, all QA values, all QA costs, and all event counts of the policy by interval
+	 * iteration, which is only applicable to SSP. Each reported quantity is the midpoint of its guaranteed bounds; the
+	 * bounds of the objective cost and of all QA values are included in the evaluation. If the maximum number of
+	 * iterations is reached before any bounds are known, then each reported quantity is computed by plain value
+	 * iteration instead (see {@link XDTMCEvaluation#isComputedByValueIteration()}), and its bounds are (-inf, +inf) --
+	 * which are never within the precision.
+	 *
+	 * @param precision
+	 *            : Maximum width of the bounds of every quantity
+	 * @return All quantities of the policy, and the bounds of the objective cost and of all QA values
+	 * @throws XMDPException
+	 */
+	public XDTMCEvaluation evaluateWithBounds(double precision) throws XMDPException {
+		if (mCostCriterion != CostCriterion.TOTAL_COST) {
+			throw new UnsupportedOperationException("Interval iteration is only applicable to total cost");
+		}
+
+		ExplicitXDTMC explicitXDTMC = new ExplicitXDTMC(mXDTMC, getNumRewards(), this::computeStepRewards);
+		ExplicitMDP chain = explicitXDTMC.getExplicitMDP();
+
+		ValueBounds[] bounds = new ValueBounds[getNumRewards()];
+		if (!allStatesCanReachGoal(chain)) {
+			// The goal is not reached with probability 1
+			Arrays.fill(bounds, new ValueBounds(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY));
+		} else if (!computeValueBounds(chain, explicitXDTMC.getPolicy(), precision, bounds)) {
+			// The maximum number of iterations is reached before the bounds are known: report the values computed by
+			// plain value iteration, together with the unknown bounds, which are never within the precision
+			XDTMCEvaluation evaluation = buildEvaluation(chain,
+					computeTotalOccupationMeasure(chain, explicitXDTMC.getPolicy()));
+			putValueBounds(evaluation, bounds);
+			evaluation.setComputedByValueIteration();
+			return evaluation;
+		}
+
+		XDTMCEvaluation evaluation = new XDTMCEvaluation(bounds[COST_INDEX].getMidpoint());
+		for (int q = 0; q < mQFunctions.size(); q++) {
+			IQFunction<?, ?> qFunction = mQFunctions.get(q);
+			evaluation.putQAValue(qFunction, bounds[getQAValueIndex(q)].getMidpoint());
+			evaluation.putQACost(qFunction, bounds[getQACostIndex(q)].getMidpoint());
+		}
+		for (int e = 0; e < mEvents.size(); e++) {
+			evaluation.putEventCount(mEvents.get(e), bounds[getEventCountIndex(e)].getMidpoint());
+		}
+		putValueBounds(evaluation, bounds);
+		return evaluation;
+	}
+
+	private void putValueBounds(XDTMCEvaluation evaluation, ValueBounds[] bounds) {
+		evaluation.putCostBounds(bounds[COST_INDEX]);
+		for (int q = 0; q < mQFunctions.size(); q++) {
+			evaluation.putQAValueBounds(mQFunctions.get(q), bounds[getQAValueIndex(q)]);
+		}
+	}
+
+	/**
+	 * Compute the reward of each reward structure when the action is taken in the state. The reward of a transition
+	 * structure with destination variables is the expected value over all successors.
+	 *
+	 * @param state
+	 *            : Current state
+	 * @param action
+	 *            : Action taken in the current state
+	 * @param successors
+	 *            : Distribution of the next state
+	 * @return Rewards: [cost, QA values, QA costs, event counts]
+	 * @throws XMDPException
+	 */
+	private double[] computeStepRewards(StateVarTuple state, IAction action, Map<StateVarTuple, Double> successors)
+			throws XMDPException {
+		CostFunction costFunction = mXDTMC.getXMDP().getCostFunction();
+		int numQFunctions = mQFunctions.size();
+		double[] rewards = new double[getNumRewards()];
+
+		// Offset of the cost function is assigned to the "compute" step that follows every action
+		rewards[COST_INDEX] = costFunction.getOffset();
+
+		for (int q = 0; q < numQFunctions; q++) {
+			IQFunction<IAction, ITransitionStructure<IAction>> qFunction = mQFunctions.get(q);
+			ITransitionStructure<IAction> domain = qFunction.getTransitionStructure();
+
+			if (!domain.getActionDef().getActions().contains(action)) {
+				continue;
+			}
+
+			AttributeCostFunction<IQFunction<IAction, ITransitionStructure<IAction>>> attrCostFunction = costFunction
+					.getAttributeCostFunction(qFunction);
+			double qaValue = 0;
+			double qaCost = 0;
+
+			if (domain.getDestStateVarClass().isEmpty()) {
+				// Transition structure has no destination variable
+				double value = qFunction.getValue(createTransition(domain, action, state, null));
+				qaValue = value;
+				qaCost = attrCostFunction.getCost(value);
+			} else {
+				for (Entry<StateVarTuple, Double> entry : successors.entrySet()) {
+					double value = qFunction.getValue(createTransition(domain, action, state, entry.getKey()));
+					qaValue += entry.getValue() * value;
+					qaCost += entry.getValue() * attrCostFunction.getCost(value);
+				}
+			}
+
+			rewards[getQAValueIndex(q)] = qaValue;
+			rewards[getQACostIndex(q)] = qaCost;
+			rewards[COST_INDEX] += costFunction.getScalingConstant(attrCostFunction) * qaCost;
+		}
+
+		for (int e = 0; e < mEvents.size(); e++) {
+			rewards[getEventCountIndex(e)] = computeExpectedEventProbability(mEvents.get(e), state, action,
+					successors);
+		}
+		return rewards;
+	}
+
+	private <E extends IAction, T extends ITransitionStructure<E>> double computeExpectedEventProbability(
+			IEvent<E, T> event, StateVarTuple state, IAction action, Map<StateVarTuple, Double> successors)
+			throws XMDPException {
+		T eventStructure = event.getTransitionStructure();
+
+		for (E eventAction : eventStructure.getActionDef().getActions()) {
+			if (!eventAction.equals(action)) {
+				continue;
+			}
+
+			if (eventStructure.getDestStateVarClass().isEmpty()) {
+				return event.getEventProbability(createTransition(eventStructure, eventAction, state, null));
+			}
+
+			double expectedProb = 0;
+			for (Entry<StateVarTuple, Double> entry : successors.entrySet()) {
+				expectedProb += entry.getValue() * event
+						.getEventProbability(createTransition(eventStructure, eventAction, state, entry.getKey()));
+			}
+			return expectedProb;
+		}
+
+		// Event cannot occur when the action is taken
+		return 0;
+	}
+
+	private static <E extends IAction, T extends ITransitionStructure<E>> Transition<E, T> createTransition(
+			T transStructure, E action, StateVarTuple srcState, StateVarTuple destState) throws XMDPException {
+		StateVarTuple srcVars = new StateVarTuple();
+		srcVars.addStateVarTupleWithFilter(srcState, transStructure.getSrcStateVarClass());
+		StateVarTuple destVars = new StateVarTuple();
+		if (destState != null) {
+			destVars.addStateVarTupleWithFilter(destState, transStructure.getDestStateVarClass());
+		}
+		return new Transition<>(transStructure, action, srcVars, destVars);
+	}
+
+	/**
+	 * Expected number of times each state is visited before reaching the goal. If the goal is not reached with
+	 * probability 1, then all expected total rewards are infinite.
+	 */
+	private double[][] computeTotalOccupationMeasure(ExplicitMDP chain, int[] policy) {
+		if (!allStatesCanReachGoal(chain)) {
+			return null;
+		}
+		return NativeSolverUtils.computeSSPOccupationMeasure(chain, policy, mEpsilon, mMaxIterations);
+	}
+
+	private boolean allStatesCanReachGoal(ExplicitMDP chain) {
+		boolean[] canReachGoal = NativeSolverUtils.computeGoalReachableStates(chain);
+
+		for (int i = 0; i < chain.getNumStates(); i++) {
+			// All states of the chain are reachable from the initial state
+			if (!canReachGoal[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Interval iteration (a.k.a. sound value iteration) on a chain that reaches the goal with probability 1. After k
+	 * steps, let x_k(i) be the expected reward accumulated from state i before reaching the goal within k steps, and
+	 * y_k(i) be the probability of not reaching the goal within k steps. Once y_k(i) < 1 for all non-goal states, the
+	 * exact value v(i) of every reward structure satisfies:
+	 *
+	 * x_k(i) + y_k(i) * min_j (x_k(j) / (1 - y_k(j))) <= v(i) <= x_k(i) + y_k(i) * max_j (x_k(j) / (1 - y_k(j)))
+	 *
+	 * for any sign of the rewards. The iteration stops as soon as the bounds of all reward structures at the initial
+	 * state are within the precision, or the maximum number of iterations is reached. If the maximum number of
+	 * iterations is reached before y_k(i) < 1 for all non-goal states, then the bounds are unknown: (-inf, +inf).
+	 *
+	 * @param chain
+	 *            : Explicit chain
+	 * @param policy
+	 *            : Action index at each state of the chain
+	 * @param precision
+	 *            : Maximum width of the bounds
+	 * @param bounds
+	 *            : Output bounds of each reward structure at the initial state
+	 * @return Whether the bounds are known
+	 */
+	private boolean computeValueBounds(ExplicitMDP chain, int[] policy, double precision, ValueBounds[] bounds) {
+		int n = chain.getNumStates();
+		int numRewards = getNumRewards();
+		int iniState = chain.getInitialState();
+		boolean[] isGoal = new boolean[n];
+		for (Integer goal : chain.getGoalStates()) {
+			isGoal[goal] = true;
+		}
+
+		if (isGoal[iniState]) {
+			Arrays.fill(bounds, new ValueBounds(0, 0));
+			return true;
+		}
+
+		// Unknown bounds until every non-goal state can reach the goal within k steps
+		Arrays.fill(bounds, new ValueBounds(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY));
+
+		double[] stayProbs = new double[n];
+		double[][] rewards = new double[numRewards][n];
+		for (int i = 0; i < n; i++) {
+			stayProbs[i] = isGoal[i] ? 0 : 1;
+		}
+		double[] nextStayProbs = stayProbs.clone();
+		double[][] nextRewards = new double[numRewards][n];
+		double maxWidth = Double.POSITIVE_INFINITY;
+
+		for (int iter = 0; iter < mMaxIterations; iter++) {
+			for (int i = 0; i < n; i++) {
+				if (isGoal[i]) {
+					continue;
+				}
+				int a = policy[i];
+				double stayProb = 0;
+				for (int r = 0; r < numRewards; r++) {
+					nextRewards[r][i] = chain.getTransitionCost(r, i, a);
+				}
+				for (int k = chain.getSuccessorsStart(i, a); k < chain.getSuccessorsEnd(i, a); k++) {
+					int j = chain.getSuccessorState(k);
+					double prob = chain.getSuccessorProbability(k);
+					stayProb += prob * stayProbs[j];
+					for (int r = 0; r < numRewards; r++) {
+						nextRewards[r][i] += prob * rewards[r][j];
+					}
+				}
+				nextStayProbs[i] = stayProb;
+			}
+
+			double[] tmpStayProbs = stayProbs;
+			stayProbs = nextStayProbs;
+			nextStayProbs = tmpStayProbs;
+			double[][] tmpRewards = rewards;
+			rewards = nextRewards;
+			nextRewards = tmpRewards;
+
+			maxWidth = computeValueBounds(stayProbs, rewards, iniState, isGoal, bounds);
+			if (maxWidth <= precision) {
+				return true;
+			}
+		}
+		return maxWidth < Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 *
+	 * @return Maximum width of the bounds at the initial state, or infinity if some non-goal state has not reached the
+	 *         goal within k steps
+	 */
+	private static double computeValueBounds(double[] stayProbs, double[][] rewards, int iniState, boolean[] isGoal,
+			ValueBounds[] bounds) {
+		for (int i = 0; i < stayProbs.length; i++) {
+			if (!isGoal[i] && stayProbs[i] >= 1) {
+				return Double.POSITIVE_INFINITY;
+			}
+		}
+
+		double maxWidth = 0;
+		for (int r = 0; r < rewards.length; r++) {
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < stayProbs.length; i++) {
+				if (isGoal[i]) {
+					continue;
+				}
+				double ratio = rewards[r][i] / (1 - stayProbs[i]);
+				min = Math.min(min, ratio);
+				max = Math.max(max, ratio);
+			}
+			double lower = rewards[r][iniState] + stayProbs[iniState] * min;
+			double upper = rewards[r][iniState] + stayProbs[iniState] * max;
+			bounds[r] = new ValueBounds(lower, Math.max(lower, upper));
+			maxWidth = Math.max(maxWidth, bounds[r].getWidth());
+		}
+		return maxWidth;
+	}
+
+	/**
+	 * Limiting probability of each state, starting from the initial state. The rewards are assigned to every action
+	 * step of the PRISM DTMC, and each action is followed by 1 (without goal) or 2 (with goal) helper steps. Therefore,
+	 * the long-run average rewards per PRISM step are the average rewards per action step divided by the number of
+	 * steps per action.
+	 */
+	private double[][] computeAverageOccupationMeasure(ExplicitMDP chain, int[] policy) {
+		int n = chain.getNumStates();
+		int m = chain.getNumActions();
+		int numStepsPerAction = mXDTMC.getXMDP().getGoal() != null ? 3 : 2;
+
+		double[] iniDist = new double[n];
+		iniDist[chain.getInitialState()] = 1;
+		double[] limitingDist = NativeSolverUtils.computeLimitingDistribution(chain, policy, iniDist, mEpsilon,
+				mMaxIterations);
+
+		double[][] xResults = new double[n][m];
+		for (int i = 0; i < n; i++) {
+			if (policy[i] >= 0) {
+				xResults[i][policy[i]] = limitingDist[i] / numStepsPerAction;
+			}
+		}
+		return xResults;
+	}
+
+	private XDTMCEvaluation buildEvaluation(ExplicitMDP chain, double[][] xResults) {
+		XDTMCEvaluation evaluation = new XDTMCEvaluation(computeValue(chain, xResults, COST_INDEX));
+
+		for (int q = 0; q < mQFunctions.size(); q++) {
+			IQFunction<?, ?> qFunction = mQFunctions.get(q);
+			evaluation.putQAValue(qFunction, computeValue(chain, xResults, getQAValueIndex(q)));
+			evaluation.putQACost(qFunction, computeValue(chain, xResults, getQACostIndex(q)));
+		}
+		for (int e = 0; e < mEvents.size(); e++) {
+			evaluation.putEventCount(mEvents.get(e), computeValue(chain, xResults, getEventCountIndex(e)));
+		}
+		return evaluation;
+	}
+
+	private double computeValue(ExplicitMDP chain, double[][] xResults, int rewardIndex) {
+		if (xResults == null) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return ExplicitModelChecker.computeOccupancyCost(xResults, rewardIndex, chain);
+	}
+
+	private int getNumRewards() {
+		return 1 + 2 * mQFunctions.size() + mEvents.size();
+	}
+
+	private int getQAValueIndex(int q) {
+		return 1 + q;
+	}
+
+	private int getQACostIndex(int q) {
+		return 1 + mQFunctions.size() + q;
+	}
+
+	private int getEventCountIndex(int e) {
+		return 1 + 2 * mQFunctions.size() + e;
+	}
+}
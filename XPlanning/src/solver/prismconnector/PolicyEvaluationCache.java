@@ -0,0 +1,273 @@
+package solver.prismconnector;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import explanation.analysis.ValueBounds;
+import language.domain.metrics.IEvent;
+import language.domain.metrics.IQFunction;
+
+/**
+ * {@link PolicyEvaluationCache} caches the objective costs, QA values, QA costs, and event counts of evaluated
+ * policies. Each entry is identified by a {@link PolicyEvaluationKey}: a fingerprint of the model plus a digest of the
+ * policy. Therefore, a single cache can be shared by multiple {@link PrismConnector}s -- of the same or different
+ * models -- across multiple runs on the same mission.
+ *
+ * The cache is thread-safe: reads are lock-free, and can run concurrently with each other and with writes. The cache is
+ * bounded: when the number of entries exceeds the maximum size, the oldest entries are evicted first.
+ *
+ * @author rsukkerd
+ *
+ */
+public class PolicyEvaluationCache {
+
+	public static final int DEFAULT_MAX_SIZE = 1000;
+
+	private int mMaxSize;
+	private Map<PolicyEvaluationKey, CachedValues> mEntries = new ConcurrentHashMap<>();
+	private Queue<PolicyEvaluationKey> mInsertionOrder = new ConcurrentLinkedQueue<>();
+
+	private AtomicLong mHitCount = new AtomicLong();
+	private AtomicLong mMissCount = new AtomicLong();
+	private AtomicLong mEvictionCount = new AtomicLong();
+	private AtomicLong mValueIterationFallbackCount = new AtomicLong();
+
+	public PolicyEvaluationCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 *
+	 * @param maxSize
+	 *            : Maximum number of policy evaluations to be kept in the cache
+	 */
+	public PolicyEvaluationCache(int maxSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("Maximum cache size must be positive: " + maxSize);
+		}
+		mMaxSize = maxSize;
+	}
+
+	/**
+	 *
+	 * @param key
+	 *            : Policy evaluation key
+	 * @return Objective cost of the policy, or null if it is not cached
+	 */
+	public Double getCost(PolicyEvaluationKey key) {
+		CachedValues values = mEntries.get(key);
+		return countLookup(values == null ? null : values.mCost);
+	}
+
+	/**
+	 *
+	 * @param key
+	 *            : Policy evaluation key
+	 * @return Values of all QAs of the policy, or null if they are not cached
+	 */
+	public Map<IQFunction<?, ?>, Double> getQAValues(PolicyEvaluationKey key) {
+		CachedValues values = mEntries.get(key);
+		return countLookup(values == null ? null : values.mQAValues);
+	}
+
+	/**
+	 *
+	 * @param key
+	 *            : Policy evaluation key
+	 * @return Non-scaled costs of all QAs of the policy, or null if they are not cached
+	 */
+	public Map<IQFunction<?, ?>, Double> getQACosts(PolicyEvaluationKey key) {
+		CachedValues values = mEntries.get(key);
+		return countLookup(values == null ? null : values.mQACosts);
+	}
+
+	/**
+	 *
+	 * @param key
+	 *            : Policy evaluation key
+	 * @param events
+	 *            : Events whose expected counts are looked up
+	 * @return Expected count of each of the events under the policy, or null if any of them is not cached
+	 */
+	public <E extends IEvent<?, ?>> Map<E, Double> getEventCounts(PolicyEvaluationKey key, Collection<E> events) {
+		CachedValues values = mEntries.get(key);
+		Map<E, Double> eventCounts = null;
+
+		if (values != null && values.mEventCounts.keySet().containsAll(events)) {
+			eventCounts = new HashMap<>();
+			for (E event : events) {
+				eventCounts.put(event, values.mEventCounts.get(event));
+			}
+		}
+		return countLookup(eventCounts);
+	}
+
+	/**
+	 * Look-ups of bounds are not counted as hits or misses, since bounds are cached alongside the values.
+	 *
+	 * @param key
+	 *            : Policy evaluation key
+	 * @return Guaranteed bounds of the objective cost of the policy, or null if they are not cached
+	 */
+	public ValueBounds getCostBounds(PolicyEvaluationKey key) {
+		CachedValues values = mEntries.get(key);
+		return values == null ? null : values.mCostBounds;
+	}
+
+	/**
+	 *
+	 * @param key
+	 *            : Policy evaluation key
+	 * @return Guaranteed bounds of all QA values of the policy, or null if they are not cached
+	 */
+	public Map<IQFunction<?, ?>, ValueBounds> getQAValueBounds(PolicyEvaluationKey key) {
+		CachedValues values = mEntries.get(key);
+		return values == null ? null : values.mQAValueBounds;
+	}
+
+	/**
+	 *
+	 * @param key
+	 *            : Policy evaluation key
+	 * @return Precision at which interval iteration computed the cached bounds of the policy, or null if the bounds
+	 *         are not cached
+	 */
+	public Double getBoundsPrecision(PolicyEvaluationKey key) {
+		CachedValues values = mEntries.get(key);
+		return values == null ? null : values.mBoundsPrecision;
+	}
+
+	public void putCost(PolicyEvaluationKey key, double cost) {
+		getOrCreateEntry(key).mCost = cost;
+	}
+
+	public void putQAValues(PolicyEvaluationKey key, Map<IQFunction<?, ?>, Double> qaValues) {
+		getOrCreateEntry(key).mQAValues = Collections.unmodifiableMap(new HashMap<>(qaValues));
+	}
+
+	public void putQACosts(PolicyEvaluationKey key, Map<IQFunction<?, ?>, Double> qaCosts) {
+		getOrCreateEntry(key).mQACosts = Collections.unmodifiableMap(new HashMap<>(qaCosts));
+	}
+
+	public void putEventCounts(PolicyEvaluationKey key, Map<? extends IEvent<?, ?>, Double> eventCounts) {
+		getOrCreateEntry(key).mEventCounts.putAll(eventCounts);
+	}
+
+	/**
+	 * Cache the bounds of the objective cost and of all QA values of a policy, which must be cached together with the
+	 * corresponding values.
+	 *
+	 * @param key
+	 *            : Policy evaluation key
+	 * @param costBounds
+	 *            : Guaranteed bounds of the objective cost
+	 * @param qaValueBounds
+	 *            : Guaranteed bounds of all QA values
+	 * @param precision
+	 *            : Precision at which interval iteration computed the bounds -- the bounds may be wider if interval
+	 *            iteration reached its maximum number of iterations
+	 */
+	public void putValueBounds(PolicyEvaluationKey key, ValueBounds costBounds,
+			Map<IQFunction<?, ?>, ValueBounds> qaValueBounds, double precision) {
+		CachedValues values = getOrCreateEntry(key);
+		values.mQAValueBounds = Collections.unmodifiableMap(new HashMap<>(qaValueBounds));
+		values.mCostBounds = costBounds;
+		values.mBoundsPrecision = precision;
+	}
+
+	/**
+	 * Record that interval iteration did not know any bounds of a policy, and its values were computed by plain value
+	 * iteration instead.
+	 */
+	public void countValueIterationFallback() {
+		mValueIterationFallbackCount.incrementAndGet();
+	}
+
+	public long getHitCount() {
+		return mHitCount.get();
+	}
+
+	public long getMissCount() {
+		return mMissCount.get();
+	}
+
+	public long getEvictionCount() {
+		return mEvictionCount.get();
+	}
+
+	/**
+	 *
+	 * @return Number of policies whose values were computed by plain value iteration, because interval iteration did
+	 *         not know any bounds within its maximum number of iterations
+	 */
+	public long getValueIterationFallbackCount() {
+		return mValueIterationFallbackCount.get();
+	}
+
+	public int size() {
+		return mEntries.size();
+	}
+
+	public void clear() {
+		mEntries.clear();
+		mInsertionOrder.clear();
+	}
+
+	private <T> T countLookup(T cachedValue) {
+		if (cachedValue == null) {
+			mMissCount.incrementAndGet();
+		} else {
+			mHitCount.incrementAndGet();
+		}
+		return cachedValue;
+	}
+
+	private CachedValues getOrCreateEntry(PolicyEvaluationKey key) {
+		CachedValues values = mEntries.get(key);
+		if (values != null) {
+			return values;
+		}
+
+		CachedValues newValues = new CachedValues();
+		values = mEntries.putIfAbsent(key, newValues);
+		if (values != null) {
+			// Another thread has created the entry
+			return values;
+		}
+
+		mInsertionOrder.add(key);
+		evictOldestEntries();
+		return newValues;
+	}
+
+	private void evictOldestEntries() {
+		while (mEntries.size() > mMaxSize) {
+			PolicyEvaluationKey oldestKey = mInsertionOrder.poll();
+			if (oldestKey == null) {
+				break;
+			}
+			if (mEntries.remove(oldestKey) != null) {
+				mEvictionCount.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * All cached quantities of a single policy. Each group of quantities may be computed and cached separately.
+	 */
+	private static class CachedValues {
+		private volatile Double mCost;
+		private volatile Map<IQFunction<?, ?>, Double> mQAValues;
+		private volatile Map<IQFunction<?, ?>, Double> mQACosts;
+		private Map<IEvent<?, ?>, Double> mEventCounts = new ConcurrentHashMap<>();
+		private volatile ValueBounds mCostBounds;
+		private volatile Map<IQFunction<?, ?>, ValueBounds> mQAValueBounds;
+		private volatile Double mBoundsPrecision;
+	}
+}
@@ -0,0 +1,107 @@
+package solver.prismconnector;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import language.mdp.StateVarTuple;
+import language.mdp.XMDP;
+import language.objectives.CostCriterion;
+import language.policy.Policy;
+
+/**
+ * {@link PolicyEvaluationKey} identifies the evaluation of a policy on a particular model in
+ * {@link PolicyEvaluationCache}. It consists of a fingerprint of the model -- the XMDP, the query states that are made
+ * absorbing (if any), and the cost criterion -- and a digest of the policy.
+ *
+ * {@link Policy} is mutable. Therefore, the key keeps a frozen snapshot of the policy, so that modifying the policy
+ * after it is cached does not corrupt the cache.
+ *
+ * @author rsukkerd
+ *
+ */
+public class PolicyEvaluationKey {
+
+	/*
+	 * Cached hashCode -- Effective Java
+	 */
+	private volatile int hashCode;
+
+	private XMDP mXMDP;
+	private Set<StateVarTuple> mQueryStates;
+	private CostCriterion mCostCriterion;
+	private Policy mPolicySnapshot;
+
+	/**
+	 *
+	 * @param xmdp
+	 *            : XMDP on which the policy is evaluated
+	 * @param queryStates
+	 *            : Query states that are made absorbing in the model, or null if there is none
+	 * @param costCriterion
+	 *            : Cost criterion of the XMDP
+	 * @param policy
+	 *            : Policy to be evaluated -- its frozen snapshot is memoized by the policy, so keys of an unmodified
+	 *            policy share the same snapshot
+	 */
+	public PolicyEvaluationKey(XMDP xmdp, Set<StateVarTuple> queryStates, CostCriterion costCriterion,
+			Policy policy) {
+		mXMDP = xmdp;
+		mQueryStates = queryStates == null ? Collections.emptySet() : new HashSet<>(queryStates);
+		mCostCriterion = costCriterion;
+		mPolicySnapshot = policy.freeze();
+	}
+
+	public XMDP getXMDP() {
+		return mXMDP;
+	}
+
+	public CostCriterion getCostCriterion() {
+		return mCostCriterion;
+	}
+
+	/**
+	 *
+	 * @return Fingerprint of the model on which the policy is evaluated
+	 */
+	public int getModelFingerprint() {
+		int result = 17;
+		result = 31 * result + mXMDP.hashCode();
+		result = 31 * result + mQueryStates.hashCode();
+		result = 31 * result + mCostCriterion.hashCode();
+		return result;
+	}
+
+	/**
+	 *
+	 * @return Digest of the policy, independent of the order of its decisions
+	 */
+	public int getPolicyDigest() {
+		return mPolicySnapshot.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		if (!(obj instanceof PolicyEvaluationKey)) {
+			return false;
+		}
+		PolicyEvaluationKey key = (PolicyEvaluationKey) obj;
+		return key.mCostCriterion == mCostCriterion && key.mQueryStates.equals(mQueryStates)
+				&& key.mPolicySnapshot.equals(mPolicySnapshot) && key.mXMDP.equals(mXMDP);
+	}
+
+	@Override
+	public int hashCode() {
+		int result = hashCode;
+		if (result == 0) {
+			result = 17;
+			result = 31 * result + getModelFingerprint();
+			result = 31 * result + getPolicyDigest();
+			hashCode = result;
+		}
+		return hashCode;
+	}
+}
@@ -5,13 +5,24 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map.Entry;
 
+import explicit.ConstructModel;
+import explicit.MDP;
+import explicit.rewards.ConstructRewards;
+import explicit.rewards.MDPRewards;
+import parser.State;
 import parser.ast.ModulesFile;
 import parser.ast.PropertiesFile;
 import parser.ast.Property;
@@ -22,10 +33,12 @@ import prism.PrismFileLog;
 import prism.PrismLog;
 import prism.PrismSettings;
 import prism.Result;
+import simulator.ModulesFileModelGenerator;
 import solver.prismconnector.PrismConfiguration.PrismEngine;
 import solver.prismconnector.PrismConfiguration.PrismMDPMultiSolutionMethod;
 import solver.prismconnector.PrismConfiguration.PrismMDPSolutionMethod;
 import solver.prismconnector.exceptions.ResultParsingException;
+import solver.prismconnector.explicitmodel.PrismExplicitModel;
 import solver.prismconnector.explicitmodel.PrismExplicitModelPointer;
 
 /**
@@ -38,15 +51,43 @@ import solver.prismconnector.explicitmodel.PrismExplicitModelPointer;
  */
 public class PrismAPIWrapper {
 
-	private static final String FLOATING_POINT_RESULT_PATTERN = "[-+]?[0-9]*\\.?[0-9]+([eE][-+]?[0-9]+)?";
-	private static final String INFINITY_RESULT_PATTERN = "Infinity";
-	private static final String NAN_RESULT_PATTERN = "NaN";
+	/**
+	 * Default number of recently parsed models to keep.
+	 */
+	public static final int DEFAULT_MODEL_CACHE_SIZE = 8;
 
 	private PrismConfiguration mPrismConfig;
 	private Prism mPrism;
 
+	// Recently parsed models, keyed by the digests of their content, in access order -- the least recently used model
+	// is evicted
+	private Map<ModelContent, PrismModelHandle> mModelCache;
+
+	// Model currently loaded in PRISM -- PRISM only keeps the built model of the currently loaded model
+	private PrismModelHandle mLoadedModel;
+
 	public PrismAPIWrapper() throws PrismException {
+		this(DEFAULT_MODEL_CACHE_SIZE);
+	}
+
+	/**
+	 * 
+	 * @param modelCacheSize
+	 *            : Maximum number of recently parsed models to keep
+	 * @throws PrismException
+	 */
+	public PrismAPIWrapper(int modelCacheSize) throws PrismException {
 		mPrismConfig = new PrismConfiguration(); // set to default PRISM configuration initially
+		mModelCache = new LinkedHashMap<ModelContent, PrismModelHandle>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<ModelContent, PrismModelHandle> eldest) {
+				// An evicted handle remains valid for its holder, but will be loaded again if it is queried
+				return size() > modelCacheSize;
+			}
+		};
 		initializePrism();
 	}
 
@@ -59,6 +100,24 @@ public class PrismAPIWrapper {
 		mPrism.initialise();
 	}
 
+	/**
+	 * Reset this {@link PrismAPIWrapper} to the default PRISM configuration, and release all of its loaded models --
+	 * e.g., before it is reused by another {@link PrismConnector}.
+	 * 
+	 * @throws PrismException
+	 */
+	public void resetConfiguration() throws PrismException {
+		for (PrismModelHandle handle : mModelCache.values()) {
+			handle.release();
+		}
+		mModelCache.clear();
+		mLoadedModel = null;
+
+		mPrismConfig = new PrismConfiguration();
+		mPrism.getSettings().loadDefaults();
+		mPrism.setExportProductStates(false);
+	}
+
 	/**
 	 * Close down PRISM. Only invoke this method when finishing using this {@link PrismAPIWrapper}.
 	 */
@@ -66,6 +125,104 @@ public class PrismAPIWrapper {
 		mPrism.closeDown();
 	}
 
+	/**
+	 * Load a PRISM model from a model string. If the same model string was recently loaded and is not yet released,
+	 * then its existing handle is returned, without parsing the model again.
+	 * 
+	 * @param modelStr
+	 *            : PRISM model string
+	 * @param modelType
+	 *            : Model type (e.g., MDP or DTMC)
+	 * @return Handle of the model, against which properties can be queried
+	 * @throws PrismException
+	 */
+	public PrismModelHandle loadModel(String modelStr, ModelType modelType) throws PrismException {
+		ModelContent modelContent = new ModelContent(modelStr, modelType);
+		PrismModelHandle handle = mModelCache.get(modelContent);
+
+		if (handle == null) {
+			// Parse a PRISM model from a model string
+			ModulesFile modulesFile = mPrism.parseModelString(modelStr, modelType);
+			handle = new PrismModelHandle(modulesFile, modelType);
+			mModelCache.put(modelContent, handle);
+		}
+		return handle;
+	}
+
+	/**
+	 * Release a model handle. The handle can no longer be queried.
+	 * 
+	 * @param handle
+	 *            : Handle of a loaded model
+	 */
+	public void releaseModel(PrismModelHandle handle) {
+		mModelCache.values().remove(handle);
+		if (mLoadedModel == handle) {
+			mLoadedModel = null;
+		}
+		handle.release();
+	}
+
+	/**
+	 * Query a quantitative property of a loaded model.
+	 * 
+	 * @param handle
+	 *            : Handle of a loaded model
+	 * @param propertyStr
+	 *            : Single property to be queried
+	 * @return Quantitative result of the given query property
+	 * @throws PrismException
+	 * @throws ResultParsingException
+	 */
+	public double queryProperty(PrismModelHandle handle, String propertyStr)
+			throws PrismException, ResultParsingException {
+		prepareForQuery(handle);
+		return queryPropertyHelper(handle.getModulesFile(), propertyStr, 0);
+	}
+
+	/**
+	 * Query multiple quantitative properties of a loaded model.
+	 * 
+	 * @param handle
+	 *            : Handle of a loaded model
+	 * @param propertiesStr
+	 *            : Multiple properties to be queried
+	 * @return Mapping from each property to the result
+	 * @throws PrismException
+	 * @throws ResultParsingException
+	 */
+	public Map<String, Double> queryProperties(PrismModelHandle handle, String propertiesStr)
+			throws PrismException, ResultParsingException {
+		prepareForQuery(handle);
+		return queryPropertiesHelper(handle.getModulesFile(), propertiesStr);
+	}
+
+	private void prepareForQuery(PrismModelHandle handle) throws PrismException {
+		ensureLoaded(handle);
+
+		if (handle.getModelType() == ModelType.DTMC) {
+			// PrismRewardTranslator only uses transition rewards
+			// Explicit engine does not yet handle transition rewards for D/CTMCs
+			switchEngineFromExplicitToSparse();
+		}
+	}
+
+	/**
+	 * Load a given model into PRISM, unless it is already the currently loaded model -- in which case PRISM keeps its
+	 * built model, if any.
+	 * 
+	 * @param handle
+	 *            : Handle of a loaded model
+	 * @throws PrismException
+	 */
+	private void ensureLoaded(PrismModelHandle handle) throws PrismException {
+		ModulesFile modulesFile = handle.getModulesFile();
+		if (mLoadedModel != handle || mPrism.getPRISMModel() != modulesFile) {
+			mPrism.loadPRISMModel(modulesFile);
+			mLoadedModel = handle;
+		}
+	}
+
 	/**
 	 * Configure PRISM for model-checking steady-state property.
 	 */
@@ -113,9 +270,10 @@ public class PrismAPIWrapper {
 		File labOutputFile = outputExplicitModelPointer.getLabelsFile();
 		PrismRewardType prismRewardType = outputExplicitModelPointer.getPrismRewardType();
 
-		// Parse and load a PRISM MDP model from a model string
-		ModulesFile modulesFile = mPrism.parseModelString(mdpStr, ModelType.MDP);
-		mPrism.loadPRISMModel(modulesFile);
+		// Parse and load a PRISM MDP model from a model string, unless it is recently loaded
+		PrismModelHandle handle = loadModel(mdpStr, ModelType.MDP);
+		ensureLoaded(handle);
+		ModulesFile modulesFile = handle.getModulesFile();
 
 		// Export the states of the model to a file (.sta)
 		mPrism.exportStatesToFile(Prism.EXPORT_PLAIN, staOutputFile);
@@ -144,6 +302,113 @@ public class PrismAPIWrapper {
 		return modulesFile;
 	}
 
+	/**
+	 * Build the explicit model of a given PRISM MDP String in memory. The resulting {@link PrismExplicitModel} contains
+	 * the same states, transitions, labels, and rewards as the explicit model files (.sta, .tra, .lab, and
+	 * .srew/.trew), without exporting and parsing the files.
+	 *
+	 * The model is always constructed by the explicit engine, regardless of the engine selected for model checking.
+	 *
+	 * @param mdpStr
+	 *            : PRISM MDP String
+	 * @param prismRewardType
+	 *            : Whether to extract state rewards or transition rewards
+	 * @return In-memory explicit model
+	 * @throws PrismException
+	 */
+	public PrismExplicitModel buildExplicitModel(String mdpStr, PrismRewardType prismRewardType)
+			throws PrismException {
+		// Parse and load a PRISM MDP model from a model string, unless it is recently loaded
+		PrismModelHandle handle = loadModel(mdpStr, ModelType.MDP);
+		ensureLoaded(handle);
+		ModulesFile modulesFile = handle.getModulesFile();
+
+		// Construct the explicit MDP, with action labels and labels attached
+		ModulesFileModelGenerator modelGenerator = new ModulesFileModelGenerator(modulesFile, mPrism);
+		ConstructModel constructModel = new ConstructModel(mPrism);
+		constructModel.setDistinguishActions(true);
+		constructModel.setAttachLabels(true);
+		MDP mdp = (MDP) constructModel.constructModel(modelGenerator);
+
+		int numStates = mdp.getNumStates();
+		int numChoices = mdp.getNumChoices();
+		int numTransitions = mdp.getNumTransitions();
+
+		// Variable names and values of all states (.sta)
+		String[] varNames = modelGenerator.getVarNames().toArray(new String[0]);
+		List<State> statesList = mdp.getStatesList();
+		Object[][] stateValues = new Object[numStates][];
+		for (int i = 0; i < numStates; i++) {
+			stateValues[i] = statesList.get(i).varValues;
+		}
+
+		// Choices and transitions of all states (.tra)
+		int[] choiceOffsets = new int[numStates + 1];
+		String[] choiceActionNames = new String[numChoices];
+		int[] transitionOffsets = new int[numChoices + 1];
+		int[] destStates = new int[numTransitions];
+		double[] probabilities = new double[numTransitions];
+		int c = 0;
+		int t = 0;
+		for (int i = 0; i < numStates; i++) {
+			choiceOffsets[i] = c;
+			for (int j = 0; j < mdp.getNumChoices(i); j++) {
+				// Assume that every command in PRISM MDP model has an action label
+				Object action = mdp.getAction(i, j);
+				choiceActionNames[c] = action == null ? "" : action.toString();
+				transitionOffsets[c] = t;
+				Iterator<Entry<Integer, Double>> iter = mdp.getTransitionsIterator(i, j);
+				while (iter.hasNext()) {
+					Entry<Integer, Double> transition = iter.next();
+					destStates[t] = transition.getKey();
+					probabilities[t] = transition.getValue();
+					t++;
+				}
+				c++;
+			}
+		}
+		choiceOffsets[numStates] = c;
+		transitionOffsets[numChoices] = t;
+
+		// Reward structures (.srew or .trew), indexed by state or by choice
+		int numRewardStructs = modulesFile.getNumRewardStructs();
+		double[][] rewards = new double[numRewardStructs][];
+		ConstructRewards constructRewards = new ConstructRewards(mPrism.getLog());
+		constructRewards.allowNegativeRewards();
+		for (int r = 0; r < numRewardStructs; r++) {
+			MDPRewards mdpRewards = constructRewards.buildMDPRewardStructure(mdp, modelGenerator, r);
+
+			if (prismRewardType == PrismRewardType.STATE_REWARD) {
+				rewards[r] = new double[numStates];
+				for (int i = 0; i < numStates; i++) {
+					rewards[r][i] = mdpRewards.getStateReward(i);
+				}
+			} else {
+				rewards[r] = new double[numChoices];
+				for (int i = 0; i < numStates; i++) {
+					for (int j = 0; j < mdp.getNumChoices(i); j++) {
+						rewards[r][choiceOffsets[i] + j] = mdpRewards.getTransitionReward(i, j);
+					}
+				}
+			}
+		}
+
+		// Labels (.lab)
+		Map<String, BitSet> labels = new HashMap<>();
+		for (String label : mdp.getLabels()) {
+			labels.put(label, mdp.getLabelStates(label));
+		}
+
+		// Assume a single initial state
+		int iniState = mdp.getFirstInitialState();
+		BitSet iniStates = new BitSet(numStates);
+		iniStates.set(iniState);
+		labels.put("init", iniStates);
+
+		return new PrismExplicitModel(varNames, stateValues, choiceOffsets, choiceActionNames, transitionOffsets,
+				destStates, probabilities, prismRewardType, rewards, iniState, labels);
+	}
+
 	/**
 	 * Export the PRISM MDP model file (.mdp) -- for debugging purposes.
 	 * 
@@ -246,6 +511,7 @@ public class PrismAPIWrapper {
 		// labels -- important!)
 		ModulesFile modulesFile = mPrism.loadModelFromExplicitFiles(staFile, advFile, labFile, srewFile,
 				ModelType.DTMC);
+		mLoadedModel = null;
 
 		return queryPropertyHelper(modulesFile, rawRewardPropertyStr, 0);
 	}
@@ -284,15 +550,9 @@ public class PrismAPIWrapper {
 	 */
 	public double queryPropertyFromDTMC(String dtmcModelStr, String propertyStr)
 			throws PrismException, ResultParsingException {
-		// Parse and load a PRISM DTMC model from a model string
-		ModulesFile modulesFile = mPrism.parseModelString(dtmcModelStr, ModelType.DTMC);
-		mPrism.loadPRISMModel(modulesFile);
-
-		// PrismRewardTranslator only uses transition rewards
-		// Explicit engine does not yet handle transition rewards for D/CTMCs
-		switchEngineFromExplicitToSparse();
-
-		return queryPropertyHelper(modulesFile, propertyStr, 0);
+		// Parse and load a PRISM DTMC model from a model string, unless it is recently loaded
+		PrismModelHandle handle = loadModel(dtmcModelStr, ModelType.DTMC);
+		return queryProperty(handle, propertyStr);
 	}
 
 	/**
@@ -308,15 +568,9 @@ public class PrismAPIWrapper {
 	 */
 	public Map<String, Double> queryPropertiesFromDTMC(String dtmcModelStr, String propertiesStr)
 			throws PrismException, ResultParsingException {
-		// Parse and load a PRISM DTMC model from a model string
-		ModulesFile modulesFile = mPrism.parseModelString(dtmcModelStr, ModelType.DTMC);
-		mPrism.loadPRISMModel(modulesFile);
-
-		// PrismRewardTranslator only uses transition rewards
-		// Explicit engine does not yet handle transition rewards for D/CTMCs
-		switchEngineFromExplicitToSparse();
-
-		return queryPropertiesHelper(modulesFile, propertiesStr);
+		// Parse and load a PRISM DTMC model from a model string, unless it is recently loaded
+		PrismModelHandle handle = loadModel(dtmcModelStr, ModelType.DTMC);
+		return queryProperties(handle, propertiesStr);
 	}
 
 	private Map<String, Double> queryPropertiesHelper(ModulesFile modulesFile, String propertiesStr)
@@ -328,11 +582,17 @@ public class PrismAPIWrapper {
 		int numProperties = propertiesFile.getNumProperties();
 
 		Map<String, Double> results = new HashMap<>();
-		String[] propertiesArray = propertiesStr.split("\n");
 
-		// Query result of each property
+		// Query result of each property (1 property/line)
+		int lineStart = 0;
 		for (int i = 0; i < numProperties; i++) {
-			String propertyStr = propertiesArray[i];
+			int lineEnd = propertiesStr.indexOf('\n', lineStart);
+			if (lineEnd < 0) {
+				lineEnd = propertiesStr.length();
+			}
+			String propertyStr = propertiesStr.substring(lineStart, lineEnd);
+			lineStart = lineEnd + 1;
+
 			double result = queryPropertyHelper(propertiesFile, i);
 			results.put(propertyStr, result);
 		}
@@ -353,29 +613,9 @@ public class PrismAPIWrapper {
 		Property property = propertiesFile.getPropertyObject(propertyIndex);
 		Result result = mPrism.modelCheck(propertiesFile, property);
 
-		// Parse result double from result string
-		// The result string may be a floating-point value, "Infinity", or "NaN"
-		String resultStr = result.getResultString();
-		Pattern valuePattern = Pattern.compile(FLOATING_POINT_RESULT_PATTERN);
-		Pattern infinityPattern = Pattern.compile(INFINITY_RESULT_PATTERN);
-		Pattern nanPattern = Pattern.compile(NAN_RESULT_PATTERN);
-		Matcher valueMatcher = valuePattern.matcher(resultStr);
-		Matcher infinityMatcher = infinityPattern.matcher(resultStr);
-		Matcher nanMatcher = nanPattern.matcher(resultStr);
-
-		if (valueMatcher.find()) {
-			return Double.parseDouble(valueMatcher.group(0));
-		}
-		if (infinityMatcher.find()) {
-			// The probability of reaching goal is < 1
-			return Double.POSITIVE_INFINITY;
-		}
-		if (nanMatcher.find()) {
-			// Using linear programming solution method: LP problem solution not found
-			return Double.NaN;
-		}
-		throw new ResultParsingException(resultStr, FLOATING_POINT_RESULT_PATTERN, INFINITY_RESULT_PATTERN,
-				NAN_RESULT_PATTERN);
+		// Extract result double directly from the result object
+		// The result may be a floating-point value, infinity, or NaN
+		return PrismResultExtractor.extractDouble(result);
 	}
 
 	private void switchEngineFromExplicitToSparse() throws PrismException {
@@ -385,4 +625,57 @@ public class PrismAPIWrapper {
 			mPrism.getSettings().set(PrismSettings.PRISM_ENGINE, sparseEngine.toString());
 		}
 	}
+
+	/**
+	 * Content of a PRISM model string, as a key of the model cache. Only the SHA-256 digest of the model string is
+	 * kept, so that the cache does not hold on to the model strings, which can be large.
+	 */
+	private static class ModelContent {
+
+		/*
+		 * Cached hashCode -- Effective Java
+		 */
+		private volatile int hashCode;
+
+		private byte[] mModelDigest;
+		private ModelType mModelType;
+
+		ModelContent(String modelStr, ModelType modelType) {
+			mModelDigest = digest(modelStr);
+			mModelType = modelType;
+		}
+
+		private static byte[] digest(String modelStr) {
+			try {
+				return MessageDigest.getInstance("SHA-256").digest(modelStr.getBytes(StandardCharsets.UTF_8));
+			} catch (NoSuchAlgorithmException e) {
+				// Every Java platform is required to support SHA-256
+				throw new IllegalStateException(e);
+			}
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) {
+				return true;
+			}
+			if (!(obj instanceof ModelContent)) {
+				return false;
+			}
+			ModelContent content = (ModelContent) obj;
+			return content.mModelType == mModelType && Arrays.equals(content.mModelDigest, mModelDigest);
+		}
+
+		@Override
+		public int hashCode() {
+			int result = hashCode;
+			if (result == 0) {
+				result = 17;
+				result = 31 * result + Arrays.hashCode(mModelDigest);
+				result = 31 * result + mModelType.hashCode();
+				hashCode = result;
+			}
+			return hashCode;
+		}
+	}
 }
@@ -6,9 +6,11 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import explanation.analysis.EventBasedQAValue;
 import explanation.analysis.PolicyInfo;
+import explanation.analysis.ValueBounds;
 import language.domain.metrics.IEvent;
 import language.domain.metrics.IQFunction;
 import language.domain.metrics.ITransitionStructure;
@@ -25,12 +27,23 @@ import language.objectives.CostCriterion;
 import language.objectives.CostFunction;
 import language.objectives.IAdditiveCostFunction;
 import language.policy.Policy;
+import prism.ModelType;
 import prism.PrismException;
+import solver.nativeconnector.XDTMCEvaluation;
+import solver.nativeconnector.XDTMCEvaluator;
+import solver.prismconnector.PrismConnectorSettings.PolicyEvaluationMethod;
 import solver.prismconnector.exceptions.ResultParsingException;
+import solver.prismconnector.explicitmodel.PrismExplicitModel;
 import solver.prismconnector.explicitmodel.PrismExplicitModelPointer;
 import solver.prismconnector.explicitmodel.PrismExplicitModelReader;
 
-public class PrismConnector {
+/**
+ * {@link PrismConnector} holds the PRISM engine of the {@link PrismEnginePool} from its construction until it is
+ * closed. Since the pool has a single engine, all PRISM access is serialized: a {@link PrismConnector} created while
+ * another one is open waits until the other one is closed. Therefore, always close a {@link PrismConnector} in a
+ * try-with-resources statement (or a finally block), so that the engine is returned even if an exception is thrown.
+ */
+public class PrismConnector implements AutoCloseable {
 
 	public static final String DEFAULT_MODEL_FILENAME_PREFIX = "model";
 
@@ -39,10 +52,13 @@ public class PrismConnector {
 	private PrismMDPTranslator mMDPTranslator;
 	private PrismConnectorSettings mSettings;
 	private PrismAPIWrapper mPrismAPI;
-	private Map<Policy, Double> mCachedCosts = new HashMap<>();
-	private Map<Policy, Map<IQFunction<?, ?>, Double>> mCachedQAValues = new HashMap<>();
-	private Map<Policy, Map<IQFunction<?, ?>, Double>> mCachedQACosts = new HashMap<>();
-	private Map<PrismExplicitModelPointer, Policy> mExplicitModelPtrToPolicy = new HashMap<>();
+	private boolean mTerminated;
+	private Set<StateVarTuple> mQueryStates;
+	private PolicyEvaluationCache mCache;
+	private Map<PrismExplicitModelPointer, Policy> mExplicitModelPtrToPolicy = new ConcurrentHashMap<>();
+
+	// Most recently induced DTMC, from which the DTMC of a similar policy is derived
+	private volatile XDTMC mLastXDTMC;
 
 	public PrismConnector(XMDP xmdp, CostCriterion costCriterion, PrismConnectorSettings settings)
 			throws PrismException {
@@ -51,11 +67,34 @@ public class PrismConnector {
 
 	public PrismConnector(XMDP xmdp, Set<StateVarTuple> queryStates, CostCriterion costCriterion,
 			PrismConnectorSettings settings) throws PrismException {
+		this(xmdp, queryStates, costCriterion, settings, new PolicyEvaluationCache());
+	}
+
+	/**
+	 * The PRISM engine is checked out of the {@link PrismEnginePool} until {@link #close()} is invoked. Therefore, at
+	 * most one {@link PrismConnector} can be in use at a time.
+	 * 
+	 * @param xmdp
+	 *            : XMDP
+	 * @param queryStates
+	 *            : Query states to be made absorbing states, or null if there is none
+	 * @param costCriterion
+	 *            : Cost criterion of the XMDP
+	 * @param settings
+	 *            : PrismConnector settings
+	 * @param cache
+	 *            : Cache of policy evaluations -- can be shared with other PrismConnectors
+	 * @throws PrismException
+	 */
+	public PrismConnector(XMDP xmdp, Set<StateVarTuple> queryStates, CostCriterion costCriterion,
+			PrismConnectorSettings settings, PolicyEvaluationCache cache) throws PrismException {
 		mXMDP = xmdp;
 		mCostCriterion = costCriterion;
+		mQueryStates = queryStates;
+		mCache = cache;
 		mMDPTranslator = new PrismMDPTranslator(xmdp, queryStates);
 		mSettings = settings;
-		mPrismAPI = new PrismAPIWrapper();
+		mPrismAPI = PrismEnginePool.getInstance().acquire();
 
 		if (costCriterion == CostCriterion.AVERAGE_COST) {
 			mPrismAPI.configureForSteadySteadProperty();
@@ -74,6 +113,10 @@ public class PrismConnector {
 		return mMDPTranslator;
 	}
 
+	public PolicyEvaluationCache getPolicyEvaluationCache() {
+		return mCache;
+	}
+
 	/**
 	 * Export the PRISM explicit model files from this XMDP. The explicit model files include: states file (.sta),
 	 * transitions file (.tra), labels file (.lab), and transition rewards file (.trew).
@@ -103,6 +146,40 @@ public class PrismConnector {
 		return outputExplicitModelPointer;
 	}
 
+	/**
+	 * Build the PRISM explicit model of this XMDP in memory, and create a reader of it. The states, transitions, labels,
+	 * and transition rewards are read directly from the model built by PRISM, without exporting and parsing the
+	 * explicit model files.
+	 * 
+	 * The explicit model files and the PRISM MDP model file are only exported if the settings enable it -- for
+	 * debugging purposes.
+	 * 
+	 * @return Reader of the in-memory explicit model
+	 * @throws XMDPException
+	 * @throws PrismException
+	 * @throws IOException
+	 */
+	public PrismExplicitModelReader buildExplicitModelReader() throws XMDPException, PrismException, IOException {
+		// Get MDP translation with QAs as the reward structures
+		String mdpStr = mMDPTranslator.getMDPTranslation(true);
+
+		// Explicit model pointer to output directory **for models** -- only used if the files are exported
+		// PrismRewardTranslator only uses transition rewards
+		PrismExplicitModelPointer outputExplicitModelPointer = new PrismExplicitModelPointer(
+				mSettings.getModelOutputPath(), DEFAULT_MODEL_FILENAME_PREFIX, PrismRewardType.TRANSITION_REWARD);
+
+		PrismExplicitModel explicitModel = mPrismAPI.buildExplicitModel(mdpStr, PrismRewardType.TRANSITION_REWARD);
+
+		if (mSettings.exportExplicitModelFiles()) {
+			// Export .sta, .tra, .lab, .trew, and .mdp files for debugging purposes
+			mPrismAPI.exportExplicitModelFiles(mdpStr, outputExplicitModelPointer);
+			mPrismAPI.exportMDPModelFile(mdpStr, outputExplicitModelPointer);
+		}
+
+		return new PrismExplicitModelReader(outputExplicitModelPointer, explicitModel,
+				mMDPTranslator.getValueEncodingScheme());
+	}
+
 	/**
 	 * Generate an optimal policy (the objective is the cost function) of the MDP. Compute its QA values. Cache its
 	 * expected total cost and QA values.
@@ -222,18 +299,20 @@ public class PrismConnector {
 		// Map the explicit model pointer to the corresponding policy object
 		mExplicitModelPtrToPolicy.put(outputExplicitModelPointer, policy);
 
+		PolicyEvaluationKey key = createCacheKey(policy);
+
 		if (isCostMinProperty(propertyStr)) {
 			// The objective function in the property is the cost function
 			// Cache the expected total cost of the policy
-			mCachedCosts.put(policy, result);
+			mCache.putCost(key, result);
 		} else {
 			// The objective function in the property is not the cost function
 			// Calculate the expected total cost of the policy, and cache it
-			computeAndCacheCost(policy);
+			computeAndCacheCost(policy, key);
 		}
 
 		// Compute and cache all of the QA values of the policy
-		computeAndCacheAllQAValues(policy);
+		computeAndCacheAllQAValues(policy, key);
 
 		return buildPolicyInfo(policy);
 	}
@@ -263,26 +342,52 @@ public class PrismConnector {
 	}
 
 	public PolicyInfo buildPolicyInfo(Policy policy) throws ResultParsingException, XMDPException, PrismException {
-		double objectiveCost = computeObjectiveCost(policy);
+		// Snapshot the policy only once for all cache look-ups
+		PolicyEvaluationKey key = createCacheKey(policy);
+
+		ValueBounds costBounds = null;
+		Map<IQFunction<?, ?>, ValueBounds> qaValueBounds = null;
+		if (isIntervalPolicyEvaluation()) {
+			costBounds = mCache.getCostBounds(key);
+			qaValueBounds = mCache.getQAValueBounds(key);
+
+			if (!isBoundsUpToDate(key, costBounds, qaValueBounds)) {
+				// The cached values are computed by another method, or their bounds are computed at a coarser
+				// precision
+				XDTMCEvaluation evaluation = evaluateAndCachePolicy(policy, key);
+				costBounds = evaluation.getCostBounds();
+				qaValueBounds = evaluation.getQAValueBounds();
+			}
+		}
+
+		double objectiveCost = computeObjectiveCost(policy, key);
 		PolicyInfo policyInfo = new PolicyInfo(mXMDP, policy, objectiveCost);
+		policyInfo.putObjectiveCostBounds(costBounds);
 
 		CostFunction costFunction = mXMDP.getCostFunction();
+		Map<IQFunction<?, ?>, Double> qaValues = getAllQAValues(policy, key);
+		Map<IQFunction<?, ?>, Double> qaCosts = getAllQACosts(policy, key);
 
 		for (IQFunction<?, ?> qFunction : mXMDP.getQSpace()) {
 			// QA value
-			double qaValue = computeQAValue(policy, qFunction);
+			double qaValue = qaValues.get(qFunction);
 			policyInfo.putQAValue(qFunction, qaValue);
 
+			if (qaValueBounds != null) {
+				policyInfo.putQAValueBounds(qFunction, qaValueBounds.get(qFunction));
+			}
+
 			// Scaled QA cost
 			AttributeCostFunction<?> attrCostFunction = costFunction.getAttributeCostFunction(qFunction);
-			double nonScaledQACost = computeQACost(policy, qFunction);
+			double nonScaledQACost = qaCosts.get(qFunction);
 			double scaledQACost = nonScaledQACost * costFunction.getScalingConstant(attrCostFunction);
 			policyInfo.putScaledQACost(qFunction, scaledQACost);
 
 			if (qFunction instanceof NonStandardMetricQFunction<?, ?, ?>) {
 				// Event-based QA value
 				NonStandardMetricQFunction<?, ?, IEvent<?, ?>> nonStdQFunction = (NonStandardMetricQFunction<?, ?, IEvent<?, ?>>) qFunction;
-				EventBasedQAValue<IEvent<?, ?>> eventBasedQAValue = computeEventBasedQAValue(policy, nonStdQFunction);
+				EventBasedQAValue<IEvent<?, ?>> eventBasedQAValue = computeEventBasedQAValue(policy, key,
+						nonStdQFunction);
 				policyInfo.putEventBasedQAValue(nonStdQFunction, eventBasedQAValue);
 			}
 		}
@@ -301,19 +406,28 @@ public class PrismConnector {
 	 * @throws ResultParsingException
 	 */
 	public double computeObjectiveCost(Policy policy) throws XMDPException, PrismException, ResultParsingException {
-		if (!mCachedCosts.containsKey(policy)) {
-			computeAndCacheCost(policy);
-		}
-		return mCachedCosts.get(policy);
+		return computeObjectiveCost(policy, createCacheKey(policy));
+	}
+
+	private double computeObjectiveCost(Policy policy, PolicyEvaluationKey key)
+			throws XMDPException, PrismException, ResultParsingException {
+		Double cost = mCache.getCost(key);
+		return cost == null ? computeAndCacheCost(policy, key) : cost;
 	}
 
-	private void computeAndCacheCost(Policy policy) throws XMDPException, PrismException, ResultParsingException {
-		XDTMC xdtmc = new XDTMC(mXMDP, policy);
+	private double computeAndCacheCost(Policy policy, PolicyEvaluationKey key)
+			throws XMDPException, PrismException, ResultParsingException {
+		if (isNativePolicyEvaluation()) {
+			return evaluateAndCachePolicy(policy, key).getCost();
+		}
+
+		XDTMC xdtmc = induceXDTMC(policy);
 		PrismDTMCTranslator dtmcTranslator = new PrismDTMCTranslator(xdtmc);
-		String dtmc = dtmcTranslator.getDTMCTranslation(false, false);
+		PrismModelHandle dtmcHandle = loadEvaluationDTMC(dtmcTranslator);
 		String queryProperty = dtmcTranslator.getCostQueryPropertyTranslation(mCostCriterion);
-		double totalCost = mPrismAPI.queryPropertyFromDTMC(dtmc, queryProperty);
-		mCachedCosts.put(policy, totalCost);
+		double totalCost = mPrismAPI.queryProperty(dtmcHandle, queryProperty);
+		mCache.putCost(key, totalCost);
+		return totalCost;
 	}
 
 	/**
@@ -334,17 +448,24 @@ public class PrismConnector {
 		if (!mXMDP.getQSpace().contains(qFunction)) {
 			throw new QFunctionNotFoundException(qFunction);
 		}
-		if (!mCachedQAValues.containsKey(policy)) {
-			computeAndCacheAllQAValues(policy);
-		}
-		return mCachedQAValues.get(policy).get(qFunction);
+		return getAllQAValues(policy, createCacheKey(policy)).get(qFunction);
+	}
+
+	private Map<IQFunction<?, ?>, Double> getAllQAValues(Policy policy, PolicyEvaluationKey key)
+			throws XMDPException, PrismException, ResultParsingException {
+		Map<IQFunction<?, ?>, Double> qaValues = mCache.getQAValues(key);
+		return qaValues == null ? computeAndCacheAllQAValues(policy, key) : qaValues;
 	}
 
-	private void computeAndCacheAllQAValues(Policy policy)
+	private Map<IQFunction<?, ?>, Double> computeAndCacheAllQAValues(Policy policy, PolicyEvaluationKey key)
 			throws XMDPException, PrismException, ResultParsingException {
-		XDTMC xdtmc = new XDTMC(mXMDP, policy);
+		if (isNativePolicyEvaluation()) {
+			return evaluateAndCachePolicy(policy, key).getQAValues();
+		}
+
+		XDTMC xdtmc = induceXDTMC(policy);
 		PrismDTMCTranslator dtmcTranslator = new PrismDTMCTranslator(xdtmc);
-		String dtmcWithQAs = dtmcTranslator.getDTMCTranslation(true, false);
+		PrismModelHandle dtmcHandle = loadEvaluationDTMC(dtmcTranslator);
 
 		Map<IQFunction<?, ?>, String> queryProperties = new HashMap<>();
 		for (IQFunction<?, ?> qFunction : mXMDP.getQSpace()) {
@@ -353,8 +474,9 @@ public class PrismConnector {
 		}
 
 		// Compute and cache the QA values of the policy
-		Map<IQFunction<?, ?>, Double> qaValues = computeValues(dtmcWithQAs, queryProperties);
-		mCachedQAValues.put(policy, qaValues);
+		Map<IQFunction<?, ?>, Double> qaValues = computeValues(dtmcHandle, queryProperties);
+		mCache.putQAValues(key, qaValues);
+		return qaValues;
 	}
 
 	/**
@@ -372,16 +494,24 @@ public class PrismConnector {
 	 */
 	public double computeQACost(Policy policy, IQFunction<?, ?> qFunction)
 			throws ResultParsingException, XMDPException, PrismException {
-		if (!mCachedQACosts.containsKey(policy)) {
-			computeAndCacheAllQACosts(policy);
-		}
-		return mCachedQACosts.get(policy).get(qFunction);
+		return getAllQACosts(policy, createCacheKey(policy)).get(qFunction);
 	}
 
-	private void computeAndCacheAllQACosts(Policy policy) throws XMDPException, ResultParsingException, PrismException {
-		XDTMC xdtmc = new XDTMC(mXMDP, policy);
+	private Map<IQFunction<?, ?>, Double> getAllQACosts(Policy policy, PolicyEvaluationKey key)
+			throws XMDPException, ResultParsingException, PrismException {
+		Map<IQFunction<?, ?>, Double> qaCosts = mCache.getQACosts(key);
+		return qaCosts == null ? computeAndCacheAllQACosts(policy, key) : qaCosts;
+	}
+
+	private Map<IQFunction<?, ?>, Double> computeAndCacheAllQACosts(Policy policy, PolicyEvaluationKey key)
+			throws XMDPException, ResultParsingException, PrismException {
+		if (isNativePolicyEvaluation()) {
+			return evaluateAndCachePolicy(policy, key).getQACosts();
+		}
+
+		XDTMC xdtmc = induceXDTMC(policy);
 		PrismDTMCTranslator dtmcTranslator = new PrismDTMCTranslator(xdtmc);
-		String dtmcWithQACosts = dtmcTranslator.getDTMCTranslation(false, true);
+		PrismModelHandle dtmcHandle = loadEvaluationDTMC(dtmcTranslator);
 
 		Map<IQFunction<?, ?>, String> queryProperties = new HashMap<>();
 		for (IQFunction<?, ?> qFunction : mXMDP.getQSpace()) {
@@ -391,11 +521,12 @@ public class PrismConnector {
 		}
 
 		// Compute and cache the QA costs of the policy
-		Map<IQFunction<?, ?>, Double> qaCosts = computeValues(dtmcWithQACosts, queryProperties);
-		mCachedQACosts.put(policy, qaCosts);
+		Map<IQFunction<?, ?>, Double> qaCosts = computeValues(dtmcHandle, queryProperties);
+		mCache.putQACosts(key, qaCosts);
+		return qaCosts;
 	}
 
-	private <E> Map<E, Double> computeValues(String dtmcModelStr, Map<E, String> queryProperties)
+	private <E> Map<E, Double> computeValues(PrismModelHandle dtmcHandle, Map<E, String> queryProperties)
 			throws ResultParsingException, PrismException {
 		// Build a string containing all properties to be computed (1 property/line)
 		StringBuilder builder = new StringBuilder();
@@ -406,7 +537,7 @@ public class PrismConnector {
 		String propertiesStr = builder.toString();
 
 		// Get result of each property
-		Map<String, Double> results = mPrismAPI.queryPropertiesFromDTMC(dtmcModelStr, propertiesStr);
+		Map<String, Double> results = mPrismAPI.queryProperties(dtmcHandle, propertiesStr);
 
 		// Pair results to the functions that compute them
 		Map<E, Double> objValues = new HashMap<>();
@@ -434,11 +565,12 @@ public class PrismConnector {
 			qaValues.put(qFunction, qaValue);
 		}
 		Policy policy = mExplicitModelPtrToPolicy.get(explicitDTMCPointer);
-		mCachedQAValues.put(policy, qaValues);
+		mCache.putQAValues(createCacheKey(policy), qaValues);
 	}
 
 	/**
-	 * Compute the expected total occurrences of each event in a given non-standard QA metric.
+	 * Retrieve the expected total occurrences of each event in a given non-standard QA metric from the cache. If the
+	 * events are not already in the cache, then compute and cache them.
 	 * 
 	 * @param policy
 	 *            : Policy
@@ -452,16 +584,48 @@ public class PrismConnector {
 	public <E extends IEvent<?, ?>> EventBasedQAValue<E> computeEventBasedQAValue(Policy policy,
 			NonStandardMetricQFunction<?, ?, E> qFunction)
 			throws XMDPException, ResultParsingException, PrismException {
-		XDTMC xdtmc = new XDTMC(mXMDP, policy);
+		return computeEventBasedQAValue(policy, createCacheKey(policy), qFunction);
+	}
+
+	private <E extends IEvent<?, ?>> EventBasedQAValue<E> computeEventBasedQAValue(Policy policy,
+			PolicyEvaluationKey key, NonStandardMetricQFunction<?, ?, E> qFunction)
+			throws XMDPException, ResultParsingException, PrismException {
+		Set<E> events = qFunction.getEventBasedMetric().getEvents();
+		Map<E, Double> eventCounts = mCache.getEventCounts(key, events);
+
+		if (eventCounts == null && isNativePolicyEvaluation()) {
+			return evaluateAndCachePolicy(policy, key).getEventBasedQAValue(qFunction);
+		}
+
+		if (eventCounts == null) {
+			eventCounts = computeEventCounts(policy, qFunction);
+			mCache.putEventCounts(key, eventCounts);
+		}
+
+		EventBasedQAValue<E> eventBasedQAValue = new EventBasedQAValue<>();
+		for (E event : events) {
+			eventBasedQAValue.putExpectedCount(event, eventCounts.get(event));
+		}
+		return eventBasedQAValue;
+	}
+
+	private <E extends IEvent<?, ?>> Map<E, Double> computeEventCounts(Policy policy,
+			NonStandardMetricQFunction<?, ?, E> qFunction)
+			throws XMDPException, ResultParsingException, PrismException {
+
+		XDTMC xdtmc = induceXDTMC(policy);
 		PrismDTMCTranslator dtmcTranslator = new PrismDTMCTranslator(xdtmc);
-		String dtmc = dtmcTranslator.getDTMCTranslation(false, false);
-		String eventCounterRewards = dtmcTranslator.getEventCounterRewardsTranslation(qFunction.getEventBasedMetric());
+		PrismModelHandle dtmcHandle;
 
-		StringBuilder dtmcStrBuilder = new StringBuilder();
-		dtmcStrBuilder.append(dtmc);
-		dtmcStrBuilder.append("\n\n");
-		dtmcStrBuilder.append(eventCounterRewards);
-		String dtmcWithEventCounters = dtmcStrBuilder.toString();
+		if (mXMDP.getQSpace().contains(qFunction)) {
+			dtmcHandle = loadEvaluationDTMC(dtmcTranslator);
+		} else {
+			// Event counters of a QA function outside of the QA space are not in the shared evaluation DTMC
+			String dtmc = dtmcTranslator.getDTMCTranslation(false, false);
+			String eventCounterRewards = dtmcTranslator
+					.getEventCounterRewardsTranslation(qFunction.getEventBasedMetric());
+			dtmcHandle = mPrismAPI.loadModel(dtmc + "\n\n" + eventCounterRewards, ModelType.DTMC);
+		}
 
 		Map<E, String> eventQueryProps = new HashMap<>();
 		StringBuilder propsStrBuilder = new StringBuilder();
@@ -473,31 +637,166 @@ public class PrismConnector {
 		}
 		String propsStr = propsStrBuilder.toString();
 
-		Map<String, Double> results = mPrismAPI.queryPropertiesFromDTMC(dtmcWithEventCounters, propsStr);
+		Map<String, Double> results = mPrismAPI.queryProperties(dtmcHandle, propsStr);
 
-		EventBasedQAValue<E> eventBasedQAValue = new EventBasedQAValue<>();
+		Map<E, Double> eventCounts = new HashMap<>();
 		for (Entry<E, String> entry : eventQueryProps.entrySet()) {
 			E event = entry.getKey();
 			String eventQueryProp = entry.getValue();
-			eventBasedQAValue.putExpectedCount(event, results.get(eventQueryProp));
+			eventCounts.put(event, results.get(eventQueryProp));
 		}
+		return eventCounts;
+	}
 
-		return eventBasedQAValue;
+	private boolean isNativePolicyEvaluation() {
+		return mSettings.getPolicyEvaluationMethod() == PolicyEvaluationMethod.NATIVE
+				|| mSettings.getPolicyEvaluationMethod() == PolicyEvaluationMethod.NATIVE_INTERVAL_ITERATION;
+	}
+
+	private boolean isIntervalPolicyEvaluation() {
+		// Interval iteration is only applicable to total cost
+		return mSettings.getPolicyEvaluationMethod() == PolicyEvaluationMethod.NATIVE_INTERVAL_ITERATION
+				&& mCostCriterion == CostCriterion.TOTAL_COST;
+	}
+
+	/**
+	 * 
+	 * @return Whether the cached bounds need not be computed again: they are within the precision, or interval
+	 *         iteration has already computed them at the precision (or finer) -- in which case, it would only reach
+	 *         its maximum number of iterations again
+	 */
+	private boolean isBoundsUpToDate(PolicyEvaluationKey key, ValueBounds costBounds,
+			Map<IQFunction<?, ?>, ValueBounds> qaValueBounds) {
+		if (costBounds == null || qaValueBounds == null) {
+			return false;
+		}
+		Double boundsPrecision = mCache.getBoundsPrecision(key);
+		if (boundsPrecision != null && boundsPrecision <= mSettings.getBoundsPrecision()) {
+			return true;
+		}
+		return isWithinPrecision(costBounds, qaValueBounds);
+	}
+
+	private boolean isWithinPrecision(ValueBounds costBounds, Map<IQFunction<?, ?>, ValueBounds> qaValueBounds) {
+		if (costBounds.getWidth() > mSettings.getBoundsPrecision()) {
+			return false;
+		}
+		for (ValueBounds bounds : qaValueBounds.values()) {
+			if (bounds.getWidth() > mSettings.getBoundsPrecision()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Evaluate a given policy natively -- exploring its induced Markov chain only once -- and cache all of its
+	 * quantities. When evaluating by interval iteration, the bounds of the objective cost and QA values are also
+	 * cached, together with the precision at which they are computed.
+	 * 
+	 * @param policy
+	 *            : Policy
+	 * @param key
+	 *            : Cache key of the policy
+	 * @return Objective cost, QA values, QA costs, and event counts of the policy
+	 * @throws XMDPException
+	 */
+	private XDTMCEvaluation evaluateAndCachePolicy(Policy policy, PolicyEvaluationKey key) throws XMDPException {
+		XDTMC xdtmc = induceXDTMC(policy);
+		XDTMCEvaluator evaluator = new XDTMCEvaluator(xdtmc, mCostCriterion);
+		XDTMCEvaluation evaluation = isIntervalPolicyEvaluation()
+				? evaluator.evaluateWithBounds(mSettings.getBoundsPrecision())
+				: evaluator.evaluate();
+
+		mCache.putCost(key, evaluation.getCost());
+		mCache.putQAValues(key, evaluation.getQAValues());
+		mCache.putQACosts(key, evaluation.getQACosts());
+		mCache.putEventCounts(key, evaluation.getEventCounts());
+		if (evaluation.getCostBounds() != null) {
+			mCache.putValueBounds(key, evaluation.getCostBounds(), evaluation.getQAValueBounds(),
+					mSettings.getBoundsPrecision());
+		}
+		if (evaluation.isComputedByValueIteration()) {
+			mCache.countValueIterationFallback();
+		}
+		return evaluation;
+	}
+
+	private PolicyEvaluationKey createCacheKey(Policy policy) {
+		return new PolicyEvaluationKey(mXMDP, mQueryStates, mCostCriterion, policy);
 	}
 
 	public double computeReachabilityProbability(Policy policy, StateVarTuple queryState)
 			throws XMDPException, ResultParsingException, PrismException {
-		XDTMC xdtmc = new XDTMC(mXMDP, policy);
+		XDTMC xdtmc = induceXDTMC(policy);
 		PrismDTMCTranslator dtmcTranslator = new PrismDTMCTranslator(xdtmc);
-		String dtmc = dtmcTranslator.getDTMCTranslation(false, false);
+		PrismModelHandle dtmcHandle = loadEvaluationDTMC(dtmcTranslator);
 		String queryProperty = dtmcTranslator.getReachabilityQueryPropertyTranslation(queryState);
-		return mPrismAPI.queryPropertyFromDTMC(dtmc, queryProperty);
+		return mPrismAPI.queryProperty(dtmcHandle, queryProperty);
+	}
+
+	/**
+	 * Induce the DTMC of a policy. Policies evaluated by the same connector typically differ in only a few decisions
+	 * (e.g., alternative policies in an explanation), so the DTMC is derived from the most recently induced one:
+	 * only the transitions of the changed decisions are induced.
+	 * 
+	 * @param policy
+	 *            : Policy
+	 * @return DTMC induced by the policy
+	 * @throws XMDPException
+	 */
+	private XDTMC induceXDTMC(Policy policy) throws XMDPException {
+		XDTMC lastXDTMC = mLastXDTMC;
+		XDTMC xdtmc = lastXDTMC == null ? new XDTMC(mXMDP, policy) : new XDTMC(lastXDTMC, policy);
+		mLastXDTMC = xdtmc;
+		return xdtmc;
+	}
+
+	/**
+	 * Load the evaluation DTMC of a policy: a single PRISM model containing all reward structures needed to evaluate
+	 * the policy -- the cost function, the QA functions, the QA cost functions, and the event counters of the
+	 * non-standard QA functions. All evaluations of the same policy query this same model, which PRISM parses and
+	 * builds only once.
+	 * 
+	 * @param dtmcTranslator
+	 *            : DTMC translator of the policy
+	 * @return Handle of the evaluation DTMC
+	 * @throws XMDPException
+	 * @throws PrismException
+	 */
+	private PrismModelHandle loadEvaluationDTMC(PrismDTMCTranslator dtmcTranslator)
+			throws XMDPException, PrismException {
+		StringBuilder dtmcStrBuilder = new StringBuilder();
+		dtmcStrBuilder.append(dtmcTranslator.getDTMCTranslation(true, true));
+
+		for (IQFunction<?, ?> qFunction : mXMDP.getQSpace()) {
+			if (qFunction instanceof NonStandardMetricQFunction<?, ?, ?>) {
+				NonStandardMetricQFunction<?, ?, ?> nonStdQFunction = (NonStandardMetricQFunction<?, ?, ?>) qFunction;
+				String eventCounterRewards = dtmcTranslator
+						.getEventCounterRewardsTranslation(nonStdQFunction.getEventBasedMetric());
+				dtmcStrBuilder.append("\n\n");
+				dtmcStrBuilder.append(eventCounterRewards);
+			}
+		}
+		return mPrismAPI.loadModel(dtmcStrBuilder.toString(), ModelType.DTMC);
 	}
 
 	/**
-	 * Closing down PRISM. Only invoke this method when finishing using this {@link PrismConnector}.
+	 * Return the PRISM engine of this {@link PrismConnector} to the {@link PrismEnginePool}. Only invoke this method
+	 * when finishing using this {@link PrismConnector}. Invoking this method more than once has no further effect.
 	 */
 	public void terminate() {
-		mPrismAPI.terminatePrism();
+		if (!mTerminated) {
+			mTerminated = true;
+			PrismEnginePool.getInstance().release(mPrismAPI);
+		}
+	}
+
+	/**
+	 * Same as {@link #terminate()}.
+	 */
+	@Override
+	public void close() {
+		terminate();
 	}
 }
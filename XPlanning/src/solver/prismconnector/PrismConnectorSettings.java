@@ -1,7 +1,31 @@
 package solver.prismconnector;
 
+import solver.nativeconnector.NativeSolverUtils;
+
 public class PrismConnectorSettings {
 
+	/**
+	 * Method for computing the objective cost, QA values, QA costs, and event counts of a given policy.
+	 */
+	public enum PolicyEvaluationMethod {
+		/**
+		 * Explore the Markov chain induced by the policy once, and compute all quantities in pure Java.
+		 */
+		NATIVE,
+
+		/**
+		 * Same as {@link #NATIVE}, but compute guaranteed bounds of all quantities by interval iteration, and stop as
+		 * soon as the bounds are within the precision. Only applicable to total cost; average cost is evaluated as
+		 * {@link #NATIVE}.
+		 */
+		NATIVE_INTERVAL_ITERATION,
+
+		/**
+		 * Translate the induced Markov chain to PRISM DTMC, and query each group of quantities from PRISM.
+		 */
+		PRISM
+	}
+
 	/*
 	 * Cached hashCode -- Effective Java
 	 */
@@ -9,10 +33,47 @@ public class PrismConnectorSettings {
 
 	private String mModelOutputPath;
 	private String mAdvOutputPath;
+	private boolean mExportExplicitModelFiles;
+	private PolicyEvaluationMethod mPolicyEvalMethod;
+	private double mBoundsPrecision;
 
 	public PrismConnectorSettings(String modelOutputPath, String advOutputPath) {
+		this(modelOutputPath, advOutputPath, false);
+	}
+
+	public PrismConnectorSettings(String modelOutputPath, String advOutputPath, boolean exportExplicitModelFiles) {
+		this(modelOutputPath, advOutputPath, exportExplicitModelFiles, PolicyEvaluationMethod.NATIVE);
+	}
+
+	public PrismConnectorSettings(String modelOutputPath, String advOutputPath, boolean exportExplicitModelFiles,
+			PolicyEvaluationMethod policyEvalMethod) {
+		this(modelOutputPath, advOutputPath, exportExplicitModelFiles, policyEvalMethod,
+				NativeSolverUtils.DEFAULT_EPSILON);
+	}
+
+	/**
+	 * 
+	 * @param modelOutputPath
+	 *            : Output directory for the PRISM explicit model files
+	 * @param advOutputPath
+	 *            : Output directory for the PRISM adversary files
+	 * @param exportExplicitModelFiles
+	 *            : Whether to also export the in-memory explicit model to files -- for debugging purposes
+	 * @param policyEvalMethod
+	 *            : Method for evaluating a given policy
+	 * @param boundsPrecision
+	 *            : Maximum width of the bounds of each quantity, when evaluating by interval iteration
+	 */
+	public PrismConnectorSettings(String modelOutputPath, String advOutputPath, boolean exportExplicitModelFiles,
+			PolicyEvaluationMethod policyEvalMethod, double boundsPrecision) {
+		if (boundsPrecision <= 0) {
+			throw new IllegalArgumentException("Bounds precision must be positive: " + boundsPrecision);
+		}
 		mModelOutputPath = modelOutputPath;
 		mAdvOutputPath = advOutputPath;
+		mExportExplicitModelFiles = exportExplicitModelFiles;
+		mPolicyEvalMethod = policyEvalMethod;
+		mBoundsPrecision = boundsPrecision;
 	}
 
 	public String getModelOutputPath() {
@@ -23,6 +84,18 @@ public class PrismConnectorSettings {
 		return mAdvOutputPath;
 	}
 
+	public boolean exportExplicitModelFiles() {
+		return mExportExplicitModelFiles;
+	}
+
+	public PolicyEvaluationMethod getPolicyEvaluationMethod() {
+		return mPolicyEvalMethod;
+	}
+
+	public double getBoundsPrecision() {
+		return mBoundsPrecision;
+	}
+
 	@Override
 	public boolean equals(Object obj) {
 		if (obj == this) {
@@ -32,7 +105,10 @@ public class PrismConnectorSettings {
 			return false;
 		}
 		PrismConnectorSettings settings = (PrismConnectorSettings) obj;
-		return settings.mModelOutputPath.equals(mModelOutputPath) && settings.mAdvOutputPath.equals(mAdvOutputPath);
+		return settings.mModelOutputPath.equals(mModelOutputPath) && settings.mAdvOutputPath.equals(mAdvOutputPath)
+				&& settings.mExportExplicitModelFiles == mExportExplicitModelFiles
+				&& settings.mPolicyEvalMethod == mPolicyEvalMethod
+				&& Double.compare(settings.mBoundsPrecision, mBoundsPrecision) == 0;
 	}
 
 	@Override
@@ -42,6 +118,9 @@ public class PrismConnectorSettings {
 			result = 17;
 			result = 31 * result + mModelOutputPath.hashCode();
 			result = 31 * result + mAdvOutputPath.hashCode();
+			result = 31 * result + Boolean.hashCode(mExportExplicitModelFiles);
+			result = 31 * result + mPolicyEvalMethod.hashCode();
+			result = 31 * result + Double.hashCode(mBoundsPrecision);
 			hashCode = result;
 		}
 		return hashCode;
@@ -0,0 +1,113 @@
+package solver.prismconnector;
+
+import prism.PrismException;
+
+/**
+ * {@link PrismEnginePool} is a process-wide pool of a single initialized PRISM engine (i.e., {@link PrismAPIWrapper}).
+ * Initializing and closing down PRISM is expensive, and PRISM's symbolic engines share global (CUDD/JDD) state across
+ * {@link prism.Prism} instances. Therefore, rather than creating and closing down an engine for each
+ * {@link PrismConnector}, the engine is checked out of this pool by {@link #acquire()} and is returned to the pool by
+ * {@link #release(PrismAPIWrapper)}.
+ *
+ * Since the engines are not isolated from one another, there is at most one live engine, and it is checked out by at
+ * most one holder at a time: any other thread that tries to check it out waits until it is returned. An engine is
+ * only closed down when it is not checked out -- so that the shared state is never closed down under a live engine.
+ * Whenever the engine is returned to the pool, its configuration is reset to the default PRISM configuration, so that
+ * its next holder does not inherit any setting of its previous holder.
+ *
+ * Consequently, all PRISM access in the process is serialized. A holder must always return the engine, even if an
+ * exception is thrown while holding it -- otherwise, every later {@link #acquire()} blocks forever.
+ *
+ * @author rsukkerd
+ *
+ */
+public class PrismEnginePool {
+
+	private static final PrismEnginePool INSTANCE = new PrismEnginePool();
+
+	// Engine of this pool, or null if it is not initialized yet or has been closed down
+	private PrismAPIWrapper mEngine;
+
+	// Thread that checked out the engine, or null if the engine is idle
+	private Thread mHolder;
+
+	private PrismEnginePool() {
+		// Singleton
+	}
+
+	/**
+	 *
+	 * @return Process-wide PRISM engine pool
+	 */
+	public static PrismEnginePool getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Check out the engine from this pool, waiting until it is returned if another thread has checked it out. If the
+	 * engine is not initialized, then a new engine is initialized.
+	 *
+	 * @return The engine, with the default PRISM configuration
+	 * @throws PrismException
+	 * @throws IllegalStateException
+	 *             If the current thread has already checked out the engine and has not returned it
+	 */
+	public synchronized PrismAPIWrapper acquire() throws PrismException {
+		Thread currentThread = Thread.currentThread();
+		if (mHolder == currentThread) {
+			// Waiting would never end
+			throw new IllegalStateException("PRISM engine is already checked out by this thread");
+		}
+
+		while (mHolder != null) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				currentThread.interrupt();
+				throw new PrismException("Interrupted while waiting for PRISM engine");
+			}
+		}
+
+		if (mEngine == null) {
+			mEngine = new PrismAPIWrapper();
+		}
+		mHolder = currentThread;
+		return mEngine;
+	}
+
+	/**
+	 * Return the engine to this pool. The engine's configuration is reset.
+	 *
+	 * @param engine
+	 *            : Engine checked out from this pool -- must not be used after it is returned
+	 * @throws IllegalStateException
+	 *             If the engine is not currently checked out from this pool
+	 */
+	public synchronized void release(PrismAPIWrapper engine) {
+		if (engine != mEngine || mHolder == null) {
+			throw new IllegalStateException("PRISM engine is not checked out from this pool");
+		}
+
+		try {
+			engine.resetConfiguration();
+		} catch (PrismException e) {
+			// The engine cannot be reused -- it is the only live engine, so it is safe to close it down
+			engine.terminatePrism();
+			mEngine = null;
+		}
+
+		mHolder = null;
+		notifyAll();
+	}
+
+	/**
+	 * Close down the engine of this pool, if it is idle. An engine that is currently checked out is not closed down.
+	 * Invoke this method when finishing using PRISM -- e.g., at the end of planning and explanation.
+	 */
+	public synchronized void closeDownIdleEngines() {
+		if (mEngine != null && mHolder == null) {
+			mEngine.terminatePrism();
+			mEngine = null;
+		}
+	}
+}
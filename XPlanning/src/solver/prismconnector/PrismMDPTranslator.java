@@ -28,6 +28,10 @@ public class PrismMDPTranslator {
 	// Query state is the source state of a user's why-not (s,a) query
 	private Set<StateVarTuple> mQueryStates;
 
+	// Memoized translation of the MDP model without any reward structure: constants, goal, modules, and helper
+	// module -- null if not yet translated
+	private volatile String mModelTranslation;
+
 	public PrismMDPTranslator(XMDP xmdp) {
 		this(xmdp, null);
 	}
@@ -67,6 +71,45 @@ public class PrismMDPTranslator {
 	 * @throws XMDPException
 	 */
 	public String getMDPTranslation(boolean withQAFunctions) throws XMDPException {
+		// Reward structures are memoized by the reward translator
+		String costStruct = mRewardTranslator.getCostFunctionTranslation(mXMDP.getCostFunction());
+
+		StringBuilder builder = new StringBuilder();
+		builder.append(getModelTranslation());
+		builder.append(costStruct);
+
+		if (withQAFunctions) {
+			// The order of the reward structures conforms to the QFunction encoding scheme.
+			String qasRewards = mRewardTranslator.getQAFunctionsTranslation(mXMDP.getQSpace());
+			builder.append("\n\n");
+			builder.append(qasRewards);
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * The MDP model is only translated on the first call, since the XMDP and the query states never change.
+	 * 
+	 * @return Prism model of this MDP, including constants' declarations, goal declaration (if exists), modules, and
+	 *         helper module -- followed by a blank line, to which reward structures can be appended
+	 * @throws XMDPException
+	 */
+	private String getModelTranslation() throws XMDPException {
+		String modelTranslation = mModelTranslation;
+		if (modelTranslation == null) {
+			synchronized (this) {
+				modelTranslation = mModelTranslation;
+				if (modelTranslation == null) {
+					modelTranslation = buildModelTranslation();
+					mModelTranslation = modelTranslation;
+				}
+			}
+		}
+		return modelTranslation;
+	}
+
+	private String buildModelTranslation() throws XMDPException {
 		PartialModuleCommandsBuilder partialCommandsBuilder = new PartialModuleCommandsBuilder() {
 
 			@Override
@@ -83,7 +126,6 @@ public class PrismMDPTranslator {
 				mXMDP.getTransitionFunction(), partialCommandsBuilder, hasGoal);
 		// helper module
 		String helperModule = mHelper.buildHelperModule(mXMDP.getActionSpace(), mActionFilter, hasGoal, mQueryStates);
-		String costStruct = mRewardTranslator.getCostFunctionTranslation(mXMDP.getCostFunction());
 
 		StringBuilder builder = new StringBuilder();
 		builder.append("mdp");
@@ -104,15 +146,6 @@ public class PrismMDPTranslator {
 		builder.append("\n\n");
 		builder.append(helperModule);
 		builder.append("\n\n");
-		builder.append(costStruct);
-
-		if (withQAFunctions) {
-			// The order of the reward structures conforms to the QFunction encoding scheme.
-			String qasRewards = mRewardTranslator.getQAFunctionsTranslation(mXMDP.getQSpace());
-			builder.append("\n\n");
-			builder.append(qasRewards);
-		}
-
 		return builder.toString();
 	}
 
@@ -0,0 +1,46 @@
+package solver.prismconnector;
+
+import parser.ast.ModulesFile;
+import prism.ModelType;
+
+/**
+ * {@link PrismModelHandle} is a handle of a PRISM model loaded by {@link PrismAPIWrapper#loadModel(String, ModelType)}.
+ * Multiple property batches can be queried against the same handle, without parsing the model again -- and, as long
+ * as no other model is queried in between, without building the model again.
+ *
+ * A handle remains valid until it is released by {@link PrismAPIWrapper#releaseModel(PrismModelHandle)}.
+ *
+ * @author rsukkerd
+ *
+ */
+public class PrismModelHandle {
+
+	private ModulesFile mModulesFile;
+	private ModelType mModelType;
+	private boolean mReleased;
+
+	PrismModelHandle(ModulesFile modulesFile, ModelType modelType) {
+		mModulesFile = modulesFile;
+		mModelType = modelType;
+	}
+
+	ModulesFile getModulesFile() {
+		if (mReleased) {
+			throw new IllegalStateException("PRISM model handle is already released");
+		}
+		return mModulesFile;
+	}
+
+	public ModelType getModelType() {
+		return mModelType;
+	}
+
+	public boolean isReleased() {
+		return mReleased;
+	}
+
+	void release() {
+		mReleased = true;
+		mModulesFile = null;
+	}
+}
@@ -0,0 +1,68 @@
+package solver.prismconnector;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import prism.Result;
+import solver.prismconnector.exceptions.ResultParsingException;
+
+/**
+ * {@link PrismResultExtractor} extracts a numerical value from a PRISM model-checking {@link Result}. A numerical
+ * result is extracted directly from the result object -- including infinity (i.e., the probability of reaching goal
+ * is < 1) and NaN (i.e., LP problem solution not found). Only a non-numerical result object is parsed from its result
+ * string, using precompiled patterns.
+ *
+ * @author rsukkerd
+ *
+ */
+final class PrismResultExtractor {
+
+	static final String FLOATING_POINT_RESULT_PATTERN = "[-+]?[0-9]*\\.?[0-9]+([eE][-+]?[0-9]+)?";
+	static final String INFINITY_RESULT_PATTERN = "Infinity";
+	static final String NAN_RESULT_PATTERN = "NaN";
+
+	private static final Pattern FLOATING_POINT_RESULT_REGEX = Pattern.compile(FLOATING_POINT_RESULT_PATTERN);
+
+	private PrismResultExtractor() {
+		throw new IllegalStateException("Utility class");
+	}
+
+	/**
+	 *
+	 * @param result
+	 *            : Result of model checking a numerical property
+	 * @return Numerical value of the result, which may be infinity or NaN
+	 * @throws ResultParsingException
+	 */
+	static double extractDouble(Result result) throws ResultParsingException {
+		Object resultObj = result.getResult();
+		if (resultObj instanceof Number) {
+			return ((Number) resultObj).doubleValue();
+		}
+		return parseDouble(result.getResultString());
+	}
+
+	/**
+	 *
+	 * @param resultStr
+	 *            : Result string, which may contain a floating-point value, "Infinity", or "NaN"
+	 * @return Numerical value of the result string
+	 * @throws ResultParsingException
+	 */
+	static double parseDouble(String resultStr) throws ResultParsingException {
+		Matcher valueMatcher = FLOATING_POINT_RESULT_REGEX.matcher(resultStr);
+		if (valueMatcher.find()) {
+			return Double.parseDouble(valueMatcher.group(0));
+		}
+		if (resultStr.contains(INFINITY_RESULT_PATTERN)) {
+			// The probability of reaching goal is < 1
+			return Double.POSITIVE_INFINITY;
+		}
+		if (resultStr.contains(NAN_RESULT_PATTERN)) {
+			// Using linear programming solution method: LP problem solution not found
+			return Double.NaN;
+		}
+		throw new ResultParsingException(resultStr, FLOATING_POINT_RESULT_PATTERN, INFINITY_RESULT_PATTERN,
+				NAN_RESULT_PATTERN);
+	}
+}
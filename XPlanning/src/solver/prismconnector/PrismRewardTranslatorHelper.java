@@ -1,11 +1,17 @@
 package solver.prismconnector;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import language.domain.metrics.IEvent;
 import language.domain.metrics.IQFunction;
@@ -44,6 +50,11 @@ public class PrismRewardTranslatorHelper {
 	private ValueEncodingScheme mEncodings;
 	private ActionFilter mActionFilter;
 
+	// Memoized reward structures of objective functions and QA functions
+	// The transition function and the action filter of this helper never change, so neither do the reward structures
+	private Map<IAdditiveCostFunction, String> mObjectiveRewardStructures = new ConcurrentHashMap<>();
+	private Map<IQFunction<?, ?>, String> mQARewardStructures = new ConcurrentHashMap<>();
+
 	public PrismRewardTranslatorHelper(TransitionFunction transFunction, ValueEncodingScheme encodings,
 			ActionFilter actionFilter) {
 		mTransFunction = transFunction;
@@ -57,12 +68,23 @@ public class PrismRewardTranslatorHelper {
 	 * 
 	 * The objective function must be the first reward structure in any PRISM MDP translation.
 	 * 
+	 * The reward structure is memoized: it is only built on the first call for an objective function.
+	 * 
 	 * @param objectiveFunction
 	 *            : Objective function that this reward structure represents
 	 * @return rewards "{objective name}" ... endrewards
 	 * @throws XMDPException
 	 */
 	String buildRewardStructure(IAdditiveCostFunction objectiveFunction) throws XMDPException {
+		String rewards = mObjectiveRewardStructures.get(objectiveFunction);
+		if (rewards == null) {
+			rewards = buildObjectiveRewardStructure(objectiveFunction);
+			mObjectiveRewardStructures.put(objectiveFunction, rewards);
+		}
+		return rewards;
+	}
+
+	private String buildObjectiveRewardStructure(IAdditiveCostFunction objectiveFunction) throws XMDPException {
 		String sanitizedRewardName = PrismTranslatorUtils.sanitizeNameString(objectiveFunction.getName());
 		StringBuilder builder = new StringBuilder();
 		builder.append(String.format(BEGIN_REWARDS, sanitizedRewardName));
@@ -142,6 +164,8 @@ public class PrismRewardTranslatorHelper {
 	/**
 	 * Build a transition-reward structure for a given QA function.
 	 * 
+	 * The reward structure is memoized: it is only built on the first call for a QA function.
+	 * 
 	 * @param qFunction
 	 *            : QA function
 	 * @return rewards "{QA name}" ... endrewards
@@ -149,6 +173,16 @@ public class PrismRewardTranslatorHelper {
 	 */
 	<E extends IAction, T extends ITransitionStructure<E>> String buildRewardStructure(IQFunction<E, T> qFunction)
 			throws XMDPException {
+		String rewards = mQARewardStructures.get(qFunction);
+		if (rewards == null) {
+			rewards = buildQARewardStructure(qFunction);
+			mQARewardStructures.put(qFunction, rewards);
+		}
+		return rewards;
+	}
+
+	private <E extends IAction, T extends ITransitionStructure<E>> String buildQARewardStructure(
+			IQFunction<E, T> qFunction) throws XMDPException {
 		String rewardName = qFunction.getName();
 		T domain = qFunction.getTransitionStructure();
 		FactoredPSO<E> actionPSO = mTransFunction.getActionPSO(domain.getActionDef());
@@ -300,6 +334,10 @@ public class PrismRewardTranslatorHelper {
 		StateVarClass destStateVarClass = transStructure.getDestStateVarClass();
 		ActionDefinition<E> actionDef = transStructure.getActionDef();
 
+		// Source combinations that only differ in variables the evaluator does not read have the same value
+		MemoizedTransitionEvaluator<E, T> memoizedEvaluator = new MemoizedTransitionEvaluator<>(transStructure,
+				evaluator);
+
 		StringBuilder builder = new StringBuilder();
 
 		for (E action : actionDef.getActions()) {
@@ -316,8 +354,7 @@ public class PrismRewardTranslatorHelper {
 					// Transition structure has no destination variable
 					// Reward value r(s,a) can be computed from srcVars and action
 					StateVarTuple emptyVarTuple = new StateVarTuple();
-					Transition<E, T> transition = new Transition<>(transStructure, action, srcVars, emptyVarTuple);
-					double transValue = evaluator.evaluate(transition);
+					double transValue = memoizedEvaluator.evaluate(action, srcVars, emptyVarTuple);
 					String rewardItem = buildRewardItem(srcVars, emptyVarTuple, action, transValue);
 					builder.append(PrismTranslatorUtils.INDENT);
 					builder.append(rewardItem);
@@ -327,11 +364,36 @@ public class PrismRewardTranslatorHelper {
 					// Reward value r(s,a) must be computed from the expectation of r'(s,a,s') over all s'
 					Set<StateVarTuple> discrCombinations = getApplicableDiscriminantCombinations(destStateVarClass,
 							srcVars, actionPSO, action);
+					if (discrCombinations.isEmpty()) {
+						continue;
+					}
 
+					// Possible destination values and their transition values only depend on srcVars and action --
+					// evaluate them once for all applicable discriminants
+					DestinationValues destValues = evaluateDestinations(transStructure, actionPSO, memoizedEvaluator,
+							srcVars, action);
+
+					Map<StateVarTuple, Double> expectedValues = new LinkedHashMap<>();
 					for (StateVarTuple applicableDiscrVars : discrCombinations) {
-						double expectedValue = computeExpectedTransitionValue(transStructure, actionPSO, evaluator,
-								srcVars, applicableDiscrVars, action);
-						String rewardItem = buildRewardItem(srcVars, applicableDiscrVars, action, expectedValue);
+						double expectedValue = computeExpectedTransitionValue(destValues, actionPSO,
+								applicableDiscrVars, action);
+						expectedValues.put(applicableDiscrVars, expectedValue);
+					}
+
+					if (expectedValues.size() > 1 && isUniform(expectedValues.values())) {
+						// Expected value does not depend on the discriminants
+						// A single reward item guarded by srcVars only is equivalent: the action is only taken in
+						// states whose discriminant values are applicable
+						double expectedValue = expectedValues.values().iterator().next();
+						String rewardItem = buildRewardItem(srcVars, new StateVarTuple(), action, expectedValue);
+						builder.append(PrismTranslatorUtils.INDENT);
+						builder.append(rewardItem);
+						builder.append("\n");
+						continue;
+					}
+
+					for (Entry<StateVarTuple, Double> e : expectedValues.entrySet()) {
+						String rewardItem = buildRewardItem(srcVars, e.getKey(), action, e.getValue());
 						builder.append(PrismTranslatorUtils.INDENT);
 						builder.append(rewardItem);
 						builder.append("\n");
@@ -701,60 +763,268 @@ public class PrismRewardTranslatorHelper {
 	}
 
 	/**
-	 * Compute the expected value of taking an action in a source state.
+	 * Evaluate all possible destination values of taking an action in a source state.
 	 * 
 	 * @param transStructure
 	 * @param actionPSO
 	 * @param evaluator
-	 *            : Transition evaluator
+	 *            : Memoized transition evaluator
 	 * @param srcVars
 	 *            : Source variables
-	 * @param applicableDiscrVars
-	 *            : Applicable discriminant variables of all destination variables of transStructure
 	 * @param action
 	 *            : Action
-	 * @return Expected value of taking an action in a source state
+	 * @return Possible destination values, their independently-affected groups, and their transition values
 	 * @throws XMDPException
 	 */
-	private <E extends IAction, T extends ITransitionStructure<E>> double computeExpectedTransitionValue(
-			T transStructure, FactoredPSO<E> actionPSO, TransitionEvaluator<E, T> evaluator, StateVarTuple srcVars,
-			StateVarTuple applicableDiscrVars, E action) throws XMDPException {
-		double expectedTransValue = 0;
-
+	private <E extends IAction, T extends ITransitionStructure<E>> DestinationValues evaluateDestinations(
+			T transStructure, FactoredPSO<E> actionPSO, MemoizedTransitionEvaluator<E, T> evaluator,
+			StateVarTuple srcVars, E action) throws XMDPException {
 		Set<StateVarTuple> destCombinations = getPossibleDestValuesCombinations(transStructure.getDestStateVarClass(),
 				srcVars, action, actionPSO);
+		DestinationValues destValues = new DestinationValues(destCombinations.size());
 
 		// Assume: all destination variables of any TransitionStructure are affected by its action
 		for (StateVarTuple destVars : destCombinations) {
 			Map<EffectClass, StateVarTuple> indepDestVarGroups = partitionIndependentDestVars(destVars, actionPSO);
+			double transValue = evaluator.evaluate(action, srcVars, destVars);
+			destValues.add(indepDestVarGroups, transValue);
+		}
+		return destValues;
+	}
+
+	/**
+	 * Compute the expected value of taking an action in a source state, given the applicable discriminants.
+	 * 
+	 * @param destValues
+	 *            : Evaluated destination values of taking the action in the source state
+	 * @param actionPSO
+	 * @param applicableDiscrVars
+	 *            : Applicable discriminant variables of all destination variables of the transition structure
+	 * @param action
+	 *            : Action
+	 * @return Expected value of taking an action in a source state
+	 * @throws XMDPException
+	 */
+	private <E extends IAction> double computeExpectedTransitionValue(DestinationValues destValues,
+			FactoredPSO<E> actionPSO, StateVarTuple applicableDiscrVars, E action) throws XMDPException {
+		// Probabilistic effect of each effect class, and memoized marginal probabilities of its destination groups
+		Map<EffectClass, ProbabilisticEffect> probEffects = new HashMap<>();
+		Map<EffectClass, Map<StateVarTuple, Double>> marginalProbs = new HashMap<>();
+
+		double expectedTransValue = 0;
+
+		for (int i = 0; i < destValues.size(); i++) {
 			double destVarsProb = 1;
 
-			for (Entry<EffectClass, StateVarTuple> e : indepDestVarGroups.entrySet()) {
+			for (Entry<EffectClass, StateVarTuple> e : destValues.getIndependentGroups(i).entrySet()) {
 				EffectClass effectClass = e.getKey();
 				StateVarTuple indepDestVarGroup = e.getValue();
 
-				// Filter discriminants of the effect class from applicableDiscrVars
-				IActionDescription<E> actionDesc = actionPSO.getActionDescription(effectClass);
-				DiscriminantClass discriminantClass = actionDesc.getDiscriminantClass();
-				Discriminant discriminant = new Discriminant(discriminantClass);
-				for (StateVarDefinition<IStateVarValue> varDef : discriminantClass) {
-					IStateVarValue value = applicableDiscrVars.getStateVarValue(IStateVarValue.class, varDef);
-					StateVar<IStateVarValue> discrVar = varDef.getStateVar(value);
-					discriminant.add(discrVar);
+				ProbabilisticEffect probEffect = probEffects.get(effectClass);
+				if (probEffect == null) {
+					probEffect = getProbabilisticEffect(actionPSO, effectClass, applicableDiscrVars, action);
+					probEffects.put(effectClass, probEffect);
+					marginalProbs.put(effectClass, new HashMap<>());
+				}
+
+				Map<StateVarTuple, Double> groupMarginalProbs = marginalProbs.get(effectClass);
+				Double indepDestVarGroupProb = groupMarginalProbs.get(indepDestVarGroup);
+				if (indepDestVarGroupProb == null) {
+					indepDestVarGroupProb = probEffect.getMarginalProbability(indepDestVarGroup);
+					groupMarginalProbs.put(indepDestVarGroup, indepDestVarGroupProb);
 				}
-				ProbabilisticEffect probEffect = actionDesc.getProbabilisticEffect(discriminant, action);
-				double indepDestVarGroupProb = probEffect.getMarginalProbability(indepDestVarGroup);
 				destVarsProb *= indepDestVarGroupProb;
 			}
 
-			Transition<E, T> transition = new Transition<>(transStructure, action, srcVars, destVars);
-			double transValue = evaluator.evaluate(transition);
-			expectedTransValue += destVarsProb * transValue;
+			expectedTransValue += destVarsProb * destValues.getTransitionValue(i);
 		}
 
 		return expectedTransValue;
 	}
 
+	private <E extends IAction> ProbabilisticEffect getProbabilisticEffect(FactoredPSO<E> actionPSO,
+			EffectClass effectClass, StateVarTuple applicableDiscrVars, E action) throws XMDPException {
+		// Filter discriminants of the effect class from applicableDiscrVars
+		IActionDescription<E> actionDesc = actionPSO.getActionDescription(effectClass);
+		DiscriminantClass discriminantClass = actionDesc.getDiscriminantClass();
+		Discriminant discriminant = new Discriminant(discriminantClass);
+		for (StateVarDefinition<IStateVarValue> varDef : discriminantClass) {
+			IStateVarValue value = applicableDiscrVars.getStateVarValue(IStateVarValue.class, varDef);
+			StateVar<IStateVarValue> discrVar = varDef.getStateVar(value);
+			discriminant.add(discrVar);
+		}
+		return actionDesc.getProbabilisticEffect(discriminant, action);
+	}
+
+	private static boolean isUniform(Collection<Double> values) {
+		Iterator<Double> iter = values.iterator();
+		double first = iter.next();
+		while (iter.hasNext()) {
+			if (Double.compare(iter.next(), first) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * {@link DestinationValues} contains all possible destination values of taking an action in a source state: the
+	 * independently-affected groups of each destination value, and its transition value.
+	 */
+	private static class DestinationValues {
+
+		private List<Map<EffectClass, StateVarTuple>> mIndepGroups;
+		private double[] mTransValues;
+
+		DestinationValues(int numDestinations) {
+			mIndepGroups = new ArrayList<>(numDestinations);
+			mTransValues = new double[numDestinations];
+		}
+
+		void add(Map<EffectClass, StateVarTuple> indepDestVarGroups, double transValue) {
+			mTransValues[mIndepGroups.size()] = transValue;
+			mIndepGroups.add(indepDestVarGroups);
+		}
+
+		int size() {
+			return mIndepGroups.size();
+		}
+
+		Map<EffectClass, StateVarTuple> getIndependentGroups(int index) {
+			return mIndepGroups.get(index);
+		}
+
+		double getTransitionValue(int index) {
+			return mTransValues[index];
+		}
+	}
+
+	/**
+	 * {@link MemoizedTransitionEvaluator} memoizes the values of a {@link TransitionEvaluator} on a transition
+	 * structure. An evaluator may read only some of the source and destination variables of a transition, in which case
+	 * many source and destination combinations have the same value.
+	 * 
+	 * The value of each evaluated transition is memoized under the projection of the transition onto the variables that
+	 * the evaluator has read. Any other transition of the same action that agrees with this projection is evaluated
+	 * along the same path -- and therefore has the same value -- so it is not evaluated again.
+	 * 
+	 * Assume: the value of a transition is a deterministic function of its action and the variables read from it.
+	 */
+	private static class MemoizedTransitionEvaluator<E extends IAction, T extends ITransitionStructure<E>> {
+
+		private T mTransStructure;
+		private TransitionEvaluator<E, T> mEvaluator;
+
+		// Distinct sets of variables read by the evaluator, in the order in which they are first read
+		private Set<VarsRead> mVarsReads = new LinkedHashSet<>();
+
+		// Transitions projected onto the variables read -> values
+		private Map<Transition<E, T>, Double> mValues = new HashMap<>();
+
+		MemoizedTransitionEvaluator(T transStructure, TransitionEvaluator<E, T> evaluator) {
+			mTransStructure = transStructure;
+			mEvaluator = evaluator;
+		}
+
+		double evaluate(E action, StateVarTuple srcVars, StateVarTuple destVars) throws XMDPException {
+			for (VarsRead varsRead : mVarsReads) {
+				Double value = mValues.get(varsRead.project(mTransStructure, action, srcVars, destVars));
+				if (value != null) {
+					return value;
+				}
+			}
+
+			RecordingTransition<E, T> transition = new RecordingTransition<>(mTransStructure, action, srcVars,
+					destVars);
+			double value = mEvaluator.evaluate(transition);
+			VarsRead varsRead = transition.getVarsRead();
+			mVarsReads.add(varsRead);
+			mValues.put(varsRead.project(mTransStructure, action, srcVars, destVars), value);
+			return value;
+		}
+	}
+
+	/**
+	 * {@link RecordingTransition} is a {@link Transition} that records which of its source and destination variables
+	 * are read.
+	 */
+	private static class RecordingTransition<E extends IAction, T extends ITransitionStructure<E>>
+			extends Transition<E, T> {
+
+		private VarsRead mVarsRead = new VarsRead();
+
+		RecordingTransition(T transStructure, E action, StateVarTuple srcVars, StateVarTuple destVars)
+				throws XMDPException {
+			super(transStructure, action, srcVars, destVars);
+		}
+
+		@Override
+		public <S extends IStateVarValue> S getSrcStateVarValue(Class<S> valueType, StateVarDefinition<S> srcVarDef)
+				throws VarNotFoundException {
+			S value = super.getSrcStateVarValue(valueType, srcVarDef);
+			mVarsRead.mSrcVarDefs.add(srcVarDef);
+			return value;
+		}
+
+		@Override
+		public <S extends IStateVarValue> S getDestStateVarValue(Class<S> valueType, StateVarDefinition<S> destVarDef)
+				throws VarNotFoundException {
+			S value = super.getDestStateVarValue(valueType, destVarDef);
+			mVarsRead.mDestVarDefs.add(destVarDef);
+			return value;
+		}
+
+		VarsRead getVarsRead() {
+			return mVarsRead;
+		}
+	}
+
+	/**
+	 * {@link VarsRead} is a set of source and destination variables read from a transition.
+	 */
+	private static class VarsRead {
+
+		private Set<StateVarDefinition<? extends IStateVarValue>> mSrcVarDefs = new HashSet<>();
+		private Set<StateVarDefinition<? extends IStateVarValue>> mDestVarDefs = new HashSet<>();
+
+		<E extends IAction, T extends ITransitionStructure<E>> Transition<E, T> project(T transStructure, E action,
+				StateVarTuple srcVars, StateVarTuple destVars) throws XMDPException {
+			return new Transition<>(transStructure, action, project(srcVars, mSrcVarDefs),
+					project(destVars, mDestVarDefs));
+		}
+
+		private static StateVarTuple project(StateVarTuple vars,
+				Set<StateVarDefinition<? extends IStateVarValue>> varDefs) {
+			StateVarTuple projection = new StateVarTuple();
+			for (StateVar<IStateVarValue> var : vars) {
+				if (varDefs.contains(var.getDefinition())) {
+					projection.addStateVar(var);
+				}
+			}
+			return projection;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) {
+				return true;
+			}
+			if (!(obj instanceof VarsRead)) {
+				return false;
+			}
+			VarsRead varsRead = (VarsRead) obj;
+			return varsRead.mSrcVarDefs.equals(mSrcVarDefs) && varsRead.mDestVarDefs.equals(mDestVarDefs);
+		}
+
+		@Override
+		public int hashCode() {
+			int result = 17;
+			result = 31 * result + mSrcVarDefs.hashCode();
+			result = 31 * result + mDestVarDefs.hashCode();
+			return result;
+		}
+	}
+
 	/**
 	 * {@link TransitionEvaluator} is an interface to a function that evaluates a real-value of a transition. This
 	 * function can calculate a QA value of a transition, or calculate a scaled cost of a particular QA of a transition.
@@ -1,7 +1,10 @@
 package solver.prismconnector;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -14,6 +17,7 @@ import language.domain.models.StateVarDefinition;
 import language.exceptions.QFunctionNotFoundException;
 import language.exceptions.VarNotFoundException;
 import language.mdp.ActionSpace;
+import language.mdp.PackedStateEncoding;
 import language.mdp.QSpace;
 import language.mdp.StateSpace;
 import language.objectives.CostFunction;
@@ -35,11 +39,14 @@ public class ValueEncodingScheme {
 	private volatile int hashCode;
 
 	private Map<StateVarDefinition<IStateVarValue>, Map<IStateVarValue, Integer>> mStateVarEncodings = new HashMap<>();
+	private Map<String, Map<Integer, IStateVarValue>> mStateVarDecodings = new HashMap<>(); // For fast look-up
 	private Map<String, Map<Boolean, ? extends IStateVarBoolean>> mBooleanVarLookups = new HashMap<>();
 	private Map<String, Map<Integer, ? extends IStateVarInt>> mIntVarLookups = new HashMap<>();
 	private QFunctionEncodingScheme mQFunctionEncoding;
 	private StateSpace mStateSpace;
 	private ActionSpace mActionSpace;
+	private PackedStateEncoding mPackedStateEncoding; // Lazily built
+	private boolean mPackedStateEncodingOverflow; // Whether the states cannot be packed into a long
 
 	public ValueEncodingScheme(StateSpace stateSpace, ActionSpace actionSpace, QSpace qSpace,
 			CostFunction costFunction) {
@@ -67,6 +74,7 @@ public class ValueEncodingScheme {
 				// Build int-encoding for variable types NOT supported by PRISM language
 				Map<IStateVarValue, Integer> encoding = buildIntEncoding(stateVarDef.getPossibleValues());
 				mStateVarEncodings.put(stateVarDef, encoding);
+				mStateVarDecodings.put(stateVarDef.getName(), buildIntDecoding(encoding));
 			}
 		}
 	}
@@ -89,6 +97,14 @@ public class ValueEncodingScheme {
 		return encoding;
 	}
 
+	private <E> Map<Integer, E> buildIntDecoding(Map<E, Integer> encoding) {
+		Map<Integer, E> decoding = new HashMap<>();
+		for (Entry<E, Integer> entry : encoding.entrySet()) {
+			decoding.put(entry.getValue(), entry.getKey());
+		}
+		return decoding;
+	}
+
 	private <E extends IStateVarBoolean> Map<Boolean, E> buildBooleanVarLookup(Set<E> possibleValues) {
 		Map<Boolean, E> mapping = new HashMap<>();
 		for (E value : possibleValues) {
@@ -144,23 +160,48 @@ public class ValueEncodingScheme {
 
 	public <E extends IStateVarValue> E decodeStateVarValue(Class<E> valueType, String stateVarName,
 			Integer encodedIntValue) throws VarNotFoundException {
-		for (Entry<StateVarDefinition<IStateVarValue>, Map<IStateVarValue, Integer>> entry : mStateVarEncodings
-				.entrySet()) {
-			StateVarDefinition<IStateVarValue> stateVarDef = entry.getKey();
-			Map<IStateVarValue, Integer> encoding = entry.getValue();
-
-			if (stateVarDef.getName().equals(stateVarName)) {
-				for (Entry<IStateVarValue, Integer> e : encoding.entrySet()) {
-					IStateVarValue value = e.getKey();
-					Integer encodedValue = e.getValue();
-
-					if (encodedValue.equals(encodedIntValue)) {
-						return valueType.cast(value);
-					}
-				}
+		Map<Integer, IStateVarValue> decoding = mStateVarDecodings.get(stateVarName);
+		if (decoding == null || !decoding.containsKey(encodedIntValue)) {
+			throw new VarNotFoundException(stateVarName);
+		}
+		return valueType.cast(decoding.get(encodedIntValue));
+	}
+
+	/**
+	 * The state variables are ordered by name. The values of a boolean or int variable are ordered by their PRISM
+	 * values, and the values of any other variable are ordered by their encoded int values.
+	 * 
+	 * @return Compact encoding of the states of the state space, or null if the states cannot be packed into a long
+	 */
+	public synchronized PackedStateEncoding getPackedStateEncoding() {
+		if (mPackedStateEncoding == null && !mPackedStateEncodingOverflow) {
+			List<StateVarDefinition<IStateVarValue>> orderedStateVarDefs = new ArrayList<>();
+			Map<StateVarDefinition<IStateVarValue>, List<IStateVarValue>> orderedPossibleValues = new HashMap<>();
+
+			for (StateVarDefinition<IStateVarValue> stateVarDef : mStateSpace) {
+				List<IStateVarValue> possibleValues = new ArrayList<>(stateVarDef.getPossibleValues());
+				possibleValues.sort(Comparator.comparingInt(value -> getPrismIntValue(stateVarDef, value)));
+				orderedStateVarDefs.add(stateVarDef);
+				orderedPossibleValues.put(stateVarDef, possibleValues);
 			}
+			orderedStateVarDefs.sort(Comparator.comparing(StateVarDefinition::getName));
+
+			try {
+				mPackedStateEncoding = new PackedStateEncoding(orderedStateVarDefs, orderedPossibleValues);
+			} catch (IllegalArgumentException e) {
+				mPackedStateEncodingOverflow = true;
+			}
+		}
+		return mPackedStateEncoding;
+	}
+
+	private int getPrismIntValue(StateVarDefinition<IStateVarValue> stateVarDef, IStateVarValue value) {
+		if (value instanceof IStateVarBoolean) {
+			return ((IStateVarBoolean) value).getValue() ? 1 : 0;
+		} else if (value instanceof IStateVarInt) {
+			return ((IStateVarInt) value).getValue();
 		}
-		throw new VarNotFoundException(stateVarName);
+		return mStateVarEncodings.get(stateVarDef).get(value);
 	}
 
 	public int getNumRewardStructures() {
@@ -1,12 +1,14 @@
 package solver.prismconnector.explicitmodel;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -28,44 +30,144 @@ import solver.prismconnector.exceptions.InitialStateParsingException;
 
 public class ExplicitMDPReader {
 
-	private static final String INIT_LAB_HEADER_PATTERN = "([0-9]+)=\"init\"";
-	private static final String END_LAB_HEADER_PATTERN = "([0-9]+)=\"end\"";
+	private static final Pattern INIT_LAB_HEADER_PATTERN = Pattern.compile("([0-9]+)=\"init\"");
+	private static final Pattern END_LAB_HEADER_PATTERN = Pattern.compile("([0-9]+)=\"end\"");
 
 	private PrismExplicitModelPointer mPrismModelPointer;
+	private PrismExplicitModel mPrismExplicitModel;
 	private QFunctionEncodingScheme mQFunctionEncoding;
 	private CostCriterion mCostCriterion;
 
 	public ExplicitMDPReader(PrismExplicitModelReader prismExplicitModelReader, CostCriterion costCriterion) {
 		mPrismModelPointer = prismExplicitModelReader.getPrismExplicitModelPointer();
+		mPrismExplicitModel = prismExplicitModelReader.getPrismExplicitModel();
 		mQFunctionEncoding = prismExplicitModelReader.getValueEncodingScheme().getQFunctionEncodingScheme();
 		mCostCriterion = costCriterion;
 	}
 
 	/**
-	 * Read an {@link ExplicitMDP} from PRISM explicit model files.
+	 * Read an {@link ExplicitMDP} from the in-memory PRISM explicit model if exists; otherwise, from PRISM explicit
+	 * model files.
 	 * 
 	 * @return ExplicitMDP without objective costs
 	 * @throws IOException
 	 * @throws ExplicitModelParsingException
 	 */
 	public ExplicitMDP readExplicitMDP() throws IOException, ExplicitModelParsingException {
-		File traFile = mPrismModelPointer.getTransitionsFile();
-		File labFile = mPrismModelPointer.getLabelsFile();
-		List<String> traAllLines = readLinesFromFile(traFile);
-		List<String> labAllLines = readLinesFromFile(labFile);
-		String traHeader = readFirstLineFromFile(traFile);
+		if (mPrismExplicitModel != null) {
+			return readExplicitMDPFromModel();
+		}
+		return readExplicitMDPFromFiles();
+	}
 
-		int numStates = readNumStates(traHeader);
-		Set<String> actionNames = readActionNames(traAllLines);
+	/**
+	 * Read an {@link ExplicitMDP} from the in-memory PRISM explicit model.
+	 * 
+	 * @return ExplicitMDP without objective costs
+	 * @throws GoalStatesParsingException
+	 */
+	private ExplicitMDP readExplicitMDPFromModel() throws GoalStatesParsingException {
+		int numStates = mPrismExplicitModel.getNumStates();
+		int numChoices = mPrismExplicitModel.getNumChoices();
+
+		Set<String> actionNames = new HashSet<>();
+		for (int c = 0; c < numChoices; c++) {
+			actionNames.add(mPrismExplicitModel.getChoiceActionName(c));
+		}
 
 		// Assume a single initial state
-		int iniState = readInitialState(labAllLines);
+		int iniState = mPrismExplicitModel.getInitialState();
 
 		// SSP must have at least one goal state
 		// Average-cost MDP does not have a goal state (there is no goal-reachability guarantee)
-		Set<Integer> goalStates = mCostCriterion == CostCriterion.TOTAL_COST ? readGoalStates(labAllLines)
+		Set<Integer> goalStates = mCostCriterion == CostCriterion.TOTAL_COST ? readGoalStatesFromModel()
 				: new HashSet<>();
 
+		// Create an additional slot for cost function -- same as reading from PRISM explicit model files
+		int numCostFunctions = mQFunctionEncoding.getNumRewardStructures() + 1;
+
+		CostType costType = mPrismExplicitModel.getPrismRewardType() == PrismRewardType.STATE_REWARD
+				? CostType.STATE_COST
+				: CostType.TRANSITION_COST;
+
+		ExplicitMDP explicitMDP = new ExplicitMDP(numStates, actionNames, costType, numCostFunctions, iniState,
+				goalStates);
+		int numRewardStructs = Math.min(mQFunctionEncoding.getNumRewardStructures(),
+				mPrismExplicitModel.getNumRewardStructs());
+
+		for (int i = 0; i < numStates; i++) {
+			for (int c = mPrismExplicitModel.getChoicesStart(i); c < mPrismExplicitModel.getChoicesEnd(i); c++) {
+				int actionIndex = explicitMDP.getActionIndex(mPrismExplicitModel.getChoiceActionName(c));
+
+				for (int t = mPrismExplicitModel.getTransitionsStart(c); t < mPrismExplicitModel
+						.getTransitionsEnd(c); t++) {
+					explicitMDP.addTransitionProbability(i, actionIndex, mPrismExplicitModel.getDestState(t),
+							mPrismExplicitModel.getProbability(t));
+				}
+
+				if (costType == CostType.TRANSITION_COST) {
+					// Reserve 0-slot for the optimization objective function
+					for (int k = 1; k <= numRewardStructs; k++) {
+						explicitMDP.addTransitionCost(k, i, actionIndex,
+								mPrismExplicitModel.getTransitionReward(k, c));
+					}
+				}
+			}
+
+			if (costType == CostType.STATE_COST) {
+				// Reserve 0-slot for the optimization objective function
+				for (int k = 1; k <= numRewardStructs; k++) {
+					explicitMDP.addStateCost(k, i, mPrismExplicitModel.getStateReward(k, i));
+				}
+			}
+		}
+		return explicitMDP;
+	}
+
+	/**
+	 * Read the goal states (labeled "end") from the in-memory PRISM explicit model.
+	 * 
+	 * @return Goal states
+	 * @throws GoalStatesParsingException
+	 */
+	private Set<Integer> readGoalStatesFromModel() throws GoalStatesParsingException {
+		Set<String> labelNames = mPrismExplicitModel.getLabelNames();
+		BitSet endStates = mPrismExplicitModel.getLabelStates("end");
+		if (endStates == null) {
+			throw new GoalStatesParsingException(labelNames.toString());
+		}
+		Set<Integer> goalStates = new HashSet<>();
+		for (int i = endStates.nextSetBit(0); i >= 0; i = endStates.nextSetBit(i + 1)) {
+			goalStates.add(i);
+		}
+		if (goalStates.isEmpty()) {
+			throw new GoalStatesParsingException(labelNames.toString(), new ArrayList<>());
+		}
+		return goalStates;
+	}
+
+	/**
+	 * Read an {@link ExplicitMDP} from PRISM explicit model files. Each file is read in a single streaming pass.
+	 * 
+	 * @return ExplicitMDP without objective costs
+	 * @throws IOException
+	 * @throws ExplicitModelParsingException
+	 */
+	private ExplicitMDP readExplicitMDPFromFiles() throws IOException, ExplicitModelParsingException {
+		File traFile = mPrismModelPointer.getTransitionsFile();
+		File labFile = mPrismModelPointer.getLabelsFile();
+
+		// Read all transitions before creating ExplicitMDP, since ExplicitMDP requires all action names upfront
+		TransitionRows transitionRows = readTransitionRows(traFile);
+		int numStates = transitionRows.mNumStates;
+		Set<String> actionNames = new HashSet<>(transitionRows.mActionNames);
+
+		// Assume a single initial state
+		// SSP must have at least one goal state
+		// Average-cost MDP does not have a goal state (there is no goal-reachability guarantee)
+		Set<Integer> goalStates = new HashSet<>();
+		int iniState = readInitialAndGoalStates(labFile, mCostCriterion == CostCriterion.TOTAL_COST, goalStates);
+
 		// Create an additional slot for cost function to:
 		// (1) Align the indices of the cost functions (starts at 0) to the PRISM reward indices (starts at 1), and
 		// (2) Reserve the first slot for the optimization objective function (which is NOT necessarily the XMDP's cost
@@ -78,10 +180,10 @@ public class ExplicitMDPReader {
 
 		ExplicitMDP explicitMDP = new ExplicitMDP(numStates, actionNames, costType, numCostFunctions, iniState,
 				goalStates);
-		readTransitionProbabilities(traAllLines, explicitMDP);
+		int[] rowActionIndices = addTransitionProbabilities(transitionRows, explicitMDP);
 
 		if (costType == CostType.TRANSITION_COST) {
-			readAllTransitionCosts(traAllLines, explicitMDP);
+			readAllTransitionCosts(transitionRows, rowActionIndices, explicitMDP);
 		} else if (costType == CostType.STATE_COST) {
 			readAllStateCosts(explicitMDP);
 		}
@@ -101,9 +203,33 @@ public class ExplicitMDPReader {
 	 */
 	public ExplicitMDP readExplicitMDP(IAdditiveCostFunction objectiveFunction)
 			throws IOException, ExplicitModelParsingException, QFunctionNotFoundException {
+		return readExplicitMDP(objectiveFunction, true);
+	}
+
+	/**
+	 * Read an {@link ExplicitMDP} from PRISM explicit model files, and set its objective costs according to the given
+	 * objective function -- optionally without the auxiliary cost that is added to every "compute" transition of SSPs
+	 * (see {@link IAdditiveCostFunction#getOffset()}). The auxiliary cost is only needed by the solvers that do not
+	 * support zero-cost end components.
+	 * 
+	 * @param objectiveFunction
+	 *            : Optimization objective function
+	 * @param includeAuxiliaryCost
+	 *            : Whether to include the auxiliary cost in the objective costs
+	 * @return ExplicitMDP with objective costs
+	 * @throws IOException
+	 * @throws ExplicitModelParsingException
+	 * @throws QFunctionNotFoundException
+	 */
+	public ExplicitMDP readExplicitMDP(IAdditiveCostFunction objectiveFunction, boolean includeAuxiliaryCost)
+			throws IOException, ExplicitModelParsingException, QFunctionNotFoundException {
 		ExplicitMDP explicitMDP = readExplicitMDP();
 
-		if (mQFunctionEncoding.contains(objectiveFunction)) {
+		if (!includeAuxiliaryCost && objectiveFunction.getOffset() != 0) {
+			// The reward structure of the objective function (if any) includes the auxiliary cost.
+			// Compute the objective costs from the QA functions only.
+			setObjectiveFunctionOfExplicitMDP(explicitMDP, objectiveFunction, 0);
+		} else if (mQFunctionEncoding.contains(objectiveFunction)) {
 			// The given objective function has a corresponding cost function (already in explicitMDP).
 			// Set that cost function to be the objective function of explicitMDP.
 			int objectiveIndex = mQFunctionEncoding.getRewardStructureIndex(objectiveFunction);
@@ -111,160 +237,187 @@ public class ExplicitMDPReader {
 		} else {
 			// The given objective function doesn't have a corresponding cost function in explicitMDP.
 			// Compute the objective costs according to the function and add them to explicitMDP.
-			setObjectiveFunctionOfExplicitMDP(explicitMDP, objectiveFunction);
+			setObjectiveFunctionOfExplicitMDP(explicitMDP, objectiveFunction, objectiveFunction.getOffset());
 		}
 
 		return explicitMDP;
 	}
 
 	/**
-	 * Read the number of states from a header of .tra file: "{#states} {#choices} {#transitions}".
+	 * Overwrite the objective costs of an {@link ExplicitMDP} read by this reader according to the given objective
+	 * function, whose QA functions are in the model. The objective costs are computed from the QA costs already in
+	 * the ExplicitMDP; therefore, the same ExplicitMDP can be re-weighted for different objective functions without
+	 * reading the explicit model files again.
 	 * 
-	 * @param traHeader
-	 *            : First line of .tra file
-	 * @return Number of states
+	 * @param explicitMDP
+	 *            : ExplicitMDP read by this reader
+	 * @param objectiveFunction
+	 *            : Optimization objective function
+	 * @param includeAuxiliaryCost
+	 *            : Whether to include the auxiliary cost in the objective costs
+	 * @throws QFunctionNotFoundException
 	 */
-	private int readNumStates(String traHeader) {
-		String[] headerArray = traHeader.split(" ");
-		return Integer.parseInt(headerArray[0]);
+	public void setObjectiveCosts(ExplicitMDP explicitMDP, IAdditiveCostFunction objectiveFunction,
+			boolean includeAuxiliaryCost) throws QFunctionNotFoundException {
+		double offset = includeAuxiliaryCost ? objectiveFunction.getOffset() : 0;
+		setObjectiveFunctionOfExplicitMDP(explicitMDP, objectiveFunction, offset);
 	}
 
 	/**
-	 * Read the initial state from .lab file.
+	 * Read the initial state and the goal states (labeled "end") from .lab file.
 	 * 
-	 * @param labAllLines
-	 *            : All lines from .lab file
+	 * @param labFile
+	 *            : .lab file
+	 * @param readGoalStates
+	 *            : Whether to read the goal states
+	 * @param goalStates
+	 *            : Add the goal states to this set
 	 * @return Initial state
+	 * @throws IOException
 	 * @throws InitialStateParsingException
-	 */
-	private int readInitialState(List<String> labAllLines) throws InitialStateParsingException {
-		// Header format: 0="init" 1="deadlock" ... {n}="end" ...
-		String labHeader = labAllLines.get(0);
-		Pattern pattern = Pattern.compile(INIT_LAB_HEADER_PATTERN);
-		Matcher matcher = pattern.matcher(labHeader);
-		if (!matcher.find()) {
-			throw new InitialStateParsingException(labHeader);
-		}
-		String initLabel = matcher.group(1);
-		List<String> labBody = labAllLines.subList(1, labAllLines.size());
-		for (String line : labBody) {
-			// Line format: "{state}: {label} {label} ..."
-			String[] pair = line.split(":");
-			String[] labels = pair[1].trim().split(" ");
-			if (labels[0].equals(initLabel)) {
-				return Integer.parseInt(pair[0]);
-			}
-		}
-		throw new InitialStateParsingException(labHeader, labBody);
-	}
-
-	/**
-	 * Read the goal states (labeled "end") from .lab file.
-	 * 
-	 * @param labAllLines
-	 *            : All lines from .lab file
-	 * @return Goal states
 	 * @throws GoalStatesParsingException
 	 */
-	private Set<Integer> readGoalStates(List<String> labAllLines) throws GoalStatesParsingException {
-		Set<Integer> goalStates = new HashSet<>();
-		// Header format: 0="init" 1="deadlock" ... {n}="end" ...
-		String labHeader = labAllLines.get(0);
-		Pattern pattern = Pattern.compile(END_LAB_HEADER_PATTERN);
-		Matcher matcher = pattern.matcher(labHeader);
-		if (!matcher.find()) {
-			throw new GoalStatesParsingException(labHeader);
-		}
-		String endLabel = matcher.group(1);
-		List<String> labBody = labAllLines.subList(1, labAllLines.size());
-		for (String line : labBody) {
-			// Line format: "{state}: {label} {label} ..."
-			String[] pair = line.split(":");
-			String[] labels = pair[1].trim().split(" ");
-			for (String label : labels) {
-				if (label.equals(endLabel)) {
-					Integer goalState = Integer.parseInt(pair[0]);
-					goalStates.add(goalState);
-					break;
+	private int readInitialAndGoalStates(File labFile, boolean readGoalStates, Set<Integer> goalStates)
+			throws IOException, InitialStateParsingException, GoalStatesParsingException {
+		try (PrismExplicitFileTokenizer tokenizer = new PrismExplicitFileTokenizer(labFile)) {
+			// Header format: 0="init" 1="deadlock" ... {n}="end" ...
+			String labHeader = tokenizer.readLine();
+			Matcher initMatcher = INIT_LAB_HEADER_PATTERN.matcher(labHeader);
+			if (!initMatcher.find()) {
+				throw new InitialStateParsingException(labHeader);
+			}
+			Matcher endMatcher = END_LAB_HEADER_PATTERN.matcher(labHeader);
+			if (readGoalStates && !endMatcher.find()) {
+				throw new GoalStatesParsingException(labHeader);
+			}
+			int initLabel = Integer.parseInt(initMatcher.group(1));
+			int endLabel = readGoalStates ? Integer.parseInt(endMatcher.group(1)) : -1;
+
+			int iniState = -1;
+			while (tokenizer.nextToken()) {
+				// Line format: "{state}: {label} {label} ..."
+				int state = tokenizer.tokenAsInt();
+				boolean firstLabel = true;
+
+				while (!tokenizer.isEndOfLine() && tokenizer.nextToken()) {
+					int label = tokenizer.tokenAsInt();
+					if (firstLabel && label == initLabel && iniState < 0) {
+						iniState = state;
+					}
+					if (label == endLabel) {
+						goalStates.add(state);
+					}
+					firstLabel = false;
 				}
 			}
+
+			if (iniState < 0) {
+				throw new InitialStateParsingException(labHeader, new ArrayList<>());
+			}
+			if (readGoalStates && goalStates.isEmpty()) {
+				throw new GoalStatesParsingException(labHeader, new ArrayList<>());
+			}
+			return iniState;
 		}
-		if (goalStates.isEmpty()) {
-			throw new GoalStatesParsingException(labHeader, labBody);
-		}
-		return goalStates;
 	}
 
 	/**
-	 * Read all of the action names from .tra file.
+	 * Read all transitions from .tra file in a single pass.
 	 * 
-	 * Each line has the format: "{src} {prob}:{dest} {prob}:{dest} ... {action name}". Assume that every command in
-	 * PRISM MDP model has an action label.
+	 * Header has the format: "{#states} {#choices} {#transitions}". Each line has the format: "{src} {prob}:{dest}
+	 * {prob}:{dest} ... {action name}". Assume that every command in PRISM MDP model has an action label, and that
+	 * choices of each state are ordered.
 	 * 
-	 * @param traAllLines
-	 *            : All lines from .tra file
-	 * @return All action names
+	 * @param traFile
+	 *            : .tra file
+	 * @return All transitions, grouped by choices
+	 * @throws IOException
 	 */
-	private Set<String> readActionNames(List<String> traAllLines) {
-		List<String> body = traAllLines.subList(1, traAllLines.size());
-		Set<String> actionNames = new HashSet<>();
-		for (String line : body) {
-			// Line format: "{src} {prob}:{dest} {prob}:{dest} ... {action name}"
-			String[] tokens = line.split(" ");
-			String actionName = tokens[tokens.length - 1];
-			actionNames.add(actionName);
+	private TransitionRows readTransitionRows(File traFile) throws IOException {
+		try (PrismExplicitFileTokenizer tokenizer = new PrismExplicitFileTokenizer(traFile)) {
+			tokenizer.nextToken();
+			int numStates = tokenizer.tokenAsInt();
+			tokenizer.nextToken();
+			int numChoices = tokenizer.tokenAsInt();
+			tokenizer.nextToken();
+			int numTransitions = tokenizer.tokenAsInt();
+
+			TransitionRows rows = new TransitionRows(numStates, numChoices, numTransitions);
+			Map<String, Integer> actionIds = new HashMap<>();
+
+			while (tokenizer.nextToken()) {
+				// Line format: "{src} {prob}:{dest} {prob}:{dest} ... {action name}"
+				int srcState = tokenizer.tokenAsInt();
+				rows.startRow(srcState);
+
+				while (tokenizer.nextToken() && tokenizer.isFollowedByColon()) {
+					double probability = tokenizer.tokenAsDouble();
+					tokenizer.nextToken();
+					int destState = tokenizer.tokenAsInt();
+					rows.addTransition(destState, probability);
+				}
+
+				String actionName = tokenizer.tokenAsString();
+				Integer actionId = actionIds.get(actionName);
+				if (actionId == null) {
+					actionId = rows.mActionNames.size();
+					actionIds.put(actionName, actionId);
+					rows.mActionNames.add(actionName);
+				}
+				rows.endRow(actionId);
+			}
+			return rows;
 		}
-		return actionNames;
 	}
 
 	/**
-	 * Read transition probabilities from .tra file.
-	 * 
-	 * Each line has the format: "{src} {prob}:{dest} {prob}:{dest} ... {action name}". Assume that every command in
-	 * PRISM MDP model has an action label.
+	 * Add all transition probabilities to the explicit MDP.
 	 * 
-	 * @param traAllLines
-	 *            : All lines from .tra file
+	 * @param rows
+	 *            : All transitions, grouped by choices
 	 * @param explicitMDP
 	 *            : Add probabilistic transitions to this explicit MDP
+	 * @return Action index of each choice in the explicit MDP
 	 */
-	private void readTransitionProbabilities(List<String> traAllLines, ExplicitMDP explicitMDP) {
-		List<String> body = traAllLines.subList(1, traAllLines.size());
-		for (String line : body) {
-			// Line format: "{src} {prob}:{dest} {prob}:{dest} ... {action name}"
-			String[] tokens = line.split(" ");
-			int srcState = Integer.parseInt(tokens[0]);
-			String actionName = tokens[tokens.length - 1];
-			for (int i = 1; i < tokens.length - 1; i++) {
-				String token = tokens[i];
-				String[] pair = token.split(":");
-				double probability = Double.parseDouble(pair[0]);
-				int destState = Integer.parseInt(pair[1]);
-				explicitMDP.addTransitionProbability(srcState, actionName, destState, probability);
+	private int[] addTransitionProbabilities(TransitionRows rows, ExplicitMDP explicitMDP) {
+		int[] actionIndices = new int[rows.mActionNames.size()];
+		for (int id = 0; id < actionIndices.length; id++) {
+			actionIndices[id] = explicitMDP.getActionIndex(rows.mActionNames.get(id));
+		}
+
+		int[] rowActionIndices = new int[rows.mNumRows];
+		for (int r = 0; r < rows.mNumRows; r++) {
+			int srcState = rows.mRowSrcStates[r];
+			int actionIndex = actionIndices[rows.mRowActionIds[r]];
+			rowActionIndices[r] = actionIndex;
+
+			for (int t = rows.mRowStarts[r]; t < rows.mRowStarts[r + 1]; t++) {
+				explicitMDP.addTransitionProbability(srcState, actionIndex, rows.mDestStates[t],
+						rows.mProbabilities[t]);
 			}
 		}
+		return rowActionIndices;
 	}
 
 	/**
 	 * Read transition costs from all .trew files into all cost function indices -- except the 0th index, which is
 	 * reserved for the optimization objective function.
 	 * 
-	 * @param traAllLines
-	 *            : All lines from .tra file
+	 * @param rows
+	 *            : All transitions, grouped by choices
+	 * @param rowActionIndices
+	 *            : Action index of each choice in the explicit MDP
 	 * @param explicitMDP
 	 * @throws IOException
 	 */
-	private void readAllTransitionCosts(List<String> traAllLines, ExplicitMDP explicitMDP) throws IOException {
-		int numStates = explicitMDP.getNumStates();
-		int numActions = explicitMDP.getNumActions();
-		String[][] choicesToActions = readChoicesToActions(traAllLines, numStates, numActions);
+	private void readAllTransitionCosts(TransitionRows rows, int[] rowActionIndices, ExplicitMDP explicitMDP)
+			throws IOException {
 		int numRewardStructs = mQFunctionEncoding.getNumRewardStructures();
 
 		// Reserve 0-slot for the optimization objective function
 		for (int k = 1; k <= numRewardStructs; k++) {
 			File trewFile = mPrismModelPointer.getIndexedTransitionRewardsFile(k);
-			List<String> trewAllLines = readLinesFromFile(trewFile);
-			readTransitionCosts(k, trewAllLines, choicesToActions, explicitMDP);
+			readTransitionCosts(k, trewFile, rows, rowActionIndices, explicitMDP);
 		}
 	}
 
@@ -273,62 +426,35 @@ public class ExplicitMDPReader {
 	 * 
 	 * @param costFuncIndex
 	 *            : Cost function index
-	 * @param trewAllLines
-	 *            : All lines from .trew file.
-	 * @param choicesToActions
+	 * @param trewFile
+	 *            : .trew file
+	 * @param rows
+	 *            : All transitions, grouped by choices
+	 * @param rowActionIndices
+	 *            : Action index of each choice in the explicit MDP
 	 * @param explicitMDP
+	 * @throws IOException
 	 */
-	private void readTransitionCosts(int costFuncIndex, List<String> trewAllLines, String[][] choicesToActions,
-			ExplicitMDP explicitMDP) {
-		List<String> body = trewAllLines.subList(1, trewAllLines.size());
-		for (String line : body) {
-			// Line format: "{src} {choice} {dest} {cost}"
-			String[] tokens = line.split(" ");
-			int srcState = Integer.parseInt(tokens[0]);
-			int choiceIndex = Integer.parseInt(tokens[1]);
-			double cost = Double.parseDouble(tokens[3]);
-			String actionName = choicesToActions[srcState][choiceIndex];
-			explicitMDP.addTransitionCost(costFuncIndex, srcState, actionName, cost);
-		}
-	}
-
-	/**
-	 * Read the mapping from (src state, choice index) -> action name from .tra file.
-	 * 
-	 * Assume that choice indices of each state are ordered.
-	 * 
-	 * @param traAllLines
-	 *            : All lines from .tra file
-	 * @param numStates
-	 * @param numActions
-	 * @return Mapping from (src state, choice index) -> action name
-	 */
-	private String[][] readChoicesToActions(List<String> traAllLines, int numStates, int numActions) {
-		// Maximum # of choices at each state is # of all actions
-		String[][] choicesToActions = new String[numStates][numActions];
-		List<String> body = traAllLines.subList(1, traAllLines.size());
-		int prevSrcState = -1;
-		int choiceIndex = 0;
-		for (String line : body) {
-			// Line format: "{src} {prob}:{dest} {prob}:{dest} ... {action name}"
-			String[] tokens = line.split(" ");
-			int srcState = Integer.parseInt(tokens[0]);
-			String actionName = tokens[tokens.length - 1];
-
-			if (srcState != prevSrcState) {
-				// Reset choice index to 0 for the new state
-				choiceIndex = 0;
-			} else {
-				// Increment choice index for the current state
-				choiceIndex++;
+	private void readTransitionCosts(int costFuncIndex, File trewFile, TransitionRows rows, int[] rowActionIndices,
+			ExplicitMDP explicitMDP) throws IOException {
+		try (PrismExplicitFileTokenizer tokenizer = new PrismExplicitFileTokenizer(trewFile)) {
+			// Skip header
+			tokenizer.readLine();
+
+			while (tokenizer.nextToken()) {
+				// Line format: "{src} {choice} {dest} {cost}"
+				int srcState = tokenizer.tokenAsInt();
+				tokenizer.nextToken();
+				int choiceIndex = tokenizer.tokenAsInt();
+				tokenizer.nextToken();
+				tokenizer.nextToken();
+				double cost = tokenizer.tokenAsDouble();
+				tokenizer.skipLine();
+
+				int actionIndex = rowActionIndices[rows.mStateFirstRows[srcState] + choiceIndex];
+				explicitMDP.addTransitionCost(costFuncIndex, srcState, actionIndex, cost);
 			}
-
-			// Map (src, choice index) -> action name
-			choicesToActions[srcState][choiceIndex] = actionName;
-
-			prevSrcState = srcState;
 		}
-		return choicesToActions;
 	}
 
 	/**
@@ -342,10 +468,9 @@ public class ExplicitMDPReader {
 		int numRewardStructs = mQFunctionEncoding.getNumRewardStructures();
 
 		// Reserve 0-slot for the optimization objective function
-		for (int k = 1; k < numRewardStructs; k++) {
+		for (int k = 1; k <= numRewardStructs; k++) {
 			File srewFile = mPrismModelPointer.getIndexedStateRewardsFile(k);
-			List<String> srewAllLines = readLinesFromFile(srewFile);
-			readStateCosts(k, srewAllLines, explicitMDP);
+			readStateCosts(k, srewFile, explicitMDP);
 		}
 	}
 
@@ -354,39 +479,25 @@ public class ExplicitMDPReader {
 	 * 
 	 * @param costFuncIndex
 	 *            : Cost function index
-	 * @param srewAllLines
-	 *            : All lines from .srew file
+	 * @param srewFile
+	 *            : .srew file
 	 * @param explicitMDP
+	 * @throws IOException
 	 */
-	private void readStateCosts(int costFuncIndex, List<String> srewAllLines, ExplicitMDP explicitMDP) {
-		List<String> body = srewAllLines.subList(1, srewAllLines.size());
-		for (String line : body) {
-			// Line format: "{src} {cost}"
-			String[] tokens = line.split(" ");
-			int state = Integer.parseInt(tokens[0]);
-			double cost = Double.parseDouble(tokens[1]);
-			explicitMDP.addStateCost(costFuncIndex, state, cost);
-		}
-	}
-
-	private String readFirstLineFromFile(File file) throws IOException {
-		try (FileReader fileReader = new FileReader(file);
-				BufferedReader buffReader = new BufferedReader(fileReader);) {
-			return buffReader.readLine();
-		}
-	}
-
-	private List<String> readLinesFromFile(File file) throws IOException {
-		List<String> lines = new ArrayList<>();
-
-		try (FileReader fileReader = new FileReader(file);
-				BufferedReader buffReader = new BufferedReader(fileReader);) {
-			String line;
-			while ((line = buffReader.readLine()) != null) {
-				lines.add(line);
+	private void readStateCosts(int costFuncIndex, File srewFile, ExplicitMDP explicitMDP) throws IOException {
+		try (PrismExplicitFileTokenizer tokenizer = new PrismExplicitFileTokenizer(srewFile)) {
+			// Skip header
+			tokenizer.readLine();
+
+			while (tokenizer.nextToken()) {
+				// Line format: "{src} {cost}"
+				int state = tokenizer.tokenAsInt();
+				tokenizer.nextToken();
+				double cost = tokenizer.tokenAsDouble();
+				tokenizer.skipLine();
+				explicitMDP.addStateCost(costFuncIndex, state, cost);
 			}
 		}
-		return lines;
 	}
 
 	/**
@@ -399,19 +510,24 @@ public class ExplicitMDPReader {
 	 * c_k[i]).
 	 * 
 	 * @param objectiveFunction
-	 * @param qFunctionEncoding
+	 * @param offset
+	 *            : Auxiliary cost of every "compute" transition
 	 * @throws QFunctionNotFoundException
 	 */
-	private void setObjectiveFunctionOfExplicitMDP(ExplicitMDP explicitMDP, IAdditiveCostFunction objectiveFunction)
-			throws QFunctionNotFoundException {
+	private void setObjectiveFunctionOfExplicitMDP(ExplicitMDP explicitMDP, IAdditiveCostFunction objectiveFunction,
+			double offset) throws QFunctionNotFoundException {
 		int numStates = explicitMDP.getNumStates();
 		int numActions = explicitMDP.getNumActions();
 
-		// Auxiliary cost is assigned to every "compute" transition
-		double offset = objectiveFunction.getOffset();
+		// Auxiliary cost "offset" is assigned to every "compute" transition
 
 		for (int i = 0; i < numStates; i++) {
 			for (int a = 0; a < numActions; a++) {
+				// Skip any action a that is not applicable in state i
+				if (!explicitMDP.isActionApplicable(i, a)) {
+					continue;
+				}
+
 				// Compute "pure" objective cost from all QA functions in the objective function
 				double objectiveCost = computePureObjectiveCost(i, a, explicitMDP, objectiveFunction);
 
@@ -467,4 +583,68 @@ public class ExplicitMDPReader {
 
 		return objectiveCost;
 	}
+
+	/**
+	 * All transitions read from .tra file, grouped by choices (i.e., rows of .tra file) in compressed sparse row
+	 * format.
+	 */
+	private static class TransitionRows {
+
+		private int mNumStates;
+		private List<String> mActionNames = new ArrayList<>();
+
+		private int mNumRows;
+		private int[] mRowSrcStates;
+		private int[] mRowActionIds;
+		private int[] mRowStarts;
+		private int[] mStateFirstRows;
+
+		private int mNumTransitions;
+		private int[] mDestStates;
+		private double[] mProbabilities;
+
+		TransitionRows(int numStates, int numChoices, int numTransitions) {
+			mNumStates = numStates;
+			mRowSrcStates = new int[numChoices];
+			mRowActionIds = new int[numChoices];
+			mRowStarts = new int[numChoices + 1];
+			mStateFirstRows = new int[numStates];
+			mDestStates = new int[numTransitions];
+			mProbabilities = new double[numTransitions];
+			Arrays.fill(mStateFirstRows, -1);
+		}
+
+		void startRow(int srcState) {
+			if (mNumRows == mRowSrcStates.length) {
+				// Header under-reports the number of choices
+				int capacity = 2 * mNumRows + 1;
+				mRowSrcStates = Arrays.copyOf(mRowSrcStates, capacity);
+				mRowActionIds = Arrays.copyOf(mRowActionIds, capacity);
+				mRowStarts = Arrays.copyOf(mRowStarts, capacity + 1);
+			}
+			if (mStateFirstRows[srcState] < 0) {
+				mStateFirstRows[srcState] = mNumRows;
+			}
+			mRowSrcStates[mNumRows] = srcState;
+			mRowStarts[mNumRows] = mNumTransitions;
+		}
+
+		void addTransition(int destState, double probability) {
+			if (mNumTransitions == mDestStates.length) {
+				// Header under-reports the number of transitions
+				int capacity = 2 * mNumTransitions + 1;
+				mDestStates = Arrays.copyOf(mDestStates, capacity);
+				mProbabilities = Arrays.copyOf(mProbabilities, capacity);
+			}
+			mDestStates[mNumTransitions] = destState;
+			mProbabilities[mNumTransitions] = probability;
+			mNumTransitions++;
+		}
+
+		void endRow(int actionId) {
+			mRowActionIds[mNumRows] = actionId;
+			mNumRows++;
+			mRowStarts[mNumRows] = mNumTransitions;
+		}
+	}
 }
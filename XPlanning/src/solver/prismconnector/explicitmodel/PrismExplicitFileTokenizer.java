@@ -0,0 +1,324 @@
+package solver.prismconnector.explicitmodel;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * {@link PrismExplicitFileTokenizer} is a streaming tokenizer of PRISM explicit model files (.sta, .tra, .lab, .srew,
+ * .trew, and adv.tra). It reads a file in a single pass through a fixed-size buffer, without loading the file into
+ * memory, and without splitting each line into strings. The file is not memory-mapped: since it is read sequentially
+ * only once, mapping would not save any copy, and a mapped buffer is only released when it is garbage-collected.
+ *
+ * A token is a maximal sequence of characters other than the delimiters: whitespaces, ':', '(', ')', and ','. After a
+ * token is read, it can be parsed as an int, a double, or a string.
+ *
+ * @author rsukkerd
+ *
+ */
+class PrismExplicitFileTokenizer implements Closeable {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int MAX_FAST_PATH_DIGITS = 15;
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	private FileChannel mChannel;
+	private ByteBuffer mBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+	// Current token
+	private byte[] mToken = new byte[64];
+	private int mTokenLength;
+	private boolean mFollowedByColon;
+	private boolean mEndOfLine;
+
+	PrismExplicitFileTokenizer(File file) throws IOException {
+		mChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		// Nothing is read yet
+		mBuffer.flip();
+	}
+
+	/**
+	 * Read the rest of the current line -- e.g., a header line.
+	 *
+	 * @return The rest of the current line without the line terminator, or null if there is no more line
+	 * @throws IOException
+	 */
+	String readLine() throws IOException {
+		int b = read();
+		if (b < 0) {
+			return null;
+		}
+
+		mTokenLength = 0;
+		while (b >= 0 && b != '\n') {
+			if (b != '\r') {
+				appendToToken(b);
+			}
+			b = read();
+		}
+		return tokenAsString();
+	}
+
+	/**
+	 * Read the next token, skipping any blank line.
+	 *
+	 * @return Whether there is a next token
+	 * @throws IOException
+	 */
+	boolean nextToken() throws IOException {
+		int b = read();
+		while (b >= 0 && isDelimiter(b)) {
+			b = read();
+		}
+		if (b < 0) {
+			return false;
+		}
+
+		mTokenLength = 0;
+		while (b >= 0 && !isDelimiter(b)) {
+			appendToToken(b);
+			b = read();
+		}
+
+		// Consume the delimiters that follow the token, up to the end of the line
+		mFollowedByColon = false;
+		mEndOfLine = b < 0;
+		while (b >= 0) {
+			if (b == ':') {
+				mFollowedByColon = true;
+			} else if (b == '\n') {
+				mEndOfLine = true;
+				break;
+			}
+
+			int next = peek();
+			if (next < 0) {
+				mEndOfLine = true;
+				break;
+			}
+			if (!isDelimiter(next)) {
+				break;
+			}
+			b = read();
+		}
+		return true;
+	}
+
+	/**
+	 *
+	 * @return Whether the current token is followed by ':' -- e.g., a probability in "{prob}:{dest}"
+	 */
+	boolean isFollowedByColon() {
+		return mFollowedByColon;
+	}
+
+	/**
+	 *
+	 * @return Whether the current token is the last token of its line
+	 */
+	boolean isEndOfLine() {
+		return mEndOfLine;
+	}
+
+	/**
+	 * Skip the rest of the current line, unless the current token is already the last token of its line.
+	 *
+	 * @throws IOException
+	 */
+	void skipLine() throws IOException {
+		if (mEndOfLine) {
+			return;
+		}
+		int b = read();
+		while (b >= 0 && b != '\n') {
+			b = read();
+		}
+		mEndOfLine = true;
+	}
+
+	int tokenAsInt() {
+		int i = 0;
+		boolean negative = mToken[0] == '-';
+		if (negative || mToken[0] == '+') {
+			i++;
+		}
+		if (i == mTokenLength) {
+			throw new NumberFormatException(tokenAsString());
+		}
+
+		int value = 0;
+		for (; i < mTokenLength; i++) {
+			int digit = mToken[i] - '0';
+			if (digit < 0 || digit > 9) {
+				throw new NumberFormatException(tokenAsString());
+			}
+			value = value * 10 + digit;
+		}
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Parse the current token as a double. A decimal with at most 15 significant digits and a small exponent is parsed
+	 * exactly (i.e., as a single correctly rounded operation); any other token is parsed by
+	 * {@link Double#parseDouble(String)}.
+	 *
+	 * @return Double value of the current token
+	 */
+	double tokenAsDouble() {
+		int i = 0;
+		boolean negative = mToken[0] == '-';
+		if (negative || mToken[0] == '+') {
+			i++;
+		}
+
+		long mantissa = 0;
+		int numDigits = 0;
+		int numSignificantDigits = 0;
+		int decimalExponent = 0;
+		boolean seenPoint = false;
+
+		for (; i < mTokenLength; i++) {
+			byte b = mToken[i];
+			if (b >= '0' && b <= '9') {
+				numDigits++;
+				if (mantissa == 0 && b == '0') {
+					// Leading zero is not significant
+					if (seenPoint) {
+						decimalExponent--;
+					}
+					continue;
+				}
+				if (++numSignificantDigits > MAX_FAST_PATH_DIGITS) {
+					return Double.parseDouble(tokenAsString());
+				}
+				mantissa = mantissa * 10 + (b - '0');
+				if (seenPoint) {
+					decimalExponent--;
+				}
+			} else if (b == '.' && !seenPoint) {
+				seenPoint = true;
+			} else if ((b == 'e' || b == 'E') && numDigits > 0) {
+				break;
+			} else {
+				return Double.parseDouble(tokenAsString());
+			}
+		}
+
+		if (numDigits == 0) {
+			return Double.parseDouble(tokenAsString());
+		}
+
+		if (i < mTokenLength) {
+			// Exponent part
+			int exponent = parseExponent(i + 1);
+			if (exponent == Integer.MIN_VALUE) {
+				return Double.parseDouble(tokenAsString());
+			}
+			decimalExponent += exponent;
+		}
+
+		double value;
+		if (mantissa == 0) {
+			value = 0;
+		} else if (decimalExponent >= 0 && decimalExponent < POWERS_OF_TEN.length) {
+			value = mantissa * POWERS_OF_TEN[decimalExponent];
+		} else if (decimalExponent < 0 && -decimalExponent < POWERS_OF_TEN.length) {
+			value = mantissa / POWERS_OF_TEN[-decimalExponent];
+		} else {
+			return Double.parseDouble(tokenAsString());
+		}
+		return negative ? -value : value;
+	}
+
+	private int parseExponent(int start) {
+		int i = start;
+		if (i == mTokenLength) {
+			return Integer.MIN_VALUE;
+		}
+		boolean negative = mToken[i] == '-';
+		if (negative || mToken[i] == '+') {
+			i++;
+		}
+		if (i == mTokenLength || mTokenLength - i > 4) {
+			return Integer.MIN_VALUE;
+		}
+
+		int exponent = 0;
+		for (; i < mTokenLength; i++) {
+			int digit = mToken[i] - '0';
+			if (digit < 0 || digit > 9) {
+				return Integer.MIN_VALUE;
+			}
+			exponent = exponent * 10 + digit;
+		}
+		return negative ? -exponent : exponent;
+	}
+
+	String tokenAsString() {
+		return new String(mToken, 0, mTokenLength, StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 *
+	 * @param str
+	 *            : ASCII string
+	 * @return Whether the current token is equal to the string -- without creating a string of the token
+	 */
+	boolean tokenEquals(String str) {
+		if (str.length() != mTokenLength) {
+			return false;
+		}
+		for (int i = 0; i < mTokenLength; i++) {
+			if (mToken[i] != str.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void close() throws IOException {
+		mChannel.close();
+	}
+
+	private void appendToToken(int b) {
+		if (mTokenLength == mToken.length) {
+			mToken = Arrays.copyOf(mToken, 2 * mToken.length);
+		}
+		mToken[mTokenLength++] = (byte) b;
+	}
+
+	private static boolean isDelimiter(int b) {
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == ':' || b == '(' || b == ')' || b == ',';
+	}
+
+	private int read() throws IOException {
+		if (!mBuffer.hasRemaining() && !refill()) {
+			return -1;
+		}
+		return mBuffer.get() & 0xff;
+	}
+
+	private int peek() throws IOException {
+		if (!mBuffer.hasRemaining() && !refill()) {
+			return -1;
+		}
+		return mBuffer.get(mBuffer.position()) & 0xff;
+	}
+
+	private boolean refill() throws IOException {
+		mBuffer.clear();
+		int numBytes;
+		do {
+			numBytes = mChannel.read(mBuffer);
+		} while (numBytes == 0);
+		mBuffer.flip();
+		return numBytes > 0;
+	}
+}
@@ -0,0 +1,192 @@
+package solver.prismconnector.explicitmodel;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Set;
+
+import solver.prismconnector.PrismRewardType;
+
+/**
+ * {@link PrismExplicitModel} is an in-memory copy of a PRISM explicit MDP model: its states, transitions, labels, and
+ * reward structures. It contains the same information as the explicit model files (.sta, .tra, .lab, and .srew/.trew),
+ * but is extracted directly from the model built by PRISM -- without writing and parsing the files.
+ *
+ * States are indexed 0 to n-1. The choices of all states are indexed consecutively: the choices of state i are
+ * getChoicesStart(i) to getChoicesEnd(i) - 1, in the same order as in the .tra file. Similarly, the transitions of
+ * choice c are getTransitionsStart(c) to getTransitionsEnd(c) - 1. Reward structures are indexed from 1, the same as
+ * in PRISM.
+ *
+ * @author rsukkerd
+ *
+ */
+public class PrismExplicitModel {
+
+	private String[] mVarNames;
+	private Object[][] mStateValues;
+	private int[] mChoiceOffsets;
+	private String[] mChoiceActionNames;
+	private int[] mTransitionOffsets;
+	private int[] mDestStates;
+	private double[] mProbabilities;
+	private PrismRewardType mPrismRewardType;
+	private double[][] mRewards;
+	private int mIniState;
+	private Map<String, BitSet> mLabels;
+
+	/**
+	 *
+	 * @param varNames
+	 *            : Names of all variables in the model, including the helper variables
+	 * @param stateValues
+	 *            : stateValues[i][v] is the value (Integer or Boolean) of the variable varNames[v] in state i
+	 * @param choiceOffsets
+	 *            : Choices of state i are choiceOffsets[i] to choiceOffsets[i + 1] - 1
+	 * @param choiceActionNames
+	 *            : Sanitized action name of each choice
+	 * @param transitionOffsets
+	 *            : Transitions of choice c are transitionOffsets[c] to transitionOffsets[c + 1] - 1
+	 * @param destStates
+	 *            : Destination state of each transition
+	 * @param probabilities
+	 *            : Probability of each transition
+	 * @param prismRewardType
+	 *            : PRISM reward type: state rewards or transition rewards
+	 * @param rewards
+	 *            : rewards[k - 1] contains the k-th reward structure, indexed either by state or by choice
+	 * @param iniState
+	 *            : Initial state
+	 * @param labels
+	 *            : Mapping from each label (including "init" and "deadlock") to the states that satisfy it
+	 */
+	public PrismExplicitModel(String[] varNames, Object[][] stateValues, int[] choiceOffsets,
+			String[] choiceActionNames, int[] transitionOffsets, int[] destStates, double[] probabilities,
+			PrismRewardType prismRewardType, double[][] rewards, int iniState, Map<String, BitSet> labels) {
+		mVarNames = varNames;
+		mStateValues = stateValues;
+		mChoiceOffsets = choiceOffsets;
+		mChoiceActionNames = choiceActionNames;
+		mTransitionOffsets = transitionOffsets;
+		mDestStates = destStates;
+		mProbabilities = probabilities;
+		mPrismRewardType = prismRewardType;
+		mRewards = rewards;
+		mIniState = iniState;
+		mLabels = labels;
+	}
+
+	public int getNumStates() {
+		return mStateValues.length;
+	}
+
+	public int getNumChoices() {
+		return mChoiceActionNames.length;
+	}
+
+	public int getNumTransitions() {
+		return mDestStates.length;
+	}
+
+	public String[] getVarNames() {
+		return mVarNames;
+	}
+
+	/**
+	 *
+	 * @param i
+	 *            : State
+	 * @return Values (Integer or Boolean) of all variables in state i, in the same order as {@link #getVarNames()}
+	 */
+	public Object[] getStateValues(int i) {
+		return mStateValues[i];
+	}
+
+	public int getChoicesStart(int i) {
+		return mChoiceOffsets[i];
+	}
+
+	public int getChoicesEnd(int i) {
+		return mChoiceOffsets[i + 1];
+	}
+
+	public String getChoiceActionName(int c) {
+		return mChoiceActionNames[c];
+	}
+
+	public int getTransitionsStart(int c) {
+		return mTransitionOffsets[c];
+	}
+
+	public int getTransitionsEnd(int c) {
+		return mTransitionOffsets[c + 1];
+	}
+
+	public int getDestState(int t) {
+		return mDestStates[t];
+	}
+
+	public double getProbability(int t) {
+		return mProbabilities[t];
+	}
+
+	public PrismRewardType getPrismRewardType() {
+		return mPrismRewardType;
+	}
+
+	public int getNumRewardStructs() {
+		return mRewards.length;
+	}
+
+	/**
+	 *
+	 * @param rewardStructIndex
+	 *            : Index of reward structure, starting from 1
+	 * @param i
+	 *            : State
+	 * @return State reward of state i
+	 */
+	public double getStateReward(int rewardStructIndex, int i) {
+		checkRewardType(PrismRewardType.STATE_REWARD);
+		return mRewards[rewardStructIndex - 1][i];
+	}
+
+	/**
+	 *
+	 * @param rewardStructIndex
+	 *            : Index of reward structure, starting from 1
+	 * @param c
+	 *            : Choice
+	 * @return Transition reward of choice c
+	 */
+	public double getTransitionReward(int rewardStructIndex, int c) {
+		checkRewardType(PrismRewardType.TRANSITION_REWARD);
+		return mRewards[rewardStructIndex - 1][c];
+	}
+
+	public int getInitialState() {
+		return mIniState;
+	}
+
+	public Set<String> getLabelNames() {
+		return mLabels.keySet();
+	}
+
+	public boolean hasLabel(String label) {
+		return mLabels.containsKey(label);
+	}
+
+	/**
+	 *
+	 * @param label
+	 *            : Label name
+	 * @return States that satisfy the label, or null if the label doesn't exist
+	 */
+	public BitSet getLabelStates(String label) {
+		return mLabels.get(label);
+	}
+
+	private void checkRewardType(PrismRewardType prismRewardType) {
+		if (mPrismRewardType != prismRewardType) {
+			throw new UnsupportedOperationException("Reward type is " + mPrismRewardType);
+		}
+	}
+}
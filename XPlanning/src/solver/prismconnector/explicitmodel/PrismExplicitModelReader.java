@@ -1,8 +1,6 @@
 package solver.prismconnector.explicitmodel;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -19,6 +17,7 @@ import language.domain.models.IStateVarValue;
 import language.domain.models.StateVar;
 import language.domain.models.StateVarDefinition;
 import language.exceptions.VarNotFoundException;
+import language.mdp.PackedStateEncoding;
 import language.mdp.StateVarTuple;
 import language.policy.Policy;
 import solver.prismconnector.PrismTranslatorUtils;
@@ -30,25 +29,81 @@ public class PrismExplicitModelReader {
 	private static final Set<String> PRISM_VAR_NAMES = new HashSet<>(Arrays.asList("_da"));
 	private static final Set<String> HELPER_ACTIONS = new HashSet<>(Arrays.asList("compute", "next", "end"));
 	private static final Set<String> PRISM_ACTIONS = new HashSet<>(Arrays.asList("_ec"));
-	private static final String INT_REGEX = "[0-9]+";
-	private static final String BOOLEAN_REGEX = "(true|false)";
 
 	private PrismExplicitModelPointer mExplicitModelPtr;
+	private PrismExplicitModel mExplicitModel;
 	private ValueEncodingScheme mEncodings;
 
+	// Mapping from state indices to states of the in-memory explicit model (built once)
+	private Map<Integer, StateVarTuple> mCachedStateIndices;
+
 	public PrismExplicitModelReader(PrismExplicitModelPointer prismExplicitModelPtr, ValueEncodingScheme encodings) {
+		this(prismExplicitModelPtr, null, encodings);
+	}
+
+	/**
+	 * Reader of an explicit model that is already in memory. The explicit model files, if exist, are only for
+	 * debugging purposes.
+	 * 
+	 * @param prismExplicitModelPtr
+	 *            : Pointer to the explicit model files
+	 * @param prismExplicitModel
+	 *            : In-memory explicit model
+	 * @param encodings
+	 *            : Value encoding scheme
+	 */
+	public PrismExplicitModelReader(PrismExplicitModelPointer prismExplicitModelPtr,
+			PrismExplicitModel prismExplicitModel, ValueEncodingScheme encodings) {
 		mEncodings = encodings;
 		mExplicitModelPtr = prismExplicitModelPtr;
+		mExplicitModel = prismExplicitModel;
 	}
 
 	public PrismExplicitModelPointer getPrismExplicitModelPointer() {
 		return mExplicitModelPtr;
 	}
 
+	public boolean hasPrismExplicitModel() {
+		return mExplicitModel != null;
+	}
+
+	public PrismExplicitModel getPrismExplicitModel() {
+		return mExplicitModel;
+	}
+
 	public ValueEncodingScheme getValueEncodingScheme() {
 		return mEncodings;
 	}
 
+	/**
+	 * Read states from the in-memory explicit model if exists; otherwise, from the PRISM states file.
+	 * 
+	 * @return Mapping from integer values indexing states to the corresponding states
+	 * @throws IOException
+	 * @throws VarNotFoundException
+	 */
+	public synchronized Map<Integer, StateVarTuple> readStates() throws IOException, VarNotFoundException {
+		if (mExplicitModel == null) {
+			return readStatesFromFile();
+		}
+		if (mCachedStateIndices == null) {
+			mCachedStateIndices = readStatesFromExplicitModel();
+		}
+		return mCachedStateIndices;
+	}
+
+	private Map<Integer, StateVarTuple> readStatesFromExplicitModel() throws VarNotFoundException {
+		String[] varNames = mExplicitModel.getVarNames();
+		Map<Integer, StateVarTuple> indices = new HashMap<>();
+		StateReader stateReader = new StateReader(varNames);
+
+		for (int index = 0; index < mExplicitModel.getNumStates(); index++) {
+			Object[] values = mExplicitModel.getStateValues(index);
+			indices.put(index, stateReader.readState(values));
+		}
+		return indices;
+	}
+
 	/**
 	 * Read states from a PRISM product states file (prod.sta) if exists; otherwise, from .sta file.
 	 * 
@@ -62,56 +117,62 @@ public class PrismExplicitModelReader {
 
 		Map<Integer, StateVarTuple> indices = new HashMap<>();
 
-		List<String> allLines = readLinesFromFile(staFile);
+		try (PrismExplicitFileTokenizer tokenizer = new PrismExplicitFileTokenizer(staFile)) {
+			// Pattern: ({var1Name},{var2Name},...,{varNName})
+			String header = tokenizer.readLine();
+			String varNamesStr = header.substring(1, header.length() - 1);
+			String[] varNames = varNamesStr.split(",");
 
-		// Pattern: ({var1Name},{var2Name},...,{varNName})
-		String header = allLines.get(0);
-		String varNamesStr = header.substring(1, header.length() - 1);
-		String[] varNames = varNamesStr.split(",");
+			StateReader stateReader = new StateReader(varNames);
+			Object[] values = new Object[varNames.length];
 
-		List<String> body = allLines.subList(1, allLines.size());
+			// Pattern: {index}:({var1Value},{var2Value},...,{varNValue})
+			while (tokenizer.nextToken()) {
+				Integer index = tokenizer.tokenAsInt();
 
-		// Pattern: {index}:({var1Value},{var2Value},...,{varNValue})
-		for (String line : body) {
-			StateVarTuple state = new StateVarTuple();
+				for (int i = 0; i < varNames.length; i++) {
+					tokenizer.nextToken();
+					values[i] = readPrismValue(tokenizer);
+				}
 
-			String[] indexStateStr = line.split(":");
-			String indexStr = indexStateStr[0];
-			String valuesStr = indexStateStr[1].substring(1, indexStateStr[1].length() - 1);
-			Integer index = Integer.parseInt(indexStr);
-			String[] values = valuesStr.split(",");
+				indices.put(index, stateReader.readState(values));
+			}
+		}
+		return indices;
+	}
 
-			for (int i = 0; i < varNames.length; i++) {
-				String varName = varNames[i];
-				String valueStr = values[i];
+	private Object readPrismValue(PrismExplicitFileTokenizer tokenizer) {
+		if (tokenizer.tokenEquals("true")) {
+			return Boolean.TRUE;
+		} else if (tokenizer.tokenEquals("false")) {
+			return Boolean.FALSE;
+		}
+		return tokenizer.tokenAsInt();
+	}
 
-				if (isAuxiliaryVariable(varName)) {
-					// Skip -- this is a helper variable
-					continue;
-				}
+	private StateVar<? extends IStateVarValue> createStateVar(String varName, Object prismValue)
+			throws VarNotFoundException {
+		return prismValue instanceof Boolean ? createStateVar(varName, ((Boolean) prismValue).booleanValue())
+				: createStateVar(varName, ((Integer) prismValue).intValue());
+	}
 
-				StateVarDefinition<IStateVarValue> varDef = mEncodings.getStateSpace().getStateVarDefinition(varName);
-				StateVar<? extends IStateVarValue> stateVar;
-
-				if (valueStr.matches(BOOLEAN_REGEX)) {
-					IStateVarBoolean value = mEncodings.lookupStateVarBoolean(varName, Boolean.parseBoolean(valueStr));
-					stateVar = varDef.getStateVar(value);
-				} else if (valueStr.matches(INT_REGEX) && !mEncodings.hasEncodedIntValue(varDef)) {
-					IStateVarInt value = mEncodings.lookupStateVarInt(varName, Integer.parseInt(valueStr));
-					stateVar = varDef.getStateVar(value);
-				} else {
-					Integer encodedIntValue = Integer.parseInt(valueStr);
-					IStateVarValue value = mEncodings.decodeStateVarValue(IStateVarValue.class, varName,
-							encodedIntValue);
-					stateVar = varDef.getStateVar(value);
-				}
+	private StateVar<? extends IStateVarValue> createStateVar(String varName, boolean boolValue)
+			throws VarNotFoundException {
+		StateVarDefinition<IStateVarValue> varDef = mEncodings.getStateSpace().getStateVarDefinition(varName);
+		IStateVarBoolean value = mEncodings.lookupStateVarBoolean(varName, boolValue);
+		return varDef.getStateVar(value);
+	}
 
-				state.addStateVar(stateVar);
-			}
+	private StateVar<? extends IStateVarValue> createStateVar(String varName, int intValue)
+			throws VarNotFoundException {
+		StateVarDefinition<IStateVarValue> varDef = mEncodings.getStateSpace().getStateVarDefinition(varName);
 
-			indices.put(index, state);
+		if (!mEncodings.hasEncodedIntValue(varDef)) {
+			IStateVarInt value = mEncodings.lookupStateVarInt(varName, intValue);
+			return varDef.getStateVar(value);
 		}
-		return indices;
+		IStateVarValue value = mEncodings.decodeStateVarValue(IStateVarValue.class, varName, intValue);
+		return varDef.getStateVar(value);
 	}
 
 	/**
@@ -126,26 +187,29 @@ public class PrismExplicitModelReader {
 		File advFile = mExplicitModelPtr.getAdversaryFile();
 		Policy policy = new Policy();
 
-		List<String> allLines = readLinesFromFile(advFile);
-		List<String> body = allLines.subList(1, allLines.size());
-
-		// Pattern: *source* {destination} {probability} *action name*
-		for (String line : body) {
-			String[] tokens = line.split(" ");
-			String sourceStr = tokens[0];
-			String sanitizedActionName = tokens[3];
+		try (PrismExplicitFileTokenizer tokenizer = new PrismExplicitFileTokenizer(advFile)) {
+			// Skip header
+			tokenizer.readLine();
+
+			// Pattern: *source* {destination} {probability} *action name*
+			while (tokenizer.nextToken()) {
+				Integer sourceIndex = tokenizer.tokenAsInt();
+				tokenizer.nextToken();
+				tokenizer.nextToken();
+				tokenizer.nextToken();
+				String sanitizedActionName = tokenizer.tokenAsString();
+				tokenizer.skipLine();
+
+				if (isAuxiliaryAction(sanitizedActionName)) {
+					// Skip -- this is a helper action
+					continue;
+				}
 
-			if (isAuxiliaryAction(sanitizedActionName)) {
-				// Skip -- this is a helper action
-				continue;
+				String actionName = PrismTranslatorUtils.desanitizeNameString(sanitizedActionName);
+				StateVarTuple sourceState = stateIndices.get(sourceIndex);
+				IAction action = mEncodings.getActionSpace().getAction(actionName);
+				policy.put(sourceState, action);
 			}
-
-			String actionName = PrismTranslatorUtils.desanitizeNameString(sanitizedActionName);
-			Integer sourceIndex = Integer.parseInt(sourceStr);
-
-			StateVarTuple sourceState = stateIndices.get(sourceIndex);
-			IAction action = mEncodings.getActionSpace().getAction(actionName);
-			policy.put(sourceState, action);
 		}
 		return policy;
 	}
@@ -162,19 +226,6 @@ public class PrismExplicitModelReader {
 		return readPolicyFromFile(stateIndices);
 	}
 
-	private List<String> readLinesFromFile(File file) throws IOException {
-		List<String> lines = new ArrayList<>();
-
-		try (FileReader fileReader = new FileReader(file);
-				BufferedReader buffReader = new BufferedReader(fileReader);) {
-			String line;
-			while ((line = buffReader.readLine()) != null) {
-				lines.add(line);
-			}
-		}
-		return lines;
-	}
-
 	public static boolean isAuxiliaryVariable(String varName) {
 		return HELPER_VAR_NAMES.contains(varName) || PRISM_VAR_NAMES.contains(varName);
 	}
@@ -182,4 +233,65 @@ public class PrismExplicitModelReader {
 	public static boolean isAuxiliaryAction(String actionName) {
 		return HELPER_ACTIONS.contains(actionName) || PRISM_ACTIONS.contains(actionName);
 	}
+
+	/**
+	 * {@link StateReader} creates states from rows of PRISM state values, whose columns are given by the PRISM variable
+	 * names. If the PRISM variables cover the whole state space and the states can be packed into a long, each state is
+	 * packed by the {@link PackedStateEncoding} and interned, and each distinct value of each column is only decoded
+	 * once. Otherwise, each state is created variable by variable.
+	 */
+	private class StateReader {
+
+		private String[] mVarNames;
+		private PackedStateEncoding mPackedEncoding;
+		private List<Map<Object, Long>> mPackedValueLookups = new ArrayList<>();
+
+		StateReader(String[] varNames) {
+			mVarNames = varNames;
+
+			int numStateVars = 0;
+			for (String varName : varNames) {
+				mPackedValueLookups.add(new HashMap<>());
+				if (!isAuxiliaryVariable(varName)) {
+					numStateVars++;
+				}
+			}
+
+			PackedStateEncoding packedEncoding = mEncodings.getPackedStateEncoding();
+			if (packedEncoding != null && numStateVars == packedEncoding.getNumStateVars()) {
+				mPackedEncoding = packedEncoding;
+			}
+		}
+
+		StateVarTuple readState(Object[] values) throws VarNotFoundException {
+			if (mPackedEncoding == null) {
+				StateVarTuple state = new StateVarTuple();
+				for (int i = 0; i < mVarNames.length; i++) {
+					if (!isAuxiliaryVariable(mVarNames[i])) {
+						state.addStateVar(createStateVar(mVarNames[i], values[i]));
+					}
+				}
+				return state;
+			}
+
+			long code = 0;
+			for (int i = 0; i < mVarNames.length; i++) {
+				if (isAuxiliaryVariable(mVarNames[i])) {
+					// Skip -- this is a helper variable
+					continue;
+				}
+
+				Map<Object, Long> packedValueLookup = mPackedValueLookups.get(i);
+				Long packedValue = packedValueLookup.get(values[i]);
+				if (packedValue == null) {
+					StateVar<? extends IStateVarValue> stateVar = createStateVar(mVarNames[i], values[i]);
+					int stateVarIndex = mPackedEncoding.getStateVarIndex(stateVar.getDefinition());
+					packedValue = mPackedEncoding.getPackedValue(stateVarIndex, stateVar.getValue());
+					packedValueLookup.put(values[i], packedValue);
+				}
+				code += packedValue;
+			}
+			return mPackedEncoding.decode(code);
+		}
+	}
 }
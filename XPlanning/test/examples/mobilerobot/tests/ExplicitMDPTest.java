@@ -0,0 +1,192 @@
+package examples.mobilerobot.tests;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.testng.annotations.Test;
+
+import solver.common.CostType;
+import solver.common.ExplicitMDP;
+
+public class ExplicitMDPTest {
+
+	private static final double EPSILON = 1e-12;
+
+	/**
+	 * 3 states and 2 actions "a" and "b", where b is not applicable in state 1. Transitions are added out of order,
+	 * and (0,a,1) is added twice.
+	 *
+	 * @return A transition-cost MDP with 2 cost functions
+	 */
+	private ExplicitMDP createMDP() {
+		ExplicitMDP mdp = new ExplicitMDP(3, new HashSet<>(Arrays.asList("b", "a")), CostType.TRANSITION_COST, 2, 0,
+				Collections.singleton(2));
+		mdp.addTransitionProbability(0, "a", 2, 0.5);
+		mdp.addTransitionProbability(1, "a", 2, 1.0);
+		mdp.addTransitionProbability(0, "a", 1, 0.2);
+		mdp.addTransitionProbability(0, "b", 0, 0.1);
+		mdp.addTransitionProbability(0, "a", 1, 0.5);
+		mdp.addTransitionProbability(0, "b", 2, 0.9);
+		mdp.addTransitionProbability(2, "a", 2, 1.0);
+		mdp.addTransitionProbability(2, "b", 2, 1.0);
+		mdp.addTransitionCost(1, 0, "a", 1.0);
+		mdp.addTransitionCost(1, 0, "b", 2.0);
+		return mdp;
+	}
+
+	@Test
+	public void testSuccessorRanges() {
+		ExplicitMDP mdp = createMDP();
+		int a = mdp.getActionIndex("a");
+		int b = mdp.getActionIndex("b");
+
+		// Successors of each (i,a) are in increasing order of j, and a repeated transition keeps its last probability
+		int start = mdp.getSuccessorsStart(0, a);
+		assertEquals(mdp.getSuccessorsEnd(0, a) - start, 2);
+		assertEquals(mdp.getSuccessorState(start), 1);
+		assertEquals(mdp.getSuccessorProbability(start), 0.5, EPSILON);
+		assertEquals(mdp.getSuccessorState(start + 1), 2);
+		assertEquals(mdp.getSuccessorProbability(start + 1), 0.5, EPSILON);
+
+		start = mdp.getSuccessorsStart(0, b);
+		assertEquals(mdp.getSuccessorsEnd(0, b) - start, 2);
+		assertEquals(mdp.getSuccessorState(start), 0);
+		assertEquals(mdp.getSuccessorState(start + 1), 2);
+
+		assertEquals(mdp.getTransitionProbability(0, a, 1), 0.5, EPSILON);
+		assertEquals(mdp.getTransitionProbability(0, a, 0), 0.0);
+		assertEquals(mdp.getNumTransitions(), 7);
+	}
+
+	@Test
+	public void testInapplicableAction() {
+		ExplicitMDP mdp = createMDP();
+		int a = mdp.getActionIndex("a");
+		int b = mdp.getActionIndex("b");
+
+		assertTrue(mdp.isActionApplicable(1, a));
+		assertFalse(mdp.isActionApplicable(1, b));
+		assertEquals(mdp.getSuccessorsStart(1, b), mdp.getSuccessorsEnd(1, b));
+
+		// A transition with zero probability does not make an action applicable
+		mdp.addTransitionProbability(1, b, 0, 0.0);
+		assertFalse(mdp.isActionApplicable(1, b));
+		assertEquals(mdp.getSuccessorsStart(1, b), mdp.getSuccessorsEnd(1, b));
+	}
+
+	@Test
+	public void testPredecessorIndex() {
+		ExplicitMDP mdp = createMDP();
+		int a = mdp.getActionIndex("a");
+		int b = mdp.getActionIndex("b");
+
+		// Predecessors of state 2, in increasing order of (i,a)
+		int[][] expectedPreds = { { 0, a }, { 0, b }, { 1, a }, { 2, a }, { 2, b } };
+		double[] expectedProbs = { 0.5, 0.9, 1.0, 1.0, 1.0 };
+		int start = mdp.getPredecessorsStart(2);
+		assertEquals(mdp.getPredecessorsEnd(2) - start, expectedPreds.length);
+		for (int k = 0; k < expectedPreds.length; k++) {
+			assertEquals(mdp.getPredecessorState(start + k), expectedPreds[k][0]);
+			assertEquals(mdp.getPredecessorAction(start + k), expectedPreds[k][1]);
+			assertEquals(mdp.getPredecessorProbability(start + k), expectedProbs[k], EPSILON);
+		}
+
+		// The predecessor index is rebuilt after a modification
+		mdp.addTransitionProbability(1, b, 1, 1.0);
+		start = mdp.getPredecessorsStart(1);
+		assertEquals(mdp.getPredecessorsEnd(1) - start, 2);
+		assertEquals(mdp.getPredecessorState(start), 0);
+		assertEquals(mdp.getPredecessorAction(start), a);
+		assertEquals(mdp.getPredecessorState(start + 1), 1);
+		assertEquals(mdp.getPredecessorAction(start + 1), b);
+	}
+
+	@Test
+	public void testEqualityIndependentOfInsertionOrder() {
+		ExplicitMDP mdp = createMDP();
+		ExplicitMDP otherMDP = new ExplicitMDP(3, new HashSet<>(Arrays.asList("a", "b")), CostType.TRANSITION_COST,
+				2, 0, Collections.singleton(2));
+		otherMDP.addTransitionProbability(2, "b", 2, 1.0);
+		otherMDP.addTransitionProbability(2, "a", 2, 1.0);
+		otherMDP.addTransitionProbability(0, "b", 2, 0.9);
+		otherMDP.addTransitionProbability(0, "b", 0, 0.1);
+		otherMDP.addTransitionProbability(1, "a", 2, 1.0);
+		otherMDP.addTransitionProbability(0, "a", 1, 0.5);
+		otherMDP.addTransitionProbability(0, "a", 2, 0.5);
+		otherMDP.addTransitionCost(1, 0, "b", 2.0);
+		otherMDP.addTransitionCost(1, 0, "a", 1.0);
+
+		assertEquals(otherMDP, mdp);
+		assertEquals(otherMDP.hashCode(), mdp.hashCode());
+	}
+
+	@Test
+	public void testHashCodeAfterCostModification() {
+		ExplicitMDP mdp = createMDP();
+		ExplicitMDP otherMDP = createMDP();
+		int a = mdp.getActionIndex("a");
+
+		// Cache the hash code of only one of the MDPs, before each modification
+		mdp.hashCode();
+		mdp.setObjectiveCosts(1);
+		assertNotEquals(otherMDP, mdp);
+		otherMDP.setObjectiveCosts(1);
+		assertEquals(otherMDP, mdp);
+		assertEquals(mdp.hashCode(), createMDPWithCosts(a, false, false).hashCode());
+
+		mdp.addObjectiveTransitionCost(0, a, 5.0);
+		assertEquals(mdp.hashCode(), createMDPWithCosts(a, true, false).hashCode());
+
+		mdp.addTransitionCost(1, 2, a, 3.0);
+		assertEquals(mdp.hashCode(), createMDPWithCosts(a, true, true).hashCode());
+	}
+
+	private ExplicitMDP createMDPWithCosts(int a, boolean objectiveCost, boolean transitionCost) {
+		ExplicitMDP mdp = createMDP();
+		mdp.setObjectiveCosts(1);
+		if (objectiveCost) {
+			mdp.addObjectiveTransitionCost(0, a, 5.0);
+		}
+		if (transitionCost) {
+			mdp.addTransitionCost(1, 2, a, 3.0);
+		}
+		return mdp;
+	}
+
+	@Test
+	public void testHashCodeAfterTransitionModification() {
+		ExplicitMDP mdp = createMDP();
+		ExplicitMDP otherMDP = createMDP();
+		int b = mdp.getActionIndex("b");
+
+		// Cache the hash code of only one of the MDPs
+		mdp.hashCode();
+		mdp.addTransitionProbability(1, b, 1, 1.0);
+		otherMDP.addTransitionProbability(1, b, 1, 1.0);
+		assertEquals(otherMDP, mdp);
+		assertEquals(otherMDP.hashCode(), mdp.hashCode());
+	}
+
+	@Test
+	public void testHashCodeAfterStateCostModification() {
+		ExplicitMDP mdp = new ExplicitMDP(2, Collections.singleton("a"), CostType.STATE_COST, 2, 0,
+				Collections.singleton(1));
+		ExplicitMDP otherMDP = new ExplicitMDP(2, Collections.singleton("a"), CostType.STATE_COST, 2, 0,
+				Collections.singleton(1));
+
+		// Cache the hash code of only one of the MDPs
+		mdp.hashCode();
+		mdp.addStateCost(1, 0, 4.0);
+		mdp.addObjectiveStateCost(0, 2.0);
+		otherMDP.addStateCost(1, 0, 4.0);
+		otherMDP.addObjectiveStateCost(0, 2.0);
+		assertEquals(otherMDP, mdp);
+		assertEquals(otherMDP.hashCode(), mdp.hashCode());
+	}
+}
@@ -0,0 +1,130 @@
+package examples.mobilerobot.tests;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import examples.mobilerobot.models.Area;
+import examples.mobilerobot.models.Location;
+import examples.mobilerobot.models.MoveToAction;
+import examples.mobilerobot.models.Occlusion;
+import examples.mobilerobot.models.RobotLocationActionDescription;
+import language.domain.models.ActionDefinition;
+import language.domain.models.StateVarDefinition;
+import language.dtmc.XDTMC;
+import language.exceptions.XMDPException;
+import language.mdp.ActionSpace;
+import language.mdp.FactoredPSO;
+import language.mdp.Precondition;
+import language.mdp.QSpace;
+import language.mdp.StateSpace;
+import language.mdp.StateVarTuple;
+import language.mdp.TransitionFunction;
+import language.mdp.XMDP;
+import language.objectives.CostFunction;
+import language.policy.Policy;
+import solver.nativeconnector.ExplicitXDTMC;
+
+public class ExplicitXDTMCTest {
+
+	private static final int NUM_LOCATIONS = 5;
+
+	private Location[] mLocations = new Location[NUM_LOCATIONS];
+	private StateVarDefinition<Location> mrLocDef;
+	private StateVarTuple[] mStates = new StateVarTuple[NUM_LOCATIONS];
+	private MoveToAction[] mMoveTos = new MoveToAction[NUM_LOCATIONS];
+	private XMDP mXMDP;
+
+	/**
+	 * Map: L0 -- L1 -- L2, L0 -- L3 -- L2, and L4 -- L2. The robot starts at L0, and the goal is L2.
+	 */
+	@BeforeMethod
+	public void setUp() throws XMDPException {
+		for (int i = 0; i < NUM_LOCATIONS; i++) {
+			mLocations[i] = new Location("L" + i, Area.PUBLIC);
+		}
+		mrLocDef = new StateVarDefinition<>("rLoc", mLocations);
+
+		for (int i = 0; i < NUM_LOCATIONS; i++) {
+			mStates[i] = new StateVarTuple();
+			mStates[i].addStateVar(mrLocDef.getStateVar(mLocations[i]));
+			mMoveTos[i] = new MoveToAction(mrLocDef.getStateVar(mLocations[i]));
+		}
+
+		int[][] connections = { { 0, 1 }, { 1, 2 }, { 0, 3 }, { 3, 2 }, { 4, 2 } };
+		for (int[] connection : connections) {
+			connect(connection[0], connection[1]);
+			connect(connection[1], connection[0]);
+		}
+
+		Set<MoveToAction> moveTos = new HashSet<>();
+		for (MoveToAction moveTo : mMoveTos) {
+			moveTos.add(moveTo);
+		}
+		ActionDefinition<MoveToAction> moveToDef = new ActionDefinition<>("moveTo", moveTos);
+
+		Precondition<MoveToAction> preMoveTo = new Precondition<>(moveToDef);
+		for (int[] connection : connections) {
+			preMoveTo.add(mMoveTos[connection[1]], mrLocDef, mLocations[connection[0]]);
+			preMoveTo.add(mMoveTos[connection[0]], mrLocDef, mLocations[connection[1]]);
+		}
+		FactoredPSO<MoveToAction> moveToPSO = new FactoredPSO<>(moveToDef, preMoveTo);
+		moveToPSO.addActionDescription(new RobotLocationActionDescription(moveToDef, preMoveTo, mrLocDef));
+
+		StateSpace stateSpace = new StateSpace();
+		stateSpace.addStateVarDefinition(mrLocDef);
+		ActionSpace actionSpace = new ActionSpace();
+		actionSpace.addActionDefinition(moveToDef);
+		TransitionFunction transFunction = new TransitionFunction();
+		transFunction.add(moveToPSO);
+
+		mXMDP = new XMDP(stateSpace, actionSpace, mStates[0], mStates[2], transFunction, new QSpace(),
+				new CostFunction());
+	}
+
+	@Test
+	public void testReachableStates() throws XMDPException {
+		// L0 -> L1 -> L2, with residual decisions at L3 and L4, which the policy never visits
+		Policy policy = new Policy();
+		policy.put(mStates[0], mMoveTos[1]);
+		policy.put(mStates[1], mMoveTos[2]);
+		policy.put(mStates[3], mMoveTos[2]);
+		policy.put(mStates[4], mMoveTos[2]);
+
+		ExplicitXDTMC explicitXDTMC = new ExplicitXDTMC(new XDTMC(mXMDP, policy));
+
+		assertTrue(explicitXDTMC.isReachable(mStates[0]), "Initial state is not reachable");
+		assertTrue(explicitXDTMC.isReachable(mStates[1]));
+		assertTrue(explicitXDTMC.isReachable(mStates[2]), "Goal state is not reachable");
+		assertFalse(explicitXDTMC.isReachable(mStates[3]), "Residual decision is reachable");
+		assertFalse(explicitXDTMC.isReachable(mStates[4]), "Residual decision is reachable");
+		assertEquals(explicitXDTMC.getNumStates(), 3);
+		assertEquals(explicitXDTMC.getStateIndex(mStates[0]), 0);
+		assertEquals(explicitXDTMC.getStateIndex(mStates[3]), -1);
+	}
+
+	@Test
+	public void testDeadlockStateIsReachable() throws XMDPException {
+		// L0 -> L3, where the policy has no decision
+		Policy policy = new Policy();
+		policy.put(mStates[0], mMoveTos[3]);
+		policy.put(mStates[1], mMoveTos[2]);
+
+		ExplicitXDTMC explicitXDTMC = new ExplicitXDTMC(new XDTMC(mXMDP, policy));
+
+		assertTrue(explicitXDTMC.isReachable(mStates[3]), "Deadlock state is not reachable");
+		assertFalse(explicitXDTMC.isReachable(mStates[1]), "State off the path of the policy is reachable");
+		assertFalse(explicitXDTMC.isReachable(mStates[2]), "Goal state is reachable through the deadlock state");
+		assertEquals(explicitXDTMC.getPolicy()[explicitXDTMC.getStateIndex(mStates[3])], -1);
+	}
+
+	private void connect(int src, int dest) {
+		mMoveTos[dest].putOcclusionValue(Occlusion.CLEAR, mrLocDef.getStateVar(mLocations[src]));
+	}
+}
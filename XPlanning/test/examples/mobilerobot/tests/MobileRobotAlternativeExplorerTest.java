@@ -1,6 +1,7 @@
 package examples.mobilerobot.tests;
 
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.testng.Assert.assertEquals;
 
 import java.io.File;
 import java.io.IOException;
@@ -93,6 +94,24 @@ public class MobileRobotAlternativeExplorerTest {
 		}
 	}
 
+	@Test(dataProvider = "xmdpProblems")
+	public void testConcurrentAlternativeExplorer(File missionJsonFile, GRBConnector grbConnector,
+			PolicyInfo policyInfo) {
+		AlternativeExplorer seqAltExplorer = new AlternativeExplorer(grbConnector);
+		AlternativeExplorer concurrentAltExplorer = new AlternativeExplorer(grbConnector, null, 4);
+
+		try {
+			Set<PolicyInfo> seqAltPolicies = seqAltExplorer.getParetoOptimalAlternatives(policyInfo);
+			Set<PolicyInfo> concurrentAltPolicies = concurrentAltExplorer.getParetoOptimalAlternatives(policyInfo);
+
+			assertEquals(concurrentAltPolicies, seqAltPolicies,
+					"Concurrent exploration found different alternatives from sequential exploration");
+		} catch (XMDPException | IOException | ExplicitModelParsingException | GRBException e) {
+			e.printStackTrace();
+			fail("Exception thrown while finding alternative policies");
+		}
+	}
+
 	private void printPrismDTMCAndProperties(PolicyInfo policyInfo)
 			throws XMDPException, ResultParsingException, PrismException {
 		XDTMC xdtmc = new XDTMC(policyInfo.getXMDP(), policyInfo.getPolicy());
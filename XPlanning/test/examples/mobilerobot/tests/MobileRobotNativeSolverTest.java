@@ -0,0 +1,338 @@
+package examples.mobilerobot.tests;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.io.FilenameUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import examples.common.DSMException;
+import examples.common.XPlannerOutDirectories;
+import examples.mobilerobot.demo.MobileRobotXMDPLoader;
+import examples.mobilerobot.demo.MobileRobotXPlanner;
+import examples.utils.SimpleConsoleLogger;
+import examples.utils.XMDPDataProvider;
+import explanation.analysis.ParetoFrontier;
+import explanation.analysis.PolicyInfo;
+import language.domain.metrics.IQFunction;
+import language.exceptions.XMDPException;
+import language.mdp.XMDP;
+import language.objectives.CostCriterion;
+import prism.PrismException;
+import solver.common.Constants;
+import solver.common.CostType;
+import solver.common.ExplicitMDP;
+import solver.common.LPSolution;
+import solver.nativeconnector.NativeConnector;
+import solver.nativeconnector.NativeConnectorSettings;
+import solver.nativeconnector.NativeConnectorSettings.NativeSolutionMethod;
+import solver.nativeconnector.ParetoFrontierSolver;
+import solver.nativeconnector.SSPSolver;
+import solver.prismconnector.PrismConnector;
+import solver.prismconnector.PrismConnectorSettings;
+import solver.prismconnector.ValueEncodingScheme;
+import solver.prismconnector.exceptions.PrismConnectorException;
+import solver.prismconnector.explicitmodel.PrismExplicitModelPointer;
+import solver.prismconnector.explicitmodel.PrismExplicitModelReader;
+
+public class MobileRobotNativeSolverTest {
+	private static final double EQUALITY_TOL = 1e-3;
+	private static final int NUM_SELF_LOOP_MODEL_STATES = 20000;
+
+	@Test(dataProvider = "xmdpProblems")
+	public void testNativeSSPSolvers(File missionJsonFile, XMDP xmdp)
+			throws PrismException, XMDPException, IOException, PrismConnectorException {
+		String missionName = FilenameUtils.removeExtension(missionJsonFile.getName());
+		String modelOutputPath = XPlannerOutDirectories.PRISM_MODELS_OUTPUT_PATH + "/" + missionName;
+		String advOutputPath = XPlannerOutDirectories.PRISM_ADVS_OUTPUT_PATH + "/" + missionName;
+
+		PrismConnectorSettings prismConnSettings = new PrismConnectorSettings(modelOutputPath, advOutputPath);
+		try (PrismConnector prismConnector = new PrismConnector(xmdp, CostCriterion.TOTAL_COST, prismConnSettings)) {
+			PrismExplicitModelPointer prismExplicitModelPtr = prismConnector.exportExplicitModelFiles();
+			ValueEncodingScheme encodings = prismConnector.getPrismMDPTranslator().getValueEncodingScheme();
+			PrismExplicitModelReader prismExplicitModelReader = new PrismExplicitModelReader(prismExplicitModelPtr,
+					encodings);
+
+			// Reference solution from PRISM
+			PolicyInfo prismPolicyInfo = prismConnector.generateOptimalPolicy();
+			double prismCost = prismPolicyInfo.getObjectiveCost();
+
+			for (NativeSolutionMethod method : NativeSolutionMethod.values()) {
+				if (method == NativeSolutionMethod.BACKWARD_INDUCTION) {
+					// Mobile robot maps are cyclic
+					continue;
+				}
+
+				NativeConnectorSettings nativeConnSettings = new NativeConnectorSettings(prismExplicitModelReader,
+						method);
+				NativeConnector nativeConnector = new NativeConnector(xmdp, CostCriterion.TOTAL_COST,
+						nativeConnSettings);
+				PolicyInfo nativePolicyInfo = nativeConnector.generateOptimalPolicy();
+
+				assertNotNull(nativePolicyInfo, method + " found no solution");
+
+				// Compare the optimal costs, evaluated by PRISM
+				double nativeCost = prismConnector.computeObjectiveCost(nativePolicyInfo.getPolicy());
+				SimpleConsoleLogger.log(method.toString(), nativeCost, true);
+				assertEquals(nativeCost, prismCost, EQUALITY_TOL, method + " cost differs from PRISM");
+			}
+
+		}
+	}
+
+	@Test(dataProvider = "xmdpProblems")
+	public void testParetoFrontier(File missionJsonFile, XMDP xmdp)
+			throws PrismException, XMDPException, IOException, PrismConnectorException {
+		String missionName = FilenameUtils.removeExtension(missionJsonFile.getName());
+		String modelOutputPath = XPlannerOutDirectories.PRISM_MODELS_OUTPUT_PATH + "/" + missionName;
+		String advOutputPath = XPlannerOutDirectories.PRISM_ADVS_OUTPUT_PATH + "/" + missionName;
+
+		PrismConnectorSettings prismConnSettings = new PrismConnectorSettings(modelOutputPath, advOutputPath);
+		try (PrismConnector prismConnector = new PrismConnector(xmdp, CostCriterion.TOTAL_COST, prismConnSettings)) {
+			PrismExplicitModelPointer prismExplicitModelPtr = prismConnector.exportExplicitModelFiles();
+			ValueEncodingScheme encodings = prismConnector.getPrismMDPTranslator().getValueEncodingScheme();
+			PrismExplicitModelReader prismExplicitModelReader = new PrismExplicitModelReader(prismExplicitModelPtr,
+					encodings);
+
+			NativeConnectorSettings nativeConnSettings = new NativeConnectorSettings(prismExplicitModelReader);
+			NativeConnector nativeConnector = new NativeConnector(xmdp, CostCriterion.TOTAL_COST, nativeConnSettings);
+			ParetoFrontier frontier = nativeConnector.computeParetoFrontier();
+
+			assertFalse(frontier.isEmpty(), "Pareto frontier is empty");
+			SimpleConsoleLogger.log("Pareto frontier size", frontier.size(), true);
+
+			for (PolicyInfo vertex : frontier) {
+				Map<IQFunction<?, ?>, Double> supportingWeights = frontier.getSupportingWeights(vertex);
+				assertNotNull(supportingWeights, "Vertex has no supporting weights");
+
+				// Compare the QA values of each vertex policy, evaluated by PRISM
+				for (IQFunction<?, ?> qFunction : supportingWeights.keySet()) {
+					double prismQAValue = prismConnector.computeQAValue(vertex.getPolicy(), qFunction);
+					assertEquals(vertex.getQAValue(qFunction), prismQAValue, EQUALITY_TOL,
+							qFunction.getName() + " value differs from PRISM");
+				}
+			}
+
+		}
+	}
+
+	/**
+	 * State 0 has a self-loop action "a" in front of the goal state 2, and an action "b" that reaches the goal with
+	 * probability 0.5 and otherwise takes the chain 1 -> 3 -> 4 -> 2. Every other state moves to the goal directly. All
+	 * actions have unit cost; therefore, V*(0) = 1 + 0.5 * 3 = 2.5, by action "b".
+	 * 
+	 * Policy iteration must start from a proper policy: evaluating a policy that takes the self-loop would not converge
+	 * before the maximum number of iterations, on every state of the model.
+	 */
+	@Test(timeOut = 10000)
+	public void testSelfLoopInFrontOfGoal() {
+		int n = NUM_SELF_LOOP_MODEL_STATES;
+		Set<String> actionNames = new HashSet<>(Arrays.asList("a", "b", "c"));
+		ExplicitMDP explicitMDP = new ExplicitMDP(n, actionNames, CostType.TRANSITION_COST, 1, 0,
+				Collections.singleton(2));
+		explicitMDP.addTransitionProbability(0, "a", 0, 1.0);
+		explicitMDP.addTransitionProbability(0, "b", 1, 0.5);
+		explicitMDP.addTransitionProbability(0, "b", 2, 0.5);
+		explicitMDP.addTransitionProbability(1, "c", 3, 1.0);
+		explicitMDP.addTransitionProbability(3, "c", 4, 1.0);
+		explicitMDP.addTransitionProbability(4, "c", 2, 1.0);
+		for (int i = 5; i < n; i++) {
+			explicitMDP.addTransitionProbability(i, "c", 2, 1.0);
+		}
+		for (String actionName : actionNames) {
+			for (int i = 0; i < n; i++) {
+				explicitMDP.addTransitionCost(0, i, actionName, 1.0);
+			}
+		}
+
+		for (NativeSolutionMethod method : NativeSolutionMethod.values()) {
+			if (method == NativeSolutionMethod.BACKWARD_INDUCTION) {
+				// The self-loop makes the model cyclic
+				continue;
+			}
+
+			NativeConnectorSettings nativeConnSettings = new NativeConnectorSettings(null, method);
+			SSPSolver solver = new SSPSolver(explicitMDP, nativeConnSettings);
+			double[][] policy = new double[n][explicitMDP.getNumActions()];
+			LPSolution solution = solver.solveOptimalPolicy(policy);
+
+			assertTrue(solution.exists(), method + " found no solution");
+			assertEquals(solution.getObjectiveValue(), 2.5, EQUALITY_TOL, method + " value is not optimal");
+			assertEquals(policy[0][explicitMDP.getActionIndex("b")], 1.0, method + " takes the self-loop");
+		}
+	}
+
+	/**
+	 * States 0 and 1 form a zero-cost cycle via action "a". State 1 exits to the goal state 2 via action "b" at cost 1,
+	 * and state 0 exits via action "b" at cost 3. Therefore, V*(0) = V*(1) = 1, by moving to state 1 and taking its
+	 * exit.
+	 * 
+	 * The methods that do not handle zero-cost end components get the auxiliary cost on every step, as in
+	 * {@link NativeConnector}; it changes the values by at most 2 auxiliary costs.
+	 */
+	@Test(timeOut = 10000)
+	public void testZeroCostCycleWithExit() {
+		int a = 0;
+		int b = 1;
+		double[] optimalValues = null;
+
+		for (NativeSolutionMethod method : NativeSolutionMethod.values()) {
+			if (method == NativeSolutionMethod.BACKWARD_INDUCTION) {
+				// The zero-cost cycle makes the model cyclic
+				continue;
+			}
+
+			ExplicitMDP explicitMDP = new ExplicitMDP(3, new HashSet<>(Arrays.asList("a", "b")),
+					CostType.TRANSITION_COST, 1, 0, Collections.singleton(2));
+			explicitMDP.addTransitionProbability(0, "a", 1, 1.0);
+			explicitMDP.addTransitionProbability(1, "a", 0, 1.0);
+			explicitMDP.addTransitionProbability(0, "b", 2, 1.0);
+			explicitMDP.addTransitionProbability(1, "b", 2, 1.0);
+			explicitMDP.addTransitionCost(0, 0, "b", 3.0);
+			explicitMDP.addTransitionCost(0, 1, "b", 1.0);
+			if (!method.handlesZeroCostEndComponents()) {
+				for (int i = 0; i < 2; i++) {
+					explicitMDP.addObjectiveTransitionCost(i, a, explicitMDP.getObjectiveTransitionCost(i, a)
+							+ Constants.SSP_COST_OFFSET);
+					explicitMDP.addObjectiveTransitionCost(i, b, explicitMDP.getObjectiveTransitionCost(i, b)
+							+ Constants.SSP_COST_OFFSET);
+				}
+			}
+
+			NativeConnectorSettings nativeConnSettings = new NativeConnectorSettings(null, method);
+			SSPSolver solver = new SSPSolver(explicitMDP, nativeConnSettings);
+			double[] values = new double[3];
+			int[] policy = new int[3];
+			solver.solve(values, policy);
+
+			assertEquals(policy[0], a, method + " does not move towards the cheaper exit");
+			assertEquals(policy[1], b, method + " does not take the exit");
+			assertEquals(values[0], 1.0, EQUALITY_TOL, method + " value is not optimal");
+			assertEquals(values[1], 1.0, EQUALITY_TOL, method + " value is not optimal");
+
+			if (optimalValues == null) {
+				optimalValues = values;
+			} else {
+				for (int i = 0; i < 3; i++) {
+					assertEquals(values[i], optimalValues[i], EQUALITY_TOL, method + " values disagree");
+				}
+			}
+		}
+	}
+
+	/**
+	 * State 0 reaches the goal state 1 by either action "a", which costs (1, 3), or action "b", which costs (3, 1).
+	 * Both policies are vertices of the Pareto frontier.
+	 */
+	@Test
+	public void testParetoFrontierRestoresObjectiveCosts() {
+		ExplicitMDP explicitMDP = new ExplicitMDP(2, new HashSet<>(Arrays.asList("a", "b")),
+				CostType.TRANSITION_COST, 3, 0, Collections.singleton(1));
+		explicitMDP.addTransitionProbability(0, "a", 1, 1.0);
+		explicitMDP.addTransitionProbability(0, "b", 1, 1.0);
+		explicitMDP.addTransitionCost(1, 0, "a", 1.0);
+		explicitMDP.addTransitionCost(2, 0, "a", 3.0);
+		explicitMDP.addTransitionCost(1, 0, "b", 3.0);
+		explicitMDP.addTransitionCost(2, 0, "b", 1.0);
+		int a = explicitMDP.getActionIndex("a");
+		int b = explicitMDP.getActionIndex("b");
+		explicitMDP.addObjectiveTransitionCost(0, a, 5.0);
+		explicitMDP.addObjectiveTransitionCost(0, b, 7.0);
+
+		NativeConnectorSettings nativeConnSettings = new NativeConnectorSettings(null,
+				NativeSolutionMethod.GAUSS_SEIDEL);
+		ParetoFrontierSolver solver = new ParetoFrontierSolver(explicitMDP, new int[] { 1, 2 },
+				CostCriterion.TOTAL_COST, nativeConnSettings, 0, ParetoFrontierSolver.DEFAULT_TOLERANCE,
+				ParetoFrontierSolver.DEFAULT_MAX_WEIGHT_CHECKS);
+		assertEquals(solver.solve().size(), 2);
+		assertTrue(solver.isComplete());
+
+		// The weighted objective costs are not left in the explicit MDP
+		assertEquals(explicitMDP.getObjectiveTransitionCost(0, a), 5.0);
+		assertEquals(explicitMDP.getObjectiveTransitionCost(0, b), 7.0);
+	}
+
+	/**
+	 * Acyclic model: state 0 chooses between action "a", which reaches the goal state 3 via state 1 or 2 with equal
+	 * probability, and action "b", which goes to state 2. State 1 costs 4 to leave, and state 2 costs 1 to leave.
+	 * Therefore, V*(0) = min(1 + 0.5 * 4 + 0.5 * 1, 2 + 1) = 3, by action "b".
+	 */
+	@Test
+	public void testBackwardInductionOnAcyclicModel() {
+		ExplicitMDP explicitMDP = createAcyclicModel();
+		NativeConnectorSettings nativeConnSettings = new NativeConnectorSettings(null,
+				NativeSolutionMethod.BACKWARD_INDUCTION);
+		SSPSolver solver = new SSPSolver(explicitMDP, nativeConnSettings);
+		double[] values = new double[explicitMDP.getNumStates()];
+		int[] policy = new int[explicitMDP.getNumStates()];
+		solver.solve(values, policy);
+
+		assertEquals(values[0], 3.0, EQUALITY_TOL);
+		assertEquals(values[1], 4.0, EQUALITY_TOL);
+		assertEquals(values[2], 1.0, EQUALITY_TOL);
+		assertEquals(policy[0], explicitMDP.getActionIndex("b"));
+		assertEquals(policy[3], -1, "Goal state has an action");
+	}
+
+	@Test(expectedExceptions = IllegalStateException.class)
+	public void testBackwardInductionRejectsCyclicModel() {
+		ExplicitMDP explicitMDP = createAcyclicModel();
+		// Make state 2 loop back to state 0
+		explicitMDP.addTransitionProbability(2, "c", 0, 0.5);
+		explicitMDP.addTransitionProbability(2, "c", 3, 0.5);
+
+		NativeConnectorSettings nativeConnSettings = new NativeConnectorSettings(null,
+				NativeSolutionMethod.BACKWARD_INDUCTION);
+		SSPSolver solver = new SSPSolver(explicitMDP, nativeConnSettings);
+		int n = explicitMDP.getNumStates();
+		solver.solve(new double[n], new int[n]);
+	}
+
+	private ExplicitMDP createAcyclicModel() {
+		Set<String> actionNames = new HashSet<>(Arrays.asList("a", "b", "c"));
+		ExplicitMDP explicitMDP = new ExplicitMDP(4, actionNames, CostType.TRANSITION_COST, 1, 0,
+				Collections.singleton(3));
+		explicitMDP.addTransitionProbability(0, "a", 1, 0.5);
+		explicitMDP.addTransitionProbability(0, "a", 2, 0.5);
+		explicitMDP.addTransitionProbability(0, "b", 2, 1.0);
+		explicitMDP.addTransitionProbability(1, "c", 3, 1.0);
+		explicitMDP.addTransitionProbability(2, "c", 3, 1.0);
+		explicitMDP.addTransitionCost(0, 0, "a", 1.0);
+		explicitMDP.addTransitionCost(0, 0, "b", 2.0);
+		explicitMDP.addTransitionCost(0, 1, "c", 4.0);
+		explicitMDP.addTransitionCost(0, 2, "c", 1.0);
+		return explicitMDP;
+	}
+
+	@DataProvider(name = "xmdpProblems")
+	public Object[][] loadXMDPs() throws XMDPException, DSMException {
+		String mapsJsonDirPath = MobileRobotXPlanner.MAPS_PATH;
+		String missionsJsonDirPath = MobileRobotXPlanner.MISSIONS_PATH;
+		File mapsJsonDir = new File(mapsJsonDirPath);
+
+		MobileRobotXMDPLoader testLoader = new MobileRobotXMDPLoader(mapsJsonDir);
+		return XMDPDataProvider.loadXMDPs(missionsJsonDirPath, testLoader);
+	}
+
+	@BeforeMethod
+	public void printMissionFilename(Object[] data) {
+		if (data.length == 0) {
+			// Test without mission
+			return;
+		}
+		File missionJsonFile = (File) data[0];
+		SimpleConsoleLogger.log("Mission", missionJsonFile.getName(), true);
+	}
+}
@@ -1,6 +1,9 @@
 package examples.mobilerobot.tests;
 
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
@@ -24,6 +27,8 @@ import language.mdp.XMDP;
 import language.objectives.CostCriterion;
 import language.policy.Policy;
 import prism.PrismException;
+import solver.nativeconnector.XDTMCEvaluation;
+import solver.nativeconnector.XDTMCEvaluator;
 import solver.prismconnector.PrismAPIWrapper;
 import solver.prismconnector.PrismDTMCTranslator;
 import solver.prismconnector.PrismMDPTranslator;
@@ -36,6 +41,8 @@ import solver.prismconnector.explicitmodel.PrismExplicitModelReader;
 
 public class MobileRobotXDTMCTest {
 
+	private static final double EQUALITY_TOL = 1e-4;
+
 	@Test(dataProvider = "xdtmcSolutions")
 	public void testPrismDTMCTranslatorTransitionReward(PrismExplicitModelReader explicitDTMCReader, XDTMC xdtmc) {
 		try {
@@ -115,6 +122,51 @@ public class MobileRobotXDTMCTest {
 		}
 	}
 
+	@Test(dataProvider = "xdtmcSolutions")
+	public void testXDTMCEvaluatorConsistentWithPrism(PrismExplicitModelReader explicitDTMCReader, XDTMC xdtmc)
+			throws XMDPException {
+		XDTMCEvaluator evaluator = new XDTMCEvaluator(xdtmc, CostCriterion.TOTAL_COST);
+		XDTMCEvaluation evaluation = evaluator.evaluate();
+
+		PrismDTMCTranslator dtmcTranslator = new PrismDTMCTranslator(xdtmc);
+		String dtmcWithQAs = dtmcTranslator.getDTMCTranslation(true, false);
+
+		try {
+			PrismAPIWrapper prismAPI = new PrismAPIWrapper();
+
+			for (IQFunction<?, ?> qFunction : xdtmc.getXMDP().getQSpace()) {
+				String query = dtmcTranslator.getNumQueryPropertyTranslation(qFunction, CostCriterion.TOTAL_COST);
+				double prismValue = prismAPI.queryPropertyFromDTMC(dtmcWithQAs, query);
+				double nativeValue = evaluation.getQAValue(qFunction);
+
+				SimpleConsoleLogger.log("Native expected total " + qFunction.getName(), nativeValue, true);
+				assertEquals(nativeValue, prismValue, EQUALITY_TOL, qFunction.getName() + " differs from PRISM");
+			}
+
+			// Close down PRISM
+			prismAPI.terminatePrism();
+		} catch (PrismException | ResultParsingException e) {
+			e.printStackTrace();
+			fail("Exception thrown while PRISM model checking DTCM property");
+		}
+	}
+
+	@Test(dataProvider = "xdtmcSolutions")
+	public void testXDTMCEvaluatorBoundsBeforeConvergence(PrismExplicitModelReader explicitDTMCReader, XDTMC xdtmc)
+			throws XMDPException {
+		// A single iteration is not enough for every non-goal state to reach the goal
+		XDTMCEvaluator evaluator = new XDTMCEvaluator(xdtmc, CostCriterion.TOTAL_COST, 1e-6, 1);
+		XDTMCEvaluation evaluation = evaluator.evaluateWithBounds(1e-6);
+
+		assertTrue(evaluation.isComputedByValueIteration());
+		assertFalse(Double.isNaN(evaluation.getCost()), "Cost is NaN");
+		assertEquals(evaluation.getCostBounds().getWidth(), Double.POSITIVE_INFINITY);
+		for (IQFunction<?, ?> qFunction : xdtmc.getXMDP().getQSpace()) {
+			assertFalse(Double.isNaN(evaluation.getQAValue(qFunction)), qFunction.getName() + " is NaN");
+			assertTrue(evaluation.getQAValueBounds().get(qFunction).contains(evaluation.getQAValue(qFunction)));
+		}
+	}
+
 	@DataProvider(name = "xdtmcSolutions")
 	public Object[][] generateAdversaries()
 			throws IOException, ParseException, ResultParsingException, XMDPException, PrismException, DSMException {
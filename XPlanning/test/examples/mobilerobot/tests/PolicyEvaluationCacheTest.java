@@ -0,0 +1,172 @@
+package examples.mobilerobot.tests;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import examples.mobilerobot.models.Area;
+import examples.mobilerobot.models.Location;
+import examples.mobilerobot.models.MoveToAction;
+import explanation.analysis.ValueBounds;
+import language.domain.models.StateVarDefinition;
+import language.mdp.ActionSpace;
+import language.mdp.QSpace;
+import language.mdp.StateSpace;
+import language.mdp.StateVarTuple;
+import language.mdp.TransitionFunction;
+import language.mdp.XMDP;
+import language.objectives.CostCriterion;
+import language.objectives.CostFunction;
+import language.policy.Policy;
+import solver.prismconnector.PolicyEvaluationCache;
+import solver.prismconnector.PolicyEvaluationKey;
+
+public class PolicyEvaluationCacheTest {
+
+	private static final int NUM_LOCATIONS = 4;
+
+	private XMDP mXMDP;
+	private StateVarTuple[] mStates = new StateVarTuple[NUM_LOCATIONS];
+	private MoveToAction[] mMoveTos = new MoveToAction[NUM_LOCATIONS];
+
+	@BeforeMethod
+	public void setUp() {
+		Location[] locations = new Location[NUM_LOCATIONS];
+		for (int i = 0; i < NUM_LOCATIONS; i++) {
+			locations[i] = new Location("L" + i, Area.PUBLIC);
+		}
+		StateVarDefinition<Location> rLocDef = new StateVarDefinition<>("rLoc", locations);
+
+		for (int i = 0; i < NUM_LOCATIONS; i++) {
+			mStates[i] = new StateVarTuple();
+			mStates[i].addStateVar(rLocDef.getStateVar(locations[i]));
+			mMoveTos[i] = new MoveToAction(rLocDef.getStateVar(locations[i]));
+		}
+
+		mXMDP = new XMDP(new StateSpace(), new ActionSpace(), mStates[0], null, new TransitionFunction(),
+				new QSpace(), new CostFunction());
+	}
+
+	@Test
+	public void testHitAndMissCounts() {
+		PolicyEvaluationCache cache = new PolicyEvaluationCache();
+		PolicyEvaluationKey key = createKey(createPolicy(0));
+		PolicyEvaluationKey otherKey = createKey(createPolicy(1));
+
+		assertNull(cache.getCost(key));
+		cache.putCost(key, 5.0);
+		assertEquals(cache.getCost(key), 5.0);
+		assertNull(cache.getCost(otherKey));
+
+		// The entry exists, but its QA values are not cached
+		assertNull(cache.getQAValues(key));
+
+		// Look-ups of bounds are not counted
+		assertNull(cache.getCostBounds(key));
+
+		assertEquals(cache.getHitCount(), 1);
+		assertEquals(cache.getMissCount(), 3);
+	}
+
+	@Test
+	public void testEqualPoliciesShareEntry() {
+		PolicyEvaluationCache cache = new PolicyEvaluationCache();
+		cache.putCost(createKey(createPolicy(0)), 5.0);
+
+		// A different, but equal, policy object
+		assertEquals(cache.getCost(createKey(createPolicy(0))), 5.0);
+		assertEquals(cache.size(), 1);
+		assertEquals(cache.getHitCount(), 1);
+	}
+
+	@Test
+	public void testEvictsOldestEntries() {
+		PolicyEvaluationCache cache = new PolicyEvaluationCache(2);
+		PolicyEvaluationKey key0 = createKey(createPolicy(0));
+		PolicyEvaluationKey key1 = createKey(createPolicy(1));
+		PolicyEvaluationKey key2 = createKey(createPolicy(2));
+
+		cache.putCost(key0, 0.0);
+		cache.putCost(key1, 1.0);
+		// Adding to an existing entry does not create a new entry
+		cache.putCost(key0, 0.0);
+		assertEquals(cache.size(), 2);
+		assertEquals(cache.getEvictionCount(), 0);
+
+		cache.putCost(key2, 2.0);
+		assertEquals(cache.size(), 2);
+		assertEquals(cache.getEvictionCount(), 1);
+		assertNull(cache.getCost(key0), "Oldest entry is not evicted");
+		assertEquals(cache.getCost(key1), 1.0);
+		assertEquals(cache.getCost(key2), 2.0);
+	}
+
+	@Test
+	public void testModifyingPolicyAfterCaching() {
+		PolicyEvaluationCache cache = new PolicyEvaluationCache();
+		Policy policy = createPolicy(0);
+		cache.putCost(createKey(policy), 5.0);
+
+		policy.put(mStates[1], mMoveTos[2]);
+		assertNull(cache.getCost(createKey(policy)), "Modified policy hits the entry of the original policy");
+		assertEquals(cache.getCost(createKey(createPolicy(0))), 5.0, "Cached entry is corrupted by modification");
+	}
+
+	@Test
+	public void testSnapshotIsMemoizedUntilPolicyIsModified() {
+		Policy policy = createPolicy(0);
+		Policy snapshot = policy.freeze();
+		assertSame(policy.freeze(), snapshot);
+		assertSame(snapshot.freeze(), snapshot);
+
+		policy.put(mStates[1], mMoveTos[2]);
+		Policy newSnapshot = policy.freeze();
+		assertNotSame(newSnapshot, snapshot);
+		assertTrue(newSnapshot.equals(policy));
+		assertTrue(snapshot.equals(createPolicy(0)), "Snapshot is modified with the policy");
+	}
+
+	@Test
+	public void testBoundsPrecision() {
+		PolicyEvaluationCache cache = new PolicyEvaluationCache();
+		PolicyEvaluationKey key = createKey(createPolicy(0));
+		cache.putCost(key, 5.0);
+		assertNull(cache.getBoundsPrecision(key));
+
+		// Unknown bounds are cached together with the precision that interval iteration failed to reach
+		ValueBounds unknownBounds = new ValueBounds(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+		cache.putValueBounds(key, unknownBounds, Collections.emptyMap(), 1e-6);
+		cache.countValueIterationFallback();
+		assertEquals(cache.getCostBounds(key), unknownBounds);
+		assertEquals(cache.getBoundsPrecision(key), 1e-6);
+		assertEquals(cache.getValueIterationFallbackCount(), 1);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testNonPositiveMaxSize() {
+		new PolicyEvaluationCache(0);
+	}
+
+	/**
+	 *
+	 * @param i
+	 *            : Index of the only state of the policy
+	 * @return A policy that moves from location i to the next location
+	 */
+	private Policy createPolicy(int i) {
+		Policy policy = new Policy();
+		policy.put(mStates[i], mMoveTos[(i + 1) % NUM_LOCATIONS]);
+		return policy;
+	}
+
+	private PolicyEvaluationKey createKey(Policy policy) {
+		return new PolicyEvaluationKey(mXMDP, Collections.emptySet(), CostCriterion.TOTAL_COST, policy);
+	}
+}
@@ -0,0 +1,161 @@
+package examples.mobilerobot.tests;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Iterator;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import examples.mobilerobot.models.Area;
+import examples.mobilerobot.models.Location;
+import examples.mobilerobot.models.MoveToAction;
+import language.domain.models.StateVarDefinition;
+import language.exceptions.StateNotFoundException;
+import language.mdp.StateVarTuple;
+import language.policy.Decision;
+import language.policy.Policy;
+
+/**
+ * Policies are compared with {@link Policy#equals(Object)} rather than assertEquals, which compares iterables by their
+ * iteration order.
+ */
+public class PolicyTest {
+
+	private static final int NUM_LOCATIONS = 3;
+
+	private StateVarTuple[] mStates = new StateVarTuple[NUM_LOCATIONS];
+	private MoveToAction[] mMoveTos = new MoveToAction[NUM_LOCATIONS];
+
+	@BeforeMethod
+	public void setUp() {
+		Location[] locations = new Location[NUM_LOCATIONS];
+		for (int i = 0; i < NUM_LOCATIONS; i++) {
+			locations[i] = new Location("L" + i, Area.PUBLIC);
+		}
+		StateVarDefinition<Location> rLocDef = new StateVarDefinition<>("rLoc", locations);
+
+		for (int i = 0; i < NUM_LOCATIONS; i++) {
+			mStates[i] = new StateVarTuple();
+			mStates[i].addStateVar(rLocDef.getStateVar(locations[i]));
+			mMoveTos[i] = new MoveToAction(rLocDef.getStateVar(locations[i]));
+		}
+	}
+
+	@Test
+	public void testFreeze() throws StateNotFoundException {
+		Policy policy = createPolicy();
+		Policy frozenPolicy = policy.freeze();
+
+		assertFalse(policy.isFrozen());
+		assertTrue(frozenPolicy.isFrozen());
+		assertSame(frozenPolicy.freeze(), frozenPolicy);
+		assertTrue(frozenPolicy.equals(policy));
+		assertEquals(frozenPolicy.getAction(mStates[0]), mMoveTos[1]);
+	}
+
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void testPutAfterFreeze() {
+		createPolicy().freeze().put(mStates[2], mMoveTos[0]);
+	}
+
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void testRemoveAfterFreeze() {
+		createPolicy().freeze().remove(new Decision(mStates[0], mMoveTos[1]));
+	}
+
+	@Test(expectedExceptions = UnsupportedOperationException.class)
+	public void testIteratorRemoveAfterFreeze() {
+		Iterator<Decision> iter = createPolicy().freeze().iterator();
+		iter.next();
+		iter.remove();
+	}
+
+	@Test
+	public void testModifyAfterFreeze() throws StateNotFoundException {
+		Policy policy = createPolicy();
+		Policy frozenPolicy = policy.freeze();
+		int frozenHashCode = frozenPolicy.hashCode();
+
+		// Modifying the mutable policy does not affect its frozen copy
+		policy.put(mStates[0], mMoveTos[2]);
+		policy.put(mStates[2], mMoveTos[0]);
+		assertEquals(frozenPolicy.getAction(mStates[0]), mMoveTos[1]);
+		assertFalse(frozenPolicy.containsState(mStates[2]));
+		assertEquals(frozenPolicy.hashCode(), frozenHashCode);
+		assertTrue(frozenPolicy.equals(createPolicy()));
+		assertFalse(policy.equals(frozenPolicy));
+	}
+
+	@Test
+	public void testEqualityAndHashCode() {
+		Policy policy = createPolicy();
+		Policy otherPolicy = new Policy();
+		otherPolicy.put(mStates[1], mMoveTos[2]);
+		otherPolicy.put(mStates[0], mMoveTos[1]);
+
+		assertTrue(otherPolicy.equals(policy));
+		assertEquals(otherPolicy.hashCode(), policy.hashCode());
+		assertTrue(policy.freeze().equals(otherPolicy));
+		assertEquals(policy.freeze().hashCode(), otherPolicy.hashCode());
+
+		// Hash code is stable
+		assertEquals(policy.hashCode(), policy.hashCode());
+	}
+
+	@Test
+	public void testHashCodeResetOnPut() {
+		Policy policy = createPolicy();
+		// Cache the hash code
+		policy.hashCode();
+
+		policy.put(mStates[2], mMoveTos[0]);
+		Policy expectedPolicy = createPolicy();
+		expectedPolicy.put(mStates[2], mMoveTos[0]);
+		assertTrue(policy.equals(expectedPolicy));
+		assertEquals(policy.hashCode(), expectedPolicy.hashCode());
+	}
+
+	@Test
+	public void testHashCodeResetOnRemove() {
+		Policy policy = createPolicy();
+		// Cache the hash code
+		policy.hashCode();
+
+		policy.remove(new Decision(mStates[1], mMoveTos[2]));
+		Policy expectedPolicy = new Policy();
+		expectedPolicy.put(mStates[0], mMoveTos[1]);
+		assertTrue(policy.equals(expectedPolicy));
+		assertEquals(policy.hashCode(), expectedPolicy.hashCode());
+	}
+
+	@Test
+	public void testHashCodeResetOnIteratorRemove() {
+		Policy policy = createPolicy();
+		// Cache the hash code
+		policy.hashCode();
+
+		Iterator<Decision> iter = policy.iterator();
+		while (iter.hasNext()) {
+			iter.next();
+			iter.remove();
+		}
+		assertEquals(policy.size(), 0);
+		assertTrue(policy.equals(new Policy()));
+		assertEquals(policy.hashCode(), new Policy().hashCode());
+	}
+
+	/**
+	 *
+	 * @return A policy that moves from L0 to L1, and from L1 to L2
+	 */
+	private Policy createPolicy() {
+		Policy policy = new Policy();
+		policy.put(mStates[0], mMoveTos[1]);
+		policy.put(mStates[1], mMoveTos[2]);
+		return policy;
+	}
+}
@@ -0,0 +1,223 @@
+package examples.mobilerobot.tests;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Map.Entry;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import examples.mobilerobot.models.Area;
+import examples.mobilerobot.models.Location;
+import language.domain.models.StateVarDefinition;
+import language.exceptions.EffectNotFoundException;
+import language.exceptions.IncompatibleEffectClassException;
+import language.exceptions.IncompatibleVarException;
+import language.mdp.Effect;
+import language.mdp.EffectClass;
+import language.mdp.ProbabilisticEffect;
+import language.mdp.StateVarTuple;
+
+public class ProbabilisticEffectTest {
+
+	private static final double EPSILON = 1e-12;
+
+	private Location[] mLocations = new Location[2];
+
+	// Variables x, y, and z, each of which has 2 values
+	private StateVarDefinition<Location> mXDef;
+	private StateVarDefinition<Location> mYDef;
+	private StateVarDefinition<Location> mZDef;
+
+	@BeforeMethod
+	public void setUp() {
+		for (int i = 0; i < mLocations.length; i++) {
+			mLocations[i] = new Location("L" + i, Area.PUBLIC);
+		}
+		mXDef = new StateVarDefinition<>("x", mLocations);
+		mYDef = new StateVarDefinition<>("y", mLocations);
+		mZDef = new StateVarDefinition<>("z", mLocations);
+	}
+
+	@Test
+	public void testMarginalOfDisjointFactors() throws IncompatibleEffectClassException, IncompatibleVarException,
+			EffectNotFoundException {
+		// P(x=0) = 0.3, P(x=1) = 0.7
+		ProbabilisticEffect xEffect = createProbEffect(createEffectClass(mXDef), 0.3, 0.7);
+		// P(y=0, z=0) = 0.4, P(y=1, z=1) = 0.6
+		ProbabilisticEffect yzEffect = createProbEffect(createEffectClass(mYDef, mZDef), 0.4, 0.6);
+
+		ProbabilisticEffect product = new ProbabilisticEffect(createEffectClass(mXDef, mYDef, mZDef));
+		product.putAll(xEffect, yzEffect);
+
+		// Marginals are computed from the factors before the product is materialized
+		assertEquals(product.getMarginalProbability(createTuple(mXDef, 1)), 0.7, EPSILON);
+		assertEquals(product.getMarginalProbability(createTuple(mYDef, 0)), 0.4, EPSILON);
+		assertEquals(product.getMarginalProbability(createTuple(mXDef, 0, mZDef, 1)), 0.3 * 0.6, EPSILON);
+		assertEquals(product.getMarginalProbability(createTuple(mYDef, 0, mZDef, 1)), 0.0, EPSILON);
+		assertEquals(product.getMarginalProbability(new StateVarTuple()), 1.0, EPSILON);
+
+		// Variable outside of the effect class
+		StateVarDefinition<Location> wDef = new StateVarDefinition<>("w", mLocations);
+		assertEquals(product.getMarginalProbability(createTuple(wDef, 0)), 0.0, EPSILON);
+
+		// The materialized joint effects are consistent with the factored marginals
+		assertEquals(sumJointProbabilities(product, createTuple(mXDef, 1)), 0.7, EPSILON);
+		assertEquals(sumJointProbabilities(product, createTuple(mXDef, 0, mZDef, 1)), 0.3 * 0.6, EPSILON);
+		assertEquals(product.getProbability(createEffect(product.getEffectClass(), 1, 0, 0)), 0.7 * 0.4, EPSILON);
+
+		// Marginals after materialization
+		assertEquals(product.getMarginalProbability(createTuple(mXDef, 1)), 0.7, EPSILON);
+		assertEquals(product.getMarginalProbability(createTuple(mXDef, 0, mZDef, 1)), 0.3 * 0.6, EPSILON);
+	}
+
+	@Test
+	public void testMarginalOfOverlappingFactors() throws IncompatibleEffectClassException,
+			IncompatibleVarException {
+		// P(x=0, y=0) = 0.5, P(x=1, y=1) = 0.5
+		ProbabilisticEffect xyEffect = createProbEffect(createEffectClass(mXDef, mYDef), 0.5, 0.5);
+		// P(y=0, z=0) = 0.2, P(y=1, z=1) = 0.8
+		ProbabilisticEffect yzEffect = createProbEffect(createEffectClass(mYDef, mZDef), 0.2, 0.8);
+
+		ProbabilisticEffect product = new ProbabilisticEffect(createEffectClass(mXDef, mYDef, mZDef));
+		product.putAll(xyEffect, yzEffect);
+
+		// Factors are not independent -- marginals are computed from the joint effects
+		StateVarTuple[] subEffects = { createTuple(mXDef, 0), createTuple(mXDef, 1), createTuple(mYDef, 1),
+				createTuple(mXDef, 1, mZDef, 1), createTuple(mYDef, 0, mZDef, 0) };
+		for (StateVarTuple subEffect : subEffects) {
+			assertEquals(product.getMarginalProbability(subEffect), sumJointProbabilities(product, subEffect),
+					EPSILON, subEffect.toString());
+		}
+		assertEquals(product.getMarginalProbability(createTuple(mXDef, 1)), 0.5, EPSILON);
+	}
+
+	@Test
+	public void testPutAfterFactoredProduct() throws IncompatibleEffectClassException, IncompatibleVarException,
+			EffectNotFoundException {
+		ProbabilisticEffect xEffect = createProbEffect(createEffectClass(mXDef), 0.3, 0.7);
+		ProbabilisticEffect yEffect = createProbEffect(createEffectClass(mYDef), 0.5, 0.5);
+
+		EffectClass xyEffectClass = createEffectClass(mXDef, mYDef);
+		ProbabilisticEffect product = new ProbabilisticEffect(xyEffectClass);
+		product.putAll(xEffect, yEffect);
+
+		// Override one of the joint effects of the product
+		product.put(createEffect(xyEffectClass, 1, 1), 0.0);
+		assertEquals(product.getProbability(createEffect(xyEffectClass, 0, 1)), 0.3 * 0.5, EPSILON);
+		assertEquals(product.getProbability(createEffect(xyEffectClass, 1, 1)), 0.0, EPSILON);
+		assertEquals(product.getMarginalProbability(createTuple(mXDef, 1)), 0.7 * 0.5, EPSILON);
+	}
+
+	@Test
+	public void testEqualityOfFactoredAndExplicitProducts() throws IncompatibleEffectClassException,
+			IncompatibleVarException {
+		EffectClass xyEffectClass = createEffectClass(mXDef, mYDef);
+		ProbabilisticEffect product = new ProbabilisticEffect(xyEffectClass);
+		product.putAll(createProbEffect(createEffectClass(mXDef), 0.5, 0.5),
+				createProbEffect(createEffectClass(mYDef), 0.5, 0.5));
+
+		ProbabilisticEffect explicitProduct = new ProbabilisticEffect(xyEffectClass);
+		for (int x = 0; x < 2; x++) {
+			for (int y = 0; y < 2; y++) {
+				explicitProduct.put(createEffect(xyEffectClass, x, y), 0.25);
+			}
+		}
+
+		assertTrue(product.equals(explicitProduct));
+		assertEquals(product.hashCode(), explicitProduct.hashCode());
+	}
+
+	@Test(expectedExceptions = IncompatibleEffectClassException.class)
+	public void testPutAllIncompatibleEffect() throws IncompatibleEffectClassException, IncompatibleVarException {
+		ProbabilisticEffect probEffect = new ProbabilisticEffect(createEffectClass(mXDef, mYDef));
+		probEffect.putAll(createProbEffect(createEffectClass(mXDef), 0.5, 0.5));
+	}
+
+	@Test(expectedExceptions = IncompatibleEffectClassException.class)
+	public void testPutAllIncompleteFactors() throws IncompatibleEffectClassException, IncompatibleVarException {
+		// Union of the effect classes of the factors is only {x, y}
+		ProbabilisticEffect probEffect = new ProbabilisticEffect(createEffectClass(mXDef, mYDef, mZDef));
+		probEffect.putAll(createProbEffect(createEffectClass(mXDef), 0.5, 0.5),
+				createProbEffect(createEffectClass(mYDef), 0.5, 0.5));
+	}
+
+	@Test(expectedExceptions = IncompatibleEffectClassException.class)
+	public void testPutAllExtraFactor() throws IncompatibleEffectClassException, IncompatibleVarException {
+		// Union of the effect classes of the factors is {x, y, z}
+		ProbabilisticEffect probEffect = new ProbabilisticEffect(createEffectClass(mXDef, mYDef));
+		probEffect.putAll(createProbEffect(createEffectClass(mXDef), 0.5, 0.5),
+				createProbEffect(createEffectClass(mYDef), 0.5, 0.5),
+				createProbEffect(createEffectClass(mZDef), 0.5, 0.5));
+	}
+
+	@SafeVarargs
+	private static EffectClass createEffectClass(StateVarDefinition<Location>... varDefs) {
+		EffectClass effectClass = new EffectClass();
+		for (StateVarDefinition<Location> varDef : varDefs) {
+			effectClass.add(varDef);
+		}
+		return effectClass;
+	}
+
+	/**
+	 *
+	 * @return Probabilistic effect where all variables of the effect class have the same value: value 0 with
+	 *         probability prob0, and value 1 with probability prob1
+	 */
+	private ProbabilisticEffect createProbEffect(EffectClass effectClass, double prob0, double prob1)
+			throws IncompatibleEffectClassException, IncompatibleVarException {
+		ProbabilisticEffect probEffect = new ProbabilisticEffect(effectClass);
+		probEffect.put(createEffect(effectClass, 0, 0, 0), prob0);
+		probEffect.put(createEffect(effectClass, 1, 1, 1), prob1);
+		return probEffect;
+	}
+
+	/**
+	 *
+	 * @param effectClass
+	 * @param valueIndices
+	 *            : Index of the value of each variable of the effect class, in the order of the variables x, y, z --
+	 *            extra indices are ignored
+	 * @return Effect
+	 * @throws IncompatibleVarException
+	 */
+	private Effect createEffect(EffectClass effectClass, int... valueIndices) throws IncompatibleVarException {
+		Effect effect = new Effect(effectClass);
+		int i = 0;
+		for (StateVarDefinition<Location> varDef : new StateVarDefinition[] { mXDef, mYDef, mZDef }) {
+			if (effectClass.contains(varDef)) {
+				effect.add(varDef.getStateVar(mLocations[valueIndices[i++]]));
+			}
+		}
+		return effect;
+	}
+
+	private StateVarTuple createTuple(StateVarDefinition<Location> varDef, int valueIndex) {
+		StateVarTuple tuple = new StateVarTuple();
+		tuple.addStateVar(varDef.getStateVar(mLocations[valueIndex]));
+		return tuple;
+	}
+
+	private StateVarTuple createTuple(StateVarDefinition<Location> varDef1, int valueIndex1,
+			StateVarDefinition<Location> varDef2, int valueIndex2) {
+		StateVarTuple tuple = createTuple(varDef1, valueIndex1);
+		tuple.addStateVar(varDef2.getStateVar(mLocations[valueIndex2]));
+		return tuple;
+	}
+
+	/**
+	 *
+	 * @return Sum of the probabilities of all joint effects that contain the given values
+	 */
+	private static double sumJointProbabilities(ProbabilisticEffect probEffect, StateVarTuple subEffect) {
+		double sum = 0;
+		for (Entry<Effect, Double> e : probEffect) {
+			if (e.getKey().contains(subEffect)) {
+				sum += e.getValue();
+			}
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,188 @@
+package solver.prismconnector.explicitmodel;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import examples.mobilerobot.metrics.TravelTimeDomain;
+import examples.mobilerobot.metrics.TravelTimeQFunction;
+import examples.mobilerobot.models.Area;
+import examples.mobilerobot.models.Location;
+import examples.mobilerobot.models.MoveToAction;
+import examples.mobilerobot.models.RobotSpeed;
+import language.domain.models.ActionDefinition;
+import language.domain.models.StateVarDefinition;
+import language.mdp.ActionSpace;
+import language.mdp.QSpace;
+import language.mdp.StateSpace;
+import language.objectives.CostCriterion;
+import language.objectives.CostFunction;
+import solver.common.CostType;
+import solver.common.ExplicitMDP;
+import solver.prismconnector.PrismRewardType;
+import solver.prismconnector.ValueEncodingScheme;
+import solver.prismconnector.exceptions.ExplicitModelParsingException;
+
+/**
+ * Fixture: 3 states and 4 choices, where state 0 is the initial state and state 2 is the goal state.
+ *
+ * <pre>
+ * choice 0: state 0, "a" -> 0.5:1 0.5:2
+ * choice 1: state 0, "b" -> 1:2
+ * choice 2: state 1, "a" -> 0.25:0 0.75:2
+ * choice 3: state 2, "b" -> 1:2
+ * </pre>
+ *
+ * There are 2 reward structures: the cost function and 1 QA function.
+ */
+public class ExplicitMDPReaderTest {
+
+	private static final int[] CHOICE_OFFSETS = { 0, 2, 3, 4 };
+	private static final String[] CHOICE_ACTION_NAMES = { "a", "b", "a", "b" };
+	private static final int[] TRANSITION_OFFSETS = { 0, 2, 3, 5, 6 };
+	private static final int[] DEST_STATES = { 1, 2, 2, 0, 2, 2 };
+	private static final double[] PROBABILITIES = { 0.5, 0.5, 1, 0.25, 0.75, 1 };
+
+	// TRANSITION_REWARDS[k - 1][c] is the k-th transition reward of choice c
+	private static final double[][] TRANSITION_REWARDS = { { 1, 2.5, 3, 0 }, { 10, 0.125, 1e-3, 0 } };
+	// STATE_REWARDS[k - 1][i] is the k-th state reward of state i
+	private static final double[][] STATE_REWARDS = { { 1, 2, 0 }, { 0.3, 40, 0 } };
+
+	private File mModelDir;
+	private ValueEncodingScheme mEncodings;
+
+	@BeforeClass
+	public void setUp() throws IOException {
+		mModelDir = Files.createTempDirectory("explicit-mdp").toFile();
+		mModelDir.deleteOnExit();
+		writeFixtureFile("model.tra",
+				"3 4 6\n0 0.5:1 0.5:2 a\n0 1:2 b\n1 0.25:0 0.75:2 a\n2 1:2 b\n");
+		writeFixtureFile("model.lab", "0=\"init\" 1=\"deadlock\" 2=\"end\"\n0: 0\n2: 2\n");
+		writeFixtureFile("model1.trew", "3 4 3\n0 0 1 1\n0 0 2 1\n0 1 2 2.5\n1 0 0 3\n1 0 2 3\n");
+		writeFixtureFile("model2.trew", "3 4 4\n0 0 1 10\n0 0 2 10\n0 1 2 0.125\n1 0 0 1e-3\n1 0 2 1e-3\n");
+		writeFixtureFile("model1.srew", "3 2\n0 1\n1 2\n");
+		writeFixtureFile("model2.srew", "3 2\n0 0.3\n1 40\n");
+
+		mEncodings = createEncodings();
+	}
+
+	@Test
+	public void testStreamingTransitionRewards() throws IOException, ExplicitModelParsingException {
+		ExplicitMDP explicitMDP = readFromFiles(PrismRewardType.TRANSITION_REWARD);
+		assertEquals(explicitMDP, readFromModel(PrismRewardType.TRANSITION_REWARD, TRANSITION_REWARDS));
+
+		assertEquals(explicitMDP.getCostType(), CostType.TRANSITION_COST);
+		assertEquals(explicitMDP.getNumStates(), 3);
+		assertEquals(explicitMDP.getInitialState(), 0);
+		assertTrue(explicitMDP.getGoalStates().contains(2));
+		int a = explicitMDP.getActionIndex("a");
+		assertEquals(explicitMDP.getTransitionProbability(1, a, 0), 0.25);
+		assertEquals(explicitMDP.getTransitionProbability(1, a, 2), 0.75);
+	}
+
+	@Test
+	public void testStreamingStateRewards() throws IOException, ExplicitModelParsingException {
+		ExplicitMDP explicitMDP = readFromFiles(PrismRewardType.STATE_REWARD);
+		assertEquals(explicitMDP, readFromModel(PrismRewardType.STATE_REWARD, STATE_REWARDS));
+
+		assertEquals(explicitMDP.getCostType(), CostType.STATE_COST);
+		// The last reward structure is read
+		assertEquals(explicitMDP.getStateCost(2, 1), 40.0);
+	}
+
+	@Test
+	public void testRewardStructureIndexing() throws IOException, ExplicitModelParsingException {
+		// The k-th reward structure is read into the k-th cost function, on both the file and the in-memory paths
+		for (ExplicitMDP explicitMDP : new ExplicitMDP[] { readFromFiles(PrismRewardType.TRANSITION_REWARD),
+				readFromModel(PrismRewardType.TRANSITION_REWARD, TRANSITION_REWARDS) }) {
+			assertEquals(explicitMDP.getNumCostFunctions(), 3);
+			for (int i = 0; i < 3; i++) {
+				for (int c = CHOICE_OFFSETS[i]; c < CHOICE_OFFSETS[i + 1]; c++) {
+					int actionIndex = explicitMDP.getActionIndex(CHOICE_ACTION_NAMES[c]);
+					// 0-slot is reserved for the objective function
+					assertEquals(explicitMDP.getTransitionCost(0, i, actionIndex), 0.0);
+					for (int k = 1; k <= TRANSITION_REWARDS.length; k++) {
+						assertEquals(explicitMDP.getTransitionCost(k, i, actionIndex), TRANSITION_REWARDS[k - 1][c]);
+					}
+				}
+			}
+		}
+
+		for (ExplicitMDP explicitMDP : new ExplicitMDP[] { readFromFiles(PrismRewardType.STATE_REWARD),
+				readFromModel(PrismRewardType.STATE_REWARD, STATE_REWARDS) }) {
+			for (int i = 0; i < 3; i++) {
+				assertEquals(explicitMDP.getStateCost(0, i), 0.0);
+				for (int k = 1; k <= STATE_REWARDS.length; k++) {
+					assertEquals(explicitMDP.getStateCost(k, i), STATE_REWARDS[k - 1][i]);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testFewerRewardStructuresInModel() throws IOException, ExplicitModelParsingException {
+		// The in-memory model only has the reward structure of the cost function
+		double[][] costRewards = { TRANSITION_REWARDS[0] };
+		ExplicitMDP explicitMDP = readFromModel(PrismRewardType.TRANSITION_REWARD, costRewards);
+
+		assertEquals(explicitMDP.getNumCostFunctions(), 3);
+		int a = explicitMDP.getActionIndex("a");
+		assertEquals(explicitMDP.getTransitionCost(1, 1, a), TRANSITION_REWARDS[0][2]);
+		assertEquals(explicitMDP.getTransitionCost(2, 1, a), 0.0);
+	}
+
+	private ExplicitMDP readFromFiles(PrismRewardType prismRewardType)
+			throws IOException, ExplicitModelParsingException {
+		PrismExplicitModelPointer modelPointer = new PrismExplicitModelPointer(mModelDir.getPath(), prismRewardType);
+		PrismExplicitModelReader modelReader = new PrismExplicitModelReader(modelPointer, mEncodings);
+		return new ExplicitMDPReader(modelReader, CostCriterion.TOTAL_COST).readExplicitMDP();
+	}
+
+	private ExplicitMDP readFromModel(PrismRewardType prismRewardType, double[][] rewards)
+			throws IOException, ExplicitModelParsingException {
+		Map<String, BitSet> labels = new HashMap<>();
+		labels.put("init", BitSet.valueOf(new long[] { 0b001 }));
+		labels.put("deadlock", new BitSet());
+		labels.put("end", BitSet.valueOf(new long[] { 0b100 }));
+		Object[][] stateValues = { { 0 }, { 1 }, { 2 } };
+		PrismExplicitModel model = new PrismExplicitModel(new String[] { "x" }, stateValues, CHOICE_OFFSETS,
+				CHOICE_ACTION_NAMES, TRANSITION_OFFSETS, DEST_STATES, PROBABILITIES, prismRewardType, rewards, 0,
+				labels);
+		PrismExplicitModelPointer modelPointer = new PrismExplicitModelPointer(mModelDir.getPath(), prismRewardType);
+		PrismExplicitModelReader modelReader = new PrismExplicitModelReader(modelPointer, model, mEncodings);
+		return new ExplicitMDPReader(modelReader, CostCriterion.TOTAL_COST).readExplicitMDP();
+	}
+
+	/**
+	 *
+	 * @return Value encoding scheme with 2 reward structures: the cost function and the travel time QA function
+	 */
+	private static ValueEncodingScheme createEncodings() {
+		Location location = new Location("L0", Area.PUBLIC);
+		StateVarDefinition<Location> rLocDef = new StateVarDefinition<>("rLoc", location);
+		StateVarDefinition<RobotSpeed> rSpeedDef = new StateVarDefinition<>("rSpeed", new RobotSpeed(0.35));
+		ActionDefinition<MoveToAction> moveToDef = new ActionDefinition<>("moveTo",
+				new MoveToAction(rLocDef.getStateVar(location)));
+		TravelTimeDomain timeDomain = new TravelTimeDomain(rLocDef, rSpeedDef, moveToDef, rLocDef);
+
+		QSpace qSpace = new QSpace();
+		qSpace.addQFunction(new TravelTimeQFunction(timeDomain));
+		return new ValueEncodingScheme(new StateSpace(), new ActionSpace(), qSpace, new CostFunction());
+	}
+
+	private void writeFixtureFile(String filename, String content) throws IOException {
+		File file = new File(mModelDir, filename);
+		file.deleteOnExit();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.US_ASCII));
+	}
+}
@@ -0,0 +1,167 @@
+package solver.prismconnector.explicitmodel;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.testng.annotations.Test;
+
+public class PrismExplicitFileTokenizerTest {
+
+	@Test
+	public void testFastPathDecimals() throws IOException {
+		String[] decimals = { "0", "1", "-1", "+2", "0.5", "0.1", "0.3", "-0.7", "123.456", "0.000123",
+				"1.00000000000000", "0.123456789012345", "999999999999999", "3.141592653589793" };
+		assertParsedAsDoubles(decimals);
+	}
+
+	@Test
+	public void testExponents() throws IOException {
+		String[] decimals = { "1.5e-3", "2E+10", "1e22", "1e23", "4.9e-324", "1.7976931348623157E308", "2.5e-30",
+				"-6.02e23", "0e5", "1E0" };
+		assertParsedAsDoubles(decimals);
+	}
+
+	@Test
+	public void testManySignificantDigits() throws IOException {
+		// More than 15 significant digits fall back to Double.parseDouble
+		String[] decimals = { "0.1234567890123456789", "12345678901234567890", "0.30000000000000004",
+				"1.0000000000000002" };
+		assertParsedAsDoubles(decimals);
+	}
+
+	@Test
+	public void testInfinityAndNaN() throws IOException {
+		try (PrismExplicitFileTokenizer tokenizer = createTokenizer("Infinity -Infinity NaN\n")) {
+			assertTrue(tokenizer.nextToken());
+			assertEquals(tokenizer.tokenAsDouble(), Double.POSITIVE_INFINITY);
+			assertTrue(tokenizer.nextToken());
+			assertEquals(tokenizer.tokenAsDouble(), Double.NEGATIVE_INFINITY);
+			assertTrue(tokenizer.nextToken());
+			assertTrue(Double.isNaN(tokenizer.tokenAsDouble()));
+			assertFalse(tokenizer.nextToken());
+		}
+	}
+
+	@Test
+	public void testTransitionLine() throws IOException {
+		try (PrismExplicitFileTokenizer tokenizer = createTokenizer("3 4 5\n0 0.5:1 0.5:2 a\n1 1:2 b\n")) {
+			assertEquals(tokenizer.readLine(), "3 4 5");
+
+			assertTrue(tokenizer.nextToken());
+			assertEquals(tokenizer.tokenAsInt(), 0);
+			assertFalse(tokenizer.isFollowedByColon());
+			assertTrue(tokenizer.nextToken());
+			assertTrue(tokenizer.isFollowedByColon());
+			assertEquals(tokenizer.tokenAsDouble(), 0.5);
+			assertTrue(tokenizer.nextToken());
+			assertEquals(tokenizer.tokenAsInt(), 1);
+			assertFalse(tokenizer.isFollowedByColon());
+			tokenizer.skipLine();
+
+			assertTrue(tokenizer.nextToken());
+			assertEquals(tokenizer.tokenAsInt(), 1);
+			assertTrue(tokenizer.nextToken());
+			assertTrue(tokenizer.nextToken());
+			assertTrue(tokenizer.nextToken());
+			assertTrue(tokenizer.tokenEquals("b"));
+			assertTrue(tokenizer.isEndOfLine());
+			assertFalse(tokenizer.nextToken());
+		}
+	}
+
+	@Test
+	public void testCRLF() throws IOException {
+		try (PrismExplicitFileTokenizer tokenizer = createTokenizer("0=\"init\" 1=\"end\"\r\n0: 0\r\n2: 1\r\n")) {
+			assertEquals(tokenizer.readLine(), "0=\"init\" 1=\"end\"");
+			assertLine(tokenizer, 0, 0);
+			assertLine(tokenizer, 2, 1);
+			assertFalse(tokenizer.nextToken());
+			assertNull(tokenizer.readLine());
+		}
+	}
+
+	@Test
+	public void testMissingFinalEndOfLine() throws IOException {
+		try (PrismExplicitFileTokenizer tokenizer = createTokenizer("header\n0: 0\n2: 1")) {
+			assertEquals(tokenizer.readLine(), "header");
+			assertLine(tokenizer, 0, 0);
+			assertLine(tokenizer, 2, 1);
+			assertFalse(tokenizer.nextToken());
+		}
+
+		try (PrismExplicitFileTokenizer tokenizer = createTokenizer("no end of line")) {
+			assertEquals(tokenizer.readLine(), "no end of line");
+			assertNull(tokenizer.readLine());
+		}
+	}
+
+	@Test
+	public void testTokensAcrossBufferBoundary() throws IOException {
+		// Lines of different lengths, such that some tokens straddle the boundaries of the 64KB read buffer
+		int numLines = 20000;
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < numLines; i++) {
+			builder.append(i).append(' ').append(i % 7).append(".25\n");
+		}
+
+		try (PrismExplicitFileTokenizer tokenizer = createTokenizer(builder.toString())) {
+			for (int i = 0; i < numLines; i++) {
+				assertTrue(tokenizer.nextToken());
+				assertEquals(tokenizer.tokenAsInt(), i);
+				assertTrue(tokenizer.nextToken());
+				assertEquals(tokenizer.tokenAsDouble(), i % 7 + 0.25);
+				assertTrue(tokenizer.isEndOfLine());
+			}
+			assertFalse(tokenizer.nextToken());
+		}
+	}
+
+	@Test(expectedExceptions = NumberFormatException.class)
+	public void testMalformedInt() throws IOException {
+		try (PrismExplicitFileTokenizer tokenizer = createTokenizer("1.5\n")) {
+			tokenizer.nextToken();
+			tokenizer.tokenAsInt();
+		}
+	}
+
+	/**
+	 * Each decimal is parsed to the same double as {@link Double#parseDouble(String)}.
+	 */
+	private static void assertParsedAsDoubles(String[] decimals) throws IOException {
+		try (PrismExplicitFileTokenizer tokenizer = createTokenizer(String.join(" ", decimals) + "\n")) {
+			for (String decimal : decimals) {
+				assertTrue(tokenizer.nextToken());
+				assertEquals(Double.doubleToLongBits(tokenizer.tokenAsDouble()),
+						Double.doubleToLongBits(Double.parseDouble(decimal)), decimal);
+			}
+			assertFalse(tokenizer.nextToken());
+		}
+	}
+
+	/**
+	 * Assert that the next line has the format: "{state}: {label}".
+	 */
+	private static void assertLine(PrismExplicitFileTokenizer tokenizer, int state, int label) throws IOException {
+		assertTrue(tokenizer.nextToken());
+		assertEquals(tokenizer.tokenAsInt(), state);
+		assertTrue(tokenizer.isFollowedByColon());
+		assertFalse(tokenizer.isEndOfLine());
+		assertTrue(tokenizer.nextToken());
+		assertEquals(tokenizer.tokenAsInt(), label);
+		assertTrue(tokenizer.isEndOfLine());
+	}
+
+	private static PrismExplicitFileTokenizer createTokenizer(String content) throws IOException {
+		File file = File.createTempFile("tokenizer", ".tra");
+		file.deleteOnExit();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.US_ASCII));
+		return new PrismExplicitFileTokenizer(file);
+	}
+}
@@ -62,8 +62,10 @@ public class PrefAlignAgentGenerator {
 		PolicyReader policyReader = new PolicyReader(xmdp);
 		Policy agentPolicy = policyReader.readPolicy(policyJsonFile);
 
-		PrismConnector prismConnector = QuestionUtils.createPrismConnector(validationMissionFile, xmdp);
-		return prismConnector.buildPolicyInfo(agentPolicy);
+		// Close down PRISM when done
+		try (PrismConnector prismConnector = QuestionUtils.createPrismConnector(validationMissionFile, xmdp)) {
+			return prismConnector.buildPolicyInfo(agentPolicy);
+		}
 	}
 
 	public void writeAgentPolicyAndValues(File questionDir, QuantitativePolicy agentQuantPolicy, int agentIndex)
@@ -128,23 +130,22 @@ public class PrefAlignAgentGenerator {
 			throws DSMException, XMDPException, IOException, ParseException, PrismException, ResultParsingException {
 		XMDP xmdp = solnPolicyInfo.getXMDP();
 		PolicyReader policyReader = new PolicyReader(xmdp);
-		PrismConnector prismConnector = QuestionUtils.createPrismConnector(missionFile, xmdp);
-
 		FilenameFilter filter = (dir, name) -> name.matches("solnPolicy.json") || name.matches("altPolicy[0-9]+.json");
 		JSONObject scoreCardJsonObj = new JSONObject();
-		for (File policyJsonFile : agentExplanationDir.listFiles(filter)) {
-			Policy policy = policyReader.readPolicy(policyJsonFile);
-
-			// Compute cost of the agent (solution or alternative) policy, using the cost function of the mission
-			double agentPolicyCost = prismConnector.computeObjectiveCost(policy);
-			double solnPolicyCost = solnPolicyInfo.getObjectiveCost();
-			double alignmentScore = solnPolicyCost / agentPolicyCost;
-			String agentPolicyName = FilenameUtils.removeExtension(policyJsonFile.getName());
-			scoreCardJsonObj.put(agentPolicyName, alignmentScore);
-		}
 
-		// Close down PRISM
-		prismConnector.terminate();
+		// Close down PRISM when done
+		try (PrismConnector prismConnector = QuestionUtils.createPrismConnector(missionFile, xmdp)) {
+			for (File policyJsonFile : agentExplanationDir.listFiles(filter)) {
+				Policy policy = policyReader.readPolicy(policyJsonFile);
+
+				// Compute cost of the agent (solution or alternative) policy, using the cost function of the mission
+				double agentPolicyCost = prismConnector.computeObjectiveCost(policy);
+				double solnPolicyCost = solnPolicyInfo.getObjectiveCost();
+				double alignmentScore = solnPolicyCost / agentPolicyCost;
+				String agentPolicyName = FilenameUtils.removeExtension(policyJsonFile.getName());
+				scoreCardJsonObj.put(agentPolicyName, alignmentScore);
+			}
+		}
 
 		return scoreCardJsonObj;
 	}
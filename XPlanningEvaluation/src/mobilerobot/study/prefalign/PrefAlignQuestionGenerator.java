@@ -156,65 +156,65 @@ public class PrefAlignQuestionGenerator implements IQuestionGenerator {
 
 	private static JSONObject createAnswerKey(File missionFile, List<QuantitativePolicy> indexedAgentQuantPolicies,
 			PolicyInfo solnPolicyInfo) throws IOException, PrismException, ResultParsingException, XMDPException {
-		PrismConnector prismConnector = QuestionUtils.createPrismConnector(missionFile, solnPolicyInfo.getXMDP());
-
 		JSONObject answerKeyJsonObj = new JSONObject();
-		for (int i = 0; i < indexedAgentQuantPolicies.size(); i++) {
-			QuantitativePolicy agentQuantPolicy = indexedAgentQuantPolicies.get(i);
-			Policy agentPolicy = agentQuantPolicy.getPolicy();
-			Policy solnPolicy = solnPolicyInfo.getPolicy();
-
-			// Agent's proposed policy is aligned if:
-			// it is the same as the solution policy, OR
-			// its cost (using the cost function of the solution policy) is approximately equal to the solution policy's
-			// cost.
-			// The latter is the compensatory case.
-			String answer;
-			if (agentPolicy.equals(solnPolicy)) {
-				answer = "yes";
-			} else {
-				// Compute cost of the agent's proposed policy, using the cost function of the solution policy
-				double agentPolicyCost = prismConnector.computeObjectiveCost(agentPolicy);
-				double solnPolicyCost = solnPolicyInfo.getObjectiveCost();
 
-				if (Math.abs(agentPolicyCost - solnPolicyCost) <= EQUALITY_TOL) {
-					// Compensatory case: there are multiple different optimal policies to the cost function
+		// Close down PRISM when done
+		try (PrismConnector prismConnector = QuestionUtils.createPrismConnector(missionFile,
+				solnPolicyInfo.getXMDP())) {
+			for (int i = 0; i < indexedAgentQuantPolicies.size(); i++) {
+				QuantitativePolicy agentQuantPolicy = indexedAgentQuantPolicies.get(i);
+				Policy agentPolicy = agentQuantPolicy.getPolicy();
+				Policy solnPolicy = solnPolicyInfo.getPolicy();
+
+				// Agent's proposed policy is aligned if:
+				// it is the same as the solution policy, OR
+				// its cost (using the cost function of the solution policy) is approximately equal to the solution
+				// policy's cost.
+				// The latter is the compensatory case.
+				String answer;
+				if (agentPolicy.equals(solnPolicy)) {
 					answer = "yes";
 				} else {
-					answer = "no";
+					// Compute cost of the agent's proposed policy, using the cost function of the solution policy
+					double agentPolicyCost = prismConnector.computeObjectiveCost(agentPolicy);
+					double solnPolicyCost = solnPolicyInfo.getObjectiveCost();
+
+					if (Math.abs(agentPolicyCost - solnPolicyCost) <= EQUALITY_TOL) {
+						// Compensatory case: there are multiple different optimal policies to the cost function
+						answer = "yes";
+					} else {
+						answer = "no";
+					}
 				}
-			}
 
-			String agentPolicyName = "agentPolicy" + i;
-			answerKeyJsonObj.put(agentPolicyName, answer);
+				String agentPolicyName = "agentPolicy" + i;
+				answerKeyJsonObj.put(agentPolicyName, answer);
+			}
 		}
 
-		// Close down PRISM
-		prismConnector.terminate();
-
 		return answerKeyJsonObj;
 	}
 
 	private static JSONObject computeAlignmentScores(File missionFile,
 			List<QuantitativePolicy> indexedAgentQuantPolicies, PolicyInfo solnPolicyInfo)
 			throws IOException, PrismException, ResultParsingException, XMDPException {
-		PrismConnector prismConnector = QuestionUtils.createPrismConnector(missionFile, solnPolicyInfo.getXMDP());
-
 		JSONObject scoreCardJsonObj = new JSONObject();
-		for (int i = 0; i < indexedAgentQuantPolicies.size(); i++) {
-			QuantitativePolicy agentQuantPolicy = indexedAgentQuantPolicies.get(i);
-			Policy agentPolicy = agentQuantPolicy.getPolicy();
-
-			// Compute cost of the agent policy, using the cost function of the solution policy
-			double agentPolicyCost = prismConnector.computeObjectiveCost(agentPolicy);
-			double solnPolicyCost = solnPolicyInfo.getObjectiveCost();
-			double alignmentScore = solnPolicyCost / agentPolicyCost;
-			String agentPolicyName = "agentPolicy" + i;
-			scoreCardJsonObj.put(agentPolicyName, alignmentScore);
-		}
 
-		// Close down PRISM
-		prismConnector.terminate();
+		// Close down PRISM when done
+		try (PrismConnector prismConnector = QuestionUtils.createPrismConnector(missionFile,
+				solnPolicyInfo.getXMDP())) {
+			for (int i = 0; i < indexedAgentQuantPolicies.size(); i++) {
+				QuantitativePolicy agentQuantPolicy = indexedAgentQuantPolicies.get(i);
+				Policy agentPolicy = agentQuantPolicy.getPolicy();
+
+				// Compute cost of the agent policy, using the cost function of the solution policy
+				double agentPolicyCost = prismConnector.computeObjectiveCost(agentPolicy);
+				double solnPolicyCost = solnPolicyInfo.getObjectiveCost();
+				double alignmentScore = solnPolicyCost / agentPolicyCost;
+				String agentPolicyName = "agentPolicy" + i;
+				scoreCardJsonObj.put(agentPolicyName, alignmentScore);
+			}
+		}
 
 		return scoreCardJsonObj;
 	}
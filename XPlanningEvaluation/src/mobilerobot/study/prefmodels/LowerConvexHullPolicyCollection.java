@@ -130,13 +130,21 @@ public class LowerConvexHullPolicyCollection implements Iterable<Entry<PolicyInf
 		MobileRobotXPlanner xplanner = new MobileRobotXPlanner(mapsJsonDir, outputDirs, defaultVerbalizerSettings);
 		File outputDir = FileIOUtils.getOutputDir();
 		File missionsOfMapDir = new File(outputDir, "missions-of-" + mMapName);
+		List<File> missionJsonFiles = new ArrayList<>();
 		for (File missionJsonFile : missionsOfMapDir.listFiles()) {
 			// Adjust scaling consts in mission file s.t. all QA unit costs are rounded to nearest int
 			XMDP xmdp = xplanner.loadXMDPFromMissionFile(missionJsonFile);
 			adjustMissionFile(missionJsonFile, xmdp);
+			missionJsonFiles.add(missionJsonFile);
+		}
+
+		// Run planning using all mission.json files as input
+		// All missions are of the same map and differ only in their scaling consts, so they share a single model
+		List<PolicyInfo> policyInfos = xplanner.runPlanning(missionJsonFiles);
 
-			// Run planning using mission.json as input
-			PolicyInfo policyInfo = xplanner.runPlanning(missionJsonFile);
+		for (int i = 0; i < missionJsonFiles.size(); i++) {
+			File missionJsonFile = missionJsonFiles.get(i);
+			PolicyInfo policyInfo = policyInfos.get(i);
 
 			// Keep track of each LCH policy, its XMDP, and mission file that generates it
 			mPolicyInfos.put(policyInfo, missionJsonFile);
@@ -10,6 +10,7 @@ import explanation.analysis.PolicyInfo;
 import gurobi.GRBException;
 import language.domain.metrics.IQFunction;
 import language.domain.models.IAction;
+import language.dtmc.XDTMC;
 import language.exceptions.XMDPException;
 import language.mdp.StateVarTuple;
 import language.mdp.XMDP;
@@ -21,24 +22,31 @@ import models.hmodel.HPolicy;
 import prism.PrismException;
 import solver.gurobiconnector.GRBConnector;
 import solver.gurobiconnector.GRBConnectorSettings;
+import solver.nativeconnector.ExplicitXDTMC;
+import solver.prismconnector.PolicyEvaluationCache;
 import solver.prismconnector.PrismConnector;
 import solver.prismconnector.PrismConnectorSettings;
-import solver.prismconnector.ValueEncodingScheme;
 import solver.prismconnector.exceptions.ExplicitModelParsingException;
 import solver.prismconnector.exceptions.GoalStatesParsingException;
 import solver.prismconnector.exceptions.ResultParsingException;
-import solver.prismconnector.explicitmodel.PrismExplicitModelPointer;
 import solver.prismconnector.explicitmodel.PrismExplicitModelReader;
 
 public class HPlanner {
 
 	private CostCriterion mCostCriterion;
 	private PrismConnectorSettings mPrismConnSettings;
+	private PolicyEvaluationCache mPolicyEvalCache;
 
 	public HPlanner(CostCriterion costCriterion, PrismConnectorSettings prismConnSettings) {
+		this(costCriterion, prismConnSettings, new PolicyEvaluationCache());
+	}
+
+	public HPlanner(CostCriterion costCriterion, PrismConnectorSettings prismConnSettings,
+			PolicyEvaluationCache policyEvalCache) {
 		// Can potentially have HPlanner settings
 		mCostCriterion = costCriterion;
 		mPrismConnSettings = prismConnSettings;
+		mPolicyEvalCache = policyEvalCache;
 	}
 
 	public HPolicy computeHPolicy(HModel<? extends IAction> hModel, Policy queryPolicy, IQFunction<?, ?> queryQFunction)
@@ -71,17 +79,16 @@ public class HPlanner {
 			// Query XMDP has one of the resulting states of the why-not query as initial state
 			XMDP queryXMDP = hModel.getQueryXMDP(newIniState);
 
-			// Create new PrismConnector with the query state(s) as absorbing state(s)
-			PrismConnector prismConnectorForHModel = new PrismConnector(queryXMDP, queryStates, mCostCriterion,
-					mPrismConnSettings);
-
 			// Get QA value constraint on alternative policy starting from the new initial state
 			double qaValueConstraint = hModel.getQAValueConstraint(newIniState, queryQFunction);
 
-			// Compute a constraint-satisfying alternative policy starting from the new initial state
-			PolicyInfo partialHPolicy = null;
-			try {
-				partialHPolicy = computePartialHPolicyInfo(prismConnectorForHModel, queryQFunction, qaValueConstraint);
+			// Create new PrismConnector with the query state(s) as absorbing state(s)
+			// Close down PRISM when finishing with the new initial state
+			try (PrismConnector prismConnectorForHModel = new PrismConnector(queryXMDP, queryStates, mCostCriterion,
+					mPrismConnSettings, mPolicyEvalCache)) {
+				// Compute a constraint-satisfying alternative policy starting from the new initial state
+				PolicyInfo partialHPolicy = computePartialHPolicyInfo(prismConnectorForHModel, queryQFunction,
+						qaValueConstraint);
 
 				// If no QA-constraint-satisfying alternative policy exists, 
 				// try to compute alternative policy that satisfies why-not query
@@ -101,10 +108,6 @@ public class HPlanner {
 				// If the mapping from newIniStates to partialHPolicies is empty,
 				// HPolicy.solutionExists() will return false
 			}
-
-			// Close down PRISM
-			prismConnectorForHModel.terminate();
-
 		}
 
 		// Remove all "residual" decisions,
@@ -122,13 +125,10 @@ public class HPlanner {
 		CostCriterion costCriterion = prismConnectorForHModel.getCostCriterion();
 
 		// Use PrismConnector for HModel -- with query state(s) to be made absorbing state(s) in the underlying PRISM MDP model
-		// to export PRISM explicit model files from the XMDP,
+		// to build the PRISM explicit model of the XMDP in memory,
 		// so that GRBConnector can create the corresponding ExplicitMDP
 		// ExplicitMDP has the query state(s) as absorbing state(s)
-		PrismExplicitModelPointer prismExplicitModelPtr = prismConnectorForHModel.exportExplicitModelFiles();
-		ValueEncodingScheme encodings = prismConnectorForHModel.getPrismMDPTranslator().getValueEncodingScheme();
-		PrismExplicitModelReader prismExplicitModelReader = new PrismExplicitModelReader(prismExplicitModelPtr,
-				encodings);
+		PrismExplicitModelReader prismExplicitModelReader = prismConnectorForHModel.buildExplicitModelReader();
 
 		// GRBConnector
 		// To find an alternative policy that satisfies the why-not query and the QA value constraint query
@@ -138,32 +138,33 @@ public class HPlanner {
 		// AlternativeExplorer: use GRBConnector to compute a constraint-satisfying alternative policy on HModel,
 		// i.e., satisfying why-not query and improve the query QA
 		AlternativeExplorer altExplorer = new AlternativeExplorer(grbConnector);
-		return altExplorer.computeHardConstraintSatisfyingAlternative(queryXMDP, queryQFunction, qaValueConstraint);
+		try {
+			return altExplorer.computeHardConstraintSatisfyingAlternative(queryXMDP, queryQFunction, qaValueConstraint);
+		} finally {
+			grbConnector.dispose();
+		}
 	}
 
 	private void removeResidualQueryPolicy(XMDP originalXMDP, Policy queryPolicy, HPolicy hPolicyWithResidual)
-			throws PrismException, ResultParsingException, XMDPException {
+			throws XMDPException {
 		Policy totalHPolicyWithResidual = hPolicyWithResidual.getTotalHPolicy();
 
-		// Create PrismConnector for the original XMDP -- without a query state
-		PrismConnector prismConnector = new PrismConnector(originalXMDP, mCostCriterion, mPrismConnSettings);
+		// Explore the Markov chain induced by HPolicy on the original XMDP -- without a query state -- only once
+		// All states of the explicit chain are reachable from the original initial state with positive probability
+		XDTMC xdtmc = new XDTMC(originalXMDP, totalHPolicyWithResidual);
+		ExplicitXDTMC explicitXDTMC = new ExplicitXDTMC(xdtmc);
 
 		// Check each state that is in the query policy,
 		// whether it is reachable from the original initial state, following HPolicy
 		for (Decision originalDecision : queryPolicy) {
 			StateVarTuple originalState = originalDecision.getState();
 
-			double reachProb = prismConnector.computeReachabilityProbability(totalHPolicyWithResidual, originalState);
-
 			// Any state that is not reachable from the original initial state, following HPolicy,
 			// is to be removed from HPolicy
-			if (reachProb == 0) {
+			if (!explicitXDTMC.isReachable(originalState)) {
 				hPolicyWithResidual.removeResidualDecision(originalDecision);
 			}
 		}
-
-		// Close down PRISM
-		prismConnector.terminate();
 	}
 
 }
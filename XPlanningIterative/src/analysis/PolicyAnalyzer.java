@@ -8,6 +8,7 @@ import language.objectives.CostCriterion;
 import language.policy.Policy;
 import models.hmodel.HPolicy;
 import prism.PrismException;
+import solver.prismconnector.PolicyEvaluationCache;
 import solver.prismconnector.PrismConnector;
 import solver.prismconnector.PrismConnectorSettings;
 import solver.prismconnector.exceptions.ResultParsingException;
@@ -17,11 +18,18 @@ public class PolicyAnalyzer {
 	private XMDP mXMDP;
 	private CostCriterion mCostCriterion;
 	private PrismConnectorSettings mPrismConnSettings;
+	private PolicyEvaluationCache mPolicyEvalCache;
 
 	public PolicyAnalyzer(XMDP xmdp, CostCriterion costCriterion, PrismConnectorSettings prismConnSettings) {
+		this(xmdp, costCriterion, prismConnSettings, new PolicyEvaluationCache());
+	}
+
+	public PolicyAnalyzer(XMDP xmdp, CostCriterion costCriterion, PrismConnectorSettings prismConnSettings,
+			PolicyEvaluationCache policyEvalCache) {
 		mXMDP = xmdp;
 		mCostCriterion = costCriterion;
 		mPrismConnSettings = prismConnSettings;
+		mPolicyEvalCache = policyEvalCache;
 	}
 
 	public PolicyInfo computePartialPolicyInfo(Policy policy, StateVarTuple queryState)
@@ -33,31 +41,23 @@ public class PolicyAnalyzer {
 		XMDP queryXMDP = new XMDP(mXMDP.getStateSpace(), mXMDP.getActionSpace(), queryState, mXMDP.getGoal(),
 				mXMDP.getTransitionFunction(), mXMDP.getQSpace(), mXMDP.getCostFunction());
 
-		// Create PrismConnector (without the query state as absorbing state)
-		PrismConnector prismConnector = new PrismConnector(queryXMDP, mCostCriterion, mPrismConnSettings);
-
-		// Compute QA values, objective cost, scaled QA costs of the policy, starting from the query state
-		PolicyInfo partialPolicyInfo = prismConnector.buildPolicyInfo(policy);
-
-		// Close down PRISM
-		prismConnector.terminate();
-
-		return partialPolicyInfo;
+		// Create PrismConnector (without the query state as absorbing state), and close down PRISM when done
+		try (PrismConnector prismConnector = new PrismConnector(queryXMDP, null, mCostCriterion, mPrismConnSettings,
+				mPolicyEvalCache)) {
+			// Compute QA values, objective cost, scaled QA costs of the policy, starting from the query state
+			return prismConnector.buildPolicyInfo(policy);
+		}
 	}
 
 	public PolicyInfo computeHPolicyInfo(HPolicy hPolicy) throws PrismException, ResultParsingException, XMDPException {
 		Policy totalHPolicy = hPolicy.getTotalHPolicy();
 
-		// Create PrismConnector for the original XMDP
-		PrismConnector prismConnector = new PrismConnector(mXMDP, mCostCriterion, mPrismConnSettings);
-
-		// Compute QA values, objective cost, scaled QA costs of the total HPolicy, starting from the initial state of the original XMDP
-		PolicyInfo totalHPolicyInfo = prismConnector.buildPolicyInfo(totalHPolicy);
-
-		// Close down PRISM
-		prismConnector.terminate();
-
-		return totalHPolicyInfo;
+		// Create PrismConnector for the original XMDP, and close down PRISM when done
+		try (PrismConnector prismConnector = new PrismConnector(mXMDP, null, mCostCriterion, mPrismConnSettings,
+				mPolicyEvalCache)) {
+			// Compute QA values, objective cost, scaled QA costs of the total HPolicy, starting from the initial state of the original XMDP
+			return prismConnector.buildPolicyInfo(totalHPolicy);
+		}
 	}
 
 	public XMDP getXMDP() {
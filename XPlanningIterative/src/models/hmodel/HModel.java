@@ -2,7 +2,6 @@ package models.hmodel;
 
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -204,47 +203,19 @@ public class HModel<E extends IAction> {
 
 	private ProbabilisticEffect combineProbabilisticEffects(Set<ProbabilisticEffect> probEffects)
 			throws IncompatibleEffectClassException {
-		Iterator<ProbabilisticEffect> iter = probEffects.iterator();
-		ProbabilisticEffect probEffect = iter.next();
-		iter.remove();
-		return combineProbabilisticEffectsHelper(probEffect, probEffects);
-	}
-
-	private ProbabilisticEffect combineProbabilisticEffectsHelper(ProbabilisticEffect probEffect,
-			Set<ProbabilisticEffect> otherProbEffects) throws IncompatibleEffectClassException {
-		if (otherProbEffects.isEmpty()) {
-			return probEffect;
+		if (probEffects.size() == 1) {
+			return probEffects.iterator().next();
 		}
 
-		Iterator<ProbabilisticEffect> iter = otherProbEffects.iterator();
-		ProbabilisticEffect otherProbEffect = iter.next();
-		iter.remove();
-
 		EffectClass combinedEffectClass = new EffectClass();
-		combinedEffectClass.addAll(probEffect.getEffectClass());
-		combinedEffectClass.addAll(otherProbEffect.getEffectClass());
-
-		ProbabilisticEffect combinedProbEffect = new ProbabilisticEffect(combinedEffectClass);
-
-		for (Entry<Effect, Double> eA : probEffect) {
-			Effect effectA = eA.getKey();
-			double probA = eA.getValue();
-
-			for (Entry<Effect, Double> eB : otherProbEffect) {
-				Effect effectB = eB.getKey();
-				double probB = eB.getValue();
-
-				Effect combinedEffect = new Effect(combinedEffectClass);
-				combinedEffect.addAll(effectA);
-				combinedEffect.addAll(effectB);
-
-				double combinedProb = probA * probB;
-
-				combinedProbEffect.put(combinedEffect, combinedProb);
-			}
+		for (ProbabilisticEffect probEffect : probEffects) {
+			combinedEffectClass.addAll(probEffect.getEffectClass());
 		}
 
-		return combineProbabilisticEffectsHelper(combinedProbEffect, otherProbEffects);
+		// Product of the independent probabilistic effects
+		ProbabilisticEffect combinedProbEffect = new ProbabilisticEffect(combinedEffectClass);
+		combinedProbEffect.putAll(probEffects.toArray(new ProbabilisticEffect[probEffects.size()]));
+		return combinedProbEffect;
 	}
 
 	private void createQueryXMDPs() {
@@ -33,6 +33,7 @@ import models.hmodel.HModel;
 import models.hmodel.HModelGenerator;
 import models.hmodel.HPolicy;
 import prism.PrismException;
+import solver.prismconnector.PolicyEvaluationCache;
 import solver.prismconnector.PrismConnectorSettings;
 import solver.prismconnector.exceptions.PrismConnectorException;
 import uiconnector.ExplanationWriter;
@@ -70,7 +71,9 @@ public class WhyNotXPlanner {
 
 		// HModelGenerator and PolicyAnalyzer
 		PrismConnectorSettings prismConnSettings = XPlanner.createPrismConnectorSettings(problemFile, mOutputDirs);
-		PolicyAnalyzer policyAnalyzer = new PolicyAnalyzer(xmdp, costCriterion, prismConnSettings);
+		// Policy evaluations are shared by PolicyAnalyzer and HPlanner
+		PolicyEvaluationCache policyEvalCache = new PolicyEvaluationCache();
+		PolicyAnalyzer policyAnalyzer = new PolicyAnalyzer(xmdp, costCriterion, prismConnSettings, policyEvalCache);
 		HModelGenerator hModelGenerator = new HModelGenerator(policyAnalyzer, nonRepeatableQueryVarName);
 
 		// Query policy
@@ -86,7 +89,7 @@ public class WhyNotXPlanner {
 
 		// HModel and HPlanner
 		HModel<?> hModel = hModelGenerator.generateHModel(queryPolicy, queryState, queryAction, preConfigActions);
-		HPlanner hPlanner = new HPlanner(costCriterion, prismConnSettings);
+		HPlanner hPlanner = new HPlanner(costCriterion, prismConnSettings, policyEvalCache);
 
 		// HPolicy and HPolicyExplainer
 		HPolicy hPolicy = hPlanner.computeHPolicy(hModel, queryPolicy, whyNotQuery.getQueryQFunction());